@@ -0,0 +1,21 @@
+package com.satelliteTracking.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * Orologio usato da servizi, controller e scheduler al posto di LocalDateTime.now().
+ * È in UTC come tutti i LocalDateTime dell'applicazione (epoche, passaggi, fette del cache),
+ * indipendentemente dal fuso orario del server.
+ * Nei test e nei benchmark può essere sostituito con Clock.fixed per ottenere risultati riproducibili.
+ */
+@Configuration
+public class ClockConfig {
+
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+}
@@ -0,0 +1,45 @@
+package com.satelliteTracking.config;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool di thread condiviso per i calcoli orbitali pesanti (propagazioni in batch,
+ * screening, precalcoli). Dimensionato sul numero di core disponibili.
+ *
+ * Non è esposto come bean Executor per non sostituire l'executor
+ * che Spring Boot configura per le richieste asincrone.
+ */
+@Component
+public class ComputePool {
+
+    private final int parallelism;
+    private final ExecutorService executor;
+
+    public ComputePool() {
+        this.parallelism = Math.max(2, Runtime.getRuntime().availableProcessors());
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "compute-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
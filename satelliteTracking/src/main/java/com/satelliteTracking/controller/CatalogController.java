@@ -0,0 +1,83 @@
+package com.satelliteTracking.controller;
+
+import com.satelliteTracking.service.CatalogImportService;
+import com.satelliteTracking.util.ElementSetReader;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/catalog")
+@CrossOrigin(origins = "*")
+public class CatalogController {
+
+    private final CatalogImportService importService;
+    private final Clock clock;
+
+    public CatalogController(CatalogImportService importService, Clock clock) {
+        this.importService = importService;
+        this.clock = clock;
+    }
+
+    /**
+     * Importa set di elementi dal corpo della richiesta, letto in streaming
+     *
+     * POST /api/catalog/import?format=tle&group=stations
+     * curl --data-binary @catalog.tle -H "Content-Type: text/plain" "http://localhost:8080/api/catalog/import?format=tle"
+     *
+     * @param format tle (anche 3le), json, xml o csv (OMM)
+     * @param group tipo dei satelliti importati; se assente i satelliti già classificati mantengono il loro
+     */
+    @PostMapping("/import")
+    public ResponseEntity<Map<String, Object>> importCatalog(
+            @RequestParam String format,
+            @RequestParam(required = false) String group,
+            InputStream body) {
+
+        ElementSetReader.Format parsedFormat = ElementSetReader.Format.fromString(format);
+        if (parsedFormat == null) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "format deve essere tle, json, xml o csv",
+                "received", format
+            ));
+        }
+        String importGroup = group != null && !group.isBlank() ? group.trim() : null;
+
+        CatalogImportService.ImportSummary summary;
+        try {
+            summary = importService.importStream("richiesta HTTP", body, parsedFormat, importGroup);
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "File non leggibile come " + format + ": " + e.getMessage(),
+                "received", format
+            ));
+        }
+        if (summary == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "status", "running",
+                "message", "Un aggiornamento del catalogo è già in corso"
+            ));
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("timestamp", LocalDateTime.now(clock));
+        response.put("format", parsedFormat);
+        response.put("group", importGroup);
+        response.put("received", summary.received());
+        response.put("rejected", summary.rejected());
+        response.put("newSatellites", summary.newSatellites());
+        response.put("changed", summary.changed());
+        response.put("unchanged", summary.unchanged());
+        response.put("elementSets", summary.elementSets());
+        response.put("published", summary.published());
+        response.put("durationMs", summary.durationMs());
+        return ResponseEntity.ok(response);
+    }
+}
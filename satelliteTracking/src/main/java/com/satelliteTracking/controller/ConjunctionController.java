@@ -0,0 +1,103 @@
+package com.satelliteTracking.controller;
+
+import com.satelliteTracking.dto.ConjunctionScreeningReportDTO;
+import com.satelliteTracking.service.ConjunctionScreeningService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/conjunctions")
+@CrossOrigin(origins = "*")
+public class ConjunctionController {
+
+    private final ConjunctionScreeningService screeningService;
+    private final Clock clock;
+
+    public ConjunctionController(ConjunctionScreeningService screeningService, Clock clock) {
+        this.screeningService = screeningService;
+        this.clock = clock;
+    }
+
+    /**
+     * Avvia uno screening delle congiunzioni su tutto il catalogo (o su un gruppo)
+     *
+     * POST /api/conjunctions/screen?horizonHours=24&stepSeconds=30&thresholdKm=5&group=starlink
+     */
+    @PostMapping("/screen")
+    public ResponseEntity<Map<String, Object>> startScreening(
+            @RequestParam(required = false) Integer horizonHours,
+            @RequestParam(required = false) Integer stepSeconds,
+            @RequestParam(required = false) Double thresholdKm,
+            @RequestParam(required = false) String group) {
+
+        if (horizonHours != null && (horizonHours < 1 || horizonHours > 168)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "horizonHours deve essere tra 1 e 168",
+                "received", horizonHours
+            ));
+        }
+        if (stepSeconds != null && (stepSeconds < 5 || stepSeconds > 120)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "stepSeconds deve essere tra 5 e 120",
+                "received", stepSeconds
+            ));
+        }
+        if (thresholdKm != null && (thresholdKm <= 0 || thresholdKm > 50)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "thresholdKm deve essere tra 0 e 50",
+                "received", thresholdKm
+            ));
+        }
+
+        boolean started = screeningService.startScreening(horizonHours, stepSeconds, thresholdKm, group);
+        if (!started) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "status", "running",
+                "message", "Uno screening è già in corso"
+            ));
+        }
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+            "status", "started",
+            "message", "Screening avviato, risultato su /api/conjunctions/latest"
+        ));
+    }
+
+    /**
+     * Ultimo report di screening disponibile
+     *
+     * GET /api/conjunctions/latest
+     */
+    @GetMapping("/latest")
+    public ResponseEntity<ConjunctionScreeningReportDTO> getLatestReport() {
+        ConjunctionScreeningReportDTO report = screeningService.getLastReport();
+        if (report == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     * Stato dello screening
+     *
+     * GET /api/conjunctions/status
+     */
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        ConjunctionScreeningReportDTO report = screeningService.getLastReport();
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("timestamp", LocalDateTime.now(clock));
+        response.put("running", screeningService.isRunning());
+        response.put("lastCompletedAt", report != null ? report.completedAt() : null);
+        response.put("lastConjunctionsFound", report != null ? report.conjunctionsFound() : null);
+        response.put("lastTotalMs", report != null ? report.totalMs() : null);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -1,22 +1,42 @@
 package com.satelliteTracking.controller;
 
+import com.satelliteTracking.dto.BatchPassRequestDTO;
+import com.satelliteTracking.dto.DayPassesDTO;
+import com.satelliteTracking.dto.ObserverPassesDTO;
 import com.satelliteTracking.dto.OrbitalParametersDTO;
+import com.satelliteTracking.dto.ObserverRadioPassesDTO;
+import com.satelliteTracking.dto.OverheadSatelliteDTO;
 import com.satelliteTracking.dto.SatelliteDTO;
 import com.satelliteTracking.dto.SatellitePassDTO;
 import com.satelliteTracking.dto.SatelliteWithHistoryDTO;
+import com.satelliteTracking.dto.StationaryObjectDTO;
+import com.satelliteTracking.model.CatalogEntry;
 import com.satelliteTracking.model.ObserverLocation;
+import com.satelliteTracking.model.OrbitRegime;
 import com.satelliteTracking.model.OrbitalParameters;
+import com.satelliteTracking.model.PassMode;
+import com.satelliteTracking.model.PassQueryFilter;
 import com.satelliteTracking.model.Satellite;
 import com.satelliteTracking.model.TelegramSubscription;
 import com.satelliteTracking.repository.OrbitalParametersRepository;
 import com.satelliteTracking.repository.SatelliteRepository;
+import com.satelliteTracking.service.BatchPassService;
 import com.satelliteTracking.service.GeocodingService;
+import com.satelliteTracking.service.LongHorizonPassService;
 import com.satelliteTracking.service.SatellitePassService;
+import com.satelliteTracking.service.SatellitePositionIndexService;
+import com.satelliteTracking.service.TrackingService;
 import com.satelliteTracking.service.TelegramNotificationService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.LinkedHashMap;
@@ -31,17 +51,39 @@ public class SatelliteController {
     private final SatellitePassService satellitePassService;
     private final TelegramNotificationService telegramNotificationService;
     private final GeocodingService geocodingService;
+    private final SatellitePositionIndexService positionIndexService;
+    private final BatchPassService batchPassService;
+    private final TrackingService trackingService;
+    private final LongHorizonPassService longHorizonPassService;
+    private final Clock clock;
+
+    // Limiti delle richieste batch
+    private static final int MAX_BATCH_OBSERVERS = 100;
+    private static final int MAX_BATCH_SATELLITES = 1000;
+
+    // Satelliti al massimo in una previsione su più giorni
+    private static final int MAX_LONG_HORIZON_SATELLITES = 200;
 
     public SatelliteController(SatelliteRepository satelliteRepository, 
                                OrbitalParametersRepository orbitalParametersRepository,
                                SatellitePassService satellitePassService,
                                TelegramNotificationService telegramNotificationService,
-                               GeocodingService geocodingService) {
+                               GeocodingService geocodingService,
+                               SatellitePositionIndexService positionIndexService,
+                               BatchPassService batchPassService,
+                               TrackingService trackingService,
+                               LongHorizonPassService longHorizonPassService,
+                               Clock clock) {
         this.satelliteRepository = satelliteRepository;
         this.orbitalParametersRepository = orbitalParametersRepository;
         this.satellitePassService = satellitePassService;
         this.telegramNotificationService = telegramNotificationService;
         this.geocodingService = geocodingService;
+        this.positionIndexService = positionIndexService;
+        this.batchPassService = batchPassService;
+        this.trackingService = trackingService;
+        this.longHorizonPassService = longHorizonPassService;
+        this.clock = clock;
     }
 
     /**
@@ -145,12 +187,25 @@ public class SatelliteController {
      * 
      * @param id ID del satellite
      * @param hours numero di ore nel futuro da analizzare (default: 24)
+     * @param mode "optical" o "radio" (default: optical)
+     * @param minElevation elevazione minima in modalità radio (default: 0)
      * @return lista dei passaggi visibili
      */
     @GetMapping("/{id}/passes")
-    public ResponseEntity<List<SatellitePassDTO>> getSatellitePasses(
+    public ResponseEntity<?> getSatellitePasses(
             @PathVariable Long id,
-            @RequestParam(defaultValue = "24") int hours) {
+            @RequestParam(defaultValue = "24") int hours,
+            @RequestParam(defaultValue = "optical") String mode,
+            @RequestParam(defaultValue = "0") double minElevation) {
+
+        PassMode passMode = PassMode.fromString(mode);
+        if (passMode == null) {
+            return invalidMode(mode);
+        }
+        if (passMode == PassMode.RADIO) {
+            return ResponseEntity.ok(satellitePassService.calculateRadioPasses(
+                id, hours, satellitePassService.getDefaultLocation(), minElevation));
+        }
         
         List<SatellitePassDTO> passes = satellitePassService.calculatePasses(id, hours);
         return ResponseEntity.ok(passes);
@@ -164,21 +219,141 @@ public class SatelliteController {
      * @param lon longitudine dell'osservatore
      * @param alt altitudine dell'osservatore in metri (default: 0)
      * @param hours numero di ore nel futuro da analizzare (default: 24)
+     * @param mode "optical" o "radio" (default: optical)
+     * @param minElevation elevazione minima in modalità radio (default: 0)
      * @return lista dei passaggi visibili
      */
     @GetMapping("/{id}/passes/custom")
-    public ResponseEntity<List<SatellitePassDTO>> getSatellitePassesCustomLocation(
+    public ResponseEntity<?> getSatellitePassesCustomLocation(
             @PathVariable Long id,
             @RequestParam double lat,
             @RequestParam double lon,
             @RequestParam(defaultValue = "0") double alt,
-            @RequestParam(defaultValue = "24") int hours) {
+            @RequestParam(defaultValue = "24") int hours,
+            @RequestParam(defaultValue = "optical") String mode,
+            @RequestParam(defaultValue = "0") double minElevation) {
+
+        PassMode passMode = PassMode.fromString(mode);
+        if (passMode == null) {
+            return invalidMode(mode);
+        }
         
         ObserverLocation customLocation = new ObserverLocation(lat, lon, alt);
+        if (passMode == PassMode.RADIO) {
+            return ResponseEntity.ok(satellitePassService.calculateRadioPasses(id, hours, customLocation,
+                                                                               minElevation));
+        }
         List<SatellitePassDTO> passes = satellitePassService.calculatePasses(id, hours, customLocation);
         return ResponseEntity.ok(passes);
     }
 
+    /**
+     * Tabella di puntamento ad alta frequenza per le stazioni di terra:
+     * azimuth, elevazione, distanza, velocità radiale e Doppler.
+     * Senza start viene tracciato il prossimo passaggio (entro 24 ore).
+     * La tabella è inviata in streaming (CSV o NDJSON).
+     *
+     * GET /api/satellites/{id}/track?latitude=41.01&longitude=14.30&rate=10&frequencyMHz=437.8
+     *
+     * @param id ID del satellite
+     * @param latitude latitudine osservatore (default: posizione predefinita)
+     * @param longitude longitudine osservatore (default: posizione predefinita)
+     * @param altitude altitudine osservatore in metri
+     * @param start inizio della finestra in UTC (ISO-8601, opzionale)
+     * @param durationSeconds durata della finestra se indicato start (default: 900)
+     * @param rate campioni al secondo, da 1 a 10 (default: 1)
+     * @param frequencyMHz frequenza di downlink per lo spostamento Doppler (opzionale)
+     * @param format "csv" o "ndjson" (default: csv)
+     */
+    @GetMapping("/{id}/track")
+    public ResponseEntity<?> getSatelliteTrack(
+            @PathVariable Long id,
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude,
+            @RequestParam(defaultValue = "0") double altitude,
+            @RequestParam(required = false) String start,
+            @RequestParam(defaultValue = "900") int durationSeconds,
+            @RequestParam(defaultValue = "1") int rate,
+            @RequestParam(required = false) Double frequencyMHz,
+            @RequestParam(defaultValue = "csv") String format) {
+
+        if (rate < 1 || rate > 10) {
+            return ResponseEntity.badRequest().body(
+                Map.of("error", "rate deve essere tra 1 e 10", "received", rate)
+            );
+        }
+
+        if (durationSeconds < 1 || durationSeconds > 3600) {
+            return ResponseEntity.badRequest().body(
+                Map.of("error", "durationSeconds deve essere tra 1 e 3600", "received", durationSeconds)
+            );
+        }
+
+        if (!format.equalsIgnoreCase("csv") && !format.equalsIgnoreCase("ndjson")) {
+            return ResponseEntity.badRequest().body(
+                Map.of("error", "format deve essere csv o ndjson", "received", format)
+            );
+        }
+
+        ObserverLocation observer = satellitePassService.getDefaultLocation();
+        if (latitude != null || longitude != null) {
+            if (latitude == null || longitude == null ||
+                latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+                return ResponseEntity.badRequest().body(
+                    Map.of("error", "latitude deve essere tra -90 e 90 e longitude tra -180 e 180")
+                );
+            }
+            observer = new ObserverLocation(latitude, longitude, altitude);
+        }
+
+        CatalogEntry entry = trackingService.findSatellite(id);
+        if (entry == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        TrackingService.TrackWindow window;
+        if (start != null && !start.isBlank()) {
+            try {
+                long startMs = java.time.Instant.parse(start).toEpochMilli();
+                window = new TrackingService.TrackWindow(startMs, startMs + durationSeconds * 1000L);
+            } catch (java.time.format.DateTimeParseException e) {
+                return ResponseEntity.badRequest().body(
+                    Map.of("error", "start deve essere in formato ISO-8601 UTC (es. 2025-01-01T20:00:00Z)",
+                           "received", start)
+                );
+            }
+        } else {
+            window = trackingService.findNextPassWindow(entry, observer);
+            if (window == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(
+                    Map.of("error", "Nessun passaggio nelle prossime 24 ore", "satelliteId", id)
+                );
+            }
+        }
+
+        if (!trackingService.tryAcquire()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(
+                Map.of("error", "Troppi tracciamenti in corso, riprova tra poco")
+            );
+        }
+
+        boolean ndjson = format.equalsIgnoreCase("ndjson");
+        Double frequencyHz = frequencyMHz != null ? frequencyMHz * 1e6 : null;
+        ObserverLocation trackObserver = observer;
+
+        StreamingResponseBody body = out -> {
+            try {
+                trackingService.writeTrack(out, entry, trackObserver, window, rate, frequencyHz, ndjson);
+            } finally {
+                trackingService.release();
+            }
+        };
+
+        return ResponseEntity.ok()
+            .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.parseMediaType("text/csv"))
+            .body(body);
+    }
+
     /**
      * Ottiene la posizione predefinita dell'osservatore (San Marcellino)
      */
@@ -268,7 +443,7 @@ public class SatelliteController {
         if (!passes.isEmpty()) {
             try {
                 List<TelegramSubscription> subscriptions = telegramNotificationService.getAllSubscriptions();
-                LocalDateTime now = LocalDateTime.now();
+                LocalDateTime now = LocalDateTime.now(clock);
                 
                 for (TelegramSubscription sub : subscriptions) {
                     if (!sub.getNotificationsEnabled()) continue;
@@ -345,7 +520,7 @@ public class SatelliteController {
         if (!passes.isEmpty()) {
             try {
                 List<TelegramSubscription> subscriptions = telegramNotificationService.getAllSubscriptions();
-                LocalDateTime now = LocalDateTime.now();
+                LocalDateTime now = LocalDateTime.now(clock);
                 
                 for (TelegramSubscription sub : subscriptions) {
                     if (!sub.getNotificationsEnabled()) continue;
@@ -383,21 +558,39 @@ public class SatelliteController {
      * @param latitude latitudine osservatore
      * @param longitude longitudine osservatore
      * @param altitude altitudine osservatore in metri
+     * @param satelliteType gruppo Celestrak (opzionale, es. "stations")
+     * @param name pattern sul nome (opzionale, '*' come jolly)
+     * @param noradIds NORAD ID da considerare (opzionale)
+     * @param orbitRegime LEO, MEO, GEO, HEO o OTHER (opzionale)
      * @return lista di pass ordinati per tempo
      */
     @GetMapping("/upcoming-passes/filtered/custom")
-    public ResponseEntity<List<SatellitePassDTO>> getUpcomingPassesFilteredCustom(
+    public ResponseEntity<?> getUpcomingPassesFilteredCustom(
             @RequestParam(defaultValue = "6") int hours,
             @RequestParam(defaultValue = "30") double minElevation,
             @RequestParam(defaultValue = "any") String observingCondition,
             @RequestParam(defaultValue = "6.0") double maxMagnitude,
             @RequestParam double latitude,
             @RequestParam double longitude,
-            @RequestParam(defaultValue = "0") double altitude) {
+            @RequestParam(defaultValue = "0") double altitude,
+            @RequestParam(required = false) String satelliteType,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) List<Long> noradIds,
+            @RequestParam(required = false) String orbitRegime) {
         
+        OrbitRegime regime = OrbitRegime.fromString(orbitRegime);
+        if (orbitRegime != null && !orbitRegime.isBlank() && regime == null) {
+            return ResponseEntity.badRequest().body(
+                Map.of("error", "orbitRegime deve essere LEO, MEO, GEO, HEO o OTHER", "received", orbitRegime)
+            );
+        }
+        PassQueryFilter filter = new PassQueryFilter(satelliteType, name,
+            noradIds != null ? new HashSet<>(noradIds) : null, regime);
+
         ObserverLocation customLocation = new ObserverLocation(latitude, longitude, altitude);
         List<SatellitePassDTO> passes = satellitePassService.findVisibleUpcomingPasses(hours, minElevation, 
-                                                                                       customLocation, observingCondition, maxMagnitude);
+                                                                                       customLocation, observingCondition, maxMagnitude,
+                                                                                       filter);
         return ResponseEntity.ok(passes);
     }
 
@@ -409,6 +602,12 @@ public class SatelliteController {
      * @param longitude longitudine osservatore (default: 14.42 - San Marcellino)
      * @param altitude altitudine osservatore in metri (default: 100)
      * @param minElevation elevazione minima in gradi (default: 30)
+     * @param satelliteType gruppo Celestrak (opzionale, es. "stations")
+     * @param name pattern sul nome (opzionale, '*' come jolly)
+     * @param noradIds NORAD ID da considerare (opzionale)
+     * @param orbitRegime LEO, MEO, GEO, HEO o OTHER (opzionale)
+     * @param mode "optical" o "radio": in modalità radio conta solo l'elevazione,
+     *             senza illuminazione e magnitudine (default: optical)
      * @return lista dei passaggi visibili ordinati per ora
      */
     @GetMapping("/passes/upcoming")
@@ -417,7 +616,12 @@ public class SatelliteController {
             @RequestParam(value = "latitude", defaultValue = "41.01") Double latitude,
             @RequestParam(value = "longitude", defaultValue = "14.42") Double longitude,
             @RequestParam(value = "altitude", defaultValue = "100") Integer altitude,
-            @RequestParam(value = "minElevation", defaultValue = "30.0") Double minElevation) {
+            @RequestParam(value = "minElevation", defaultValue = "30.0") Double minElevation,
+            @RequestParam(value = "satelliteType", required = false) String satelliteType,
+            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "noradIds", required = false) List<Long> noradIds,
+            @RequestParam(value = "orbitRegime", required = false) String orbitRegime,
+            @RequestParam(value = "mode", defaultValue = "optical") String mode) {
         
         try {
             // Validazione input
@@ -444,6 +648,22 @@ public class SatelliteController {
                     Map.of("error", "minElevation deve essere tra 0 e 90", "received", minElevation)
                 );
             }
+
+            OrbitRegime regime = OrbitRegime.fromString(orbitRegime);
+            if (orbitRegime != null && !orbitRegime.isBlank() && regime == null) {
+                return ResponseEntity.badRequest().body(
+                    Map.of("error", "orbitRegime deve essere LEO, MEO, GEO, HEO o OTHER", "received", orbitRegime)
+                );
+            }
+
+            PassMode passMode = PassMode.fromString(mode);
+            if (passMode == null) {
+                return invalidMode(mode);
+            }
+
+            // Filtri sui satelliti, applicati prima della propagazione
+            PassQueryFilter filter = new PassQueryFilter(satelliteType, name,
+                noradIds != null ? new HashSet<>(noradIds) : null, regime);
             
             // Crea location observer
             ObserverLocation observer = new ObserverLocation(
@@ -454,17 +674,20 @@ public class SatelliteController {
             );
             
             // Calcola passaggi
-            List<SatellitePassDTO> passes = satellitePassService.findVisibleUpcomingPasses(
-                hours,
-                minElevation,
-                observer,
-                "any",  // qualsiasi condizione di osservazione
-                6.0    // magnitudine massima
-            );
+            List<?> passes = passMode == PassMode.RADIO
+                ? satellitePassService.findRadioUpcomingPasses(hours, minElevation, observer, filter)
+                : satellitePassService.findVisibleUpcomingPasses(
+                    hours,
+                    minElevation,
+                    observer,
+                    "any",  // qualsiasi condizione di osservazione
+                    6.0,    // magnitudine massima
+                    filter
+                );
             
             // Prepara risposta dettagliata
             Map<String, Object> response = new LinkedHashMap<>();
-            response.put("timestamp", LocalDateTime.now().toString());
+            response.put("timestamp", LocalDateTime.now(clock).toString());
             response.put("query", Map.of(
                 "hours", hours,
                 "observer", Map.of(
@@ -472,7 +695,9 @@ public class SatelliteController {
                     "longitude", longitude,
                     "altitude", altitude
                 ),
-                "minElevation", minElevation + "°"
+                "minElevation", minElevation + "°",
+                "filter", filter.cacheKey(),
+                "mode", passMode.name().toLowerCase()
             ));
             response.put("totalPasses", passes.size());
             response.put("passes", passes);
@@ -484,15 +709,323 @@ public class SatelliteController {
                 Map.of(
                     "error", "Errore durante il calcolo dei passaggi",
                     "message", e.getMessage(),
-                    "timestamp", LocalDateTime.now().toString()
+                    "timestamp", LocalDateTime.now(clock).toString()
                 )
             );
         }
     }
 
     /**
-     * Ottiene lo stato del cache dei passaggi
+     * Calcola i passaggi per più osservatori e più satelliti in una sola richiesta.
+     * Ogni satellite viene propagato una sola volta e le effemeridi sono riusate per tutti
+     * gli osservatori. La risposta è in streaming NDJSON: una riga per osservatore.
+     *
+     * POST /api/satellites/passes/batch
+     * {
+     *   "observers": [{"latitude": 41.01, "longitude": 14.30, "altitude": 30, "locationName": "San Marcellino"}],
+     *   "noradIds": [25544],
+     *   "groups": ["stations"],
+     *   "hours": 12,
+     *   "minElevation": 10,
+     *   "mode": "radio"
+     * }
+     */
+    @PostMapping(value = "/passes/batch",
+                 produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> getBatchPasses(@RequestBody BatchPassRequestDTO request) {
+        int hours = request.hours() != null ? request.hours() : 24;
+        double minElevation = request.minElevation() != null ? request.minElevation() : 10.0;
+        List<ObserverLocation> observers = request.observers() != null ? request.observers() : List.of();
+        PassMode passMode = PassMode.fromString(request.mode());
+        if (passMode == null) {
+            return invalidMode(request.mode());
+        }
+
+        if (hours <= 0 || hours > 24) {
+            return ResponseEntity.badRequest().body(
+                Map.of("error", "hours deve essere tra 1 e 24", "received", hours)
+            );
+        }
+
+        if (minElevation < 0 || minElevation > 90) {
+            return ResponseEntity.badRequest().body(
+                Map.of("error", "minElevation deve essere tra 0 e 90", "received", minElevation)
+            );
+        }
+
+        if (observers.isEmpty() || observers.size() > MAX_BATCH_OBSERVERS) {
+            return ResponseEntity.badRequest().body(
+                Map.of("error", "observers deve contenere tra 1 e " + MAX_BATCH_OBSERVERS + " posizioni",
+                       "received", observers.size())
+            );
+        }
+
+        for (ObserverLocation observer : observers) {
+            if (observer.getLatitude() < -90 || observer.getLatitude() > 90 ||
+                observer.getLongitude() < -180 || observer.getLongitude() > 180) {
+                return ResponseEntity.badRequest().body(
+                    Map.of("error", "latitude deve essere tra -90 e 90 e longitude tra -180 e 180",
+                           "received", observer.getLatitude() + ", " + observer.getLongitude())
+                );
+            }
+        }
+
+        List<CatalogEntry> satellites = batchPassService.resolveSatellites(
+            request.satelliteIds(), request.noradIds(), request.groups());
+
+        if (satellites.isEmpty() || satellites.size() > MAX_BATCH_SATELLITES) {
+            return ResponseEntity.badRequest().body(
+                Map.of("error", "la richiesta deve selezionare tra 1 e " + MAX_BATCH_SATELLITES + " satelliti",
+                       "received", satellites.size())
+            );
+        }
+
+        if (passMode == PassMode.RADIO) {
+            Flux<ObserverRadioPassesDTO> results = batchPassService.streamRadioPasses(observers, satellites, hours,
+                                                                                      minElevation);
+            return ResponseEntity.ok(results);
+        }
+        Flux<ObserverPassesDTO> results = batchPassService.streamPasses(observers, satellites, hours, minElevation);
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Previsione dei passaggi di un satellite su più giorni (fino a 10).
+     * La risposta è in streaming NDJSON: una riga per giorno, emessa appena calcolata.
+     *
+     * @param id ID del satellite
+     * @param days numero di giorni (default: 10, max: 10)
+     * @param latitude latitudine osservatore (default: 41.01 - San Marcellino)
+     * @param longitude longitudine osservatore (default: 14.42 - San Marcellino)
+     * @param altitude altitudine osservatore in metri (default: 100)
+     * @param minElevation elevazione minima in gradi (default: 10)
+     * @return passaggi raggruppati per giorno
+     */
+    @GetMapping(value = "/{id}/passes/long",
+                produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> getLongHorizonPasses(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int days,
+            @RequestParam(defaultValue = "41.01") double latitude,
+            @RequestParam(defaultValue = "14.42") double longitude,
+            @RequestParam(defaultValue = "100") double altitude,
+            @RequestParam(defaultValue = "10.0") double minElevation) {
+
+        List<CatalogEntry> satellites = batchPassService.resolveSatellites(List.of(id), null, null);
+        if (satellites.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return streamLongHorizonPasses(satellites, days, latitude, longitude, altitude, minElevation);
+    }
+
+    /**
+     * Previsione dei passaggi di un gruppo Celestrak su più giorni (fino a 10),
+     * in streaming NDJSON con una riga per giorno
+     *
+     * @param group gruppo Celestrak (es. "stations")
+     * @param days numero di giorni (default: 10, max: 10)
+     * @param latitude latitudine osservatore (default: 41.01 - San Marcellino)
+     * @param longitude longitudine osservatore (default: 14.42 - San Marcellino)
+     * @param altitude altitudine osservatore in metri (default: 100)
+     * @param minElevation elevazione minima in gradi (default: 10)
+     * @return passaggi raggruppati per giorno
+     */
+    @GetMapping(value = "/passes/long",
+                produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> getGroupLongHorizonPasses(
+            @RequestParam String group,
+            @RequestParam(defaultValue = "10") int days,
+            @RequestParam(defaultValue = "41.01") double latitude,
+            @RequestParam(defaultValue = "14.42") double longitude,
+            @RequestParam(defaultValue = "100") double altitude,
+            @RequestParam(defaultValue = "10.0") double minElevation) {
+
+        List<CatalogEntry> satellites = batchPassService.resolveSatellites(null, null, List.of(group));
+        if (satellites.isEmpty() || satellites.size() > MAX_LONG_HORIZON_SATELLITES) {
+            return ResponseEntity.badRequest().body(
+                Map.of("error", "il gruppo deve contenere tra 1 e " + MAX_LONG_HORIZON_SATELLITES + " satelliti",
+                       "received", satellites.size())
+            );
+        }
+        return streamLongHorizonPasses(satellites, days, latitude, longitude, altitude, minElevation);
+    }
+
+    private ResponseEntity<?> streamLongHorizonPasses(List<CatalogEntry> satellites, int days,
+                                                      double latitude, double longitude, double altitude,
+                                                      double minElevation) {
+        if (days < 1 || days > LongHorizonPassService.MAX_DAYS) {
+            return ResponseEntity.badRequest().body(
+                Map.of("error", "days deve essere tra 1 e " + LongHorizonPassService.MAX_DAYS, "received", days)
+            );
+        }
+
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            return ResponseEntity.badRequest().body(
+                Map.of("error", "latitude deve essere tra -90 e 90 e longitude tra -180 e 180",
+                       "received", latitude + ", " + longitude)
+            );
+        }
+
+        if (minElevation < 0 || minElevation > 90) {
+            return ResponseEntity.badRequest().body(
+                Map.of("error", "minElevation deve essere tra 0 e 90", "received", minElevation)
+            );
+        }
+
+        ObserverLocation observer = new ObserverLocation(latitude, longitude, altitude,
+            String.format("Custom (%.2f, %.2f, %.0fm)", latitude, longitude, altitude));
+        Flux<DayPassesDTO> results = longHorizonPassService.streamDays(satellites, observer, days, minElevation);
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Trova tutti i satelliti che si trovano ADESSO sopra l'orizzonte dell'osservatore
+     * Usa l'indice spaziale dei punti sub-satellite (aggiornato ogni 30 secondi):
+     * interroga solo le celle dentro il cono di visibilità, senza scansionare il catalogo
      * 
+     * @param latitude latitudine osservatore
+     * @param longitude longitudine osservatore
+     * @param altitude altitudine osservatore in metri (default: 0)
+     * @param minElevation elevazione minima in gradi (default: 10)
+     * @return satelliti visibili ordinati per elevazione
+     */
+    @GetMapping("/overhead")
+    public ResponseEntity<?> getOverheadSatellites(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "0") double altitude,
+            @RequestParam(defaultValue = "10") double minElevation) {
+        
+        if (latitude < -90 || latitude > 90) {
+            return ResponseEntity.badRequest().body(
+                Map.of("error", "latitude deve essere tra -90 e 90", "received", latitude)
+            );
+        }
+        
+        if (longitude < -180 || longitude > 180) {
+            return ResponseEntity.badRequest().body(
+                Map.of("error", "longitude deve essere tra -180 e 180", "received", longitude)
+            );
+        }
+        
+        if (minElevation < 0 || minElevation > 90) {
+            return ResponseEntity.badRequest().body(
+                Map.of("error", "minElevation deve essere tra 0 e 90", "received", minElevation)
+            );
+        }
+        
+        ObserverLocation observer = new ObserverLocation(latitude, longitude, altitude);
+        
+        long start = System.nanoTime();
+        List<OverheadSatelliteDTO> satellites = positionIndexService.findOverhead(observer, minElevation);
+        long lookupMicros = (System.nanoTime() - start) / 1000;
+        
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("timestamp", LocalDateTime.now(clock).toString());
+        response.put("positionsAt", positionIndexService.getPositionsTime() != null
+            ? positionIndexService.getPositionsTime().toString() : null);
+        response.put("query", Map.of(
+            "observer", Map.of(
+                "latitude", latitude,
+                "longitude", longitude,
+                "altitude", altitude
+            ),
+            "minElevation", minElevation + "°"
+        ));
+        response.put("lookupMicros", lookupMicros);
+        response.put("totalSatellites", satellites.size());
+        response.put("satellites", satellites);
+        
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Stato dell'indice spaziale delle posizioni correnti
+     */
+    @GetMapping("/overhead/index-status")
+    public ResponseEntity<?> getOverheadIndexStatus() {
+        return ResponseEntity.ok(positionIndexService.getIndexStatus());
+    }
+
+    /**
+     * Oggetti geostazionari visibili da un osservatore, con posizione in cielo e deriva
+     * nell'ora successiva. Questi oggetti non compaiono nella ricerca dei passaggi perché
+     * non sorgono e non tramontano.
+     *
+     * @param latitude latitudine osservatore (default: posizione predefinita)
+     * @param longitude longitudine osservatore (default: posizione predefinita)
+     * @param altitude altitudine osservatore in metri (default: 0)
+     * @param minElevation elevazione minima in gradi (default: 0)
+     * @param satelliteType gruppo Celestrak (opzionale, es. "geo", "sbas")
+     * @return oggetti geostazionari ordinati per elevazione
+     */
+    @GetMapping("/stationary")
+    public ResponseEntity<?> getStationaryObjects(
+            @RequestParam(required = false) Double latitude,
+            @RequestParam(required = false) Double longitude,
+            @RequestParam(defaultValue = "0") double altitude,
+            @RequestParam(defaultValue = "0") double minElevation,
+            @RequestParam(required = false) String satelliteType) {
+
+        ObserverLocation observer = satellitePassService.getDefaultLocation();
+        if (latitude != null || longitude != null) {
+            if (latitude == null || longitude == null ||
+                latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+                return ResponseEntity.badRequest().body(
+                    Map.of("error", "latitude deve essere tra -90 e 90 e longitude tra -180 e 180")
+                );
+            }
+            observer = new ObserverLocation(latitude, longitude, altitude);
+        }
+
+        if (minElevation < -90 || minElevation > 90) {
+            return ResponseEntity.badRequest().body(
+                Map.of("error", "minElevation deve essere tra -90 e 90", "received", minElevation)
+            );
+        }
+
+        PassQueryFilter filter = new PassQueryFilter(satelliteType, null, null, null);
+        List<StationaryObjectDTO> objects = satellitePassService.findStationaryObjects(observer, minElevation, filter);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("timestamp", LocalDateTime.now(clock).toString());
+        response.put("query", Map.of(
+            "latitude", observer.getLatitude(),
+            "longitude", observer.getLongitude(),
+            "minElevation", minElevation
+        ));
+        response.put("totalObjects", objects.size());
+        response.put("objects", objects);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Statistiche dei gruppi co-orbitali usati dalla ricerca dei passaggi: quanti satelliti
+     * vengono propagati davvero e, con validate=true, l'errore dei passaggi derivati rispetto
+     * al calcolo esatto su un campione di membri (dalla posizione predefinita)
+     *
+     * @param validate confronta i passaggi derivati con quelli esatti (default: false)
+     * @param hours finestra della validazione (default: 24, max: 72)
+     * @return rapporto di compressione e, opzionalmente, errori medi e massimi
+     */
+    @GetMapping("/clusters/stats")
+    public ResponseEntity<?> getClusterStats(
+            @RequestParam(defaultValue = "false") boolean validate,
+            @RequestParam(defaultValue = "24") int hours) {
+
+        if (hours < 1 || hours > 72) {
+            return ResponseEntity.badRequest().body(
+                Map.of("error", "hours deve essere tra 1 e 72", "received", hours)
+            );
+        }
+
+        return ResponseEntity.ok(satellitePassService.getClusterReport(
+            validate, satellitePassService.getDefaultLocation(), hours));
+    }
+
+    /**
+     * Ottiene lo stato del cache dei passaggi
+     *
      * @return informazioni sul cache (numero entries, TTL, dettagli)
      */
     @GetMapping("/cache-status")
@@ -511,7 +1044,7 @@ public class SatelliteController {
         satellitePassService.clearPassesCache();
         Map<String, String> response = new LinkedHashMap<>();
         response.put("status", "Cache pulito con successo");
-        response.put("timestamp", LocalDateTime.now().toString());
+        response.put("timestamp", LocalDateTime.now(clock).toString());
         return ResponseEntity.ok(response);
     }
 
@@ -541,7 +1074,7 @@ public class SatelliteController {
                     Map.of(
                         "error", geoResult.get("error"),
                         "city", city,
-                        "timestamp", LocalDateTime.now().toString()
+                        "timestamp", LocalDateTime.now(clock).toString()
                     )
                 );
             }
@@ -559,7 +1092,7 @@ public class SatelliteController {
             
             // Prepara risposta dettagliata
             Map<String, Object> response = new LinkedHashMap<>();
-            response.put("timestamp", LocalDateTime.now().toString());
+            response.put("timestamp", LocalDateTime.now(clock).toString());
             response.put("city", Map.of(
                 "name", city,
                 "displayName", displayName,
@@ -582,7 +1115,7 @@ public class SatelliteController {
                     "error", "Errore durante il calcolo dei passaggi",
                     "city", city,
                     "message", e.getMessage(),
-                    "timestamp", LocalDateTime.now().toString()
+                    "timestamp", LocalDateTime.now(clock).toString()
                 )
             );
         }
@@ -616,7 +1149,7 @@ public class SatelliteController {
                     Map.of(
                         "error", geoResult.get("error"),
                         "city", city,
-                        "timestamp", LocalDateTime.now().toString()
+                        "timestamp", LocalDateTime.now(clock).toString()
                     )
                 );
             }
@@ -636,7 +1169,7 @@ public class SatelliteController {
             
             // Prepara risposta dettagliata
             Map<String, Object> response = new LinkedHashMap<>();
-            response.put("timestamp", LocalDateTime.now().toString());
+            response.put("timestamp", LocalDateTime.now(clock).toString());
             response.put("city", Map.of(
                 "name", city,
                 "displayName", displayName,
@@ -661,9 +1194,15 @@ public class SatelliteController {
                     "error", "Errore durante il calcolo dei passaggi",
                     "city", city,
                     "message", e.getMessage(),
-                    "timestamp", LocalDateTime.now().toString()
+                    "timestamp", LocalDateTime.now(clock).toString()
                 )
             );
         }
     }
+
+    private ResponseEntity<?> invalidMode(String mode) {
+        return ResponseEntity.badRequest().body(
+            Map.of("error", "mode deve essere optical o radio", "received", String.valueOf(mode))
+        );
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.satelliteTracking.controller;
 
+import com.satelliteTracking.model.PassMode;
 import com.satelliteTracking.model.TelegramSubscription;
 import com.satelliteTracking.service.TelegramNotificationService;
 import org.springframework.http.ResponseEntity;
@@ -67,7 +68,8 @@ public class TelegramNotificationController {
      * {
      *   "observingCondition": "night",
      *   "maxMagnitude": 4.0,
-     *   "minElevation": 15.0
+     *   "minElevation": 15.0,
+     *   "mode": "radio"
      * }
      */
     @PutMapping("/preferences/{chatId}")
@@ -78,9 +80,18 @@ public class TelegramNotificationController {
             String observingCondition = (String) request.getOrDefault("observingCondition", "any");
             Double maxMagnitude = ((Number) request.getOrDefault("maxMagnitude", 6.0)).doubleValue();
             Double minElevation = ((Number) request.getOrDefault("minElevation", 10.0)).doubleValue();
+            String mode = (String) request.getOrDefault("mode", "optical");
+            
+            PassMode passMode = PassMode.fromString(mode);
+            if (passMode == null) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "message", "mode deve essere optical o radio"
+                ));
+            }
             
             TelegramSubscription subscription = telegramNotificationService.updatePreferences(
-                chatId, observingCondition, maxMagnitude, minElevation
+                chatId, observingCondition, maxMagnitude, minElevation, passMode.name().toLowerCase()
             );
             
             if (subscription != null) {
@@ -89,7 +100,8 @@ public class TelegramNotificationController {
                     "message", "Preferenze aggiornate",
                     "observingCondition", subscription.getObservingCondition(),
                     "maxMagnitude", subscription.getMaxMagnitude(),
-                    "minElevation", subscription.getMinElevation()
+                    "minElevation", subscription.getMinElevation(),
+                    "mode", subscription.getPassMode()
                 ));
             } else {
                 return ResponseEntity.notFound().build();
@@ -0,0 +1,263 @@
+package com.satelliteTracking.controller;
+
+import com.satelliteTracking.dto.CenterLinePointDTO;
+import com.satelliteTracking.dto.TransitDTO;
+import com.satelliteTracking.dto.TransitEventDTO;
+import com.satelliteTracking.model.CatalogEntry;
+import com.satelliteTracking.service.TransitService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/transits")
+@CrossOrigin(origins = "*")
+public class TransitController {
+
+    private final TransitService transitService;
+    private final Clock clock;
+
+    // NORAD ID della ISS, satellite predefinito
+    private static final long ISS_NORAD_ID = 25544L;
+
+    public TransitController(TransitService transitService, Clock clock) {
+        this.transitService = transitService;
+        this.clock = clock;
+    }
+
+    /**
+     * Transiti di un satellite davanti al Sole e/o alla Luna visti da un osservatore
+     *
+     * GET /api/transits?noradId=25544&latitude=41.01&longitude=14.30&days=7&body=both&nearMissDeg=0.5
+     *
+     * @param nearMissDeg riporta anche i passaggi entro questa distanza dal bordo del disco (default: 0)
+     */
+    @GetMapping
+    public ResponseEntity<?> getTransits(
+            @RequestParam(required = false) Long satelliteId,
+            @RequestParam(required = false) Long noradId,
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "0") double altitude,
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(defaultValue = "both") String body,
+            @RequestParam(defaultValue = "0") double nearMissDeg) {
+
+        ResponseEntity<?> error = validate(days, body);
+        if (error != null) {
+            return error;
+        }
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "latitude deve essere tra -90 e 90 e longitude tra -180 e 180",
+                "received", latitude + ", " + longitude
+            ));
+        }
+        if (nearMissDeg < 0 || nearMissDeg > 2) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "nearMissDeg deve essere tra 0 e 2",
+                "received", nearMissDeg
+            ));
+        }
+
+        CatalogEntry entry = resolve(satelliteId, noradId);
+        if (entry == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        List<TransitDTO> transits = transitService.findTransits(entry, latitude, longitude, altitude, days,
+                                                                bodies(body), nearMissDeg);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("timestamp", LocalDateTime.now(clock).toString());
+        response.put("query", Map.of(
+            "satellite", entry.objectName(),
+            "latitude", latitude,
+            "longitude", longitude,
+            "days", days,
+            "body", body
+        ));
+        response.put("totalTransits", transits.size());
+        response.put("transits", transits);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Ricerca dei transiti su un'area (es. una nazione) con una griglia di osservatori.
+     * I transiti visti da più punti vengono raggruppati in eventi.
+     *
+     * GET /api/transits/area?minLatitude=36&maxLatitude=47&minLongitude=6&maxLongitude=19&spacingKm=10
+     */
+    @GetMapping("/area")
+    public ResponseEntity<?> getTransitsInArea(
+            @RequestParam(required = false) Long satelliteId,
+            @RequestParam(required = false) Long noradId,
+            @RequestParam double minLatitude,
+            @RequestParam double maxLatitude,
+            @RequestParam double minLongitude,
+            @RequestParam double maxLongitude,
+            @RequestParam(defaultValue = "10") double spacingKm,
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(defaultValue = "both") String body) {
+
+        ResponseEntity<?> error = validate(days, body);
+        if (error != null) {
+            return error;
+        }
+        if (minLatitude < -90 || maxLatitude > 90 || minLatitude >= maxLatitude ||
+            minLongitude < -180 || maxLongitude > 180 || minLongitude >= maxLongitude) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "l'area deve avere latitudini tra -90 e 90 e longitudini tra -180 e 180, con min < max"
+            ));
+        }
+        if (spacingKm < 1 || spacingKm > 100) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "spacingKm deve essere tra 1 e 100",
+                "received", spacingKm
+            ));
+        }
+
+        int points = transitService.countAreaPoints(minLatitude, maxLatitude, minLongitude, maxLongitude, spacingKm);
+        if (points > TransitService.MAX_AREA_POINTS) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "l'area contiene più di " + TransitService.MAX_AREA_POINTS +
+                         " punti: aumentare spacingKm o ridurre l'area",
+                "received", spacingKm
+            ));
+        }
+
+        CatalogEntry entry = resolve(satelliteId, noradId);
+        if (entry == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        List<TransitEventDTO> events = transitService.findTransitsInArea(
+            entry, minLatitude, maxLatitude, minLongitude, maxLongitude, spacingKm, days, bodies(body));
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("timestamp", LocalDateTime.now(clock).toString());
+        response.put("query", Map.of(
+            "satellite", entry.objectName(),
+            "area", List.of(minLatitude, maxLatitude, minLongitude, maxLongitude),
+            "spacingKm", spacingKm,
+            "points", points,
+            "days", days,
+            "body", body
+        ));
+        response.put("totalEvents", events.size());
+        response.put("events", events);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Linea centrale di un transito: i punti al suolo da cui il satellite passa davanti
+     * al centro del disco, istante per istante
+     *
+     * GET /api/transits/centerline?noradId=25544&body=sun&time=2025-06-01T10:15:30.250Z&spanSeconds=60&stepSeconds=1
+     */
+    @GetMapping("/centerline")
+    public ResponseEntity<?> getCenterLine(
+            @RequestParam(required = false) Long satelliteId,
+            @RequestParam(required = false) Long noradId,
+            @RequestParam String body,
+            @RequestParam String time,
+            @RequestParam(defaultValue = "60") double spanSeconds,
+            @RequestParam(defaultValue = "1") double stepSeconds) {
+
+        if (!TransitService.SUN.equalsIgnoreCase(body) && !TransitService.MOON.equalsIgnoreCase(body)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "body deve essere sun o moon",
+                "received", body
+            ));
+        }
+        if (spanSeconds <= 0 || spanSeconds > 600) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "spanSeconds deve essere tra 0 e 600",
+                "received", spanSeconds
+            ));
+        }
+        if (stepSeconds < 0.1 || stepSeconds > 10) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "stepSeconds deve essere tra 0.1 e 10",
+                "received", stepSeconds
+            ));
+        }
+
+        Instant instant;
+        try {
+            instant = Instant.parse(time);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "time deve essere in formato ISO-8601 UTC (es. 2025-06-01T10:15:30.250Z)",
+                "received", time
+            ));
+        }
+
+        CatalogEntry entry = resolve(satelliteId, noradId);
+        if (entry == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        List<CenterLinePointDTO> points = transitService.computeCenterLine(
+            entry, body.toLowerCase(), instant, spanSeconds, stepSeconds);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("timestamp", LocalDateTime.now(clock).toString());
+        response.put("query", Map.of(
+            "satellite", entry.objectName(),
+            "body", body.toLowerCase(),
+            "time", time,
+            "spanSeconds", spanSeconds,
+            "stepSeconds", stepSeconds
+        ));
+        response.put("totalPoints", points.size());
+        response.put("points", points);
+        return ResponseEntity.ok(response);
+    }
+
+    private ResponseEntity<?> validate(int days, String body) {
+        if (days < 1 || days > TransitService.MAX_DAYS) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "days deve essere tra 1 e " + TransitService.MAX_DAYS,
+                "received", days
+            ));
+        }
+        if (bodies(body).isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "body deve essere sun, moon o both",
+                "received", body
+            ));
+        }
+        return null;
+    }
+
+    private List<String> bodies(String body) {
+        if ("both".equalsIgnoreCase(body)) {
+            return List.of(TransitService.SUN, TransitService.MOON);
+        }
+        if (TransitService.SUN.equalsIgnoreCase(body)) {
+            return List.of(TransitService.SUN);
+        }
+        if (TransitService.MOON.equalsIgnoreCase(body)) {
+            return List.of(TransitService.MOON);
+        }
+        return List.of();
+    }
+
+    /**
+     * Satellite richiesto (ISS se non indicato)
+     */
+    private CatalogEntry resolve(Long satelliteId, Long noradId) {
+        if (satelliteId == null && noradId == null) {
+            noradId = ISS_NORAD_ID;
+        }
+        return transitService.findSatellite(satelliteId, noradId);
+    }
+}
@@ -0,0 +1,20 @@
+package com.satelliteTracking.dto;
+
+import com.satelliteTracking.model.ObserverLocation;
+
+import java.util.List;
+
+/**
+ * Richiesta di calcolo passaggi in batch: più osservatori × più satelliti.
+ * I satelliti possono essere indicati per ID, per NORAD ID o per gruppo Celestrak.
+ * Con mode "radio" i passaggi sono calcolati senza illuminazione e magnitudine.
+ */
+public record BatchPassRequestDTO(
+    List<ObserverLocation> observers,
+    List<Long> satelliteIds,
+    List<Long> noradIds,
+    List<String> groups,
+    Integer hours,
+    Double minElevation,
+    String mode
+) {}
@@ -14,5 +14,10 @@ public record CelestrakSatelliteDTO(
         @JsonProperty("ECCENTRICITY") Double eccentricity,
         @JsonProperty("ARG_OF_PERICENTER") Double argOfPericenter,
         @JsonProperty("MEAN_ANOMALY") Double meanAnomaly,
-        @JsonProperty("MEAN_MOTION") Double meanMotion
+        @JsonProperty("MEAN_MOTION") Double meanMotion,
+        @JsonProperty("BSTAR") Double bstar,
+        @JsonProperty("MEAN_MOTION_DOT") Double meanMotionDot,
+        @JsonProperty("MEAN_MOTION_DDOT") Double meanMotionDdot,
+        @JsonProperty("ELEMENT_SET_NO") Integer elementSetNo,
+        @JsonProperty("REV_AT_EPOCH") Integer revAtEpoch
 ) {}
\ No newline at end of file
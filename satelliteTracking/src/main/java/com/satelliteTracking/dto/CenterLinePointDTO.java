@@ -0,0 +1,15 @@
+package com.satelliteTracking.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Punto della linea centrale di un transito: da qui il satellite passa esattamente
+ * davanti al centro del disco. widthKm è la larghezza della fascia in cui il transito è visibile.
+ */
+public record CenterLinePointDTO(
+    LocalDateTime time,
+    double latitude,
+    double longitude,
+    double widthKm,
+    double satelliteElevation
+) {}
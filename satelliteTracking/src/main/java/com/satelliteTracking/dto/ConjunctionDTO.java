@@ -0,0 +1,18 @@
+package com.satelliteTracking.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO che rappresenta un avvicinamento ravvicinato tra due oggetti del catalogo
+ */
+public record ConjunctionDTO(
+    Long primaryId,
+    String primaryName,
+    Long primaryNoradCatId,
+    Long secondaryId,
+    String secondaryName,
+    Long secondaryNoradCatId,
+    LocalDateTime timeOfClosestApproach,
+    double missDistanceKm,
+    double relativeVelocityKmS
+) {}
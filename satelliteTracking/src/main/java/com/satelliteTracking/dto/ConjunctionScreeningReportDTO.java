@@ -0,0 +1,34 @@
+package com.satelliteTracking.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Risultato di uno screening delle congiunzioni sull'intero catalogo.
+ * Riporta quante coppie sopravvivono ad ogni filtro e quanto tempo costa ogni fase.
+ *
+ * I contatori "pairSteps" contano coppie per singolo istante di campionamento,
+ * gli altri contano coppie distinte.
+ */
+public record ConjunctionScreeningReportDTO(
+    LocalDateTime startedAt,
+    LocalDateTime completedAt,
+    int horizonHours,
+    int stepSeconds,
+    double thresholdKm,
+    int objects,
+    int propagationFailures,
+    long totalPairs,
+    long pairsAfterApogeePerigee,
+    long pairStepsAfterSweep,
+    long pairStepsAfterBoxCheck,
+    long candidatePairs,
+    long refinedPairs,
+    int conjunctionsFound,
+    long filterMs,
+    long propagationMs,
+    long sweepMs,
+    long refinementMs,
+    long totalMs,
+    List<ConjunctionDTO> conjunctions
+) {}
@@ -0,0 +1,15 @@
+package com.satelliteTracking.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Passaggi di un giorno di una previsione a lungo termine (un elemento dello stream)
+ */
+public record DayPassesDTO(
+    int day,
+    LocalDateTime from,
+    LocalDateTime to,
+    int totalPasses,
+    List<SatellitePassDTO> passes
+) {}
@@ -0,0 +1,15 @@
+package com.satelliteTracking.dto;
+
+import com.satelliteTracking.model.ObserverLocation;
+
+import java.util.List;
+
+/**
+ * Passaggi calcolati per un singolo osservatore di una richiesta batch
+ */
+public record ObserverPassesDTO(
+    int observerIndex,
+    ObserverLocation observer,
+    int totalPasses,
+    List<SatellitePassDTO> passes
+) {}
@@ -12,6 +12,11 @@ public record OrbitalParametersDTO(
     Double argOfPericenter,
     Double meanAnomaly,
     Double meanMotion,
+    Double bstar,
+    Double meanMotionDot,
+    Double meanMotionDdot,
+    Integer elementSetNo,
+    Integer revAtEpoch,
     LocalDateTime fetchedAt
 ) {
     public static OrbitalParametersDTO fromEntity(OrbitalParameters entity) {
@@ -24,6 +29,11 @@ public record OrbitalParametersDTO(
             entity.getArgOfPericenter(),
             entity.getMeanAnomaly(),
             entity.getMeanMotion(),
+            entity.getBstar(),
+            entity.getMeanMotionDot(),
+            entity.getMeanMotionDdot(),
+            entity.getElementSetNo(),
+            entity.getRevAtEpoch(),
             entity.getFetchedAt()
         );
     }
@@ -0,0 +1,17 @@
+package com.satelliteTracking.dto;
+
+/**
+ * DTO che rappresenta un satellite attualmente sopra l'orizzonte di un osservatore
+ */
+public record OverheadSatelliteDTO(
+    Long satelliteId,
+    Long noradCatId,
+    String satelliteName,
+    String satelliteType,
+    double azimuth,
+    double elevation,
+    double rangeKm,
+    double subSatelliteLatitude,
+    double subSatelliteLongitude,
+    double satelliteAltitudeKm
+) {}
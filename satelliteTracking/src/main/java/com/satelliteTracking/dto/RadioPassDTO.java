@@ -0,0 +1,28 @@
+package com.satelliteTracking.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Passaggio sopra l'orizzonte per la modalità radio: solo geometria,
+ * senza illuminazione, condizione di osservazione e magnitudine
+ */
+public record RadioPassDTO(
+    Long satelliteId,
+    String satelliteName,
+    LocalDateTime riseTime,
+    LocalDateTime maxElevationTime,
+    LocalDateTime setTime,
+    double maxElevation,
+    double riseAzimuth,
+    double maxElevationAzimuth,
+    double setAzimuth,
+    double maxDistance,
+    double satelliteAltitudeKm
+) {
+    /**
+     * Durata del passaggio in secondi
+     */
+    public long getDurationSeconds() {
+        return java.time.Duration.between(riseTime, setTime).getSeconds();
+    }
+}
@@ -0,0 +1,21 @@
+package com.satelliteTracking.dto;
+
+/**
+ * Posizione in cielo di un oggetto geostazionario (o quasi) per un osservatore.
+ * Azimuth ed elevazione sono riferiti all'inizio della finestra; minimi/massimi
+ * descrivono la deriva nella finestra.
+ */
+public record StationaryObjectDTO(
+    Long satelliteId,
+    String satelliteName,
+    Long noradCatId,
+    String satelliteType,
+    double azimuth,
+    double elevation,
+    double rangeKm,
+    double minElevation,
+    double maxElevation,
+    double azimuthDrift,
+    boolean isVisible,
+    boolean crossesHorizon
+) {}
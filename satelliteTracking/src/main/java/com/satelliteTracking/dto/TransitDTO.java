@@ -0,0 +1,23 @@
+package com.satelliteTracking.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO che rappresenta il transito di un satellite davanti al Sole o alla Luna
+ * visto da un osservatore (o un passaggio ravvicinato, se fullTransit è false)
+ */
+public record TransitDTO(
+    Long satelliteId,
+    String satelliteName,
+    String body,                 // "sun" o "moon"
+    double latitude,
+    double longitude,
+    LocalDateTime time,          // istante di minima separazione
+    double durationSeconds,      // tempo passato davanti al disco (0 se non transita)
+    double minSeparationDeg,
+    double bodyRadiusDeg,
+    boolean fullTransit,
+    double satelliteAzimuth,
+    double satelliteElevation,
+    double rangeKm
+) {}
@@ -0,0 +1,14 @@
+package com.satelliteTracking.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Un transito visto da più punti di un'area: il punto migliore (separazione minima)
+ * e quanti punti della griglia lo vedono
+ */
+public record TransitEventDTO(
+    String body,
+    LocalDateTime time,
+    int observers,
+    TransitDTO best
+) {}
@@ -0,0 +1,16 @@
+package com.satelliteTracking.model;
+
+/**
+ * Voce del catalogo in memoria: dati identificativi del satellite
+ * e il set di parametri orbitali più recente.
+ * I parametri sono entità staccate dalla sessione: si leggono solo i campi semplici.
+ */
+public record CatalogEntry(
+    Long satelliteId,
+    Long noradCatId,
+    String objectName,
+    String objectId,
+    String satelliteType,
+    OrbitalParameters parameters,
+    OrbitRegime orbitRegime
+) {}
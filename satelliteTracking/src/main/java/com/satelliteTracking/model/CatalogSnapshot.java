@@ -0,0 +1,32 @@
+package com.satelliteTracking.model;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fotografia immutabile del catalogo satelliti con i parametri orbitali più recenti.
+ * Viene sostituita in blocco ad ogni ricarica: chi la legge non vede mai dati a metà.
+ *
+ * @param version numero progressivo della fotografia (cambia ad ogni ricarica)
+ * @param sourceFetchedAt fetchedAt della versione pubblicata caricata (uguale per tutte le istanze)
+ * @param loadedAt istante di caricamento
+ * @param entries voci del catalogo
+ * @param byId voci indicizzate per ID satellite
+ */
+public record CatalogSnapshot(
+    long version,
+    LocalDateTime sourceFetchedAt,
+    LocalDateTime loadedAt,
+    List<CatalogEntry> entries,
+    Map<Long, CatalogEntry> byId
+) {
+    public static CatalogSnapshot empty() {
+        return new CatalogSnapshot(0L, null, null, Collections.emptyList(), Collections.emptyMap());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,37 @@
+package com.satelliteTracking.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import java.time.LocalDateTime;
+
+/**
+ * Versione pubblicata del catalogo. Tutti i set di elementi di un aggiornamento hanno lo
+ * stesso fetchedAt e diventano visibili solo quando la versione con quel fetchedAt viene
+ * inserita: i lettori considerano i set con fetchedAt non successivo all'ultima versione.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "catalog_versions")
+public class CatalogVersion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private LocalDateTime fetchedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime publishedAt;
+
+    private Integer elementSets;
+
+    private Integer newSatellites;
+
+    private Integer changedSatellites;
+
+    public CatalogVersion() {
+    }
+}
@@ -0,0 +1,43 @@
+package com.satelliteTracking.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import java.time.LocalDateTime;
+
+/**
+ * Stato dell'ultimo download di un gruppo Celestrak: quando è stato controllato e
+ * scaricato l'ultima volta e i validatori HTTP (ETag, Last-Modified) della risposta,
+ * per le richieste condizionali del prossimo aggiornamento.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "celestrak_group_states")
+public class CelestrakGroupState {
+
+    @Id
+    @Column(length = 64)
+    private String groupName;
+
+    private String etag;
+
+    private String lastModified;
+
+    // Ultima risposta valida (200 o 304): decide quando il gruppo va riscaricato
+    private LocalDateTime lastCheckedAt;
+
+    // Ultima risposta 200 con il gruppo scritto per intero
+    private LocalDateTime lastDownloadedAt;
+
+    private Integer lastStatus;
+
+    private Integer satelliteCount;
+
+    public CelestrakGroupState() {
+    }
+
+    public CelestrakGroupState(String groupName) {
+        this.groupName = groupName;
+    }
+}
@@ -0,0 +1,54 @@
+package com.satelliteTracking.model;
+
+/**
+ * Regime orbitale ricavato da moto medio (giri/giorno) ed eccentricità
+ */
+public enum OrbitRegime {
+    /** Orbita bassa: periodo inferiore a ~128 minuti */
+    LEO,
+    /** Orbita media (GNSS e simili) */
+    MEO,
+    /** Geostazionaria/geosincrona: circa un giro al giorno, quasi circolare */
+    GEO,
+    /** Orbita molto ellittica (Molniya, GTO, ...) */
+    HEO,
+    /** Oltre la geostazionaria */
+    OTHER;
+
+    /**
+     * Classifica un'orbita dai parametri medi
+     *
+     * @param meanMotion moto medio in giri al giorno
+     * @param eccentricity eccentricità
+     */
+    public static OrbitRegime classify(double meanMotion, double eccentricity) {
+        if (eccentricity > 0.25) {
+            return HEO;
+        }
+        if (meanMotion >= 11.25) {
+            return LEO;
+        }
+        if (meanMotion >= 0.9 && meanMotion <= 1.1 && eccentricity < 0.05) {
+            return GEO;
+        }
+        if (meanMotion > 1.1) {
+            return MEO;
+        }
+        return OTHER;
+    }
+
+    /**
+     * Interpreta un valore testuale (case-insensitive), null se vuoto o non riconosciuto
+     */
+    public static OrbitRegime fromString(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        for (OrbitRegime regime : values()) {
+            if (regime.name().equalsIgnoreCase(value.trim())) {
+                return regime;
+            }
+        }
+        return null;
+    }
+}
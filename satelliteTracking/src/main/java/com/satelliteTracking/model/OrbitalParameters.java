@@ -8,7 +8,11 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @Entity
-@Table(name = "orbital_parameters")
+@Table(name = "orbital_parameters", indexes = {
+    // Ultimo set per satellite e ultimo aggiornamento del catalogo senza scorrere lo storico
+    @Index(name = "idx_orbital_parameters_satellite_fetched", columnList = "satellite_id, fetchedAt"),
+    @Index(name = "idx_orbital_parameters_fetched", columnList = "fetchedAt")
+})
 public class OrbitalParameters {
 
     @Id
@@ -40,6 +44,19 @@ public class OrbitalParameters {
     @Column(nullable = false)
     private Double meanMotion;
 
+    // Termini di resistenza e numerazione come nell'OMM di Celestrak (null nei set salvati prima):
+    // B* in 1/raggi terrestri, MEAN_MOTION_DOT in giri/giorno² e MEAN_MOTION_DDOT in giri/giorno³
+    // con i fattori 1/2 e 1/6 del formato TLE
+    private Double bstar;
+
+    private Double meanMotionDot;
+
+    private Double meanMotionDdot;
+
+    private Integer elementSetNo;
+
+    private Integer revAtEpoch;
+
     @Column(nullable = false)
     private LocalDateTime fetchedAt;
 
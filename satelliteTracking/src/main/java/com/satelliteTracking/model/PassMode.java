@@ -0,0 +1,26 @@
+package com.satelliteTracking.model;
+
+/**
+ * Tipo di ricerca dei passaggi
+ */
+public enum PassMode {
+    /** Osservazione a occhio nudo: illuminazione, crepuscolo e magnitudine */
+    OPTICAL,
+    /** Radioamatori e satelliti meteo: conta solo che il satellite sia sopra l'orizzonte */
+    RADIO;
+
+    /**
+     * Interpreta un valore testuale (case-insensitive): OPTICAL se vuoto, null se non riconosciuto
+     */
+    public static PassMode fromString(String value) {
+        if (value == null || value.isBlank()) {
+            return OPTICAL;
+        }
+        for (PassMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value.trim())) {
+                return mode;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,120 @@
+package com.satelliteTracking.model;
+
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Filtri sui satelliti da applicare PRIMA della propagazione:
+ * gruppo Celestrak, nome, insieme di NORAD ID e regime orbitale.
+ *
+ * Il nome è confrontato senza distinzione maiuscole/minuscole: senza '*' basta che
+ * il nome contenga il pattern, con '*' il pattern deve coprire tutto il nome
+ * (es. "STARLINK-1*").
+ */
+public final class PassQueryFilter {
+
+    private static final PassQueryFilter NONE = new PassQueryFilter(null, null, null, null);
+
+    private final String satelliteType;
+    private final String namePattern;
+    private final Set<Long> noradIds;
+    private final OrbitRegime orbitRegime;
+    private final Pattern compiledName;
+
+    public PassQueryFilter(String satelliteType, String namePattern, Set<Long> noradIds, OrbitRegime orbitRegime) {
+        this.satelliteType = isBlank(satelliteType) ? null : satelliteType.trim();
+        this.namePattern = isBlank(namePattern) ? null : namePattern.trim();
+        this.noradIds = noradIds == null || noradIds.isEmpty() ? null : new TreeSet<>(noradIds);
+        this.orbitRegime = orbitRegime;
+        this.compiledName = this.namePattern != null && this.namePattern.contains("*")
+            ? compileWildcard(this.namePattern)
+            : null;
+    }
+
+    /**
+     * Nessun filtro: tutti i satelliti del catalogo
+     */
+    public static PassQueryFilter none() {
+        return NONE;
+    }
+
+    public boolean isEmpty() {
+        return satelliteType == null && namePattern == null && noradIds == null && orbitRegime == null;
+    }
+
+    public String getSatelliteType() {
+        return satelliteType;
+    }
+
+    public String getNamePattern() {
+        return namePattern;
+    }
+
+    public Set<Long> getNoradIds() {
+        return noradIds;
+    }
+
+    public OrbitRegime getOrbitRegime() {
+        return orbitRegime;
+    }
+
+    /**
+     * Verifica se un satellite del catalogo soddisfa tutti i filtri
+     */
+    public boolean matches(CatalogEntry entry) {
+        if (noradIds != null && !noradIds.contains(entry.noradCatId())) {
+            return false;
+        }
+
+        if (satelliteType != null && !satelliteType.equalsIgnoreCase(entry.satelliteType())) {
+            return false;
+        }
+
+        if (namePattern != null) {
+            String name = entry.objectName() != null ? entry.objectName() : "";
+            if (compiledName != null) {
+                if (!compiledName.matcher(name).matches()) {
+                    return false;
+                }
+            } else if (!name.toLowerCase().contains(namePattern.toLowerCase())) {
+                return false;
+            }
+        }
+
+        if (orbitRegime != null && entry.orbitRegime() != orbitRegime) {
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Rappresentazione stabile dei filtri, usata nelle chiavi di cache
+     */
+    public String cacheKey() {
+        if (isEmpty()) {
+            return "all";
+        }
+        return "type=" + (satelliteType != null ? satelliteType.toLowerCase() : "") +
+               "|name=" + (namePattern != null ? namePattern.toLowerCase() : "") +
+               "|norad=" + (noradIds != null ? noradIds : "") +
+               "|regime=" + (orbitRegime != null ? orbitRegime : "");
+    }
+
+    private static Pattern compileWildcard(String wildcard) {
+        String[] parts = wildcard.split("\\*", -1);
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                regex.append(".*");
+            }
+            regex.append(Pattern.quote(parts[i]));
+        }
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -29,8 +29,15 @@ public class Satellite{
     @Column(nullable = false)
     private String satelliteType;  // es. "starlink", "weather", "stations", etc.
 
-    //Relazione con i parametri orbitali (storico)
-    @OneToMany(mappedBy = "satellite", cascade = CascadeType.ALL, orphanRemoval = true)
+    // Regime orbitale (LEO, MEO, GEO, ...) calcolato dall'ultimo set di parametri
+    @Enumerated(EnumType.STRING)
+    @Column(length = 8)
+    private OrbitRegime orbitRegime;
+
+    //Relazione con i parametri orbitali (storico), in sola lettura: senza cascade salvare
+    //un satellite non carica mai la collezione. I nuovi set si aggiungono per ID del satellite
+    //(CatalogBulkWriter.appendElementSets)
+    @OneToMany(mappedBy = "satellite")
     private List<OrbitalParameters> orbitalParametersList = new ArrayList<>();
 
     public Satellite(){
@@ -43,12 +50,6 @@ public class Satellite{
         this.objectId=objectId;
         this.noradCatId = noradCatId;
     }
-
-    // Metodo helper per aggiungere parametri orbitali
-    public void addOrbitalParameters(OrbitalParameters parameters) {
-        orbitalParametersList.add(parameters);
-        parameters.setSatellite(this);
-    }
 }
 
 
@@ -0,0 +1,106 @@
+package com.satelliteTracking.model;
+
+import com.satelliteTracking.dto.SatellitePassDTO;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import java.time.LocalDateTime;
+
+/**
+ * Passaggio calcolato e salvato nel database, condiviso tra le istanze dell'applicazione
+ * e tra i riavvii. Chiave logica: cella dell'osservatore, parametri della ricerca,
+ * satellite, set di elementi orbitali usato e istante di sorgere.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "satellite_passes", indexes = {
+    @Index(name = "idx_satellite_passes_lookup", columnList = "observerKey, queryKey, catalogFetchedAt, riseTime"),
+    @Index(name = "idx_satellite_passes_satellite", columnList = "satelliteId, elementSetId"),
+    @Index(name = "idx_satellite_passes_set_time", columnList = "setTime")
+})
+public class SatellitePass {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Posizione dell'osservatore arrotondata (vedi PassStoreService.observerKey)
+    @Column(nullable = false, length = 64)
+    private String observerKey;
+
+    // Elevazione minima, condizione, magnitudine e filtri della ricerca
+    @Column(nullable = false)
+    private String queryKey;
+
+    // fetchedAt più recente del catalogo usato per il calcolo (uguale su tutte le istanze)
+    @Column(nullable = false)
+    private LocalDateTime catalogFetchedAt;
+
+    @Column(nullable = false)
+    private Long satelliteId;
+
+    // ID del set di parametri orbitali usato
+    private Long elementSetId;
+
+    private String satelliteName;
+
+    @Column(nullable = false)
+    private LocalDateTime riseTime;
+
+    private LocalDateTime maxElevationTime;
+
+    @Column(nullable = false)
+    private LocalDateTime setTime;
+
+    private double maxElevation;
+    private double riseAzimuth;
+    private double maxElevationAzimuth;
+    private double setAzimuth;
+    private double maxDistance;
+    private boolean visible;
+    private boolean sunlit;
+
+    @Column(length = 16)
+    private String visibility;
+
+    @Column(length = 16)
+    private String observingCondition;
+
+    private double estimatedMagnitude;
+    private double satelliteAltitudeKm;
+
+    public SatellitePass() {
+    }
+
+    public SatellitePass(String observerKey, String queryKey, LocalDateTime catalogFetchedAt,
+                         Long elementSetId, SatellitePassDTO pass) {
+        this.observerKey = observerKey;
+        this.queryKey = queryKey;
+        this.catalogFetchedAt = catalogFetchedAt;
+        this.elementSetId = elementSetId;
+        this.satelliteId = pass.satelliteId();
+        this.satelliteName = pass.satelliteName();
+        this.riseTime = pass.riseTime();
+        this.maxElevationTime = pass.maxElevationTime();
+        this.setTime = pass.setTime();
+        this.maxElevation = pass.maxElevation();
+        this.riseAzimuth = pass.riseAzimuth();
+        this.maxElevationAzimuth = pass.maxElevationAzimuth();
+        this.setAzimuth = pass.setAzimuth();
+        this.maxDistance = pass.maxDistance();
+        this.visible = pass.isVisible();
+        this.sunlit = pass.isSunlit();
+        this.visibility = pass.visibility();
+        this.observingCondition = pass.observingCondition();
+        this.estimatedMagnitude = pass.estimatedMagnitude();
+        this.satelliteAltitudeKm = pass.satelliteAltitudeKm();
+    }
+
+    public SatellitePassDTO toDto() {
+        return new SatellitePassDTO(satelliteId, satelliteName, riseTime, maxElevationTime, setTime,
+                                    maxElevation, riseAzimuth, maxElevationAzimuth, setAzimuth, maxDistance,
+                                    visible, sunlit, visibility, observingCondition, estimatedMagnitude,
+                                    satelliteAltitudeKm);
+    }
+}
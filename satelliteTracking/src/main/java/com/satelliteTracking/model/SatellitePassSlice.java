@@ -0,0 +1,64 @@
+package com.satelliteTracking.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import java.time.LocalDateTime;
+
+/**
+ * Fetta di tempo già calcolata per un osservatore e una ricerca.
+ * Serve a distinguere una fetta senza passaggi da una fetta mai calcolata.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "satellite_pass_slices",
+       uniqueConstraints = @UniqueConstraint(name = "uk_satellite_pass_slices",
+           columnNames = {"observerKey", "queryKey", "catalogFetchedAt", "sliceMinutes", "sliceStart"}),
+       indexes = @Index(name = "idx_satellite_pass_slices_end", columnList = "sliceEnd"))
+public class SatellitePassSlice {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String observerKey;
+
+    @Column(nullable = false)
+    private String queryKey;
+
+    @Column(nullable = false)
+    private LocalDateTime catalogFetchedAt;
+
+    @Column(nullable = false)
+    private Integer sliceMinutes;
+
+    @Column(nullable = false)
+    private LocalDateTime sliceStart;
+
+    @Column(nullable = false)
+    private LocalDateTime sliceEnd;
+
+    @Column(nullable = false)
+    private Integer passCount;
+
+    @Column(nullable = false)
+    private LocalDateTime computedAt;
+
+    public SatellitePassSlice() {
+    }
+
+    public SatellitePassSlice(String observerKey, String queryKey, LocalDateTime catalogFetchedAt, int sliceMinutes,
+                              LocalDateTime sliceStart, LocalDateTime sliceEnd, int passCount,
+                              LocalDateTime computedAt) {
+        this.observerKey = observerKey;
+        this.queryKey = queryKey;
+        this.catalogFetchedAt = catalogFetchedAt;
+        this.sliceMinutes = sliceMinutes;
+        this.sliceStart = sliceStart;
+        this.sliceEnd = sliceEnd;
+        this.passCount = passCount;
+        this.computedAt = computedAt;
+    }
+}
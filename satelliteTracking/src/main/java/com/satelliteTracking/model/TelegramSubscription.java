@@ -43,6 +43,10 @@ public class TelegramSubscription {
     @Column(nullable = false)
     private Double minElevation = 10.0; // Elevazione minima
     
+    // "optical" o "radio"; nullable per non invalidare le righe già presenti
+    @Column(length = 16)
+    private String passMode = "optical";
+    
     @Column(nullable = false)
     private Boolean notificationsEnabled = true;
     
@@ -151,6 +155,14 @@ public class TelegramSubscription {
         this.minElevation = minElevation;
     }
     
+    public String getPassMode() {
+        return passMode != null ? passMode : "optical";
+    }
+    
+    public void setPassMode(String passMode) {
+        this.passMode = passMode;
+    }
+    
     public Boolean getNotificationsEnabled() {
         return notificationsEnabled;
     }
@@ -0,0 +1,12 @@
+package com.satelliteTracking.repository;
+
+import com.satelliteTracking.model.CatalogVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersion, Long> {
+
+    // Ultima versione pubblicata del catalogo
+    CatalogVersion findTopByOrderByIdDesc();
+}
@@ -0,0 +1,9 @@
+package com.satelliteTracking.repository;
+
+import com.satelliteTracking.model.CelestrakGroupState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CelestrakGroupStateRepository extends JpaRepository<CelestrakGroupState, String> {
+}
@@ -3,8 +3,11 @@ package com.satelliteTracking.repository;
 import com.satelliteTracking.model.OrbitalParameters;
 import com.satelliteTracking.model.Satellite;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -18,4 +21,15 @@ public interface OrbitalParametersRepository extends JpaRepository<OrbitalParame
     
     // Trova l'ultimo parametro orbitale scaricato (di qualsiasi satellite)
     OrbitalParameters findTopByOrderByFetchedAtDesc();
+
+    // Trova i parametri orbitali più recenti di TUTTI i satelliti in una sola query (satellite già caricato)
+    @Query("SELECT op FROM OrbitalParameters op JOIN FETCH op.satellite s " +
+           "WHERE op.fetchedAt = (SELECT MAX(o2.fetchedAt) FROM OrbitalParameters o2 WHERE o2.satellite = s)")
+    List<OrbitalParameters> findLatestForAllSatellites();
+
+    // Come findLatestForAllSatellites, ma solo tra i set pubblicati (fetchedAt fino alla versione corrente)
+    @Query("SELECT op FROM OrbitalParameters op JOIN FETCH op.satellite s " +
+           "WHERE op.fetchedAt = (SELECT MAX(o2.fetchedAt) FROM OrbitalParameters o2 " +
+           "WHERE o2.satellite = s AND o2.fetchedAt <= :publishedFetchedAt)")
+    List<OrbitalParameters> findLatestPublished(@Param("publishedFetchedAt") LocalDateTime publishedFetchedAt);
 }
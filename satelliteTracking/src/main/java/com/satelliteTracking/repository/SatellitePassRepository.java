@@ -0,0 +1,31 @@
+package com.satelliteTracking.repository;
+
+import com.satelliteTracking.model.SatellitePass;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SatellitePassRepository extends JpaRepository<SatellitePass, Long> {
+
+    // Passaggi salvati di un osservatore e una ricerca che sorgono in [from, to)
+    @Query("SELECT p FROM SatellitePass p WHERE p.observerKey = :observerKey AND p.queryKey = :queryKey " +
+           "AND p.catalogFetchedAt = :catalogFetchedAt AND p.riseTime >= :from AND p.riseTime < :to " +
+           "ORDER BY p.riseTime")
+    List<SatellitePass> findInWindow(@Param("observerKey") String observerKey,
+                                     @Param("queryKey") String queryKey,
+                                     @Param("catalogFetchedAt") LocalDateTime catalogFetchedAt,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to);
+
+    // Elimina i passaggi già conclusi e quelli calcolati con cataloghi precedenti
+    @Modifying
+    @Query("DELETE FROM SatellitePass p WHERE p.setTime < :before OR p.catalogFetchedAt < :catalogFetchedAt")
+    int deleteExpired(@Param("before") LocalDateTime before,
+                      @Param("catalogFetchedAt") LocalDateTime catalogFetchedAt);
+}
@@ -0,0 +1,32 @@
+package com.satelliteTracking.repository;
+
+import com.satelliteTracking.model.SatellitePassSlice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SatellitePassSliceRepository extends JpaRepository<SatellitePassSlice, Long> {
+
+    // Fette già calcolate di un osservatore e una ricerca con inizio in [from, to)
+    @Query("SELECT s FROM SatellitePassSlice s WHERE s.observerKey = :observerKey AND s.queryKey = :queryKey " +
+           "AND s.catalogFetchedAt = :catalogFetchedAt AND s.sliceMinutes = :sliceMinutes " +
+           "AND s.sliceStart >= :from AND s.sliceStart < :to")
+    List<SatellitePassSlice> findInWindow(@Param("observerKey") String observerKey,
+                                          @Param("queryKey") String queryKey,
+                                          @Param("catalogFetchedAt") LocalDateTime catalogFetchedAt,
+                                          @Param("sliceMinutes") int sliceMinutes,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to);
+
+    // Elimina le fette trascorse e quelle calcolate con cataloghi precedenti
+    @Modifying
+    @Query("DELETE FROM SatellitePassSlice s WHERE s.sliceEnd < :before OR s.catalogFetchedAt < :catalogFetchedAt")
+    int deleteExpired(@Param("before") LocalDateTime before,
+                      @Param("catalogFetchedAt") LocalDateTime catalogFetchedAt);
+}
@@ -1,19 +1,32 @@
 package com.satelliteTracking.scheduler;
+import com.satelliteTracking.config.ComputePool;
+import com.satelliteTracking.dto.RadioPassDTO;
 import com.satelliteTracking.dto.SatellitePassDTO;
+import com.satelliteTracking.model.CatalogEntry;
 import com.satelliteTracking.model.ObserverLocation;
-import com.satelliteTracking.model.OrbitalParameters;
+import com.satelliteTracking.model.PassMode;
 import com.satelliteTracking.model.TelegramSubscription;
-import com.satelliteTracking.repository.OrbitalParametersRepository;
 import com.satelliteTracking.repository.SatelliteRepository;
 import com.satelliteTracking.service.CelestrakService;
+import com.satelliteTracking.service.CoOrbitalClusterService;
+import com.satelliteTracking.service.PassGridService;
+import com.satelliteTracking.service.ConjunctionScreeningService;
+import com.satelliteTracking.service.PassPrewarmService;
 import com.satelliteTracking.service.SatellitePassService;
+import com.satelliteTracking.service.SatellitePositionIndexService;
+import com.satelliteTracking.service.SubscriberFootprintIndexService;
 import com.satelliteTracking.service.TelegramNotificationService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.scheduling.annotation.Scheduled;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Component
 public class SatelliteScheduler {
@@ -21,39 +34,71 @@ public class SatelliteScheduler {
     private final CelestrakService celestrakService;
     private final SatellitePassService passService;
     private final TelegramNotificationService telegramNotificationService;
-    private final OrbitalParametersRepository orbitalParametersRepository;
+    private final SatellitePositionIndexService positionIndexService;
+    private final ConjunctionScreeningService conjunctionScreeningService;
+    private final SubscriberFootprintIndexService footprintIndexService;
+    private final CoOrbitalClusterService clusterService;
+    private final PassPrewarmService prewarmService;
+    private final PassGridService gridService;
+    private final ComputePool computePool;
+    private final Clock clock;
+
+    // Finestra e elevazione minima dei passaggi notificati su Telegram
+    private static final int NOTIFICATION_WINDOW_HOURS = 3;
+    private static final double NOTIFICATION_MIN_ELEVATION = 30.0;
+
+    // Elevazione minima per gli iscritti in modalità radio (notifications.radio.min-elevation)
+    private final double radioMinElevation;
 
     public SatelliteScheduler(CelestrakService celestrakService,
                               SatellitePassService passService,
                               TelegramNotificationService telegramNotificationService,
-                              OrbitalParametersRepository orbitalParametersRepository) {
+                              SatellitePositionIndexService positionIndexService,
+                              ConjunctionScreeningService conjunctionScreeningService,
+                              SubscriberFootprintIndexService footprintIndexService,
+                              CoOrbitalClusterService clusterService,
+                              PassPrewarmService prewarmService,
+                              PassGridService gridService,
+                              ComputePool computePool,
+                              Clock clock,
+                              @Value("${notifications.radio.min-elevation:10.0}") double radioMinElevation) {
         this.celestrakService = celestrakService;
         this.passService = passService;
         this.telegramNotificationService = telegramNotificationService;
-        this.orbitalParametersRepository = orbitalParametersRepository;
+        this.positionIndexService = positionIndexService;
+        this.conjunctionScreeningService = conjunctionScreeningService;
+        this.footprintIndexService = footprintIndexService;
+        this.clusterService = clusterService;
+        this.prewarmService = prewarmService;
+        this.gridService = gridService;
+        this.computePool = computePool;
+        this.clock = clock;
+        this.radioMinElevation = radioMinElevation;
     }
 
-    @Scheduled(initialDelay = 60000, fixedRate = 10800000) // Primo download dopo 1 minuto, poi ogni 3 ore
+    /**
+     * Task schedulato per aggiornare i gruppi Celestrak. Ogni gruppo ha il suo intervallo
+     * di aggiornamento: il controllo è frequente, ma vengono scaricati solo i gruppi scaduti.
+     */
+    @Scheduled(initialDelay = 60000, fixedRateString = "${celestrak.refresh.check-interval-ms:3600000}")
     public void updateSatellites() {
-        // Controlla se ci sono già dati recenti
-        OrbitalParameters lastUpdate = orbitalParametersRepository.findTopByOrderByFetchedAtDesc();
-        
-        if (lastUpdate != null) {
-            long hoursSinceLastUpdate = ChronoUnit.HOURS.between(lastUpdate.getFetchedAt(), LocalDateTime.now());
-            
-            if (hoursSinceLastUpdate < 3) {
-                System.out.println("⏭️  [Satellite Update] Saltato download - dati aggiornati " + 
-                                 hoursSinceLastUpdate + " ore fa (threshold: 3 ore)");
-                return;
-            }
-            
-            System.out.println("🔄 [Satellite Update] Download necessario - ultimo aggiornamento " + 
-                             hoursSinceLastUpdate + " ore fa");
-        } else {
-            System.out.println("🔄 [Satellite Update] Primo download - database vuoto");
+        CelestrakService.RefreshSummary summary = celestrakService.fetchAndSaveStations(false);
+        if (summary != null && summary.elementSets() == 0) {
+            // Nessun set di elementi nuovo: catalogo, gruppi e griglia restano validi
+            System.out.println("⏭️  [Satellite Update] Nessun set di elementi cambiato (" + summary.unchanged() +
+                             " invariati): ricalcoli saltati");
+            return;
         }
-        
-        celestrakService.fetchAndSaveStations();
+
+        // Raggruppa subito i satelliti co-orbitali del nuovo catalogo,
+        // invece di farlo alla prima ricerca dei passaggi
+        try {
+            clusterService.getIndex();
+        } catch (Exception e) {
+            System.err.println("❌ Errore raggruppamento co-orbitale: " + e.getMessage());
+        }
+
+        refreshPassGrid();
     }
 
     /**
@@ -70,18 +115,93 @@ public class SatelliteScheduler {
     }
 
     /**
-     * Task schedulato per pre-calcolare i passaggi visibili
-     * Popola la cache ogni ora con i passaggi delle prossime 3 ore
-     * dalla posizione di default (San Marcellino)
+     * Task schedulato per aggiornare l'indice spaziale delle posizioni correnti
+     * (punti sub-satellite usati dall'endpoint /overhead), eseguito sul thread dell'indice
      */
-    @Scheduled(fixedRate = 3600000) // Ogni 1 ora
+    @Scheduled(fixedRate = 30000, initialDelay = 20000) // Ogni 30 secondi
+    public void refreshSatellitePositions() {
+        // La propagazione gira sul thread dell'indice, non su quello dello scheduler
+        if (!positionIndexService.refreshPositionsAsync()) {
+            System.out.println("⏳ Indice posizioni: tick precedente ancora in corso... salta.");
+        }
+    }
+
+    /**
+     * Task schedulato per la griglia globale dei passaggi (passes.grid.enabled).
+     * Ricalcola la griglia quando il catalogo cambia o la finestra coperta si esaurisce,
+     * e riprende un calcolo interrotto dal primo blocco non completato
+     */
+    @Scheduled(initialDelay = 300000, fixedRateString = "${passes.grid.interval-ms:1800000}")
+    public void refreshPassGrid() {
+        try {
+            gridService.rebuild();
+        } catch (Exception e) {
+            System.err.println("❌ Errore griglia passaggi: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Task schedulato per ripulire l'archivio dei passaggi nel database
+     * (fette trascorse e calcolate con cataloghi precedenti)
+     */
+    @Scheduled(initialDelay = 600000, fixedRate = 3600000) // Ogni 1 ora
+    public void purgeStoredPasses() {
+        try {
+            passService.purgeStoredPasses();
+        } catch (Exception e) {
+            System.err.println("❌ Errore pulizia archivio passaggi: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Task schedulato per lo screening delle congiunzioni su tutto il catalogo.
+     * Disabilitato di default (conjunction.cron=-)
+     */
+    @Scheduled(cron = "${conjunction.cron:-}")
+    public void screenConjunctions() {
+        try {
+            conjunctionScreeningService.runScreening();
+        } catch (Exception e) {
+            System.err.println("❌ Errore screening congiunzioni: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Task schedulato per pre-calcolare i passaggi visibili.
+     * Popola il cache con le chiavi più richieste (cella dell'osservatore + parametri),
+     * calcolate in parallelo sul pool di calcolo. La posizione di default (San Marcellino)
+     * è una chiave come le altre: parte con un punteggio iniziale e poi decade.
+     * L'intervallo è più breve di una fetta del cache, così la fetta successiva è pronta
+     * prima che la finestra la raggiunga.
+     */
+    @Scheduled(initialDelay = 120000, fixedRateString = "${passes.prewarm.interval-ms:300000}")
     public void precomputeUpcomingPasses() {
-        System.out.println("🔄 [Pass Precalculator] Inizio pre-calcolo passaggi (3 ore)...");
+        System.out.println("🔄 [Pass Precalculator] Inizio pre-calcolo passaggi...");
         try {
-            // Calcola passaggi con parametri standard
-            // 3 ore, elevazione minima 10°, qualsiasi condizione, magnitudine fino a 6.0
-            List<SatellitePassDTO> passes = passService.findVisibleUpcomingPasses(3, 10.0);
-            System.out.println("✅ [Pass Precalculator] Pre-calcolati " + passes.size() + " passaggi visibili");
+            List<PassPrewarmService.PrewarmTarget> targets = prewarmService.selectTargets();
+            if (targets.isEmpty()) {
+                System.out.println("⏭️  [Pass Precalculator] Nessuna chiave calda da pre-calcolare");
+                return;
+            }
+
+            long startTime = System.currentTimeMillis();
+            List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            for (PassPrewarmService.PrewarmTarget target : targets) {
+                futures.add(CompletableFuture.supplyAsync(() -> passService.prewarm(target), computePool.getExecutor()));
+            }
+
+            int computedSlices = 0;
+            int failed = 0;
+            for (CompletableFuture<Integer> future : futures) {
+                try {
+                    computedSlices += future.join();
+                } catch (Exception e) {
+                    failed++;
+                }
+            }
+            System.out.println("🔥 [Pass Precalculator] " + targets.size() + " chiavi calde, " + computedSlices +
+                             " fette calcolate in " + (System.currentTimeMillis() - startTime) + " ms" +
+                             (failed > 0 ? " (" + failed + " errori)" : ""));
         } catch (Exception e) {
             System.err.println("❌ Errore pre-calcolo passaggi: " + e.getMessage());
         }
@@ -98,7 +218,9 @@ public class SatelliteScheduler {
         try {
             List<TelegramSubscription> subscriptions = telegramNotificationService.getAllSubscriptions();
             System.out.println("📊 Trovate " + subscriptions.size() + " subscription nel database");
-            
+
+            List<TelegramSubscription> enabledSubscriptions = new ArrayList<>();
+            List<TelegramSubscription> radioSubscriptions = new ArrayList<>();
             for (TelegramSubscription sub : subscriptions) {
                 System.out.println("🔍 Controllo subscription ID=" + sub.getId() + 
                                  " user=" + sub.getUserIdentifier() + 
@@ -108,7 +230,22 @@ public class SatelliteScheduler {
                     System.out.println("⏭️  Notifiche disabilitate per " + sub.getUserIdentifier());
                     continue;
                 }
-                
+                if (PassMode.fromString(sub.getPassMode()) == PassMode.RADIO) {
+                    radioSubscriptions.add(sub);
+                } else {
+                    enabledSubscriptions.add(sub);
+                }
+            }
+
+            // Un passaggio sul catalogo per modalità: per ogni iscritto i satelliti la cui traccia
+            // al suolo entra nel suo cerchio di visibilità (più ampio per la soglia radio)
+            Map<Long, List<CatalogEntry>> candidates = footprintIndexService.findCandidateSatellites(
+                enabledSubscriptions, NOTIFICATION_WINDOW_HOURS, NOTIFICATION_MIN_ELEVATION);
+            candidates.putAll(footprintIndexService.findCandidateSatellites(
+                radioSubscriptions, NOTIFICATION_WINDOW_HOURS, radioMinElevation));
+            enabledSubscriptions.addAll(radioSubscriptions);
+            
+            for (TelegramSubscription sub : enabledSubscriptions) {
                 try {
                     ObserverLocation location = new ObserverLocation(
                         sub.getLatitude(),
@@ -116,21 +253,31 @@ public class SatelliteScheduler {
                         sub.getAltitude(),
                         sub.getLocationName()
                     );
+
+                    // Modalità radio: nessun filtro ottico, basta l'elevazione
+                    if (PassMode.fromString(sub.getPassMode()) == PassMode.RADIO) {
+                        notifyRadioPasses(sub, location, candidates.getOrDefault(sub.getId(), List.of()));
+                        continue;
+                    }
                     
-                    List<SatellitePassDTO> passes = passService.findVisibleUpcomingPasses(
-                        3,      // Solo prossime 3 ore
-                        30.0,
-                        location,
-                        sub.getObservingCondition(),
-                        sub.getMaxMagnitude()
-                    );
+                    // Calcolo completo solo per i satelliti candidati di questo iscritto
+                    List<SatellitePassDTO> passes = new ArrayList<>();
+                    for (CatalogEntry entry : candidates.getOrDefault(sub.getId(), List.of())) {
+                        for (SatellitePassDTO pass : passService.calculatePasses(entry, NOTIFICATION_WINDOW_HOURS, location)) {
+                            if (passService.matchesFilters(pass, NOTIFICATION_MIN_ELEVATION,
+                                                           sub.getObservingCondition(), sub.getMaxMagnitude())) {
+                                passes.add(pass);
+                            }
+                        }
+                    }
+                    passes.sort((p1, p2) -> p1.riseTime().compareTo(p2.riseTime()));
 
                     System.out.println("Telegram scan for user " + sub.getUserIdentifier() +
                                      " (chatId: " + sub.getChatId() + "): " + passes.size() +
                                      " passes (minElevation=30.0, condition=" + sub.getObservingCondition() +
                                      ", maxMagnitude=" + sub.getMaxMagnitude() + ")");
                     
-                    LocalDateTime now = LocalDateTime.now();
+                    LocalDateTime now = LocalDateTime.now(clock);
                     long minutesSinceLastNotification = java.time.temporal.ChronoUnit.MINUTES
                         .between(sub.getLastNotificationSent(), now);
                     
@@ -168,4 +315,39 @@ public class SatelliteScheduler {
             System.err.println("❌ Errore Telegram scheduler: " + e.getMessage());
         }
     }
+
+    /**
+     * Notifiche per un iscritto in modalità radio: tutti i passaggi dei satelliti candidati
+     * sopra l'elevazione minima radio, senza illuminazione, condizione e magnitudine
+     */
+    private void notifyRadioPasses(TelegramSubscription sub, ObserverLocation location,
+                                   List<CatalogEntry> candidates) {
+        List<RadioPassDTO> passes = new ArrayList<>();
+        for (CatalogEntry entry : candidates) {
+            passes.addAll(passService.calculateRadioPasses(entry, NOTIFICATION_WINDOW_HOURS, location,
+                                                           radioMinElevation));
+        }
+        passes.sort((p1, p2) -> p1.riseTime().compareTo(p2.riseTime()));
+
+        System.out.println("📻 Telegram scan radio per " + sub.getUserIdentifier() +
+                         " (chatId: " + sub.getChatId() + "): " + passes.size() +
+                         " passes (minElevation=" + radioMinElevation + ")");
+
+        LocalDateTime now = LocalDateTime.now(clock);
+        long minutesSinceLastNotification = ChronoUnit.MINUTES.between(sub.getLastNotificationSent(), now);
+        if (minutesSinceLastNotification < 30) {
+            System.out.println("⏭️  Troppo presto per notifiche (ultimo batch: " + minutesSinceLastNotification + " min fa)");
+            return;
+        }
+
+        int notificationsSent = 0;
+        for (RadioPassDTO pass : passes) {
+            if (telegramNotificationService.sendNotificationToUser(sub, pass)) {
+                notificationsSent++;
+            } else {
+                System.out.println("❌ Invio fallito per " + pass.satelliteName());
+            }
+        }
+        System.out.println("📊 Notifiche radio inviate in batch: " + notificationsSent + "/" + passes.size());
+    }
 }
\ No newline at end of file
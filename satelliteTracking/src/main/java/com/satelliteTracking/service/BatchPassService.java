@@ -0,0 +1,205 @@
+package com.satelliteTracking.service;
+
+import com.satelliteTracking.config.ComputePool;
+import com.satelliteTracking.dto.ObserverPassesDTO;
+import com.satelliteTracking.dto.ObserverRadioPassesDTO;
+import com.satelliteTracking.dto.RadioPassDTO;
+import com.satelliteTracking.dto.SatellitePassDTO;
+import com.satelliteTracking.model.CatalogEntry;
+import com.satelliteTracking.model.CatalogSnapshot;
+import com.satelliteTracking.model.ObserverLocation;
+import com.satelliteTracking.util.ObserverFrame;
+import com.satelliteTracking.util.SampledEphemeris;
+import com.satelliteTracking.util.SamplingGrid;
+import com.satelliteTracking.util.TLEConverter;
+import org.orekit.propagation.analytical.tle.TLEPropagator;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Calcolo dei passaggi per molti satelliti × molti osservatori in una sola richiesta.
+ *
+ * Ogni satellite viene propagato una sola volta su una griglia temporale comune
+ * (trasformazioni TEME → ITRF e posizioni del Sole condivise), poi le effemeridi
+ * vengono riusate per tutti gli osservatori. I risultati sono emessi un osservatore
+ * alla volta, appena pronti. In modalità radio le posizioni del Sole non vengono calcolate.
+ */
+@Service
+public class BatchPassService {
+
+    private final SatelliteCatalogService catalogService;
+    private final SatellitePassService passService;
+    private final ComputePool computePool;
+    private final Scheduler scheduler;
+    private final Clock clock;
+
+    // Passo di campionamento, uguale al calcolo dei passaggi singoli
+    private static final double STEP_SECONDS = 60.0;
+
+    /**
+     * Effemeridi di un satellite del catalogo
+     */
+    private record SatelliteEphemeris(CatalogEntry entry, SampledEphemeris ephemeris) {}
+
+    public BatchPassService(SatelliteCatalogService catalogService,
+                            SatellitePassService passService,
+                            ComputePool computePool,
+                            Clock clock) {
+        this.catalogService = catalogService;
+        this.passService = passService;
+        this.computePool = computePool;
+        this.clock = clock;
+        this.scheduler = Schedulers.fromExecutorService(computePool.getExecutor(), "compute");
+    }
+
+    /**
+     * Risolve ID, NORAD ID e gruppi nei satelliti del catalogo (senza duplicati)
+     */
+    public List<CatalogEntry> resolveSatellites(List<Long> satelliteIds, List<Long> noradIds, List<String> groups) {
+        CatalogSnapshot snapshot = catalogService.getSnapshot();
+        Map<Long, CatalogEntry> resolved = new LinkedHashMap<>();
+
+        if (satelliteIds != null) {
+            for (Long id : satelliteIds) {
+                CatalogEntry entry = snapshot.byId().get(id);
+                if (entry != null) {
+                    resolved.put(entry.satelliteId(), entry);
+                }
+            }
+        }
+
+        if ((noradIds != null && !noradIds.isEmpty()) || (groups != null && !groups.isEmpty())) {
+            Map<Long, CatalogEntry> byNorad = new HashMap<>();
+            for (CatalogEntry entry : snapshot.entries()) {
+                byNorad.put(entry.noradCatId(), entry);
+            }
+
+            if (noradIds != null) {
+                for (Long noradId : noradIds) {
+                    CatalogEntry entry = byNorad.get(noradId);
+                    if (entry != null) {
+                        resolved.put(entry.satelliteId(), entry);
+                    }
+                }
+            }
+
+            if (groups != null) {
+                for (CatalogEntry entry : snapshot.entries()) {
+                    for (String group : groups) {
+                        if (group.equalsIgnoreCase(entry.satelliteType())) {
+                            resolved.put(entry.satelliteId(), entry);
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+
+        return new ArrayList<>(resolved.values());
+    }
+
+    /**
+     * Calcola i passaggi di tutti i satelliti per tutti gli osservatori.
+     * Emette un elemento per osservatore, nell'ordine della richiesta.
+     *
+     * @param observers osservatori
+     * @param satellites satelliti del catalogo
+     * @param hours finestra temporale in ore
+     * @param minElevation elevazione minima dei passaggi
+     */
+    public Flux<ObserverPassesDTO> streamPasses(List<ObserverLocation> observers, List<CatalogEntry> satellites,
+                                                int hours, double minElevation) {
+        return stream(observers, satellites, hours,
+                      (i, ephemerides) -> passesForObserver(i, observers.get(i), ephemerides, minElevation));
+    }
+
+    /**
+     * Come {@link #streamPasses}, in modalità radio: passaggi sopra minElevation
+     * senza illuminazione, condizione di osservazione e magnitudine
+     */
+    public Flux<ObserverRadioPassesDTO> streamRadioPasses(List<ObserverLocation> observers,
+                                                          List<CatalogEntry> satellites,
+                                                          int hours, double minElevation) {
+        return stream(observers, satellites, hours,
+                      (i, ephemerides) -> radioPassesForObserver(i, observers.get(i), ephemerides, minElevation));
+    }
+
+    private <T> Flux<T> stream(List<ObserverLocation> observers, List<CatalogEntry> satellites, int hours,
+                               BiFunction<Integer, List<SatelliteEphemeris>, T> perObserver) {
+        int parallelism = computePool.getParallelism();
+        long startTime = System.currentTimeMillis();
+
+        return Mono.fromCallable(() -> SamplingGrid.forWindow(LocalDateTime.now(clock), hours, STEP_SECONDS))
+            .subscribeOn(scheduler)
+            .flatMapMany(grid -> Flux.fromIterable(satellites)
+                .parallel(parallelism)
+                .runOn(scheduler)
+                .flatMap(entry -> Mono.justOrEmpty(propagate(entry, grid)))
+                .sequential()
+                .collectList()
+                .doOnNext(ephemerides -> System.out.println("📦 Batch passaggi: " + ephemerides.size() +
+                    " satelliti propagati [" + (System.currentTimeMillis() - startTime) + "ms]"))
+                .flatMapMany(ephemerides -> Flux.range(0, observers.size())
+                    .flatMapSequential(i -> Mono.fromCallable(() -> perObserver.apply(i, ephemerides))
+                        .subscribeOn(scheduler), parallelism)))
+            .doOnComplete(() -> System.out.println("✅ Batch passaggi completato: " + observers.size() +
+                " osservatori × " + satellites.size() + " satelliti [" +
+                (System.currentTimeMillis() - startTime) + "ms]"));
+    }
+
+    private SatelliteEphemeris propagate(CatalogEntry entry, SamplingGrid grid) {
+        try {
+            TLEPropagator propagator = TLEPropagator.selectExtrapolator(
+                TLEConverter.toOrekitTLE(entry.noradCatId(), entry.parameters()));
+            SampledEphemeris ephemeris = SampledEphemeris.propagate(propagator, grid);
+            return ephemeris.getValidSamples() > 0 ? new SatelliteEphemeris(entry, ephemeris) : null;
+        } catch (Exception e) {
+            // TLE non valido: satellite escluso dal batch
+            return null;
+        }
+    }
+
+    private ObserverPassesDTO passesForObserver(int index, ObserverLocation observer,
+                                                List<SatelliteEphemeris> ephemerides, double minElevation) {
+        ObserverFrame frame = ObserverFrame.of(observer);
+        List<SatellitePassDTO> passes = new ArrayList<>();
+
+        for (SatelliteEphemeris se : ephemerides) {
+            for (SatellitePassDTO pass : passService.findPasses(se.entry().satelliteId(), se.entry().objectName(),
+                                                                se.ephemeris(), frame)) {
+                if (pass.maxElevation() >= minElevation) {
+                    passes.add(pass);
+                }
+            }
+        }
+
+        passes.sort((p1, p2) -> p1.riseTime().compareTo(p2.riseTime()));
+        return new ObserverPassesDTO(index, observer, passes.size(), passes);
+    }
+
+    private ObserverRadioPassesDTO radioPassesForObserver(int index, ObserverLocation observer,
+                                                          List<SatelliteEphemeris> ephemerides, double minElevation) {
+        ObserverFrame frame = ObserverFrame.of(observer);
+        List<RadioPassDTO> passes = new ArrayList<>();
+
+        for (SatelliteEphemeris se : ephemerides) {
+            passes.addAll(passService.findRadioPasses(se.entry().satelliteId(), se.entry().objectName(),
+                                                      se.ephemeris(), frame, minElevation));
+        }
+
+        passes.sort((p1, p2) -> p1.riseTime().compareTo(p2.riseTime()));
+        return new ObserverRadioPassesDTO(index, observer, passes.size(), passes);
+    }
+}
@@ -0,0 +1,423 @@
+package com.satelliteTracking.service;
+
+import com.satelliteTracking.dto.CelestrakSatelliteDTO;
+import com.satelliteTracking.model.OrbitRegime;
+import com.satelliteTracking.util.ElementSetReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Scrittura in blocco dei dati Celestrak con JDBC, senza passare dalle entità JPA.
+ *
+ * Con ID IDENTITY Hibernate non può raggruppare gli insert, quindi ogni satellite costava
+ * una SELECT e uno o due INSERT/UPDATE. Qui un gruppo viene scritto con pochi statement
+ * in batch: upsert dei satelliti (INSERT ... ON CONFLICT sul NORAD ID), lettura degli ID
+ * e insert dei nuovi set di elementi.
+ *
+ * I set di elementi sono solo aggiunti, riferendo il satellite per ID: lo storico non viene
+ * mai letto, quindi il costo di un aggiornamento non cresce con i mesi di storico salvati.
+ * Un set identico all'ultimo salvato (stessa epoca e stessi valori) non viene inserito.
+ *
+ * Un aggiornamento scrive in una Stage: i set di elementi hanno tutti lo stesso fetchedAt e
+ * restano invisibili ai lettori, i nuovi satelliti sono inseriti subito (servono gli ID) e le
+ * modifiche ai satelliti esistenti (nome, tipo, regime) sono tenute in memoria. publish applica
+ * le modifiche e inserisce la versione del catalogo in una sola transazione, anche quando
+ * cambiano solo i dati dei satelliti. I set e le modifiche di un gruppo fallito a metà
+ * (discardGroup) sono eliminati nella stessa transazione: i lettori non vedono mai un
+ * gruppo aggiornato solo in parte.
+ */
+@Service
+public class CatalogBulkWriter {
+
+    /**
+     * Esito della scrittura di un gruppo: satelliti nuovi (anche quelli già salvati ma mai
+     * pubblicati con un set di elementi), satelliti con un set diverso dall'ultimo pubblicato,
+     * satelliti invariati e record scartati perché incompleti
+     */
+    public record GroupWriteResult(int inserted, int changed, int unchanged, int incomplete, int elementSets,
+                                   long durationMs) {}
+
+    /**
+     * Aggiornamento in corso, usato da un solo thread di scrittura: fetchedAt comune dei set
+     * di elementi, impronta dell'ultimo set per NORAD ID e dati dei satelliti da pubblicare
+     * (solo quelli diversi da quanto salvato), con il gruppo che li ha prodotti
+     */
+    public static final class Stage {
+        private final LocalDateTime fetchedAt;
+        private final Map<Long, String> latest;
+        private final Map<Long, SqlParameterSource> satellites = new LinkedHashMap<>();
+        private final Map<Long, String> satelliteGroups = new HashMap<>();
+        private final Map<String, List<Long>> writtenSatelliteIds = new HashMap<>();
+        private final List<Long> discardedSatelliteIds = new ArrayList<>();
+        private int elementSets;
+
+        private Stage(LocalDateTime fetchedAt, Map<Long, String> latest) {
+            this.fetchedAt = fetchedAt;
+            this.latest = latest;
+        }
+
+        public LocalDateTime getFetchedAt() {
+            return fetchedAt;
+        }
+
+        public int getElementSets() {
+            return elementSets;
+        }
+    }
+
+    private static final String UPSERT_SATELLITE =
+        "INSERT INTO satellites (object_name, object_id, norad_cat_id, satellite_type, orbit_regime) " +
+        "VALUES (:objectName, :objectId, :noradCatId, :satelliteType, :orbitRegime) " +
+        "ON CONFLICT (norad_cat_id) DO UPDATE SET object_name = EXCLUDED.object_name, " +
+        "object_id = EXCLUDED.object_id, satellite_type = CASE WHEN satellites.satellite_type = " +
+        "ANY(string_to_array(:keepTypes, ',')) THEN satellites.satellite_type ELSE EXCLUDED.satellite_type END, " +
+        "orbit_regime = EXCLUDED.orbit_regime";
+
+    private static final String INSERT_NEW_SATELLITE =
+        "INSERT INTO satellites (object_name, object_id, norad_cat_id, satellite_type, orbit_regime) " +
+        "VALUES (:objectName, :objectId, :noradCatId, :satelliteType, :orbitRegime) " +
+        "ON CONFLICT (norad_cat_id) DO NOTHING";
+
+    private static final String INSERT_ORBITAL_PARAMETERS =
+        "INSERT INTO orbital_parameters (satellite_id, epoch, inclination, ra_of_asc_node, eccentricity, " +
+        "arg_of_pericenter, mean_anomaly, mean_motion, bstar, mean_motion_dot, mean_motion_ddot, " +
+        "element_set_no, rev_at_epoch, fetched_at) " +
+        "VALUES (:satelliteId, :epoch, :inclination, :raOfAscNode, :eccentricity, " +
+        ":argOfPericenter, :meanAnomaly, :meanMotion, :bstar, :meanMotionDot, :meanMotionDdot, " +
+        ":elementSetNo, :revAtEpoch, :fetchedAt)";
+
+    /**
+     * Dati salvati di un satellite esistente, per preparare solo le modifiche reali
+     */
+    private record StoredSatellite(String objectName, String objectId, String satelliteType, String orbitRegime) {}
+
+    private static final String SELECT_IDS =
+        "SELECT id, norad_cat_id FROM satellites WHERE norad_cat_id IN (:noradIds)";
+
+    private static final String SELECT_SATELLITES =
+        "SELECT norad_cat_id, object_name, object_id, satellite_type, orbit_regime " +
+        "FROM satellites WHERE norad_cat_id IN (:noradIds)";
+
+    private static final String SELECT_LATEST_ELEMENT_SETS =
+        "SELECT DISTINCT ON (op.satellite_id) s.norad_cat_id, op.epoch, op.inclination, op.ra_of_asc_node, " +
+        "op.eccentricity, op.arg_of_pericenter, op.mean_anomaly, op.mean_motion " +
+        "FROM orbital_parameters op JOIN satellites s ON s.id = op.satellite_id " +
+        "WHERE op.fetched_at <= (SELECT MAX(fetched_at) FROM catalog_versions) " +
+        "ORDER BY op.satellite_id, op.fetched_at DESC, op.id DESC";
+
+    private static final String DELETE_ELEMENT_SETS =
+        "DELETE FROM orbital_parameters WHERE fetched_at = :fetchedAt AND satellite_id IN (:satelliteIds)";
+
+    private static final String INSERT_CATALOG_VERSION =
+        "INSERT INTO catalog_versions (fetched_at, published_at, element_sets, new_satellites, changed_satellites) " +
+        "VALUES (:fetchedAt, :publishedAt, :elementSets, :newSatellites, :changedSatellites)";
+
+    // Database precedente alle versioni: pubblica i set già presenti, prima di scriverne di nuovi
+    private static final String INSERT_BASELINE_VERSION =
+        "INSERT INTO catalog_versions (fetched_at, published_at, element_sets, new_satellites, changed_satellites) " +
+        "SELECT MAX(fetched_at), :publishedAt, 0, 0, 0 FROM orbital_parameters " +
+        "WHERE NOT EXISTS (SELECT 1 FROM catalog_versions) HAVING COUNT(*) > 0";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final Clock clock;
+    private final int batchSize;
+
+    public CatalogBulkWriter(NamedParameterJdbcTemplate jdbc,
+                             Clock clock,
+                             @Value("${celestrak.ingest.batch-size:1000}") int batchSize) {
+        this.jdbc = jdbc;
+        this.clock = clock;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Inizia un aggiornamento: tutti i suoi set di elementi avranno questo fetchedAt
+     */
+    @Transactional
+    public Stage beginStage(LocalDateTime fetchedAt) {
+        jdbc.update(INSERT_BASELINE_VERSION, Map.of("publishedAt", Timestamp.valueOf(fetchedAt)));
+        return new Stage(fetchedAt, loadLatestElementSets());
+    }
+
+    /**
+     * Pubblica un aggiornamento in una transazione: applica le modifiche ai satelliti e
+     * inserisce la versione che rende visibili i nuovi set di elementi. Basta una modifica
+     * ai satelliti (es. un nuovo tipo) per pubblicare una versione: è la nuova versione che
+     * fa ricaricare il catalogo alle istanze.
+     *
+     * @return true se è stata pubblicata una nuova versione
+     */
+    @Transactional
+    public boolean publish(Stage stage, int newSatellites, int changedSatellites) {
+        Timestamp fetchedAt = Timestamp.valueOf(stage.fetchedAt);
+        List<Long> discarded = stage.discardedSatelliteIds;
+        for (int from = 0; from < discarded.size(); from += batchSize) {
+            jdbc.update(DELETE_ELEMENT_SETS, Map.of(
+                "fetchedAt", fetchedAt,
+                "satelliteIds", discarded.subList(from, Math.min(discarded.size(), from + batchSize))));
+        }
+        if (stage.elementSets == 0 && stage.satellites.isEmpty()) {
+            return false;
+        }
+        executeBatches(UPSERT_SATELLITE, new ArrayList<>(stage.satellites.values()));
+        jdbc.update(INSERT_CATALOG_VERSION, new MapSqlParameterSource()
+            .addValue("fetchedAt", fetchedAt)
+            .addValue("publishedAt", Timestamp.valueOf(LocalDateTime.now(clock)))
+            .addValue("elementSets", stage.elementSets)
+            .addValue("newSatellites", newSatellites)
+            .addValue("changedSatellites", changedSatellites));
+        return true;
+    }
+
+    /**
+     * Esclude dalla pubblicazione un gruppo fallito a metà: i suoi set di elementi già
+     * scritti sono eliminati da publish e le sue modifiche ai satelliti scartate.
+     * I nuovi satelliti già inseriti restano, senza set pubblicati.
+     *
+     * @return set di elementi scartati
+     */
+    public int discardGroup(Stage stage, String group) {
+        stage.satelliteGroups.entrySet().removeIf(entry -> {
+            if (!entry.getValue().equals(group)) {
+                return false;
+            }
+            stage.satellites.remove(entry.getKey());
+            return true;
+        });
+        List<Long> written = stage.writtenSatelliteIds.remove(group);
+        if (written == null) {
+            return 0;
+        }
+        stage.discardedSatelliteIds.addAll(written);
+        stage.elementSets -= written.size();
+        return written.size();
+    }
+
+    /**
+     * Ultimo set di elementi pubblicato di ogni satellite, letto con una sola query.
+     * I set di un aggiornamento mai pubblicato sono ignorati, così vengono riscritti.
+     *
+     * @return impronta del set (epoca e valori) per NORAD ID
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, String> loadLatestElementSets() {
+        Map<Long, String> latest = new HashMap<>();
+        jdbc.query(SELECT_LATEST_ELEMENT_SETS, rs -> {
+            latest.put(rs.getLong("norad_cat_id"), fingerprint(
+                rs.getString("epoch"), rs.getDouble("inclination"), rs.getDouble("ra_of_asc_node"),
+                rs.getDouble("eccentricity"), rs.getDouble("arg_of_pericenter"),
+                rs.getDouble("mean_anomaly"), rs.getDouble("mean_motion")));
+        });
+        return latest;
+    }
+
+    /**
+     * Scrive un gruppo in una transazione: crea i nuovi satelliti, prepara gli aggiornamenti
+     * di quelli esistenti per la pubblicazione e aggiunge un nuovo set di elementi per
+     * ciascuno, se diverso dall'ultimo salvato. I duplicati nel gruppo (stesso NORAD ID)
+     * sono ridotti all'ultimo; i record senza epoca o con elementi mancanti sono scartati.
+     *
+     * @param laterGroups gruppi che hanno la precedenza sul tipo del satellite: un satellite già
+     *                    assegnato a uno di questi gruppi mantiene il suo tipo anche se quel
+     *                    gruppo non viene scaricato in questo aggiornamento (un satellite
+     *                    uscito da un gruppo successivo mantiene quel tipo)
+     * @param typeOnly NORAD ID di cui aggiornare solo i dati del satellite, senza nuovo set
+     *                 di elementi (già scritto da un altro gruppo nello stesso aggiornamento)
+     */
+    @Transactional
+    public GroupWriteResult writeGroup(Stage stage, String group, List<String> laterGroups,
+                                       List<CelestrakSatelliteDTO> satellites, Set<Long> typeOnly) {
+        long startTime = System.currentTimeMillis();
+
+        Map<Long, CelestrakSatelliteDTO> byNorad = new LinkedHashMap<>();
+        int incomplete = 0;
+        for (CelestrakSatelliteDTO dto : satellites) {
+            if (ElementSetReader.isComplete(dto)) {
+                byNorad.put(dto.noradCatId(), dto);
+            } else {
+                incomplete++;
+            }
+        }
+        List<Long> noradIds = new ArrayList<>(byNorad.keySet());
+
+        Map<Long, StoredSatellite> stored = findStored(noradIds);
+
+        // Modifiche alla Stage applicate solo dopo l'insert dei set: se la transazione fallisce
+        // la Stage resta com'era e un gruppo successivo con gli stessi satelliti li riscrive
+        Map<Long, SqlParameterSource> updatedRows = new LinkedHashMap<>();
+        Set<Long> unchangedRows = new HashSet<>();
+        String keepTypes = String.join(",", laterGroups);
+        List<SqlParameterSource> newRows = new ArrayList<>();
+        for (CelestrakSatelliteDTO dto : byNorad.values()) {
+            OrbitRegime regime = OrbitRegime.classify(dto.meanMotion(), dto.eccentricity());
+            SqlParameterSource row = new MapSqlParameterSource()
+                .addValue("objectName", dto.objectName())
+                .addValue("objectId", dto.objectId())
+                .addValue("noradCatId", dto.noradCatId())
+                .addValue("satelliteType", group)
+                .addValue("keepTypes", keepTypes)
+                .addValue("orbitRegime", regime != null ? regime.name() : null);
+            StoredSatellite current = stored.get(dto.noradCatId());
+            if (current == null) {
+                newRows.add(row);
+            } else if (isUnchanged(current, dto, laterGroups.contains(current.satelliteType()) ?
+                                   current.satelliteType() : group, regime)) {
+                unchangedRows.add(dto.noradCatId());
+            } else {
+                updatedRows.put(dto.noradCatId(), row);
+            }
+        }
+        executeBatches(INSERT_NEW_SATELLITE, newRows);
+
+        Map<Long, Long> ids = findIds(noradIds);
+        Map<Long, CelestrakSatelliteDTO> bySatelliteId = new LinkedHashMap<>();
+        Map<Long, String> fingerprints = new HashMap<>();
+        int inserted = 0;
+        int changed = 0;
+        int unchanged = 0;
+        for (CelestrakSatelliteDTO dto : byNorad.values()) {
+            Long satelliteId = ids.get(dto.noradCatId());
+            if (satelliteId == null || typeOnly.contains(dto.noradCatId())) {
+                continue;
+            }
+            String fingerprint = fingerprint(dto.epoch(), dto.inclination(), dto.raOfAscNode(), dto.eccentricity(),
+                                             dto.argOfPericenter(), dto.meanAnomaly(), dto.meanMotion());
+            // Senza un set pubblicato il satellite è nuovo per i lettori, anche se era già salvato
+            String latest = stage.latest.get(dto.noradCatId());
+            if (latest == null) {
+                inserted++;
+            } else if (fingerprint.equals(latest)) {
+                unchanged++;
+                continue;
+            } else {
+                changed++;
+            }
+            bySatelliteId.put(satelliteId, dto);
+            fingerprints.put(dto.noradCatId(), fingerprint);
+        }
+        int elementSets = appendElementSets(bySatelliteId, stage.fetchedAt);
+
+        stage.latest.putAll(fingerprints);
+        // Un aggiornamento preparato da un gruppo con meno precedenza non vale più
+        for (Long noradId : unchangedRows) {
+            stage.satellites.remove(noradId);
+            stage.satelliteGroups.remove(noradId);
+        }
+        for (Map.Entry<Long, SqlParameterSource> entry : updatedRows.entrySet()) {
+            stage.satellites.put(entry.getKey(), entry.getValue());
+            stage.satelliteGroups.put(entry.getKey(), group);
+        }
+        stage.elementSets += elementSets;
+        stage.writtenSatelliteIds.computeIfAbsent(group, g -> new ArrayList<>()).addAll(bySatelliteId.keySet());
+
+        return new GroupWriteResult(inserted, changed, unchanged, incomplete, elementSets,
+                                    System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Aggiunge un nuovo set di elementi per ogni satellite, senza caricare né il satellite
+     * né il suo storico
+     *
+     * @param bySatelliteId elementi per ID del satellite
+     * @return righe inserite
+     */
+    @Transactional
+    public int appendElementSets(Map<Long, CelestrakSatelliteDTO> bySatelliteId, LocalDateTime fetchedAt) {
+        Timestamp fetchedAtTimestamp = Timestamp.valueOf(fetchedAt);
+        List<SqlParameterSource> parameterRows = new ArrayList<>();
+        for (Map.Entry<Long, CelestrakSatelliteDTO> entry : bySatelliteId.entrySet()) {
+            Long satelliteId = entry.getKey();
+            CelestrakSatelliteDTO dto = entry.getValue();
+            parameterRows.add(new MapSqlParameterSource()
+                .addValue("satelliteId", satelliteId)
+                .addValue("epoch", dto.epoch())
+                .addValue("inclination", dto.inclination())
+                .addValue("raOfAscNode", dto.raOfAscNode())
+                .addValue("eccentricity", dto.eccentricity())
+                .addValue("argOfPericenter", dto.argOfPericenter())
+                .addValue("meanAnomaly", dto.meanAnomaly())
+                .addValue("meanMotion", dto.meanMotion())
+                .addValue("bstar", dto.bstar())
+                .addValue("meanMotionDot", dto.meanMotionDot())
+                .addValue("meanMotionDdot", dto.meanMotionDdot())
+                .addValue("elementSetNo", dto.elementSetNo())
+                .addValue("revAtEpoch", dto.revAtEpoch())
+                .addValue("fetchedAt", fetchedAtTimestamp));
+        }
+        executeBatches(INSERT_ORBITAL_PARAMETERS, parameterRows);
+        return parameterRows.size();
+    }
+
+    /**
+     * Epoca e valori di un set di elementi, per riconoscere i set già salvati
+     */
+    private static String fingerprint(String epoch, double inclination, double raOfAscNode, double eccentricity,
+                                      double argOfPericenter, double meanAnomaly, double meanMotion) {
+        return epoch + "|" + inclination + "|" + raOfAscNode + "|" + eccentricity + "|" +
+               argOfPericenter + "|" + meanAnomaly + "|" + meanMotion;
+    }
+
+    /**
+     * true se l'upsert lascerebbe il satellite com'è (type è il tipo risultante dopo keepTypes)
+     */
+    private static boolean isUnchanged(StoredSatellite current, CelestrakSatelliteDTO dto, String type,
+                                       OrbitRegime regime) {
+        return Objects.equals(current.objectName(), dto.objectName()) &&
+               Objects.equals(current.objectId(), dto.objectId()) &&
+               Objects.equals(current.satelliteType(), type) &&
+               Objects.equals(current.orbitRegime(), regime != null ? regime.name() : null);
+    }
+
+    /**
+     * Dati salvati dei satelliti per NORAD ID, letti a blocchi come gli ID
+     */
+    private Map<Long, StoredSatellite> findStored(List<Long> noradIds) {
+        Map<Long, StoredSatellite> satellites = new HashMap<>();
+        for (int from = 0; from < noradIds.size(); from += batchSize) {
+            List<Long> chunk = noradIds.subList(from, Math.min(noradIds.size(), from + batchSize));
+            jdbc.query(SELECT_SATELLITES, Map.of("noradIds", chunk), rs -> {
+                satellites.put(rs.getLong("norad_cat_id"), new StoredSatellite(
+                    rs.getString("object_name"), rs.getString("object_id"),
+                    rs.getString("satellite_type"), rs.getString("orbit_regime")));
+            });
+        }
+        return satellites;
+    }
+
+    /**
+     * ID dei satelliti per NORAD ID, letti a blocchi per restare sotto il limite
+     * di parametri di uno statement
+     */
+    private Map<Long, Long> findIds(List<Long> noradIds) {
+        Map<Long, Long> ids = new HashMap<>();
+        for (int from = 0; from < noradIds.size(); from += batchSize) {
+            List<Long> chunk = noradIds.subList(from, Math.min(noradIds.size(), from + batchSize));
+            jdbc.query(SELECT_IDS, Map.of("noradIds", chunk),
+                       rs -> { ids.put(rs.getLong("norad_cat_id"), rs.getLong("id")); });
+        }
+        return ids;
+    }
+
+    private void executeBatches(String sql, List<SqlParameterSource> rows) {
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<SqlParameterSource> chunk = rows.subList(from, Math.min(rows.size(), from + batchSize));
+            jdbc.batchUpdate(sql, chunk.toArray(new SqlParameterSource[0]));
+        }
+    }
+}
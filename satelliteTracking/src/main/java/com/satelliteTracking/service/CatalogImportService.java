@@ -0,0 +1,194 @@
+package com.satelliteTracking.service;
+
+import com.satelliteTracking.dto.CelestrakSatelliteDTO;
+import com.satelliteTracking.util.ElementSetReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Import di set di elementi da file locali (3LE/TLE, OMM JSON, OMM XML, OMM CSV), senza rete.
+ *
+ * Serve a popolare un nodo, ricostruire il catalogo dopo una perdita di dati o misurare
+ * l'ingestione. I record letti in streaming passano dalla stessa scrittura in blocco dei
+ * download Celestrak (CatalogBulkWriter, blocchi da chunk-size) e l'import viene pubblicato
+ * come una nuova versione del catalogo.
+ *
+ * All'avvio importa il file indicato da catalog.import.file, se presente
+ * (es. java -jar app.jar --catalog.import.file=/data/catalog.tle).
+ */
+@Service
+public class CatalogImportService implements ApplicationRunner {
+
+    /**
+     * Esito di un import
+     *
+     * @param published true se è stata pubblicata una nuova versione del catalogo
+     */
+    public record ImportSummary(int received, int rejected, int newSatellites, int changed, int unchanged,
+                                int elementSets, boolean published, long durationMs) {}
+
+    // Tipo dei nuovi satelliti se l'import non indica un gruppo
+    private static final String DEFAULT_GROUP = "import";
+
+    private final CelestrakService celestrakService;
+    private final CatalogBulkWriter bulkWriter;
+    private final SatelliteCatalogService catalogService;
+    private final Clock clock;
+    private final int chunkSize;
+    private final String startupFile;
+    private final String startupFormat;
+    private final String startupGroup;
+
+    public CatalogImportService(CelestrakService celestrakService,
+                                CatalogBulkWriter bulkWriter,
+                                SatelliteCatalogService catalogService,
+                                Clock clock,
+                                @Value("${celestrak.ingest.chunk-size:500}") int chunkSize,
+                                @Value("${catalog.import.file:}") String startupFile,
+                                @Value("${catalog.import.format:}") String startupFormat,
+                                @Value("${catalog.import.group:}") String startupGroup) {
+        this.celestrakService = celestrakService;
+        this.bulkWriter = bulkWriter;
+        this.catalogService = catalogService;
+        this.clock = clock;
+        this.chunkSize = chunkSize;
+        this.startupFile = startupFile;
+        this.startupFormat = startupFormat;
+        this.startupGroup = startupGroup;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (startupFile == null || startupFile.isBlank()) {
+            return;
+        }
+        Path file = Path.of(startupFile);
+        ElementSetReader.Format format = startupFormat.isBlank()
+            ? ElementSetReader.Format.fromFileName(file.getFileName().toString())
+            : ElementSetReader.Format.fromString(startupFormat);
+        if (format == null) {
+            System.err.println("❌ Import catalogo: formato non riconosciuto per " + file +
+                             " (usa catalog.import.format=tle|json|xml|csv)");
+            return;
+        }
+        try {
+            importFile(file, format, startupGroup.isBlank() ? null : startupGroup);
+        } catch (IOException e) {
+            System.err.println("❌ Import catalogo da " + file + " fallito: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Importa un file locale
+     *
+     * @return esito, null se è in corso un altro aggiornamento del catalogo
+     */
+    public ImportSummary importFile(Path file, ElementSetReader.Format format, String group) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            return importStream(file.getFileName().toString(), in, format, group);
+        }
+    }
+
+    /**
+     * Importa set di elementi letti in streaming da in
+     *
+     * @param group tipo da assegnare ai satelliti; se null i nuovi satelliti hanno tipo "import"
+     *              e quelli già classificati da un gruppo Celestrak mantengono il loro tipo
+     * @return esito, null se è in corso un altro aggiornamento del catalogo
+     */
+    public ImportSummary importStream(String sourceName, InputStream in, ElementSetReader.Format format,
+                                      String group) throws IOException {
+        return importElementSets(sourceName, group, sink -> ElementSetReader.read(in, format, sink));
+    }
+
+    private ImportSummary importElementSets(String sourceName, String group,
+                                            ElementSetReader.Source source) throws IOException {
+        if (!celestrakService.beginIngestion()) {
+            System.out.println("⏳ Import catalogo da " + sourceName + " saltato: aggiornamento già in corso");
+            return null;
+        }
+        try {
+            long startTime = System.currentTimeMillis();
+            System.out.println("📥 Import catalogo da " + sourceName + "...");
+
+            CatalogBulkWriter.Stage stage = bulkWriter.beginStage(LocalDateTime.now(clock));
+            ChunkWriter writer = new ChunkWriter(stage, group != null ? group : DEFAULT_GROUP,
+                                                 group != null ? List.of() : CelestrakService.groupNames());
+            int rejected = source.read(writer);
+            writer.flush();
+
+            boolean published = bulkWriter.publish(stage, writer.inserted, writer.changed);
+            if (published) {
+                catalogService.reload();
+            }
+
+            long duration = System.currentTimeMillis() - startTime;
+            System.out.println("✅ Import catalogo da " + sourceName + ": " + writer.received + " record (" +
+                             rejected + " scartati), " + writer.inserted + " nuovi, " + writer.changed +
+                             " cambiati, " + writer.unchanged + " invariati [" + duration + "ms, " +
+                             (duration == 0 ? writer.received : Math.round(writer.received * 1000.0 / duration)) +
+                             " record/s]");
+            return new ImportSummary(writer.received, rejected, writer.inserted, writer.changed, writer.unchanged,
+                                     writer.elementSets, published, duration);
+        } finally {
+            celestrakService.endIngestion();
+        }
+    }
+
+    /**
+     * Raccoglie i record letti in blocchi da chunkSize e li scrive, un blocco per transazione
+     */
+    private final class ChunkWriter implements Consumer<CelestrakSatelliteDTO> {
+        private final CatalogBulkWriter.Stage stage;
+        private final String group;
+        private final List<String> keepTypes;
+        private final List<CelestrakSatelliteDTO> buffer = new ArrayList<>();
+        int received;
+        int inserted;
+        int changed;
+        int unchanged;
+        int elementSets;
+
+        ChunkWriter(CatalogBulkWriter.Stage stage, String group, List<String> keepTypes) {
+            this.stage = stage;
+            this.group = group;
+            this.keepTypes = keepTypes;
+        }
+
+        @Override
+        public void accept(CelestrakSatelliteDTO dto) {
+            buffer.add(dto);
+            received++;
+            if (buffer.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            CatalogBulkWriter.GroupWriteResult result = bulkWriter.writeGroup(stage, group, keepTypes,
+                                                                              buffer, Set.of());
+            inserted += result.inserted();
+            changed += result.changed();
+            unchanged += result.unchanged();
+            elementSets += result.elementSets();
+            buffer.clear();
+        }
+    }
+}
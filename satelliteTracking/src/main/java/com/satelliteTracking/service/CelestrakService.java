@@ -1,178 +1,483 @@
 package com.satelliteTracking.service;
 import com.satelliteTracking.dto.CelestrakSatelliteDTO;
-import com.satelliteTracking.repository.OrbitalParametersRepository;
-import com.satelliteTracking.repository.SatelliteRepository;
-import com.satelliteTracking.model.OrbitalParameters;
-import com.satelliteTracking.model.Satellite;
+import com.satelliteTracking.model.CelestrakGroupState;
+import com.satelliteTracking.repository.CelestrakGroupStateRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Clock;
 import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Download dei gruppi Celestrak e scrittura nel database.
+ *
+ * La scrittura non passa da un'unica transazione per aggiornamento: ogni blocco decodificato
+ * (chunk-size satelliti) è scritto con JDBC in una transazione propria da CatalogBulkWriter,
+ * senza entità gestite né persistence context che cresce durante l'aggiornamento. Un errore
+ * annulla solo il blocco in cui avviene; il gruppo interessato non salva i suoi validatori HTTP
+ * e viene riscaricato al prossimo aggiornamento, mentre gli altri gruppi restano scritti.
+ *
+ * I lettori non vedono un aggiornamento a metà: i set di elementi scritti restano invisibili
+ * finché, a fine aggiornamento, la nuova versione del catalogo non viene pubblicata in una
+ * transazione e la fotografia in memoria sostituita.
+ */
 @Service
 public class CelestrakService {
 
     private final WebClient webClient;
-    private final SatelliteRepository satelliteRepository;
-    private final OrbitalParametersRepository orbitalParametersRepository;
+    private final CatalogBulkWriter bulkWriter;
+    private final SatelliteCatalogService catalogService;
+    private final CelestrakGroupStateRepository groupStateRepository;
+    private final Clock clock;
     private final AtomicBoolean isDownloading = new AtomicBoolean(false);
+    private final int downloadConcurrency;
+    private final int writeQueueSize;
+    private final int chunkSize;
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
 
-    private static final String[] SATELLITE_GROUPS = {
+    /**
+     * Gruppo Celestrak con il suo intervallo di aggiornamento
+     */
+    private record CelestrakGroup(String name, int refreshHours) {}
+
+    /**
+     * Blocco di satelliti decodificati di un gruppo, in attesa di essere scritto.
+     * L'ultimo blocco di ogni gruppo è vuoto e porta il tempo di download, lo stato HTTP
+     * (304 se il gruppo non è cambiato), i validatori della risposta e se il download
+     * è arrivato in fondo.
+     */
+    private record DownloadedChunk(int index, String group, List<CelestrakSatelliteDTO> satellites,
+                                   boolean last, long downloadMs, int status, String etag,
+                                   String lastModified, boolean complete) {
+
+        static DownloadedChunk of(int index, String group, List<CelestrakSatelliteDTO> satellites) {
+            return new DownloadedChunk(index, group, satellites, false, 0, 0, null, null, false);
+        }
+    }
+
+    /**
+     * Totali di scrittura di un gruppo, aggiornati blocco per blocco
+     */
+    private static final class GroupProgress {
+        boolean failed;
+        int received;
+        int inserted;
+        int changed;
+        int unchanged;
+        int incomplete;
+        int elementSets;
+        long writeMs;
+
+        void add(CatalogBulkWriter.GroupWriteResult result) {
+            inserted += result.inserted();
+            changed += result.changed();
+            unchanged += result.unchanged();
+            incomplete += result.incomplete();
+            elementSets += result.elementSets();
+            writeMs += result.durationMs();
+        }
+
+        void add(GroupProgress group) {
+            inserted += group.inserted;
+            changed += group.changed;
+            unchanged += group.unchanged;
+            incomplete += group.incomplete;
+            elementSets += group.elementSets;
+            writeMs += group.writeMs;
+        }
+    }
+
+    /**
+     * Esito di un aggiornamento: satelliti nuovi, cambiati e invariati, set di elementi inseriti,
+     * gruppi scaricati, non modificati (304), non ancora da aggiornare e falliti
+     */
+    public record RefreshSummary(int newSatellites, int changed, int unchanged, int elementSets,
+                                 int downloadedGroups, int notModifiedGroups, int skippedGroups,
+                                 List<String> failedGroups, long durationMs) {}
+
+    // Intervalli in ore: Celestrak aggiorna i dati al più ogni 2 ore, i gruppi con orbite
+    // alte o manovre rare cambiano molto più lentamente delle costellazioni in orbita bassa
+    private static final CelestrakGroup[] SATELLITE_GROUPS = {
         // Stazioni Spaziali
-        "stations",           // ISS, Tiangong, Mir
+        new CelestrakGroup("stations", 3),          // ISS, Tiangong, Mir
         
         // Costellazioni Comunicazione (ATTENZIONE: migliaia di satelliti!)
-        "starlink",           // SpaceX Starlink
-        "oneweb",             // OneWeb
-        "iridium-NEXT",       // Iridium Communications
-        "spire",              // Spire Global
+        new CelestrakGroup("starlink", 3),          // SpaceX Starlink
+        new CelestrakGroup("oneweb", 6),            // OneWeb
+        new CelestrakGroup("iridium-NEXT", 12),     // Iridium Communications
+        new CelestrakGroup("spire", 6),             // Spire Global
         
         // Navigazione Satellitare
-        "gps-ops",            // GPS (USA)
-        "galileo",            // Galileo (Europa)
+        new CelestrakGroup("gps-ops", 24),          // GPS (USA)
+        new CelestrakGroup("galileo", 24),          // Galileo (Europa)
         // "glonass-ops",     // ❌ Rimosso: gruppo non più disponibile su Celestrak
-        "beidou",             // BeiDou (Cina)
-        "sbas",               // Satellite-Based Augmentation Systems
+        new CelestrakGroup("beidou", 24),           // BeiDou (Cina)
+        new CelestrakGroup("sbas", 24),             // Satellite-Based Augmentation Systems
         
         // Scientifici e Osservazione
-        "science",            // Hubble, JWST, telescopi spaziali
-        "weather",            // NOAA, GOES, Meteosat
-        "planet",             // Planet Labs (imaging terrestre)
-        "radar",              // Satelliti radar
+        new CelestrakGroup("science", 12),          // Hubble, JWST, telescopi spaziali
+        new CelestrakGroup("weather", 12),          // NOAA, GOES, Meteosat
+        new CelestrakGroup("planet", 6),            // Planet Labs (imaging terrestre)
+        new CelestrakGroup("radar", 12),            // Satelliti radar
         
         // Geostazionari
-        "geo",                // Satelliti geostazionari
+        new CelestrakGroup("geo", 24),              // Satelliti geostazionari
         
         // Altri
-        "amateur",            // Satelliti radioamatoriali
-        "cubesat",            // CubeSat (piccoli satelliti)
-        "education",          // Satelliti educativi
-        "engineering",        // Satelliti di test ingegneristici
-        "military"            // Satelliti militari declassificati
+        new CelestrakGroup("amateur", 12),          // Satelliti radioamatoriali
+        new CelestrakGroup("cubesat", 6),           // CubeSat (piccoli satelliti)
+        new CelestrakGroup("education", 12),        // Satelliti educativi
+        new CelestrakGroup("engineering", 12),      // Satelliti di test ingegneristici
+        new CelestrakGroup("military", 24)          // Satelliti militari declassificati
     };
 
-    public CelestrakService(SatelliteRepository satelliteRepository, 
-                            OrbitalParametersRepository orbitalParametersRepository) {
-        // Increase buffer size to 20MB for large satellite groups like Starlink (6000+ satellites)
-        ExchangeStrategies strategies = ExchangeStrategies.builder()
-                .codecs(configurer -> configurer.defaultCodecs()
-                        .maxInMemorySize(20 * 1024 * 1024))  // 20MB
-                .build();
-        
+    public CelestrakService(CatalogBulkWriter bulkWriter,
+                            SatelliteCatalogService catalogService,
+                            CelestrakGroupStateRepository groupStateRepository,
+                            Clock clock,
+                            @Value("${celestrak.base-url:https://celestrak.org}") String baseUrl,
+                            @Value("${celestrak.ingest.download-concurrency:4}") int downloadConcurrency,
+                            @Value("${celestrak.ingest.write-queue-size:4}") int writeQueueSize,
+                            @Value("${celestrak.ingest.chunk-size:500}") int chunkSize) {
+        // Nessun aumento di maxInMemorySize: l'array JSON è decodificato un elemento alla volta,
+        // quindi il limite riguarda il singolo satellite e non la dimensione del gruppo
         this.webClient = WebClient.builder()
-                .baseUrl("https://celestrak.org")
+                .baseUrl(baseUrl)
                 .defaultHeader("User-Agent", "SatelliteTracker/1.0")
-                .exchangeStrategies(strategies)
                 .build();
-        this.satelliteRepository = satelliteRepository;
-        this.orbitalParametersRepository = orbitalParametersRepository;
+        this.bulkWriter = bulkWriter;
+        this.catalogService = catalogService;
+        this.groupStateRepository = groupStateRepository;
+        this.clock = clock;
+        this.downloadConcurrency = downloadConcurrency;
+        this.writeQueueSize = writeQueueSize;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Nomi dei gruppi Celestrak, nell'ordine di precedenza del tipo (vince l'ultimo)
+     */
+    static List<String> groupNames() {
+        return Arrays.stream(SATELLITE_GROUPS).map(CelestrakGroup::name).toList();
     }
 
-    @Transactional
-    public void fetchAndSaveStations() {
+    /**
+     * Riserva la scrittura del catalogo: download e import non possono pubblicare
+     * versioni in parallelo
+     *
+     * @return false se un altro aggiornamento è in corso
+     */
+    boolean beginIngestion() {
+        return isDownloading.compareAndSet(false, true);
+    }
+
+    void endIngestion() {
+        isDownloading.set(false);
+    }
+
+    /**
+     * Scarica i gruppi da aggiornare e li scrive in blocco.
+     *
+     * Un gruppo va aggiornato quando è passato il suo intervallo dall'ultimo controllo riuscito
+     * (tutti se force). La richiesta è condizionale (If-None-Match, If-Modified-Since) con i
+     * validatori dell'ultima risposta: un gruppo non cambiato costa una risposta 304 invece di
+     * download e decodifica. I validatori sono salvati solo se il gruppo è stato scritto per
+     * intero, così un download interrotto viene ripetuto al prossimo aggiornamento; i blocchi
+     * già scritti di un gruppo interrotto sono esclusi dalla versione pubblicata.
+     *
+     * I download procedono in parallelo (al massimo download-concurrency alla volta) e la
+     * risposta JSON viene decodificata in modo incrementale, un satellite alla volta, e
+     * raggruppata in blocchi da chunk-size. I blocchi passano da una coda limitata
+     * (write-queue-size) a un unico thread di scrittura sul database, una transazione per
+     * blocco. La contropressione arriva fino alla connessione HTTP: la memoria usata è
+     * limitata dalla dimensione dei blocchi e non da quella del gruppo più grande.
+     *
+     * Un satellite presente in più gruppi prende il tipo del gruppo che compare per ultimo
+     * in SATELLITE_GROUPS, qualunque sia l'ordine di arrivo, e riceve un solo set di
+     * elementi per aggiornamento. I set identici all'ultimo salvato non vengono inseriti.
+     *
+     * @param force true per controllare tutti i gruppi, anche quelli non ancora da aggiornare
+     * @return esito dell'aggiornamento, null se un altro download era già in corso o è fallito
+     */
+    public RefreshSummary fetchAndSaveStations(boolean force) {
         // Evita download concorrenti
-        if (!isDownloading.compareAndSet(false, true)) {
+        if (!beginIngestion()) {
             System.out.println("⏳ Download già in corso... salta questo ciclo.");
-            return;
+            return null;
         }
         
+        Scheduler writer = Schedulers.newSingle("celestrak-writer");
         try {
-            System.out.println("🛰️  Inizio download satelliti da Celestrak...");
             long startTime = System.currentTimeMillis();
-            int totalSaved = 0;
-            int totalUpdated = 0;
-            
-            for (String group : SATELLITE_GROUPS) {
-                try {
-                    System.out.println("📡 Scaricando gruppo: " + group);
-                    long groupStartTime = System.currentTimeMillis();
-                    
-                    // Usa streaming per gruppi grandi come Starlink (no buffer limit)
-                    List<CelestrakSatelliteDTO> satellites = webClient.get()
-                            .uri("/NORAD/elements/gp.php?GROUP=" + group + "&FORMAT=json")
-                            .accept(MediaType.APPLICATION_JSON)
-                            .retrieve()
-                            .bodyToFlux(CelestrakSatelliteDTO.class)
-                            .onErrorResume(error -> {
-                                System.err.println("❌ Errore per gruppo '" + group + "': " + error.getMessage());
-                                return reactor.core.publisher.Flux.empty();
-                            })
-                            .timeout(Duration.ofMinutes(5))
-                            .collectList()
-                            .block();
-
-                    if (satellites != null && !satellites.isEmpty()) {
-                        int saved = 0;
-                        int updated = 0;
-                        
-                        for (CelestrakSatelliteDTO dto : satellites) {
-                            // Cerca se il satellite esiste già nel database
-                            Optional<Satellite> existingSatellite = satelliteRepository.findByNoradCatId(dto.noradCatId());
-                            
-                            Satellite satellite;
-                            if (existingSatellite.isPresent()) {
-                                // Satellite già esistente, usa quello
-                                satellite = existingSatellite.get();
-                                
-                                // Aggiorna eventuali informazioni del satellite se necessario
-                                satellite.setObjectName(dto.objectName());
-                                satellite.setObjectId(dto.objectId());
-                                satellite.setSatelliteType(group);  // 🔧 Salva il tipo
-                                updated++;
-                            } else {
-                                // Nuovo satellite, crealo
-                                satellite = new Satellite();
-                                satellite.setObjectName(dto.objectName());
-                                satellite.setObjectId(dto.objectId());
-                                satellite.setNoradCatId(dto.noradCatId());
-                                satellite.setSatelliteType(group);  // 🔧 Salva il tipo
-                                saved++;
-                            }
-                            
-                            // Crea nuovi parametri orbitali
-                            OrbitalParameters orbitalParams = new OrbitalParameters(
-                                satellite,
-                                dto.epoch(),
-                                dto.inclination(),
-                                dto.raOfAscNode(),
-                                dto.eccentricity(),
-                                dto.argOfPericenter(),
-                                dto.meanAnomaly(),
-                                dto.meanMotion()
-                            );
-                            
-                            // Aggiungi i parametri orbitali al satellite
-                            satellite.addOrbitalParameters(orbitalParams);
-                            
-                            // Salva il satellite (cascade salverà anche i parametri orbitali)
-                            satelliteRepository.save(satellite);
+            Map<String, CelestrakGroupState> states = new HashMap<>();
+            for (CelestrakGroupState state : groupStateRepository.findAll()) {
+                states.put(state.getGroupName(), state);
+            }
+            LocalDateTime now = LocalDateTime.now(clock);
+            List<Integer> due = new ArrayList<>();
+            for (int index = 0; index < SATELLITE_GROUPS.length; index++) {
+                CelestrakGroupState state = states.get(SATELLITE_GROUPS[index].name());
+                if (force || state == null || state.getLastCheckedAt() == null ||
+                    !now.isBefore(state.getLastCheckedAt().plusHours(SATELLITE_GROUPS[index].refreshHours()))) {
+                    due.add(index);
+                }
+            }
+            int skippedGroups = SATELLITE_GROUPS.length - due.size();
+            if (due.isEmpty()) {
+                System.out.println("⏭️  Nessun gruppo Celestrak da aggiornare");
+                return new RefreshSummary(0, 0, 0, 0, 0, 0, skippedGroups, List.of(), 0);
+            }
+
+            System.out.println("🛰️  Inizio download satelliti da Celestrak: " + due.size() + " gruppi da aggiornare, " +
+                             skippedGroups + " non ancora scaduti (" + downloadConcurrency +
+                             " in parallelo, blocchi da " + chunkSize + ")...");
+            GroupProgress totals = new GroupProgress();
+            int[] groupCounts = new int[2]; // scaricati, non modificati
+            List<String> failedGroups = new ArrayList<>();
+            long baselineHeap = memory.getHeapMemoryUsage().getUsed();
+            long[] peakHeap = {baselineHeap};
+
+            // Stato usato solo dal thread di scrittura: gruppo che ha assegnato il tipo a ogni
+            // NORAD ID in questo aggiornamento, totali dei gruppi in corso e gruppi terminati,
+            // il cui stato è salvato solo dopo la pubblicazione
+            Map<Long, Integer> owners = new HashMap<>();
+            Map<String, GroupProgress> progress = new HashMap<>();
+            Map<DownloadedChunk, GroupProgress> finished = new LinkedHashMap<>();
+            CatalogBulkWriter.Stage stage = bulkWriter.beginStage(now);
+
+            Flux.fromIterable(due)
+                .flatMap(index -> download(index, SATELLITE_GROUPS[index].name(),
+                                           states.get(SATELLITE_GROUPS[index].name())), downloadConcurrency, 1)
+                .publishOn(writer, writeQueueSize)
+                .doOnNext(chunk -> {
+                    GroupProgress group = progress.computeIfAbsent(chunk.group(), g -> new GroupProgress());
+                    if (chunk.last()) {
+                        progress.remove(chunk.group());
+                        if (chunk.status() == HttpStatus.NOT_MODIFIED.value()) {
+                            groupCounts[1]++;
+                        } else if (chunk.complete() && !group.failed) {
+                            groupCounts[0]++;
+                        } else {
+                            failedGroups.add(chunk.group());
                         }
-                        
-                        long groupDuration = System.currentTimeMillis() - groupStartTime;
-                        totalSaved += saved;
-                        totalUpdated += updated;
-                        System.out.println("✅ Gruppo '" + group + "': " + saved + " nuovi, " + updated + " aggiornati [" + groupDuration + "ms]");
+                        finished.put(chunk, group);
+                        logGroup(chunk, group);
+                        return;
+                    }
+                    group.received += chunk.satellites().size();
+                    CatalogBulkWriter.GroupWriteResult result = write(chunk, owners, stage);
+                    if (result != null) {
+                        group.add(result);
                     } else {
-                        System.out.println("⚠️  Nessun dato per gruppo: " + group);
+                        group.failed = true;
+                    }
+                    peakHeap[0] = Math.max(peakHeap[0], memory.getHeapMemoryUsage().getUsed());
+                })
+                .blockLast();
+
+            // I gruppi falliti a metà non vengono pubblicati: restano alla versione precedente
+            // e sono riprovati al prossimo aggiornamento
+            for (Map.Entry<DownloadedChunk, GroupProgress> group : finished.entrySet()) {
+                if (failedGroups.contains(group.getKey().group())) {
+                    int discarded = bulkWriter.discardGroup(stage, group.getKey().group());
+                    if (discarded > 0) {
+                        System.out.println("🗑️  Gruppo '" + group.getKey().group() + "': " + discarded +
+                                         " set di elementi già scritti esclusi dalla pubblicazione");
                     }
-                    
-                } catch (Exception e) {
-                    System.err.println("❌ Errore scaricando gruppo '" + group + "': " + e.getMessage());
-                    e.printStackTrace();
+                } else {
+                    totals.add(group.getValue());
                 }
             }
             
             long totalDuration = System.currentTimeMillis() - startTime;
-            System.out.println("🎉 Download completato! Totale: " + totalSaved + " nuovi, " + totalUpdated + " aggiornati [" + (totalDuration / 1000) + "s]");
+            System.out.println("🎉 Download completato! Totale: " + totals.inserted + " nuovi, " + totals.changed +
+                             " cambiati, " + totals.unchanged + " invariati, " + groupCounts[1] +
+                             " gruppi non modificati [" + (totalDuration / 1000) + "s]");
+            if (bulkWriter.publish(stage, totals.inserted, totals.changed)) {
+                System.out.println("📢 Pubblicata nuova versione del catalogo (" + stage.getElementSets() +
+                                 " set di elementi, fetchedAt " + stage.getFetchedAt() + ")");
+                catalogService.reload();
+            }
+            for (Map.Entry<DownloadedChunk, GroupProgress> group : finished.entrySet()) {
+                saveGroupState(group.getKey(), group.getValue(), states);
+            }
+            if (!failedGroups.isEmpty()) {
+                System.out.println("⚠️  Gruppi non completati (riprovati al prossimo aggiornamento): " +
+                                 String.join(", ", failedGroups));
+            }
+            System.out.println("💾 Scrittura in blocco: " + totals.elementSets + " set di elementi in " + totals.writeMs +
+                             "ms (" + rowsPerSecond(totals.elementSets, totals.writeMs) + " righe/s)");
+            System.out.println("🧠 Heap durante l'aggiornamento: iniziale " + (baselineHeap >> 20) + " MB, picco " +
+                             (peakHeap[0] >> 20) + " MB (+" + ((peakHeap[0] - baselineHeap) >> 20) + " MB)");
+            return new RefreshSummary(totals.inserted, totals.changed, totals.unchanged, totals.elementSets,
+                                      groupCounts[0], groupCounts[1], skippedGroups, List.copyOf(failedGroups),
+                                      totalDuration);
             
+        } catch (Exception e) {
+            System.err.println("❌ Errore durante l'aggiornamento da Celestrak: " + e.getMessage());
+            e.printStackTrace();
+            return null;
         } finally {
+            writer.dispose();
             // Resetta la flag per permettere il prossimo download
-            isDownloading.set(false);
+            endIngestion();
         }
     }
+
+    /**
+     * Scarica un gruppo decodificandolo in blocchi da chunkSize satelliti, seguiti da un
+     * blocco finale vuoto. In caso di errore il gruppo termina dove si è interrotto.
+     * Con i validatori dell'ultima risposta la richiesta è condizionale: se il gruppo non è
+     * cambiato arriva solo il blocco finale con stato 304.
+     */
+    private Flux<DownloadedChunk> download(int index, String group, CelestrakGroupState state) {
+        return Flux.defer(() -> {
+            long groupStartTime = System.currentTimeMillis();
+            System.out.println("📡 Scaricando gruppo: " + group);
+            // Stato HTTP, ETag, Last-Modified e download completo, scritti prima del blocco finale
+            int[] status = {0};
+            String[] validators = new String[2];
+            boolean[] complete = {false};
+
+            return webClient.get()
+                    .uri("/NORAD/elements/gp.php?GROUP=" + group + "&FORMAT=json")
+                    .accept(MediaType.APPLICATION_JSON)
+                    .headers(headers -> {
+                        if (state != null && state.getEtag() != null) {
+                            headers.setIfNoneMatch(state.getEtag());
+                        }
+                        if (state != null && state.getLastModified() != null) {
+                            headers.set(HttpHeaders.IF_MODIFIED_SINCE, state.getLastModified());
+                        }
+                    })
+                    .<CelestrakSatelliteDTO>exchangeToFlux(response -> {
+                        status[0] = response.statusCode().value();
+                        if (response.statusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+                            complete[0] = true;
+                            return response.releaseBody().thenMany(Flux.empty());
+                        }
+                        if (!response.statusCode().is2xxSuccessful()) {
+                            return response.<CelestrakSatelliteDTO>createError().flux();
+                        }
+                        HttpHeaders headers = response.headers().asHttpHeaders();
+                        validators[0] = headers.getETag();
+                        validators[1] = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+                        return response.bodyToFlux(CelestrakSatelliteDTO.class)
+                                .doOnComplete(() -> complete[0] = true);
+                    })
+                    .timeout(Duration.ofMinutes(5))
+                    .buffer(chunkSize)
+                    .map(satellites -> DownloadedChunk.of(index, group, satellites))
+                    .onErrorResume(error -> {
+                        System.err.println("❌ Errore per gruppo '" + group + "': " + error.getMessage());
+                        return Flux.empty();
+                    })
+                    .concatWith(Mono.fromSupplier(() -> new DownloadedChunk(
+                        index, group, List.of(), true, System.currentTimeMillis() - groupStartTime,
+                        status[0], validators[0], validators[1], complete[0])));
+        });
+    }
+
+    /**
+     * Registra il controllo di un gruppo. Validatori e data di download sono aggiornati solo
+     * se il gruppo è arrivato e stato scritto per intero; dopo un errore lo stato resta
+     * quello precedente e il gruppo viene riprovato al prossimo aggiornamento.
+     */
+    private void saveGroupState(DownloadedChunk last, GroupProgress group, Map<String, CelestrakGroupState> states) {
+        if (!last.complete() || group.failed) {
+            return;
+        }
+        try {
+            CelestrakGroupState state = states.computeIfAbsent(last.group(), CelestrakGroupState::new);
+            LocalDateTime now = LocalDateTime.now(clock);
+            state.setLastCheckedAt(now);
+            state.setLastStatus(last.status());
+            if (last.status() != HttpStatus.NOT_MODIFIED.value()) {
+                state.setEtag(last.etag());
+                state.setLastModified(last.lastModified());
+                state.setLastDownloadedAt(now);
+                state.setSatelliteCount(group.received);
+            }
+            groupStateRepository.save(state);
+        } catch (Exception e) {
+            System.err.println("❌ Errore salvando lo stato del gruppo '" + last.group() + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Scrive un blocco scaricato. I satelliti già assegnati in questo aggiornamento a un gruppo
+     * successivo vengono saltati; quelli assegnati a un gruppo precedente prendono il tipo
+     * di questo gruppo senza un secondo set di elementi.
+     */
+    private CatalogBulkWriter.GroupWriteResult write(DownloadedChunk chunk, Map<Long, Integer> owners,
+                                                     CatalogBulkWriter.Stage stage) {
+        try {
+            List<CelestrakSatelliteDTO> satellites = new ArrayList<>();
+            Set<Long> typeOnly = new HashSet<>();
+            for (CelestrakSatelliteDTO dto : chunk.satellites()) {
+                Integer owner = owners.get(dto.noradCatId());
+                if (owner != null && owner > chunk.index()) {
+                    continue;
+                }
+                if (owner != null) {
+                    typeOnly.add(dto.noradCatId());
+                }
+                satellites.add(dto);
+            }
+
+            List<String> laterGroups = Arrays.stream(SATELLITE_GROUPS, chunk.index() + 1, SATELLITE_GROUPS.length)
+                .map(CelestrakGroup::name)
+                .toList();
+            CatalogBulkWriter.GroupWriteResult result =
+                bulkWriter.writeGroup(stage, chunk.group(), laterGroups, satellites, typeOnly);
+            for (CelestrakSatelliteDTO dto : satellites) {
+                owners.put(dto.noradCatId(), chunk.index());
+            }
+            return result;
+        } catch (Exception e) {
+            System.err.println("❌ Errore scrivendo gruppo '" + chunk.group() + "': " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private void logGroup(DownloadedChunk last, GroupProgress group) {
+        if (last.status() == HttpStatus.NOT_MODIFIED.value()) {
+            System.out.println("♻️  Gruppo '" + last.group() + "' non modificato (304) [" + last.downloadMs() + "ms]");
+            return;
+        }
+        if (group.received == 0) {
+            System.out.println("⚠️  Nessun dato per gruppo: " + last.group());
+            return;
+        }
+        System.out.println("✅ Gruppo '" + last.group() + "': " + group.inserted + " nuovi, " +
+                         group.changed + " cambiati, " + group.unchanged + " invariati" +
+                         (group.incomplete > 0 ? ", " + group.incomplete + " incompleti scartati" : "") +
+                         " [download " + last.downloadMs() +
+                         "ms, scrittura " + group.writeMs + "ms, " +
+                         rowsPerSecond(group.elementSets, group.writeMs) + " righe/s]");
+    }
+
+    private static long rowsPerSecond(int rows, long durationMs) {
+        return durationMs == 0 ? rows : Math.round(rows * 1000.0 / durationMs);
+    }
 }
\ No newline at end of file
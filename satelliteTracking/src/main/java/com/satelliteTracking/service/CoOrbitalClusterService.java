@@ -0,0 +1,204 @@
+package com.satelliteTracking.service;
+
+import com.satelliteTracking.model.CatalogEntry;
+import com.satelliteTracking.model.CatalogSnapshot;
+import com.satelliteTracking.model.OrbitalParameters;
+import com.satelliteTracking.util.TLEConverter;
+import org.orekit.propagation.analytical.tle.TLE;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Raggruppa i satelliti co-orbitali: stesso piano orbitale, stessa quota e forma,
+ * e solo un piccolo sfasamento lungo l'orbita (tipico dei treni Starlink appena lanciati
+ * e dei lotti di una costellazione).
+ *
+ * Per un membro del gruppo vale, con buona approssimazione:
+ *   posizione_membro(t + Δt) = posizione_rappresentante(t)   (nel sistema inerziale)
+ * quindi i suoi passaggi si ricavano da quelli del rappresentante traslando i tempi di Δt
+ * e ruotando l'osservatore della rotazione terrestre in Δt, senza propagarlo.
+ */
+@Service
+public class CoOrbitalClusterService {
+
+    private final SatelliteCatalogService catalogService;
+    private final Clock clock;
+
+    // Tolleranze sugli elementi medi
+    private static final double MAX_INCLINATION_DIFF_DEG = 0.02;
+    private static final double MAX_RAAN_DIFF_DEG = 0.05;
+    private static final double MAX_MEAN_MOTION_DIFF = 0.0002; // giri/giorno
+    private static final double MAX_ECCENTRICITY_DIFF = 0.0002;
+
+    /** Sfasamento temporale massimo lungo l'orbita tra membro e rappresentante */
+    public static final double MAX_TIME_OFFSET_SECONDS = 120.0;
+
+    /**
+     * Appartenenza di un satellite a un gruppo: il membro ripete la posizione
+     * del rappresentante dopo timeOffsetSeconds (negativo se lo precede)
+     */
+    public record Membership(Long representativeId, double timeOffsetSeconds) {}
+
+    /**
+     * Gruppi calcolati per una versione del catalogo
+     *
+     * @param catalogVersion versione del catalogo usata
+     * @param members appartenenza dei membri (i rappresentanti non compaiono)
+     * @param clusters membri per rappresentante (solo gruppi con almeno due satelliti)
+     * @param catalogSize satelliti nel catalogo
+     * @param buildMs durata del raggruppamento
+     */
+    public record ClusterIndex(long catalogVersion, Map<Long, Membership> members,
+                               Map<Long, List<Long>> clusters, int catalogSize, long buildMs) {
+
+        static ClusterIndex empty() {
+            return new ClusterIndex(0L, Collections.emptyMap(), Collections.emptyMap(), 0, 0L);
+        }
+
+        /**
+         * Satelliti da propagare davvero: catalogo meno i membri derivati
+         */
+        public int propagatedObjects() {
+            return catalogSize - members.size();
+        }
+    }
+
+    /**
+     * Dati di un satellite usati per il raggruppamento
+     */
+    private record OrbitKey(CatalogEntry entry, double inclination, double raan, double eccentricity,
+                            double meanMotion, double argumentOfLatitude) {}
+
+    private volatile ClusterIndex index = ClusterIndex.empty();
+
+    public CoOrbitalClusterService(SatelliteCatalogService catalogService, Clock clock) {
+        this.catalogService = catalogService;
+        this.clock = clock;
+    }
+
+    /**
+     * Gruppi per il catalogo corrente, ricalcolati quando il catalogo cambia versione
+     */
+    public ClusterIndex getIndex() {
+        CatalogSnapshot snapshot = catalogService.getSnapshot();
+        ClusterIndex current = index;
+        if (current.catalogVersion() != snapshot.version()) {
+            current = rebuild(snapshot);
+        }
+        return current;
+    }
+
+    private synchronized ClusterIndex rebuild(CatalogSnapshot snapshot) {
+        if (index.catalogVersion() == snapshot.version()) {
+            return index;
+        }
+
+        long startTime = System.currentTimeMillis();
+        AbsoluteDate reference = new AbsoluteDate(Date.from(clock.instant()), TimeScalesFactory.getUTC());
+
+        // Suddivisione grossolana per piano e quota, confronto esatto dentro ogni cella
+        Map<String, List<OrbitKey>> buckets = new HashMap<>();
+        for (CatalogEntry entry : snapshot.entries()) {
+            OrbitKey key = toOrbitKey(entry, reference);
+            if (key == null) {
+                continue;
+            }
+            String bucket = Math.round(key.inclination() / 0.5) + "_" +
+                            Math.round(key.raan()) + "_" +
+                            Math.round(key.meanMotion() / 0.05);
+            buckets.computeIfAbsent(bucket, b -> new ArrayList<>()).add(key);
+        }
+
+        Map<Long, Membership> members = new HashMap<>();
+        Map<Long, List<Long>> clusters = new LinkedHashMap<>();
+
+        for (List<OrbitKey> bucket : buckets.values()) {
+            if (bucket.size() < 2) {
+                continue;
+            }
+            bucket.sort((a, b) -> Double.compare(a.argumentOfLatitude(), b.argumentOfLatitude()));
+
+            boolean[] assigned = new boolean[bucket.size()];
+            for (int r = 0; r < bucket.size(); r++) {
+                if (assigned[r]) {
+                    continue;
+                }
+                OrbitKey representative = bucket.get(r);
+                double rateDegPerSecond = representative.meanMotion() * 360.0 / 86400.0;
+                double maxOffsetDeg = rateDegPerSecond * MAX_TIME_OFFSET_SECONDS;
+                List<Long> clusterMembers = new ArrayList<>();
+
+                for (int m = r + 1; m < bucket.size(); m++) {
+                    OrbitKey member = bucket.get(m);
+                    double offsetDeg = member.argumentOfLatitude() - representative.argumentOfLatitude();
+                    if (offsetDeg > maxOffsetDeg) {
+                        break;
+                    }
+                    if (assigned[m] || !isCoOrbital(representative, member)) {
+                        continue;
+                    }
+
+                    // Il membro è avanti di offsetDeg: ha occupato la posizione del
+                    // rappresentante offsetDeg / velocità secondi prima
+                    double timeOffset = -offsetDeg / rateDegPerSecond;
+                    members.put(member.entry().satelliteId(),
+                                new Membership(representative.entry().satelliteId(), timeOffset));
+                    clusterMembers.add(member.entry().satelliteId());
+                    assigned[m] = true;
+                }
+
+                if (!clusterMembers.isEmpty()) {
+                    clusters.put(representative.entry().satelliteId(), clusterMembers);
+                }
+            }
+        }
+
+        ClusterIndex built = new ClusterIndex(snapshot.version(), Collections.unmodifiableMap(members),
+                                              Collections.unmodifiableMap(clusters), snapshot.size(),
+                                              System.currentTimeMillis() - startTime);
+        index = built;
+
+        System.out.println("🛰️  Gruppi co-orbitali: " + clusters.size() + " gruppi, " + members.size() +
+                         " satelliti derivati, " + built.propagatedObjects() + "/" + snapshot.size() +
+                         " da propagare (catalogo v" + snapshot.version() + ") [" + built.buildMs() + "ms]");
+        return built;
+    }
+
+    private boolean isCoOrbital(OrbitKey a, OrbitKey b) {
+        double raanDiff = Math.abs(a.raan() - b.raan());
+        raanDiff = Math.min(raanDiff, 360.0 - raanDiff);
+        return Math.abs(a.inclination() - b.inclination()) <= MAX_INCLINATION_DIFF_DEG &&
+               raanDiff <= MAX_RAAN_DIFF_DEG &&
+               Math.abs(a.meanMotion() - b.meanMotion()) <= MAX_MEAN_MOTION_DIFF &&
+               Math.abs(a.eccentricity() - b.eccentricity()) <= MAX_ECCENTRICITY_DIFF;
+    }
+
+    /**
+     * Elementi confrontabili di un satellite: argomento di latitudine (ω + M, orbite quasi
+     * circolari) riportato all'istante di riferimento, così epoche diverse non contano.
+     * L'epoca è quella del TLE effettivamente propagato, non la stringa salvata.
+     */
+    private OrbitKey toOrbitKey(CatalogEntry entry, AbsoluteDate reference) {
+        OrbitalParameters params = entry.parameters();
+        try {
+            TLE tle = TLEConverter.toOrekitTLE(entry.noradCatId(), params);
+            double days = reference.durationFrom(tle.getDate()) / 86400.0;
+            double u = params.getArgOfPericenter() + params.getMeanAnomaly() + 360.0 * params.getMeanMotion() * days;
+            u = ((u % 360.0) + 360.0) % 360.0;
+            return new OrbitKey(entry, params.getInclination(), params.getRaOfAscNode(),
+                                params.getEccentricity(), params.getMeanMotion(), u);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,574 @@
+package com.satelliteTracking.service;
+
+import com.satelliteTracking.config.ComputePool;
+import com.satelliteTracking.dto.ConjunctionDTO;
+import com.satelliteTracking.dto.ConjunctionScreeningReportDTO;
+import com.satelliteTracking.model.CatalogEntry;
+import com.satelliteTracking.model.CatalogSnapshot;
+import com.satelliteTracking.model.OrbitalParameters;
+import com.satelliteTracking.util.OrbitMath;
+import com.satelliteTracking.util.TLEConverter;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.propagation.analytical.tle.TLEPropagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.PVCoordinates;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Screening degli avvicinamenti ravvicinati (congiunzioni) su tutto il catalogo.
+ *
+ * Un controllo di tutte le coppie su 10.000 oggetti significa ~50 milioni di coppie
+ * per ogni istante. Lo screening procede invece per filtri successivi:
+ * 1. filtro apogeo/perigeo: due orbite i cui gusci radiali non si sovrappongono
+ *    (entro la soglia) non possono mai avvicinarsi
+ * 2. sweep-and-prune: ad ogni istante gli oggetti vengono ordinati lungo X e si
+ *    confrontano solo quelli vicini lungo X, poi lungo Y e Z
+ * 3. minima distanza con moto relativo lineare nell'intorno del campione
+ * 4. raffinamento del tempo di massimo avvicinamento (TCA) con ricerca a sezione aurea,
+ *    eseguito solo sulle coppie candidate
+ *
+ * La propagazione e lo sweep girano in parallelo sul pool di calcolo condiviso.
+ */
+@Service
+public class ConjunctionScreeningService {
+
+    private final SatelliteCatalogService catalogService;
+    private final ComputePool computePool;
+
+    @Value("${conjunction.horizon-hours:24}")
+    private int defaultHorizonHours;
+
+    @Value("${conjunction.step-seconds:30}")
+    private int defaultStepSeconds;
+
+    @Value("${conjunction.threshold-km:5.0}")
+    private double defaultThresholdKm;
+
+    private final AtomicBoolean isRunning = new AtomicBoolean(false);
+    private volatile ConjunctionScreeningReportDTO lastReport;
+
+    // Velocità relativa massima tra due oggetti in orbita terrestre (scontro frontale in LEO)
+    private static final double MAX_RELATIVE_SPEED_KM_S = 15.5;
+
+    // Margine per la curvatura delle traiettorie rispetto all'approssimazione lineare
+    private static final double CURVATURE_MARGIN_KM = 5.0;
+
+    // Istanti propagati insieme: limita la memoria a STEPS_PER_BLOCK × oggetti × 6 double
+    private static final int STEPS_PER_BLOCK = 20;
+
+    private static final int MAX_REPORTED_CONJUNCTIONS = 500;
+
+    // Offset per rendere positive le coordinate X (km) nelle chiavi di ordinamento
+    private static final long X_OFFSET_KM = 1L << 30;
+    private static final long INDEX_MASK = (1L << 24) - 1;
+
+    /**
+     * Coppia candidata: distanza minima lineare stimata e istante di campionamento
+     */
+    private record Candidate(double linearDistanceKm, int step, double offsetSeconds) {}
+
+    public ConjunctionScreeningService(SatelliteCatalogService catalogService, ComputePool computePool) {
+        this.catalogService = catalogService;
+        this.computePool = computePool;
+    }
+
+    public boolean isRunning() {
+        return isRunning.get();
+    }
+
+    public ConjunctionScreeningReportDTO getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Avvia lo screening in background con i parametri indicati (null = default da configurazione)
+     *
+     * @return false se uno screening è già in corso
+     */
+    public boolean startScreening(Integer horizonHours, Integer stepSeconds, Double thresholdKm, String group) {
+        // Il flag viene preso prima di creare il thread: due richieste concorrenti non possono avviarne due
+        if (!isRunning.compareAndSet(false, true)) {
+            return false;
+        }
+
+        int horizon = horizonHours != null ? horizonHours : defaultHorizonHours;
+        int step = stepSeconds != null ? stepSeconds : defaultStepSeconds;
+        double threshold = thresholdKm != null ? thresholdKm : defaultThresholdKm;
+
+        Thread worker = new Thread(() -> {
+            try {
+                screen(horizon, step, threshold, group);
+            } catch (Exception e) {
+                System.err.println("❌ Errore screening congiunzioni: " + e.getMessage());
+                e.printStackTrace();
+            } finally {
+                isRunning.set(false);
+            }
+        }, "conjunction-screening");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    /**
+     * Esegue lo screening con i parametri di default della configurazione
+     */
+    public ConjunctionScreeningReportDTO runScreening() {
+        return runScreening(defaultHorizonHours, defaultStepSeconds, defaultThresholdKm, null);
+    }
+
+    /**
+     * Esegue lo screening in modo sincrono
+     *
+     * @param horizonHours orizzonte temporale in ore
+     * @param stepSeconds passo di campionamento in secondi
+     * @param thresholdKm distanza sotto la quale un avvicinamento viene riportato
+     * @param group gruppo Celestrak da analizzare (null = tutto il catalogo)
+     * @return report dello screening, null se uno screening era già in corso
+     */
+    public ConjunctionScreeningReportDTO runScreening(int horizonHours, int stepSeconds, double thresholdKm, String group) {
+        if (!isRunning.compareAndSet(false, true)) {
+            System.out.println("⏳ Screening congiunzioni già in corso... salta.");
+            return null;
+        }
+
+        try {
+            return screen(horizonHours, stepSeconds, thresholdKm, group);
+        } finally {
+            isRunning.set(false);
+        }
+    }
+
+    /**
+     * Corpo dello screening: il chiamante deve aver già preso il flag isRunning
+     * e si occupa di rilasciarlo
+     */
+    private ConjunctionScreeningReportDTO screen(int horizonHours, int stepSeconds, double thresholdKm, String group) {
+        try {
+            long startMs = System.currentTimeMillis();
+            LocalDateTime startedAt = toLocalDateTime(startMs);
+
+            CatalogSnapshot snapshot = catalogService.getSnapshot();
+            List<CatalogEntry> objects = new ArrayList<>();
+            for (CatalogEntry entry : snapshot.entries()) {
+                if (group == null || group.isBlank() || group.equalsIgnoreCase(entry.satelliteType())) {
+                    objects.add(entry);
+                }
+            }
+            int n = objects.size();
+
+            System.out.println("☄️  Screening congiunzioni: " + n + " oggetti, orizzonte " + horizonHours +
+                             "h, passo " + stepSeconds + "s, soglia " + thresholdKm + " km");
+
+            // --- Filtro 1: apogeo/perigeo ---
+            long filterStart = System.currentTimeMillis();
+            double[] perigee = new double[n];
+            double[] apogee = new double[n];
+            for (int i = 0; i < n; i++) {
+                OrbitalParameters params = objects.get(i).parameters();
+                double semiMajorAxis = OrbitMath.semiMajorAxisKm(params.getMeanMotion());
+                perigee[i] = semiMajorAxis * (1.0 - params.getEccentricity());
+                apogee[i] = semiMajorAxis * (1.0 + params.getEccentricity());
+            }
+            long totalPairs = (long) n * (n - 1) / 2;
+            long pairsAfterApogeePerigee = countApogeePerigeeCompatiblePairs(perigee, apogee, thresholdKm);
+            long filterMs = System.currentTimeMillis() - filterStart;
+
+            // --- Propagazione a blocchi + sweep-and-prune ---
+            Frame teme = FramesFactory.getTEME();
+            AbsoluteDate startDate = new AbsoluteDate(new Date(startMs), TimeScalesFactory.getUTC());
+            int totalSteps = horizonHours * 3600 / stepSeconds + 1;
+
+            int chunks = Math.min(computePool.getParallelism(), Math.max(1, n));
+            TLEPropagator[] propagators = new TLEPropagator[n];
+            AtomicLong propagationFailures = new AtomicLong();
+
+            List<Callable<Void>> buildTasks = new ArrayList<>();
+            for (int c = 0; c < chunks; c++) {
+                final int from = c * n / chunks;
+                final int to = (c + 1) * n / chunks;
+                buildTasks.add(() -> {
+                    for (int i = from; i < to; i++) {
+                        try {
+                            CatalogEntry entry = objects.get(i);
+                            propagators[i] = TLEPropagator.selectExtrapolator(
+                                TLEConverter.toOrekitTLE(entry.noradCatId(), entry.parameters()));
+                        } catch (Exception e) {
+                            propagationFailures.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            runAll(buildTasks);
+
+            double[][] positions = new double[STEPS_PER_BLOCK][n * 3];
+            double[][] velocities = new double[STEPS_PER_BLOCK][n * 3];
+            Map<Long, Candidate> candidates = new ConcurrentHashMap<>();
+            AtomicLong sweepCount = new AtomicLong();
+            AtomicLong boxCount = new AtomicLong();
+            long propagationMs = 0;
+            long sweepMs = 0;
+
+            for (int blockStart = 0; blockStart < totalSteps; blockStart += STEPS_PER_BLOCK) {
+                final int firstStep = blockStart;
+                final int blockSteps = Math.min(STEPS_PER_BLOCK, totalSteps - blockStart);
+
+                long phaseStart = System.currentTimeMillis();
+                List<Callable<Void>> propagateTasks = new ArrayList<>();
+                for (int c = 0; c < chunks; c++) {
+                    final int from = c * n / chunks;
+                    final int to = (c + 1) * n / chunks;
+                    propagateTasks.add(() -> {
+                        for (int s = 0; s < blockSteps; s++) {
+                            AbsoluteDate date = startDate.shiftedBy((double) (firstStep + s) * stepSeconds);
+                            double[] p = positions[s];
+                            double[] v = velocities[s];
+                            for (int i = from; i < to; i++) {
+                                if (propagators[i] == null) {
+                                    p[3 * i] = Double.NaN;
+                                    continue;
+                                }
+                                try {
+                                    PVCoordinates pv = propagators[i].getPVCoordinates(date, teme);
+                                    Vector3D pos = pv.getPosition();
+                                    Vector3D vel = pv.getVelocity();
+                                    p[3 * i] = pos.getX() / 1000.0;
+                                    p[3 * i + 1] = pos.getY() / 1000.0;
+                                    p[3 * i + 2] = pos.getZ() / 1000.0;
+                                    v[3 * i] = vel.getX() / 1000.0;
+                                    v[3 * i + 1] = vel.getY() / 1000.0;
+                                    v[3 * i + 2] = vel.getZ() / 1000.0;
+                                } catch (Exception e) {
+                                    // Oggetto rientrato o elementi degradati: escluso da questo istante
+                                    p[3 * i] = Double.NaN;
+                                }
+                            }
+                        }
+                        return null;
+                    });
+                }
+                runAll(propagateTasks);
+                propagationMs += System.currentTimeMillis() - phaseStart;
+
+                phaseStart = System.currentTimeMillis();
+                List<Callable<Void>> sweepTasks = new ArrayList<>();
+                for (int s = 0; s < blockSteps; s++) {
+                    final int stepIndex = s;
+                    sweepTasks.add(() -> {
+                        sweepStep(positions[stepIndex], velocities[stepIndex], n, perigee, apogee,
+                                  thresholdKm, stepSeconds, firstStep + stepIndex,
+                                  candidates, sweepCount, boxCount);
+                        return null;
+                    });
+                }
+                runAll(sweepTasks);
+                sweepMs += System.currentTimeMillis() - phaseStart;
+            }
+
+            // --- Raffinamento del TCA solo sulle coppie candidate ---
+            long refinementStart = System.currentTimeMillis();
+            List<Map.Entry<Long, Candidate>> candidateList = new ArrayList<>(candidates.entrySet());
+            List<ConjunctionDTO> conjunctions = refineCandidates(candidateList, objects, n, startDate, startMs,
+                                                                 horizonHours * 3600.0, stepSeconds, thresholdKm);
+            long refinementMs = System.currentTimeMillis() - refinementStart;
+
+            conjunctions.sort((a, b) -> Double.compare(a.missDistanceKm(), b.missDistanceKm()));
+            int found = conjunctions.size();
+            if (conjunctions.size() > MAX_REPORTED_CONJUNCTIONS) {
+                conjunctions = new ArrayList<>(conjunctions.subList(0, MAX_REPORTED_CONJUNCTIONS));
+            }
+
+            long totalMs = System.currentTimeMillis() - startMs;
+            ConjunctionScreeningReportDTO report = new ConjunctionScreeningReportDTO(
+                startedAt,
+                toLocalDateTime(System.currentTimeMillis()),
+                horizonHours,
+                stepSeconds,
+                thresholdKm,
+                n,
+                (int) propagationFailures.get(),
+                totalPairs,
+                pairsAfterApogeePerigee,
+                sweepCount.get(),
+                boxCount.get(),
+                candidates.size(),
+                candidateList.size(),
+                found,
+                filterMs,
+                propagationMs,
+                sweepMs,
+                refinementMs,
+                totalMs,
+                conjunctions
+            );
+            lastReport = report;
+
+            System.out.println("✅ Screening congiunzioni completato: " + found + " avvicinamenti < " + thresholdKm +
+                             " km | coppie: " + totalPairs + " totali, " + pairsAfterApogeePerigee +
+                             " dopo apogeo/perigeo, " + candidates.size() + " candidate [" + totalMs + "ms]");
+            return report;
+
+        } catch (org.orekit.errors.OrekitException oe) {
+            System.err.println("⚠️  Screening congiunzioni non eseguito (Orekit): " + oe.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Conta le coppie i cui gusci radiali [perigeo, apogeo] distano meno della soglia.
+     * Ordinando per perigeo basta una ricerca binaria per oggetto: O(n log n)
+     */
+    private long countApogeePerigeeCompatiblePairs(double[] perigee, double[] apogee, double thresholdKm) {
+        int n = perigee.length;
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(perigee[a], perigee[b]));
+
+        double[] sortedPerigee = new double[n];
+        for (int k = 0; k < n; k++) {
+            sortedPerigee[k] = perigee[order[k]];
+        }
+
+        long count = 0;
+        for (int k = 0; k < n; k++) {
+            double limit = apogee[order[k]] + thresholdKm;
+            int upper = upperBound(sortedPerigee, limit);
+            count += Math.max(0, upper - k - 1);
+        }
+        return count;
+    }
+
+    private int upperBound(double[] sorted, double value) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] <= value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Sweep-and-prune su un singolo istante: ordina gli oggetti lungo X e confronta
+     * solo quelli entro la finestra di screening, poi controlla Y/Z, apogeo/perigeo
+     * e la distanza minima con moto relativo lineare entro ±step/2
+     */
+    private void sweepStep(double[] p, double[] v, int n, double[] perigee, double[] apogee,
+                           double thresholdKm, int stepSeconds, int step,
+                           Map<Long, Candidate> candidates, AtomicLong sweepCount, AtomicLong boxCount) {
+        double halfStep = stepSeconds / 2.0;
+        double window = thresholdKm + MAX_RELATIVE_SPEED_KM_S * halfStep;
+        double candidateLimit = thresholdKm + CURVATURE_MARGIN_KM;
+
+        long[] keys = new long[n];
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            if (Double.isNaN(p[3 * i])) {
+                continue;
+            }
+            long xq = (long) Math.floor(p[3 * i]) + X_OFFSET_KM;
+            keys[m++] = (xq << 24) | i;
+        }
+        Arrays.sort(keys, 0, m);
+
+        long windowKeys = (long) Math.ceil(window) + 1;
+        long localSweep = 0;
+        long localBox = 0;
+
+        for (int a = 0; a < m; a++) {
+            int i = (int) (keys[a] & INDEX_MASK);
+            long xa = keys[a] >>> 24;
+
+            for (int b = a + 1; b < m; b++) {
+                if ((keys[b] >>> 24) - xa > windowKeys) {
+                    break;
+                }
+                localSweep++;
+
+                int j = (int) (keys[b] & INDEX_MASK);
+                double rx = p[3 * j] - p[3 * i];
+                double ry = p[3 * j + 1] - p[3 * i + 1];
+                double rz = p[3 * j + 2] - p[3 * i + 2];
+                if (Math.abs(rx) > window || Math.abs(ry) > window || Math.abs(rz) > window) {
+                    continue;
+                }
+                localBox++;
+
+                if (Math.max(perigee[i], perigee[j]) > Math.min(apogee[i], apogee[j]) + thresholdKm) {
+                    continue;
+                }
+
+                // Distanza minima con moto relativo lineare nell'intorno del campione
+                double vx = v[3 * j] - v[3 * i];
+                double vy = v[3 * j + 1] - v[3 * i + 1];
+                double vz = v[3 * j + 2] - v[3 * i + 2];
+                double vv = vx * vx + vy * vy + vz * vz;
+                double t = vv > 0 ? -(rx * vx + ry * vy + rz * vz) / vv : 0.0;
+                t = Math.max(-halfStep, Math.min(halfStep, t));
+                double dx = rx + vx * t;
+                double dy = ry + vy * t;
+                double dz = rz + vz * t;
+                double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+
+                if (distance <= candidateLimit) {
+                    int lo = Math.min(i, j);
+                    int hi = Math.max(i, j);
+                    long pairKey = (long) lo * n + hi;
+                    candidates.merge(pairKey, new Candidate(distance, step, t),
+                        (oldC, newC) -> oldC.linearDistanceKm() <= newC.linearDistanceKm() ? oldC : newC);
+                }
+            }
+        }
+
+        sweepCount.addAndGet(localSweep);
+        boxCount.addAndGet(localBox);
+    }
+
+    /**
+     * Raffina il tempo di massimo avvicinamento delle coppie candidate (in parallelo)
+     */
+    private List<ConjunctionDTO> refineCandidates(List<Map.Entry<Long, Candidate>> candidateList,
+                                                  List<CatalogEntry> objects, int n,
+                                                  AbsoluteDate startDate, long startMs,
+                                                  double horizonSeconds, int stepSeconds, double thresholdKm) {
+        List<ConjunctionDTO> result = new ArrayList<>();
+        if (candidateList.isEmpty()) {
+            return result;
+        }
+
+        int chunks = Math.min(computePool.getParallelism(), candidateList.size());
+        List<Callable<List<ConjunctionDTO>>> tasks = new ArrayList<>();
+        for (int c = 0; c < chunks; c++) {
+            final int from = c * candidateList.size() / chunks;
+            final int to = (c + 1) * candidateList.size() / chunks;
+            tasks.add(() -> {
+                Frame teme = FramesFactory.getTEME();
+                List<ConjunctionDTO> local = new ArrayList<>();
+                for (int k = from; k < to; k++) {
+                    long pairKey = candidateList.get(k).getKey();
+                    Candidate candidate = candidateList.get(k).getValue();
+                    CatalogEntry primary = objects.get((int) (pairKey / n));
+                    CatalogEntry secondary = objects.get((int) (pairKey % n));
+
+                    try {
+                        TLEPropagator p1 = TLEPropagator.selectExtrapolator(
+                            TLEConverter.toOrekitTLE(primary.noradCatId(), primary.parameters()));
+                        TLEPropagator p2 = TLEPropagator.selectExtrapolator(
+                            TLEConverter.toOrekitTLE(secondary.noradCatId(), secondary.parameters()));
+
+                        double center = (double) candidate.step() * stepSeconds + candidate.offsetSeconds();
+                        double lo = Math.max(0.0, center - stepSeconds);
+                        double hi = Math.min(horizonSeconds, center + stepSeconds);
+
+                        // Ricerca a sezione aurea del minimo della distanza
+                        double gr = (Math.sqrt(5.0) - 1.0) / 2.0;
+                        double a = lo;
+                        double b = hi;
+                        double x1 = b - gr * (b - a);
+                        double x2 = a + gr * (b - a);
+                        double f1 = distanceKm(p1, p2, startDate.shiftedBy(x1), teme);
+                        double f2 = distanceKm(p1, p2, startDate.shiftedBy(x2), teme);
+                        while (b - a > 0.001) {
+                            if (f1 < f2) {
+                                b = x2;
+                                x2 = x1;
+                                f2 = f1;
+                                x1 = b - gr * (b - a);
+                                f1 = distanceKm(p1, p2, startDate.shiftedBy(x1), teme);
+                            } else {
+                                a = x1;
+                                x1 = x2;
+                                f1 = f2;
+                                x2 = a + gr * (b - a);
+                                f2 = distanceKm(p1, p2, startDate.shiftedBy(x2), teme);
+                            }
+                        }
+
+                        double tca = (a + b) / 2.0;
+                        AbsoluteDate tcaDate = startDate.shiftedBy(tca);
+                        PVCoordinates pv1 = p1.getPVCoordinates(tcaDate, teme);
+                        PVCoordinates pv2 = p2.getPVCoordinates(tcaDate, teme);
+                        double missDistance = Vector3D.distance(pv1.getPosition(), pv2.getPosition()) / 1000.0;
+
+                        if (missDistance <= thresholdKm) {
+                            double relativeVelocity = pv1.getVelocity().subtract(pv2.getVelocity()).getNorm() / 1000.0;
+                            local.add(new ConjunctionDTO(
+                                primary.satelliteId(),
+                                primary.objectName(),
+                                primary.noradCatId(),
+                                secondary.satelliteId(),
+                                secondary.objectName(),
+                                secondary.noradCatId(),
+                                toLocalDateTime(startMs + Math.round(tca * 1000.0)),
+                                Math.round(missDistance * 1000.0) / 1000.0,
+                                Math.round(relativeVelocity * 1000.0) / 1000.0
+                            ));
+                        }
+                    } catch (Exception e) {
+                        // Coppia non raffinabile: scartata
+                    }
+                }
+                return local;
+            });
+        }
+
+        for (List<ConjunctionDTO> partial : runAll(tasks)) {
+            result.addAll(partial);
+        }
+        return result;
+    }
+
+    private double distanceKm(TLEPropagator p1, TLEPropagator p2, AbsoluteDate date, Frame frame) {
+        Vector3D r1 = p1.getPVCoordinates(date, frame).getPosition();
+        Vector3D r2 = p2.getPVCoordinates(date, frame).getPosition();
+        return Vector3D.distance(r1, r2) / 1000.0;
+    }
+
+    /**
+     * Esegue i task sul pool di calcolo e attende tutti i risultati
+     */
+    private <T> List<T> runAll(List<Callable<T>> tasks) {
+        try {
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Future<T> future : computePool.getExecutor().invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Screening interrotto", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Errore in un task di screening: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private LocalDateTime toLocalDateTime(long epochMs) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMs, 1000L),
+                                           (int) Math.floorMod(epochMs, 1000L) * 1000000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,441 @@
+package com.satelliteTracking.service;
+
+import com.satelliteTracking.config.ComputePool;
+import com.satelliteTracking.dto.DayPassesDTO;
+import com.satelliteTracking.dto.SatellitePassDTO;
+import com.satelliteTracking.model.CatalogEntry;
+import com.satelliteTracking.model.ObserverLocation;
+import com.satelliteTracking.model.OrbitRegime;
+import com.satelliteTracking.util.ObserverFrame;
+import com.satelliteTracking.util.OrbitMath;
+import com.satelliteTracking.util.SampledEphemeris;
+import com.satelliteTracking.util.SamplingGrid;
+import com.satelliteTracking.util.TLEConverter;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.propagation.analytical.tle.TLEPropagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.IERSConventions;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Previsione dei passaggi su più giorni, emessa un giorno alla volta.
+ *
+ * Per i satelliti in orbita bassa quasi circolare si sfrutta la periodicità: le prime
+ * rivoluzioni vengono propagate per misurare il periodo nodale, lo spostamento in
+ * longitudine del nodo ascendente a ogni giro e la traccia al suolo di un giro. La traccia
+ * dei giri successivi è la stessa ruotata in longitudine, quindi basta confrontarla con
+ * l'osservatore per sapere in quali intervalli il satellite può sorgere e propagare solo
+ * quelli. All'inizio di ogni giorno il nodo viene ricalibrato con la propagazione esatta,
+ * così l'errore sul periodo non si accumula.
+ *
+ * Le altre orbite (medie, ellittiche, geostazionarie) usano la scansione a passo fisso,
+ * un giorno alla volta.
+ */
+@Service
+public class LongHorizonPassService {
+
+    public static final int MAX_DAYS = 10;
+
+    private static final double STEP_SECONDS = 60.0;
+    private static final long DAY_MS = 86400000L;
+
+    // Rivoluzioni propagate per misurare periodo nodale e traccia al suolo
+    private static final int CALIBRATION_REVOLUTIONS = 3;
+
+    // Margine aggiunto prima e dopo ogni intervallo candidato
+    private static final double WINDOW_MARGIN_SECONDS = 180.0;
+
+    // La scansione a passo fisso prosegue oltre la fine del giorno per chiudere i passaggi in corso
+    private static final int FIXED_SCAN_OVERLAP_HOURS = 3;
+
+    // Semi-ampiezza dell'intervallo in cui cercare il nodo ascendente durante la ricalibrazione
+    private static final double NODE_SEARCH_SECONDS = 600.0;
+
+    private final SatellitePassService passService;
+    private final ComputePool computePool;
+    private final Scheduler scheduler;
+    private final Clock clock;
+
+    public LongHorizonPassService(SatellitePassService passService, ComputePool computePool, Clock clock) {
+        this.passService = passService;
+        this.computePool = computePool;
+        this.clock = clock;
+        this.scheduler = Schedulers.fromExecutorService(computePool.getExecutor(), "long-horizon");
+    }
+
+    /**
+     * Calcola i passaggi dei satelliti sopra l'osservatore per i prossimi giorni.
+     * Emette un elemento per giorno, in ordine; i satelliti di un giorno sono calcolati in parallelo.
+     *
+     * @param satellites satelliti del catalogo
+     * @param observerLocation posizione dell'osservatore
+     * @param days numero di giorni (1 - MAX_DAYS)
+     * @param minElevation elevazione minima dei passaggi
+     */
+    public Flux<DayPassesDTO> streamDays(List<CatalogEntry> satellites, ObserverLocation observerLocation,
+                                         int days, double minElevation) {
+        long startTime = System.currentTimeMillis();
+        long windowStartMs = LocalDateTime.now(clock).toInstant(ZoneOffset.UTC).toEpochMilli();
+        ObserverFrame observer = ObserverFrame.of(observerLocation);
+        AtomicLong propagatedSamples = new AtomicLong();
+
+        List<SatelliteTracker> trackers = new ArrayList<>();
+        for (CatalogEntry entry : satellites) {
+            trackers.add(new SatelliteTracker(entry, observer, windowStartMs, propagatedSamples));
+        }
+
+        return Flux.range(0, days)
+            .concatMap(day -> Flux.fromIterable(trackers)
+                .parallel(computePool.getParallelism())
+                .runOn(scheduler)
+                .flatMap(tracker -> Flux.fromIterable(tracker.passesForDay(day, minElevation)))
+                .sequential()
+                .collectList()
+                .map(passes -> {
+                    passes.sort((p1, p2) -> p1.riseTime().compareTo(p2.riseTime()));
+                    long dayStart = windowStartMs + day * DAY_MS;
+                    return new DayPassesDTO(day + 1, toLocalDateTime(dayStart), toLocalDateTime(dayStart + DAY_MS),
+                                            passes.size(), passes);
+                }))
+            .doOnComplete(() -> {
+                long fixedStepSamples = (long) satellites.size() * (days * 86400L / (long) STEP_SECONDS + 1);
+                System.out.println("📅 Previsione a " + days + " giorni da " + observerLocation.getLocationName() +
+                    ": " + satellites.size() + " satelliti, " + propagatedSamples.get() +
+                    " istanti propagati (passo fisso: " + fixedStepSamples + ") [" +
+                    (System.currentTimeMillis() - startTime) + "ms]");
+            });
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneOffset.UTC);
+    }
+
+    /**
+     * Stato della previsione di un satellite, conservato da un giorno al successivo.
+     * I giorni sono elaborati in sequenza, quindi ogni tracker è usato da un thread alla volta.
+     */
+    private final class SatelliteTracker {
+
+        private final CatalogEntry entry;
+        private final ObserverFrame observer;
+        private final long windowStartMs;
+        private final AtomicLong propagatedSamples;
+
+        private TLEPropagator propagator;
+        private Frame itrf;
+        private boolean failed;
+        private boolean periodic;
+
+        // Nodo ascendente di riferimento e sua evoluzione da un giro al successivo
+        private double anchorMs;
+        private double anchorLongitude;
+        private double nodalPeriodMs;
+        private double nodeDriftDeg;
+
+        // Traccia al suolo di un giro: secondi dal nodo, latitudine, longitudine relativa al nodo
+        private double[] templateSeconds;
+        private double[] templateLatitude;
+        private double[] templateLongitude;
+        private double radiusDeg;
+
+        SatelliteTracker(CatalogEntry entry, ObserverFrame observer, long windowStartMs,
+                         AtomicLong propagatedSamples) {
+            this.entry = entry;
+            this.observer = observer;
+            this.windowStartMs = windowStartMs;
+            this.propagatedSamples = propagatedSamples;
+        }
+
+        List<SatellitePassDTO> passesForDay(int day, double minElevation) {
+            if (failed) {
+                return List.of();
+            }
+
+            try {
+                if (propagator == null) {
+                    propagator = TLEPropagator.selectExtrapolator(
+                        TLEConverter.toOrekitTLE(entry.noradCatId(), entry.parameters()));
+                    itrf = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+                    periodic = entry.orbitRegime() == OrbitRegime.LEO &&
+                               entry.parameters().getEccentricity() < 0.05 &&
+                               calibrate();
+                }
+
+                long dayStart = windowStartMs + day * DAY_MS;
+                long dayEnd = dayStart + DAY_MS;
+                List<SatellitePassDTO> candidates = periodic
+                    ? periodicScan(dayStart, dayEnd)
+                    : fixedScan(dayStart, dayEnd, day > 0);
+
+                LocalDateTime from = toLocalDateTime(dayStart);
+                LocalDateTime to = toLocalDateTime(dayEnd);
+                List<SatellitePassDTO> passes = new ArrayList<>();
+                for (SatellitePassDTO pass : candidates) {
+                    if (pass.maxElevation() >= minElevation &&
+                        !pass.riseTime().isBefore(from) && pass.riseTime().isBefore(to)) {
+                        passes.add(pass);
+                    }
+                }
+                return passes;
+            } catch (Exception e) {
+                // TLE non valido o satellite rientrato: nessun passaggio nei giorni successivi
+                failed = true;
+                return List.of();
+            }
+        }
+
+        /**
+         * Propaga le prime rivoluzioni e ricava periodo nodale, deriva del nodo e traccia al suolo
+         *
+         * @return false se non ci sono abbastanza nodi ascendenti (si passa alla scansione a passo fisso)
+         */
+        private boolean calibrate() {
+            double periodSeconds = 86400.0 / entry.parameters().getMeanMotion();
+            int count = (int) Math.ceil((CALIBRATION_REVOLUTIONS + 1) * periodSeconds / STEP_SECONDS) + 1;
+            SamplingGrid grid = SamplingGrid.fromEpochMs(windowStartMs, STEP_SECONDS, count);
+            SampledEphemeris ephemeris = SampledEphemeris.propagate(propagator, grid);
+            propagatedSamples.addAndGet(count);
+            if (ephemeris.getValidSamples() < count) {
+                return false;
+            }
+
+            // Nodi ascendenti: z ITRF passa da negativo a positivo (interpolazione lineare)
+            double[] p = ephemeris.getPositions();
+            List<double[]> nodes = new ArrayList<>();
+            for (int s = 1; s < count; s++) {
+                double z0 = p[3 * (s - 1) + 2];
+                double z1 = p[3 * s + 2];
+                if (z0 < 0 && z1 >= 0) {
+                    double f = -z0 / (z1 - z0);
+                    double x = p[3 * (s - 1)] + f * (p[3 * s] - p[3 * (s - 1)]);
+                    double y = p[3 * (s - 1) + 1] + f * (p[3 * s + 1] - p[3 * (s - 1) + 1]);
+                    nodes.add(new double[] {
+                        grid.epochMsAt(s - 1) + f * STEP_SECONDS * 1000.0,
+                        Math.toDegrees(Math.atan2(y, x))
+                    });
+                }
+            }
+            if (nodes.size() < 2) {
+                return false;
+            }
+
+            int revolutions = nodes.size() - 1;
+            double drift = 0;
+            for (int i = 1; i < nodes.size(); i++) {
+                drift += OrbitMath.normalizeLongitude(nodes.get(i)[1] - nodes.get(i - 1)[1]);
+            }
+            anchorMs = nodes.get(0)[0];
+            anchorLongitude = nodes.get(0)[1];
+            nodalPeriodMs = (nodes.get(revolutions)[0] - anchorMs) / revolutions;
+            nodeDriftDeg = drift / revolutions;
+
+            // Traccia al suolo del primo giro completo
+            List<double[]> track = new ArrayList<>();
+            double maxAltitudeKm = 0;
+            for (int s = 0; s < count; s++) {
+                double seconds = (grid.epochMsAt(s) - anchorMs) / 1000.0;
+                if (seconds < 0 || seconds > nodalPeriodMs / 1000.0) {
+                    continue;
+                }
+                double x = p[3 * s];
+                double y = p[3 * s + 1];
+                double z = p[3 * s + 2];
+                double r = Math.sqrt(x * x + y * y + z * z);
+                maxAltitudeKm = Math.max(maxAltitudeKm, r / 1000.0 - OrbitMath.EARTH_MEAN_RADIUS_KM);
+                track.add(new double[] {
+                    seconds,
+                    Math.toDegrees(Math.asin(z / r)),
+                    OrbitMath.normalizeLongitude(Math.toDegrees(Math.atan2(y, x)) - anchorLongitude)
+                });
+            }
+
+            templateSeconds = new double[track.size()];
+            templateLatitude = new double[track.size()];
+            templateLongitude = new double[track.size()];
+            for (int i = 0; i < track.size(); i++) {
+                templateSeconds[i] = track.get(i)[0];
+                templateLatitude[i] = track.get(i)[1];
+                templateLongitude[i] = track.get(i)[2];
+            }
+
+            // Raggio di visibilità all'orizzonte più lo spostamento al suolo in un passo
+            double groundStepDeg = (360.0 * 1000.0 / nodalPeriodMs + OrbitMath.EARTH_ROTATION_DEG_PER_SECOND) *
+                                   STEP_SECONDS;
+            radiusDeg = OrbitMath.visibilityRadiusDeg(maxAltitudeKm, 0.0) + groundStepDeg;
+            return true;
+        }
+
+        /**
+         * Passaggi di un giorno cercati solo negli intervalli in cui la traccia al suolo
+         * si avvicina all'osservatore
+         */
+        private List<SatellitePassDTO> periodicScan(long dayStart, long dayEnd) {
+            if (dayStart > windowStartMs) {
+                recalibrate(dayStart);
+            }
+
+            long firstRevolution = (long) Math.floor((dayStart - anchorMs) / nodalPeriodMs) - 1;
+            long lastRevolution = (long) Math.ceil((dayEnd - anchorMs) / nodalPeriodMs);
+            double marginMs = WINDOW_MARGIN_SECONDS * 1000.0;
+            int last = templateSeconds.length - 1;
+
+            List<double[]> windows = new ArrayList<>();
+            for (long k = firstRevolution; k <= lastRevolution; k++) {
+                double nodeMs = anchorMs + k * nodalPeriodMs;
+                // Osservatore nel sistema della traccia di riferimento
+                double observerLongitude = OrbitMath.normalizeLongitude(
+                    observer.getLongitude() - anchorLongitude - k * nodeDriftDeg);
+
+                int segmentStart = -1;
+                for (int j = 0; j <= last; j++) {
+                    boolean near = OrbitMath.angularDistanceDeg(templateLatitude[j], templateLongitude[j],
+                                                                observer.getLatitude(), observerLongitude) <= radiusDeg;
+                    if (near && segmentStart < 0) {
+                        segmentStart = j;
+                    }
+                    if (segmentStart >= 0 && (!near || j == last)) {
+                        int segmentEnd = near ? j : j - 1;
+                        double start = nodeMs + templateSeconds[segmentStart] * 1000.0 - marginMs;
+                        double end = nodeMs + templateSeconds[segmentEnd] * 1000.0 + marginMs;
+                        if (end >= dayStart && start < dayEnd) {
+                            windows.add(new double[] {start, end});
+                        }
+                        segmentStart = -1;
+                    }
+                }
+            }
+
+            // Unisce gli intervalli sovrapposti (es. tratti a cavallo del nodo)
+            windows.sort((a, b) -> Double.compare(a[0], b[0]));
+            List<SatellitePassDTO> passes = new ArrayList<>();
+            double[] current = null;
+            for (double[] window : windows) {
+                if (current != null && window[0] <= current[1]) {
+                    current[1] = Math.max(current[1], window[1]);
+                    continue;
+                }
+                if (current != null) {
+                    passes.addAll(scanWindow((long) current[0], (long) current[1]));
+                }
+                current = window;
+            }
+            if (current != null) {
+                passes.addAll(scanWindow((long) current[0], (long) current[1]));
+            }
+            return passes;
+        }
+
+        /**
+         * Propaga un intervallo candidato. Se il satellite è già sopra l'orizzonte a un estremo,
+         * l'intervallo viene allargato finché il passaggio non è completo.
+         */
+        private List<SatellitePassDTO> scanWindow(long startMs, long endMs) {
+            long marginMs = (long) (WINDOW_MARGIN_SECONDS * 1000.0);
+            for (int attempt = 0; ; attempt++) {
+                int count = (int) Math.ceil((endMs - startMs) / (STEP_SECONDS * 1000.0)) + 1;
+                SamplingGrid grid = SamplingGrid.fromEpochMs(startMs, STEP_SECONDS, count);
+                SampledEphemeris ephemeris = SampledEphemeris.propagate(propagator, grid);
+                propagatedSamples.addAndGet(count);
+
+                int valid = ephemeris.getValidSamples();
+                if (valid < count || attempt >= 3) {
+                    return passService.findPasses(entry.satelliteId(), entry.objectName(), ephemeris, observer);
+                }
+
+                double[] p = ephemeris.getPositions();
+                boolean openAtStart = observer.elevation(p[0], p[1], p[2]) > 0;
+                boolean openAtEnd = observer.elevation(p[3 * (count - 1)], p[3 * (count - 1) + 1],
+                                                       p[3 * (count - 1) + 2]) > 0;
+                if (!openAtStart && !openAtEnd) {
+                    return passService.findPasses(entry.satelliteId(), entry.objectName(), ephemeris, observer);
+                }
+                if (openAtStart) {
+                    startMs -= marginMs;
+                }
+                if (openAtEnd) {
+                    endMs += marginMs;
+                }
+            }
+        }
+
+        /**
+         * Trova con la propagazione esatta il primo nodo ascendente dopo dayStart e aggiorna
+         * periodo nodale e deriva del nodo con lo scarto rispetto alla previsione
+         */
+        private void recalibrate(long dayStart) {
+            long revolutions = (long) Math.ceil((dayStart - anchorMs) / nodalPeriodMs);
+            if (revolutions < 1) {
+                return;
+            }
+            double predictedMs = anchorMs + revolutions * nodalPeriodMs;
+
+            double lowMs = predictedMs - NODE_SEARCH_SECONDS * 1000.0;
+            double highMs = predictedMs + NODE_SEARCH_SECONDS * 1000.0;
+            if (positionAt(lowMs).getZ() >= 0 || positionAt(highMs).getZ() < 0) {
+                // Nodo non trovato vicino alla previsione: si mantiene la calibrazione corrente
+                return;
+            }
+            // Bisezione fino a circa mezzo secondo
+            while (highMs - lowMs > 500.0) {
+                double midMs = (lowMs + highMs) / 2.0;
+                if (positionAt(midMs).getZ() < 0) {
+                    lowMs = midMs;
+                } else {
+                    highMs = midMs;
+                }
+            }
+
+            double nodeMs = (lowMs + highMs) / 2.0;
+            Vector3D node = positionAt(nodeMs);
+            double longitude = Math.toDegrees(Math.atan2(node.getY(), node.getX()));
+            double predictedLongitude = anchorLongitude + revolutions * nodeDriftDeg;
+
+            nodalPeriodMs = (nodeMs - anchorMs) / revolutions;
+            nodeDriftDeg += OrbitMath.normalizeLongitude(longitude - predictedLongitude) / revolutions;
+            anchorMs = nodeMs;
+            anchorLongitude = longitude;
+        }
+
+        private Vector3D positionAt(double epochMs) {
+            propagatedSamples.incrementAndGet();
+            AbsoluteDate date = new AbsoluteDate(new Date((long) epochMs), TimeScalesFactory.getUTC());
+            return propagator.getPVCoordinates(date, itrf).getPosition();
+        }
+
+        /**
+         * Scansione a passo fisso del giorno, prolungata per chiudere i passaggi a cavallo della mezzanotte.
+         * Un passaggio già in corso all'inizio di un giorno successivo al primo è stato
+         * riportato nel giorno precedente e viene scartato.
+         */
+        private List<SatellitePassDTO> fixedScan(long dayStart, long dayEnd, boolean skipOpenPass) {
+            long endMs = dayEnd + FIXED_SCAN_OVERLAP_HOURS * 3600000L;
+            int count = (int) ((endMs - dayStart) / (STEP_SECONDS * 1000.0)) + 1;
+            SamplingGrid grid = SamplingGrid.fromEpochMs(dayStart, STEP_SECONDS, count);
+            SampledEphemeris ephemeris = SampledEphemeris.propagate(propagator, grid);
+            propagatedSamples.addAndGet(count);
+
+            List<SatellitePassDTO> passes = passService.findPasses(entry.satelliteId(), entry.objectName(),
+                                                                   ephemeris, observer);
+            if (skipOpenPass) {
+                LocalDateTime gridStart = grid.timeAt(0);
+                passes.removeIf(pass -> pass.riseTime().equals(gridStart));
+            }
+            return passes;
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package com.satelliteTracking.service;
+
+import com.satelliteTracking.config.ComputePool;
+import com.satelliteTracking.model.CatalogEntry;
+import com.satelliteTracking.model.CatalogSnapshot;
+import com.satelliteTracking.util.LatLonGrid;
+import com.satelliteTracking.util.OrbitMath;
+import com.satelliteTracking.util.SampledEphemeris;
+import com.satelliteTracking.util.SamplingGrid;
+import com.satelliteTracking.util.TLEConverter;
+import org.orekit.propagation.analytical.tle.TLEPropagator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Griglia globale dei satelliti candidati per ogni cella della superficie terrestre.
+ *
+ * Dopo ogni aggiornamento del catalogo, ogni satellite viene propagato una volta sulla
+ * finestra della griglia e ad ogni campione si marcano le celle dentro il suo cerchio
+ * di visibilità (come nell'indice degli iscritti Telegram, ma per tutte le celle).
+ * Per ogni cella e blocco di tempo resta un elenco compatto degli indici dei satelliti
+ * che possono superare l'elevazione minima della griglia da un punto qualsiasi della cella.
+ *
+ * Una ricerca di passaggi per coordinate qualsiasi prende i candidati della cella che
+ * contiene l'osservatore e calcola esattamente solo quei satelliti.
+ *
+ * Il calcolo procede a blocchi di satelliti: se viene interrotto riprende dal primo
+ * blocco non completato, finché il catalogo non cambia.
+ */
+@Service
+public class PassGridService {
+
+    private final SatelliteCatalogService catalogService;
+    private final ComputePool computePool;
+    private final Clock clock;
+
+    private final boolean enabled;
+    private final double cellDegrees;
+    private final int hours;
+    private final long blockMs;
+    private final double minElevation;
+
+    // Passo di campionamento della traccia al suolo
+    private static final double TRACK_STEP_SECONDS = 60.0;
+
+    // Satelliti elaborati da un singolo task
+    private static final int CHUNK_SIZE = 64;
+
+    // Bit riservati all'indice del satellite nei valori compattati (cella/blocco, satellite)
+    private static final int SATELLITE_BITS = 24;
+
+    /**
+     * Griglia pubblicata: per ogni cella × blocco gli indici dei satelliti candidati
+     */
+    private record GridIndex(long catalogVersion, long startEpochMs, int blocks, long[] satelliteIds,
+                             int[][] candidates, long entries, long memoryBytes) {}
+
+    /**
+     * Stato di un calcolo in corso, conservato per poter riprendere dopo un'interruzione
+     */
+    private static final class GridBuild {
+        final long catalogVersion;
+        final long startEpochMs;
+        final int blocks;
+        final List<CatalogEntry> satellites;
+        final int totalChunks;
+        final int[][] candidates;
+        final int[] sizes;
+        int completedChunks;
+        long entries;
+        long computeMs;
+        long propagatedSamples;
+        long markedCells;
+
+        GridBuild(long catalogVersion, long startEpochMs, int blocks, List<CatalogEntry> satellites, int cells) {
+            this.catalogVersion = catalogVersion;
+            this.startEpochMs = startEpochMs;
+            this.blocks = blocks;
+            this.satellites = satellites;
+            this.totalChunks = (satellites.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            this.candidates = new int[cells * blocks][];
+            this.sizes = new int[cells * blocks];
+        }
+
+        void add(int cellBlock, int satelliteIndex) {
+            int[] list = candidates[cellBlock];
+            int size = sizes[cellBlock];
+            if (list == null) {
+                list = new int[4];
+            } else if (size == list.length) {
+                list = Arrays.copyOf(list, size * 2);
+            }
+            list[size] = satelliteIndex;
+            candidates[cellBlock] = list;
+            sizes[cellBlock] = size + 1;
+            entries++;
+        }
+    }
+
+    /**
+     * Risultato di un task: coppie (cella × blocco, satellite) compattate in un long
+     */
+    private record ChunkResult(long[] marks, int count, long propagatedSamples, long markedCells, long computeMs) {}
+
+    private final LatLonGrid<Void> cells;
+    private GridBuild build;
+    private volatile GridIndex index;
+    private volatile Map<String, Object> lastReport = Map.of();
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong gridHits = new AtomicLong();
+    private final AtomicLong candidatesReturned = new AtomicLong();
+
+    public PassGridService(SatelliteCatalogService catalogService, ComputePool computePool, Clock clock,
+                           @Value("${passes.grid.enabled:false}") boolean enabled,
+                           @Value("${passes.grid.cell-degrees:1.0}") double cellDegrees,
+                           @Value("${passes.grid.hours:12}") int hours,
+                           @Value("${passes.grid.block-minutes:30}") int blockMinutes,
+                           @Value("${passes.grid.min-elevation:10.0}") double minElevation) {
+        this.catalogService = catalogService;
+        this.computePool = computePool;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.cellDegrees = cellDegrees;
+        this.hours = hours;
+        this.blockMs = blockMinutes * 60000L;
+        this.minElevation = minElevation;
+        this.cells = new LatLonGrid<>(cellDegrees);
+    }
+
+    /**
+     * Calcola (o riprende) la griglia per il catalogo corrente. Non fa nulla se la griglia
+     * pubblicata è già del catalogo corrente e copre ancora almeno metà della finestra.
+     *
+     * @return report del calcolo (costo, memoria, progresso)
+     */
+    public synchronized Map<String, Object> rebuild() {
+        if (!enabled) {
+            return Map.of("enabled", false);
+        }
+
+        CatalogSnapshot snapshot = catalogService.getSnapshot();
+        long nowMs = toEpochMs(LocalDateTime.now(clock));
+        long windowMs = hours * 3600000L;
+
+        GridIndex current = index;
+        if (current != null && current.catalogVersion() == snapshot.version() &&
+            current.startEpochMs() + windowMs - nowMs > windowMs / 2) {
+            return lastReport;
+        }
+        if (snapshot.entries().isEmpty()) {
+            return Map.of("enabled", true, "satellites", 0);
+        }
+
+        if (build != null && build.catalogVersion == snapshot.version() &&
+            build.startEpochMs + windowMs - nowMs > windowMs / 2) {
+            System.out.println("🔁 Griglia passaggi: ripresa dal blocco " + build.completedChunks + "/" +
+                             build.totalChunks);
+        } else {
+            // Inizio allineato all'ora: griglie successive restano confrontabili
+            long startEpochMs = Math.floorDiv(nowMs, 3600000L) * 3600000L;
+            int blocks = (int) ((windowMs + blockMs - 1) / blockMs);
+            build = new GridBuild(snapshot.version(), startEpochMs, blocks, snapshot.entries(), cells.getCellCount());
+        }
+
+        GridBuild running = build;
+        long wallStart = System.currentTimeMillis();
+        int samples = (int) (windowMs / 1000 / TRACK_STEP_SECONDS) + 1;
+        SamplingGrid grid = SamplingGrid.fromEpochMs(running.startEpochMs, TRACK_STEP_SECONDS, samples);
+
+        int parallelism = computePool.getParallelism();
+        try {
+            while (running.completedChunks < running.totalChunks) {
+                if (catalogService.getSnapshot().version() != running.catalogVersion) {
+                    System.out.println("⏹️  Griglia passaggi: catalogo cambiato, calcolo annullato");
+                    build = null;
+                    return Map.of("enabled", true, "aborted", "catalogo cambiato");
+                }
+
+                int first = running.completedChunks;
+                int last = Math.min(running.totalChunks, first + parallelism);
+                List<Callable<ChunkResult>> tasks = new ArrayList<>();
+                for (int c = first; c < last; c++) {
+                    final int from = c * CHUNK_SIZE;
+                    final int to = Math.min(running.satellites.size(), from + CHUNK_SIZE);
+                    tasks.add(() -> scanChunk(running, grid, from, to));
+                }
+
+                // Unione nell'ordine dei blocchi: gli indici dei satelliti restano crescenti in ogni cella
+                for (Future<ChunkResult> future : computePool.getExecutor().invokeAll(tasks)) {
+                    ChunkResult result = future.get();
+                    for (int i = 0; i < result.count(); i++) {
+                        long mark = result.marks()[i];
+                        running.add((int) (mark >>> SATELLITE_BITS), (int) (mark & ((1L << SATELLITE_BITS) - 1)));
+                    }
+                    running.computeMs += result.computeMs();
+                    running.propagatedSamples += result.propagatedSamples();
+                    running.markedCells += result.markedCells();
+                }
+                running.completedChunks = last;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return progressReport(running, "interrotto");
+        } catch (ExecutionException e) {
+            System.err.println("❌ Errore griglia passaggi: " + e.getCause().getMessage());
+            return progressReport(running, "errore: riprende al prossimo avvio");
+        }
+
+        index = publish(running);
+        build = null;
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("enabled", true);
+        report.put("catalogVersion", running.catalogVersion);
+        report.put("start", fromEpochMs(running.startEpochMs).toString());
+        report.put("hours", hours);
+        report.put("cellDegrees", cellDegrees);
+        report.put("cells", cells.getCellCount());
+        report.put("blocks", running.blocks);
+        report.put("minElevation", minElevation);
+        report.put("satellites", running.satellites.size());
+        report.put("entries", index.entries());
+        report.put("avgCandidatesPerCellBlock",
+                   Math.round(index.entries() * 10.0 / ((long) cells.getCellCount() * running.blocks)) / 10.0);
+        report.put("memoryMB", Math.round(index.memoryBytes() / 1024.0 / 1024.0 * 10.0) / 10.0);
+        report.put("propagatedSamples", running.propagatedSamples);
+        report.put("markedCells", running.markedCells);
+        report.put("computeMs", running.computeMs);
+        report.put("lastRunWallMs", System.currentTimeMillis() - wallStart);
+        lastReport = report;
+
+        System.out.println("🌍 Griglia passaggi: " + running.satellites.size() + " satelliti × " +
+                         cells.getCellCount() + " celle × " + running.blocks + " blocchi, " + index.entries() +
+                         " candidati, " + report.get("memoryMB") + " MB [calcolo " + running.computeMs +
+                         "ms, " + report.get("lastRunWallMs") + "ms]");
+        return report;
+    }
+
+    /**
+     * Satelliti candidati per un osservatore nella finestra [from, to].
+     *
+     * @return ID dei satelliti candidati, oppure null se la griglia non è utilizzabile
+     *         (disabilitata, non ancora calcolata, di un catalogo precedente, finestra non
+     *         coperta o elevazione minima inferiore a quella della griglia)
+     */
+    public Set<Long> candidateSatellites(double latitude, double longitude, LocalDateTime from, LocalDateTime to,
+                                         double requestMinElevation) {
+        GridIndex current = index;
+        if (current == null) {
+            return null;
+        }
+        lookups.incrementAndGet();
+
+        long fromMs = toEpochMs(from);
+        long toMs = toEpochMs(to);
+        if (current.catalogVersion() != catalogService.getSnapshot().version() ||
+            requestMinElevation < minElevation ||
+            fromMs < current.startEpochMs() || toMs > current.startEpochMs() + current.blocks() * blockMs) {
+            return null;
+        }
+
+        // Un passo di campionamento in più ai bordi: il campione più vicino a un passaggio
+        // può cadere nel blocco adiacente
+        long stepMs = (long) (TRACK_STEP_SECONDS * 1000);
+        int cell = cells.cellOf(latitude, longitude);
+        int firstBlock = (int) (Math.max(0, fromMs - stepMs - current.startEpochMs()) / blockMs);
+        int lastBlock = (int) Math.min(current.blocks() - 1, (toMs + stepMs - current.startEpochMs()) / blockMs);
+
+        Set<Long> result = new HashSet<>();
+        for (int b = firstBlock; b <= lastBlock; b++) {
+            int[] list = current.candidates()[cell * current.blocks() + b];
+            if (list != null) {
+                for (int satelliteIndex : list) {
+                    result.add(current.satelliteIds()[satelliteIndex]);
+                }
+            }
+        }
+
+        gridHits.incrementAndGet();
+        candidatesReturned.addAndGet(result.size());
+        return result;
+    }
+
+    /**
+     * Stato della griglia: report dell'ultimo calcolo, progresso e utilizzo
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        GridIndex current = index;
+        status.put("ready", current != null && current.catalogVersion() == catalogService.getSnapshot().version());
+        status.put("lastBuild", lastReport);
+        GridBuild running = build;
+        if (running != null) {
+            status.put("pendingChunks", running.totalChunks - running.completedChunks);
+        }
+        long hits = gridHits.get();
+        status.put("lookups", lookups.get());
+        status.put("gridHits", hits);
+        status.put("avgCandidates", hits == 0 ? 0.0 : Math.round(candidatesReturned.get() * 10.0 / hits) / 10.0);
+        return status;
+    }
+
+    /**
+     * Propaga un blocco di satelliti e marca le celle attraversate dal loro cerchio di visibilità
+     */
+    private ChunkResult scanChunk(GridBuild running, SamplingGrid grid, int from, int to) {
+        long startTime = System.currentTimeMillis();
+        int blocks = running.blocks;
+        int samplesPerBlock = (int) (blockMs / 1000 / TRACK_STEP_SECONDS);
+
+        // Ultimo (satellite, blocco) marcato per ogni cella: evita duplicati nello stesso blocco
+        int[] lastMarked = new int[cells.getCellCount()];
+        long[][] marks = { new long[1024] };
+        int[] count = { 0 };
+        long propagatedSamples = 0;
+        long[] markedCells = { 0 };
+
+        for (int i = from; i < to; i++) {
+            CatalogEntry entry = running.satellites.get(i);
+            SampledEphemeris ephemeris;
+            try {
+                TLEPropagator propagator = TLEPropagator.selectExtrapolator(
+                    TLEConverter.toOrekitTLE(entry.noradCatId(), entry.parameters()));
+                ephemeris = SampledEphemeris.propagate(propagator, grid);
+            } catch (Exception e) {
+                // TLE non valido: satellite escluso dalla griglia
+                continue;
+            }
+            propagatedSamples += ephemeris.getValidSamples();
+
+            // Metà dello spostamento massimo tra due campioni: nessun attraversamento cade tra i campioni
+            double halfStepMarginDeg = OrbitMath.maxGroundSpeedDegPerSecond(entry.parameters().getMeanMotion(),
+                                                                            entry.parameters().getEccentricity())
+                                       * TRACK_STEP_SECONDS / 2.0;
+            double[] positions = ephemeris.getPositions();
+            final int satelliteIndex = i;
+            final int stampBase = (i - from) * blocks + 1;
+
+            for (int s = 0; s < ephemeris.getValidSamples(); s++) {
+                double x = positions[3 * s];
+                double y = positions[3 * s + 1];
+                double z = positions[3 * s + 2];
+                double r = Math.sqrt(x * x + y * y + z * z);
+                double latitude = Math.toDegrees(Math.asin(z / r));
+                double longitude = Math.toDegrees(Math.atan2(y, x));
+                double altitudeKm = r / 1000.0 - OrbitMath.EARTH_MEAN_RADIUS_KM;
+
+                double radius = OrbitMath.visibilityRadiusDeg(altitudeKm, minElevation);
+                if (radius <= 0) {
+                    continue;
+                }
+
+                int block = Math.min(blocks - 1, s / samplesPerBlock);
+                int stamp = stampBase + block;
+                cells.forEachCell(latitude, longitude, radius + halfStepMarginDeg, cell -> {
+                    if (lastMarked[cell] == stamp) {
+                        return;
+                    }
+                    lastMarked[cell] = stamp;
+                    if (count[0] == marks[0].length) {
+                        marks[0] = Arrays.copyOf(marks[0], count[0] * 2);
+                    }
+                    marks[0][count[0]++] = ((long) (cell * blocks + block) << SATELLITE_BITS) | satelliteIndex;
+                    markedCells[0]++;
+                });
+            }
+        }
+
+        return new ChunkResult(marks[0], count[0], propagatedSamples, markedCells[0],
+                               System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Riduce gli elenchi alla dimensione effettiva e pubblica la griglia
+     */
+    private GridIndex publish(GridBuild running) {
+        long[] satelliteIds = new long[running.satellites.size()];
+        for (int i = 0; i < satelliteIds.length; i++) {
+            satelliteIds[i] = running.satellites.get(i).satelliteId();
+        }
+
+        // Array esterno + intestazione e contenuto di ogni elenco
+        long memoryBytes = 8L * running.candidates.length + 8L * satelliteIds.length;
+        for (int i = 0; i < running.candidates.length; i++) {
+            if (running.candidates[i] != null) {
+                running.candidates[i] = Arrays.copyOf(running.candidates[i], running.sizes[i]);
+                memoryBytes += 16 + 4L * running.sizes[i];
+            }
+        }
+        return new GridIndex(running.catalogVersion, running.startEpochMs, running.blocks, satelliteIds,
+                             running.candidates, running.entries, memoryBytes);
+    }
+
+    private Map<String, Object> progressReport(GridBuild running, String state) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("enabled", true);
+        report.put("state", state);
+        report.put("completedChunks", running.completedChunks);
+        report.put("totalChunks", running.totalChunks);
+        report.put("computeMs", running.computeMs);
+        return report;
+    }
+
+    private static long toEpochMs(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromEpochMs(long epochMs) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMs, 1000), 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,251 @@
+package com.satelliteTracking.service;
+
+import com.satelliteTracking.model.ObserverLocation;
+import com.satelliteTracking.model.PassQueryFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistiche di traffico delle ricerche di passaggi visibili, usate per scegliere
+ * quali osservatori pre-calcolare in background.
+ *
+ * Le richieste sono raggruppate per cella dell'osservatore (latitudine e longitudine
+ * quantizzate) e per insieme di parametri. Ogni chiave ha un punteggio che decade
+ * esponenzialmente nel tempo, così le zone calde seguono il traffico reale.
+ * Per ogni chiave viene pre-calcolata l'ultima posizione esatta richiesta nella cella
+ * (le richieste geocodificate di una città arrivano con le stesse coordinate).
+ *
+ * La posizione predefinita (San Marcellino, prossime 3 ore, elevazione minima 10°) entra
+ * tra le chiavi al primo pre-calcolo con un punteggio iniziale e poi decade come le altre.
+ */
+@Service
+public class PassPrewarmService {
+
+    /**
+     * Cella dell'osservatore più parametri della ricerca
+     */
+    public record HotKey(long latitudeCell, long longitudeCell, double minElevation,
+                         String observingCondition, double maxMagnitude, String filterKey) {}
+
+    /**
+     * Chiave da pre-calcolare: osservatore più recente e finestra massima richiesta
+     */
+    public record PrewarmTarget(HotKey key, ObserverLocation observer, int hours, PassQueryFilter filter,
+                                double score) {}
+
+    private static final class KeyStats {
+        double score;
+        long lastUpdateMs;
+        ObserverLocation observer;
+        PassQueryFilter filter;
+        int maxHours;
+    }
+
+    // Oltre questo numero di chiavi tracciate vengono scartate quelle con punteggio trascurabile
+    private static final int MAX_TRACKED_KEYS = 10000;
+    private static final double NEGLIGIBLE_SCORE = 0.05;
+
+    // Parametri della chiave predefinita (gli stessi di findVisibleUpcomingPasses(3, 10.0))
+    private static final int DEFAULT_HOURS = 3;
+    private static final double DEFAULT_MIN_ELEVATION = 10.0;
+    private static final String DEFAULT_CONDITION = "any";
+    private static final double DEFAULT_MAX_MAGNITUDE = 6.0;
+
+    private final Map<HotKey, KeyStats> stats = new ConcurrentHashMap<>();
+    private volatile Set<HotKey> prewarmed = Set.of();
+
+    private final AtomicLong totalRequests = new AtomicLong();
+    private final AtomicLong prewarmedRequests = new AtomicLong();
+    private final AtomicLong prewarmedCacheHits = new AtomicLong();
+    private final AtomicLong prewarmRuns = new AtomicLong();
+    private volatile long lastPrewarmMs;
+    private volatile boolean defaultSeeded;
+
+    private final Clock clock;
+    private final double cellDegrees;
+    private final int topN;
+    private final double halfLifeMs;
+    private final double minScore;
+    private final double defaultSeedScore;
+
+    public PassPrewarmService(Clock clock,
+                              @Value("${passes.prewarm.cell-degrees:0.1}") double cellDegrees,
+                              @Value("${passes.prewarm.top-n:20}") int topN,
+                              @Value("${passes.prewarm.half-life-minutes:60}") double halfLifeMinutes,
+                              @Value("${passes.prewarm.min-score:2.0}") double minScore,
+                              @Value("${passes.prewarm.default-seed-score:8.0}") double defaultSeedScore) {
+        this.clock = clock;
+        this.cellDegrees = cellDegrees;
+        this.topN = topN;
+        this.halfLifeMs = halfLifeMinutes * 60000.0;
+        this.minScore = minScore;
+        this.defaultSeedScore = defaultSeedScore;
+    }
+
+    public HotKey keyOf(ObserverLocation observer, double minElevation, String observingCondition,
+                        double maxMagnitude, PassQueryFilter filter) {
+        return new HotKey(
+            Math.round(observer.getLatitude() / cellDegrees),
+            Math.round(observer.getLongitude() / cellDegrees),
+            minElevation, observingCondition, maxMagnitude, filter.cacheKey());
+    }
+
+    /**
+     * Registra una ricerca di passaggi
+     *
+     * @param fullyCached true se la risposta è stata composta solo da fette già in cache
+     */
+    public void record(ObserverLocation observer, int hours, double minElevation, String observingCondition,
+                       double maxMagnitude, PassQueryFilter filter, boolean fullyCached) {
+        HotKey key = keyOf(observer, minElevation, observingCondition, maxMagnitude, filter);
+        long nowMs = clock.millis();
+
+        stats.compute(key, (k, current) -> {
+            KeyStats updated = current != null ? current : new KeyStats();
+            synchronized (updated) {
+                updated.score = decayed(updated.score, updated.lastUpdateMs, nowMs) + 1.0;
+                updated.lastUpdateMs = nowMs;
+                updated.observer = observer;
+                updated.filter = filter;
+                updated.maxHours = Math.max(updated.maxHours, hours);
+            }
+            return updated;
+        });
+
+        totalRequests.incrementAndGet();
+        if (prewarmed.contains(key)) {
+            prewarmedRequests.incrementAndGet();
+            if (fullyCached) {
+                prewarmedCacheHits.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Sceglie le chiavi più richieste (punteggio decaduto) da pre-calcolare e
+     * aggiorna l'insieme delle chiavi pre-calcolate
+     */
+    public List<PrewarmTarget> selectTargets() {
+        long nowMs = clock.millis();
+        if (!defaultSeeded) {
+            seedDefaultObserver(nowMs);
+        }
+
+        List<PrewarmTarget> candidates = new ArrayList<>();
+        for (Map.Entry<HotKey, KeyStats> entry : stats.entrySet()) {
+            KeyStats keyStats = entry.getValue();
+            PrewarmTarget target;
+            synchronized (keyStats) {
+                double score = decayed(keyStats.score, keyStats.lastUpdateMs, nowMs);
+                target = new PrewarmTarget(entry.getKey(), keyStats.observer, keyStats.maxHours, keyStats.filter, score);
+            }
+            candidates.add(target);
+        }
+
+        if (candidates.size() > MAX_TRACKED_KEYS) {
+            for (PrewarmTarget target : candidates) {
+                if (target.score() < NEGLIGIBLE_SCORE) {
+                    stats.remove(target.key());
+                }
+            }
+        }
+
+        List<PrewarmTarget> targets = candidates.stream()
+            .filter(target -> target.score() >= minScore)
+            .sorted(Comparator.comparingDouble(PrewarmTarget::score).reversed())
+            .limit(topN)
+            .toList();
+
+        Set<HotKey> keys = new HashSet<>();
+        for (PrewarmTarget target : targets) {
+            keys.add(target.key());
+        }
+        prewarmed = Set.copyOf(keys);
+        prewarmRuns.incrementAndGet();
+        lastPrewarmMs = nowMs;
+        return targets;
+    }
+
+    /**
+     * Aggiunge la posizione predefinita come chiave calda, senza toccarla se è già tracciata
+     * (in quel caso il punteggio viene dalle richieste reali)
+     */
+    private void seedDefaultObserver(long nowMs) {
+        ObserverLocation observer = ObserverLocation.sanMarcellino();
+        PassQueryFilter filter = PassQueryFilter.none();
+        HotKey key = keyOf(observer, DEFAULT_MIN_ELEVATION, DEFAULT_CONDITION, DEFAULT_MAX_MAGNITUDE, filter);
+
+        stats.computeIfAbsent(key, k -> {
+            KeyStats seeded = new KeyStats();
+            seeded.score = defaultSeedScore;
+            seeded.lastUpdateMs = nowMs;
+            seeded.observer = observer;
+            seeded.filter = filter;
+            seeded.maxHours = DEFAULT_HOURS;
+            return seeded;
+        });
+        defaultSeeded = true;
+    }
+
+    /**
+     * Stato del pre-calcolo: chiavi pre-calcolate e percentuale di richieste servite dal cache
+     */
+    public Map<String, Object> getStatus() {
+        long nowMs = clock.millis();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("cell_degrees", cellDegrees);
+        status.put("top_n", topN);
+        status.put("tracked_keys", stats.size());
+        status.put("runs", prewarmRuns.get());
+        status.put("last_run_seconds_ago", lastPrewarmMs == 0 ? null : (nowMs - lastPrewarmMs) / 1000);
+
+        long requests = totalRequests.get();
+        long onPrewarmed = prewarmedRequests.get();
+        long hits = prewarmedCacheHits.get();
+        status.put("requests", requests);
+        status.put("requests_on_prewarmed", onPrewarmed);
+        status.put("prewarmed_share", requests == 0 ? 0.0 : Math.round(onPrewarmed * 1000.0 / requests) / 1000.0);
+        status.put("prewarmed_hit_rate", onPrewarmed == 0 ? 0.0 : Math.round(hits * 1000.0 / onPrewarmed) / 1000.0);
+
+        List<Map<String, Object>> keys = new ArrayList<>();
+        for (HotKey key : prewarmed) {
+            KeyStats keyStats = stats.get(key);
+            if (keyStats == null) {
+                continue;
+            }
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("latitude", key.latitudeCell() * cellDegrees);
+            item.put("longitude", key.longitudeCell() * cellDegrees);
+            item.put("minElevation", key.minElevation());
+            item.put("condition", key.observingCondition());
+            item.put("maxMagnitude", key.maxMagnitude());
+            item.put("filter", key.filterKey());
+            synchronized (keyStats) {
+                item.put("hours", keyStats.maxHours);
+                item.put("score", Math.round(decayed(keyStats.score, keyStats.lastUpdateMs, nowMs) * 100.0) / 100.0);
+            }
+            keys.add(item);
+        }
+        keys.sort(Comparator.comparingDouble((Map<String, Object> item) -> (double) item.get("score")).reversed());
+        status.put("prewarmed", keys);
+        return status;
+    }
+
+    private double decayed(double score, long lastUpdateMs, long nowMs) {
+        if (lastUpdateMs == 0 || nowMs <= lastUpdateMs) {
+            return score;
+        }
+        return score * Math.pow(0.5, (nowMs - lastUpdateMs) / halfLifeMs);
+    }
+}
@@ -0,0 +1,168 @@
+package com.satelliteTracking.service;
+
+import com.satelliteTracking.dto.SatellitePassDTO;
+import com.satelliteTracking.model.CatalogEntry;
+import com.satelliteTracking.model.ObserverLocation;
+import com.satelliteTracking.model.SatellitePass;
+import com.satelliteTracking.model.SatellitePassSlice;
+import com.satelliteTracking.repository.SatellitePassRepository;
+import com.satelliteTracking.repository.SatellitePassSliceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Archivio dei passaggi calcolati nel database (tabelle satellite_passes e satellite_pass_slices).
+ *
+ * Le fette di tempo calcolate da un'istanza vengono salvate con i loro passaggi: un'istanza
+ * riavviata o appena aggiunta le legge invece di ricalcolarle. Le righe sono legate al
+ * fetchedAt del catalogo, che è lo stesso per tutte le istanze che leggono lo stesso database.
+ */
+@Service
+public class PassStoreService {
+
+    private final SatellitePassRepository passRepository;
+    private final SatellitePassSliceRepository sliceRepository;
+    private final Clock clock;
+    private final boolean enabled;
+
+    // Oltre questa lunghezza la chiave della ricerca viene sostituita dal suo hash
+    private static final int MAX_QUERY_KEY_LENGTH = 200;
+
+    public PassStoreService(SatellitePassRepository passRepository,
+                            SatellitePassSliceRepository sliceRepository,
+                            Clock clock,
+                            @Value("${passes.store.enabled:true}") boolean enabled) {
+        this.passRepository = passRepository;
+        this.sliceRepository = sliceRepository;
+        this.clock = clock;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Cella dell'osservatore: coordinate arrotondate a 4 decimali (~10 m) e quota al metro
+     */
+    public String observerKey(ObserverLocation observer) {
+        return String.format("%.4f_%.4f_%.0f", observer.getLatitude(), observer.getLongitude(),
+                             observer.getAltitude());
+    }
+
+    /**
+     * Chiave dei parametri della ricerca (hash SHA-256 se troppo lunga, es. molti NORAD ID)
+     */
+    public String queryKey(String key) {
+        if (key.length() <= MAX_QUERY_KEY_LENGTH) {
+            return key;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return "sha256:" + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Legge le fette già calcolate con inizio in [from, to)
+     *
+     * @return passaggi per inizio della fetta (solo le fette trovate)
+     */
+    @Transactional(readOnly = true)
+    public Map<LocalDateTime, List<SatellitePassDTO>> load(String observerKey, String queryKey,
+                                                           LocalDateTime catalogFetchedAt, int sliceMinutes,
+                                                           LocalDateTime from, LocalDateTime to) {
+        TreeMap<LocalDateTime, List<SatellitePassDTO>> slices = new TreeMap<>();
+        for (SatellitePassSlice slice : sliceRepository.findInWindow(observerKey, queryKey, catalogFetchedAt,
+                                                                     sliceMinutes, from, to)) {
+            slices.put(slice.getSliceStart(), new ArrayList<>());
+        }
+        if (slices.isEmpty()) {
+            return slices;
+        }
+
+        for (SatellitePass pass : passRepository.findInWindow(observerKey, queryKey, catalogFetchedAt, from, to)) {
+            LocalDateTime sliceStart = slices.floorKey(pass.getRiseTime());
+            if (sliceStart != null && pass.getRiseTime().isBefore(sliceStart.plusMinutes(sliceMinutes))) {
+                slices.get(sliceStart).add(pass.toDto());
+            }
+        }
+        return slices;
+    }
+
+    /**
+     * Salva fette calcolate e i loro passaggi in una sola transazione.
+     * Se un'altra istanza ha già salvato le stesse fette il vincolo di unicità fa fallire
+     * la transazione: il chiamante può ignorare l'errore.
+     *
+     * @param slices passaggi per inizio della fetta
+     * @param catalog voci del catalogo per ID, per registrare il set di elementi usato
+     */
+    @Transactional
+    public void store(String observerKey, String queryKey, LocalDateTime catalogFetchedAt, int sliceMinutes,
+                      Map<LocalDateTime, List<SatellitePassDTO>> slices, Map<Long, CatalogEntry> catalog) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<SatellitePassSlice> markers = new ArrayList<>();
+        List<SatellitePass> rows = new ArrayList<>();
+
+        for (Map.Entry<LocalDateTime, List<SatellitePassDTO>> slice : slices.entrySet()) {
+            markers.add(new SatellitePassSlice(observerKey, queryKey, catalogFetchedAt, sliceMinutes,
+                                               slice.getKey(), slice.getKey().plusMinutes(sliceMinutes),
+                                               slice.getValue().size(), now));
+            for (SatellitePassDTO pass : slice.getValue()) {
+                CatalogEntry entry = catalog.get(pass.satelliteId());
+                Long elementSetId = entry != null ? entry.parameters().getId() : null;
+                rows.add(new SatellitePass(observerKey, queryKey, catalogFetchedAt, elementSetId, pass));
+            }
+        }
+
+        sliceRepository.saveAll(markers);
+        passRepository.saveAll(rows);
+    }
+
+    /**
+     * Elimina fette e passaggi conclusi o calcolati con cataloghi precedenti
+     */
+    @Transactional
+    public Map<String, Object> purge(LocalDateTime currentCatalogFetchedAt) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (!enabled || currentCatalogFetchedAt == null) {
+            return result;
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        int slices = sliceRepository.deleteExpired(now, currentCatalogFetchedAt);
+        int passes = passRepository.deleteExpired(now, currentCatalogFetchedAt);
+        result.put("slices", slices);
+        result.put("passes", passes);
+        System.out.println("🧹 Archivio passaggi: eliminate " + slices + " fette e " + passes + " passaggi scaduti");
+        return result;
+    }
+
+    /**
+     * Numero di fette e passaggi nell'archivio
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", enabled);
+        if (enabled) {
+            status.put("slices", sliceRepository.count());
+            status.put("passes", passRepository.count());
+        }
+        return status;
+    }
+}
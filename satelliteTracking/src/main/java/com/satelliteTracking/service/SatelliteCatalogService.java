@@ -0,0 +1,162 @@
+package com.satelliteTracking.service;
+
+import com.satelliteTracking.model.CatalogEntry;
+import com.satelliteTracking.model.CatalogSnapshot;
+import com.satelliteTracking.model.CatalogVersion;
+import com.satelliteTracking.model.OrbitRegime;
+import com.satelliteTracking.model.OrbitalParameters;
+import com.satelliteTracking.model.Satellite;
+import com.satelliteTracking.repository.CatalogVersionRepository;
+import com.satelliteTracking.repository.OrbitalParametersRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Mantiene in memoria il catalogo dei satelliti con i parametri orbitali più recenti.
+ * Evita la query "ultimo set di parametri" ripetuta per ogni satellite: il catalogo
+ * viene caricato con una sola query e ricaricato solo quando arrivano nuovi dati.
+ *
+ * Sono caricati solo i set di elementi dell'ultima versione pubblicata (catalog_versions):
+ * un aggiornamento in corso non è visibile finché non viene pubblicato per intero.
+ */
+@Service
+public class SatelliteCatalogService {
+
+    private final OrbitalParametersRepository orbitalParametersRepository;
+    private final CatalogVersionRepository catalogVersionRepository;
+    private final TransactionTemplate readTransaction;
+    private final Clock clock;
+
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>(CatalogSnapshot.empty());
+    private volatile long lastCheckMs = 0;
+    private long nextVersion = 1;
+
+    // Ogni quanto controllare se nel database ci sono parametri più recenti
+    private static final long CHECK_INTERVAL_MS = 60000; // 1 minuto
+
+    public SatelliteCatalogService(OrbitalParametersRepository orbitalParametersRepository,
+                                   CatalogVersionRepository catalogVersionRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   Clock clock) {
+        this.orbitalParametersRepository = orbitalParametersRepository;
+        this.catalogVersionRepository = catalogVersionRepository;
+        this.clock = clock;
+        // Versione e set di elementi letti nella stessa fotografia del database:
+        // una pubblicazione concorrente non può finire a metà tra le due query
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.readTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * Restituisce la fotografia corrente del catalogo, ricaricandola se nel database
+     * è stata pubblicata una nuova versione
+     */
+    public CatalogSnapshot getSnapshot() {
+        long nowMs = clock.millis();
+        CatalogSnapshot snapshot = current.get();
+
+        if (snapshot.version() == 0 || nowMs - lastCheckMs > CHECK_INTERVAL_MS) {
+            lastCheckMs = nowMs;
+            if (snapshot.version() == 0 || !Objects.equals(publishedFetchedAt(), snapshot.sourceFetchedAt())) {
+                snapshot = reload();
+            }
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * fetchedAt dell'ultima versione pubblicata. Senza versioni (database precedente alla
+     * pubblicazione, fino al primo aggiornamento) il fetchedAt più recente salvato.
+     */
+    private LocalDateTime publishedFetchedAt() {
+        CatalogVersion version = catalogVersionRepository.findTopByOrderByIdDesc();
+        if (version != null) {
+            return version.getFetchedAt();
+        }
+        OrbitalParameters latest = orbitalParametersRepository.findTopByOrderByFetchedAtDesc();
+        return latest != null ? latest.getFetchedAt() : null;
+    }
+
+    /**
+     * Ricarica il catalogo dal database e lo pubblica sostituendo la fotografia precedente
+     */
+    public synchronized CatalogSnapshot reload() {
+        long startTime = System.currentTimeMillis();
+
+        // sourceFetchedAt è il fetchedAt della versione caricata, condiviso da tutte le istanze
+        LocalDateTime[] sourceFetchedAt = new LocalDateTime[1];
+        List<OrbitalParameters> latestParams = readTransaction.execute(status -> {
+            CatalogVersion version = catalogVersionRepository.findTopByOrderByIdDesc();
+            if (version != null) {
+                sourceFetchedAt[0] = version.getFetchedAt();
+                return orbitalParametersRepository.findLatestPublished(version.getFetchedAt());
+            }
+            List<OrbitalParameters> all = orbitalParametersRepository.findLatestForAllSatellites();
+            for (OrbitalParameters params : all) {
+                if (sourceFetchedAt[0] == null || params.getFetchedAt().isAfter(sourceFetchedAt[0])) {
+                    sourceFetchedAt[0] = params.getFetchedAt();
+                }
+            }
+            return all;
+        });
+
+        // In caso di fetchedAt identici tiene il set con ID più alto
+        Map<Long, OrbitalParameters> bySatellite = new HashMap<>();
+        for (OrbitalParameters params : latestParams) {
+            Long satelliteId = params.getSatellite().getId();
+            OrbitalParameters existing = bySatellite.get(satelliteId);
+            if (existing == null || existing.getId() < params.getId()) {
+                bySatellite.put(satelliteId, params);
+            }
+        }
+
+        List<CatalogEntry> entries = new ArrayList<>(bySatellite.size());
+        Map<Long, CatalogEntry> byId = new HashMap<>();
+        for (OrbitalParameters params : bySatellite.values()) {
+            Satellite satellite = params.getSatellite();
+            // Satelliti salvati prima dell'introduzione del regime: classificati al volo
+            OrbitRegime regime = satellite.getOrbitRegime() != null
+                ? satellite.getOrbitRegime()
+                : OrbitRegime.classify(params.getMeanMotion(), params.getEccentricity());
+            CatalogEntry entry = new CatalogEntry(
+                satellite.getId(),
+                satellite.getNoradCatId(),
+                satellite.getObjectName(),
+                satellite.getObjectId(),
+                satellite.getSatelliteType(),
+                params,
+                regime
+            );
+            entries.add(entry);
+            byId.put(entry.satelliteId(), entry);
+        }
+
+        CatalogSnapshot snapshot = new CatalogSnapshot(
+            nextVersion++,
+            sourceFetchedAt[0],
+            LocalDateTime.now(clock),
+            Collections.unmodifiableList(entries),
+            Collections.unmodifiableMap(byId)
+        );
+        current.set(snapshot);
+        lastCheckMs = clock.millis();
+
+        System.out.println("📚 Catalogo caricato: " + entries.size() + " satelliti (versione " + snapshot.version() +
+                         ") [" + (System.currentTimeMillis() - startTime) + "ms]");
+        return snapshot;
+    }
+}
@@ -1,36 +1,49 @@
 package com.satelliteTracking.service;
 
+import com.satelliteTracking.dto.RadioPassDTO;
 import com.satelliteTracking.dto.SatellitePassDTO;
+import com.satelliteTracking.dto.StationaryObjectDTO;
+import com.satelliteTracking.model.CatalogEntry;
+import com.satelliteTracking.model.CatalogSnapshot;
 import com.satelliteTracking.model.ObserverLocation;
+import com.satelliteTracking.model.OrbitRegime;
 import com.satelliteTracking.model.OrbitalParameters;
+import com.satelliteTracking.model.PassQueryFilter;
 import com.satelliteTracking.model.Satellite;
 import com.satelliteTracking.repository.OrbitalParametersRepository;
 import com.satelliteTracking.repository.SatelliteRepository;
+import com.satelliteTracking.util.ObserverFrame;
+import com.satelliteTracking.util.OrbitMath;
+import com.satelliteTracking.util.SampledEphemeris;
+import com.satelliteTracking.util.SamplingGrid;
 import com.satelliteTracking.util.TLEConverter;
-import org.hipparchus.util.FastMath;
-import org.orekit.bodies.CelestialBodyFactory;
-import org.orekit.bodies.GeodeticPoint;
-import org.orekit.bodies.OneAxisEllipsoid;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
 import org.orekit.frames.Frame;
 import org.orekit.frames.FramesFactory;
-import org.orekit.frames.TopocentricFrame;
 import org.orekit.propagation.analytical.tle.TLE;
 import org.orekit.propagation.analytical.tle.TLEPropagator;
 import org.orekit.time.AbsoluteDate;
 import org.orekit.time.TimeScalesFactory;
 import org.orekit.utils.Constants;
 import org.orekit.utils.IERSConventions;
-import org.orekit.utils.PVCoordinates;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Servizio per calcolare i passaggi visibili dei satelliti usando Orekit e SGP4
@@ -40,32 +53,75 @@ public class SatellitePassService {
 
     private final SatelliteRepository satelliteRepository;
     private final OrbitalParametersRepository orbitalParametersRepository;
+    private final SatelliteCatalogService catalogService;
+    private final CoOrbitalClusterService clusterService;
+    private final PassPrewarmService prewarmService;
+    private final PassGridService gridService;
+    private final PassStoreService passStore;
+    private final Clock clock;
     
     // Posizione predefinita: San Marcellino, Caserta
     private final ObserverLocation defaultLocation = ObserverLocation.sanMarcellino();
     
-    // Cache per i passaggi visibili
-    private static class CacheEntry {
-        List<SatellitePassDTO> passes;
-        long timestamp;
-        
-        CacheEntry(List<SatellitePassDTO> passes) {
-            this.passes = passes;
-            this.timestamp = System.currentTimeMillis();
-        }
-        
-        boolean isExpired(long maxAgeMs) {
-            return System.currentTimeMillis() - timestamp > maxAgeMs;
-        }
-    }
-    
-    private final Map<String, CacheEntry> passesCache = new HashMap<>();
-    private static final long CACHE_TTL_MS = 1800000; // 30 minuti
+    /**
+     * Passaggi che sorgono in una fetta di tempo assoluta [fine - sliceMs, fine).
+     * Le fette sono allineate all'epoca, quindi richieste fatte in momenti diversi
+     * con finestre sovrapposte condividono gli stessi risultati.
+     */
+    private record PassSlice(List<SatellitePassDTO> passes, long endEpochMs, long catalogVersion) {}
+
+    /**
+     * Finestra ricomposta dalle fette e numero di fette che è stato necessario calcolare
+     */
+    private record SlicedPasses(List<SatellitePassDTO> passes, int computedSlices) {}
+
+    /**
+     * Indici di campionamento e geometria di un passaggio sopra l'orizzonte
+     */
+    private record PassWindow(int riseIndex, int maxIndex, int setIndex,
+                              double riseAzimuth, double maxElevationAzimuth, double setAzimuth,
+                              double maxElevation, double maxDistance) {}
+
+    // Cache dei passaggi visibili per fetta: chiave = parametri + versione catalogo + indice fetta
+    private final Map<String, PassSlice> passesCache = new ConcurrentHashMap<>();
+    private final long sliceMs;
+    private final AtomicLong sliceHits = new AtomicLong();
+    private final AtomicLong sliceMisses = new AtomicLong();
+    private final AtomicLong storeHits = new AtomicLong();
+
+    // La scansione prosegue oltre la fine delle fette per chiudere i passaggi che sorgono alla fine
+    private static final long PASS_TAIL_SECONDS = 1800;
+
+    // Campioni usati per valutare la deriva degli oggetti geostazionari
+    private static final int STATIONARY_SAMPLES = 5;
+
+    // Un passaggio derivato da un gruppo co-orbitale viene ricalcolato esattamente
+    // se cade entro questi margini dalle soglie di elevazione, magnitudine o finestra
+    private static final double CLUSTER_VERIFY_ELEVATION_MARGIN = 2.0;
+    private static final double CLUSTER_VERIFY_MAGNITUDE_MARGIN = 0.3;
+    private static final long CLUSTER_VERIFY_EDGE_SECONDS = 120;
+
+    // Membri confrontati con il calcolo esatto nel report di validazione dei gruppi
+    private static final int CLUSTER_VALIDATION_SAMPLE = 25;
 
     public SatellitePassService(SatelliteRepository satelliteRepository,
-                                OrbitalParametersRepository orbitalParametersRepository) {
+                                OrbitalParametersRepository orbitalParametersRepository,
+                                SatelliteCatalogService catalogService,
+                                CoOrbitalClusterService clusterService,
+                                PassPrewarmService prewarmService,
+                                PassGridService gridService,
+                                PassStoreService passStore,
+                                Clock clock,
+                                @Value("${passes.slice-minutes:10}") int sliceMinutes) {
         this.satelliteRepository = satelliteRepository;
         this.orbitalParametersRepository = orbitalParametersRepository;
+        this.catalogService = catalogService;
+        this.clusterService = clusterService;
+        this.prewarmService = prewarmService;
+        this.gridService = gridService;
+        this.passStore = passStore;
+        this.clock = clock;
+        this.sliceMs = sliceMinutes * 60000L;
     }
 
     /**
@@ -79,12 +135,10 @@ public class SatellitePassService {
      * Calcola i prossimi passaggi di un satellite sopra una posizione specifica
      */
     public List<SatellitePassDTO> calculatePasses(Long satelliteId, int hours, ObserverLocation observerLocation) {
-        List<SatellitePassDTO> passes = new ArrayList<>();
-        
         try {
             Optional<Satellite> satelliteOpt = satelliteRepository.findById(satelliteId);
             if (satelliteOpt.isEmpty()) {
-                return passes;
+                return new ArrayList<>();
             }
             
             Satellite satellite = satelliteOpt.get();
@@ -92,15 +146,127 @@ public class SatellitePassService {
                 .findTopBySatelliteOrderByFetchedAtDesc(satellite);
             
             if (latestParams == null) {
-                return passes;
+                return new ArrayList<>();
             }
-            
+
+            return calculatePasses(satellite.getId(), satellite.getObjectName(), satellite.getNoradCatId(),
+                                   latestParams, hours, observerLocation);
+        } catch (Exception e) {
+            System.err.println("❌ Error calculating passes: " + e.getMessage());
+            e.printStackTrace();
+            List<SatellitePassDTO> passes = new ArrayList<>();
+            passes.add(createSimplifiedPass(satelliteId));
+            return passes;
+        }
+    }
+
+    /**
+     * Calcola i prossimi passaggi di un satellite del catalogo in memoria,
+     * senza rileggere satellite e parametri orbitali dal database
+     */
+    public List<SatellitePassDTO> calculatePasses(CatalogEntry entry, int hours, ObserverLocation observerLocation) {
+        return calculatePasses(entry.satelliteId(), entry.objectName(), entry.noradCatId(),
+                               entry.parameters(), LocalDateTime.now(clock), hours * 3600L, observerLocation,
+                               0.0, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Passaggi in modalità radio di un satellite del catalogo in memoria
+     * (lista vuota se il satellite non è nel catalogo)
+     */
+    public List<RadioPassDTO> calculateRadioPasses(Long satelliteId, int hours, ObserverLocation observerLocation,
+                                                   double minElevation) {
+        CatalogEntry entry = catalogService.getSnapshot().byId().get(satelliteId);
+        if (entry == null) {
+            return new ArrayList<>();
+        }
+        return calculateRadioPasses(entry, hours, observerLocation, minElevation);
+    }
+
+    /**
+     * Passaggi in modalità radio: solo sorgere, culmine e tramonto sopra minElevation,
+     * senza illuminazione, condizione di osservazione e magnitudine.
+     * Gli oggetti geostazionari non hanno passaggi (vanno su /stationary).
+     */
+    public List<RadioPassDTO> calculateRadioPasses(CatalogEntry entry, int hours, ObserverLocation observerLocation,
+                                                   double minElevation) {
+        if (entry.orbitRegime() == OrbitRegime.GEO ||
+            !canReachObserver(entry.parameters(), Math.abs(observerLocation.getLatitude()), minElevation)) {
+            return new ArrayList<>();
+        }
+        try {
+            SamplingGrid grid = SamplingGrid.create(LocalDateTime.now(clock), 60.0, hours * 60 + 1);
+            return radioPasses(entry, grid, ObserverFrame.of(observerLocation), minElevation);
+        } catch (Exception e) {
+            System.err.println("❌ Error calculating radio passes: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private List<RadioPassDTO> radioPasses(CatalogEntry entry, SamplingGrid grid, ObserverFrame observer,
+                                           double minElevation) {
+        TLEPropagator propagator = TLEPropagator.selectExtrapolator(
+            TLEConverter.toOrekitTLE(entry.noradCatId(), entry.parameters()));
+        SampledEphemeris ephemeris = SampledEphemeris.propagate(propagator, grid);
+        return findRadioPasses(entry.satelliteId(), entry.objectName(), ephemeris, observer, minElevation);
+    }
+
+    /**
+     * Verifica geometrica per la modalità radio: la traccia al suolo arriva fino alla latitudine
+     * pari all'inclinazione (180° - inclinazione per le orbite retrograde), e il satellite resta
+     * sopra minElevation entro il raggio di visibilità calcolato alla quota dell'apogeo
+     */
+    private boolean canReachObserver(OrbitalParameters params, double observerLat, double minElevation) {
+        double inclination = params.getInclination();
+        double maxGroundLatitude = inclination <= 90.0 ? inclination : 180.0 - inclination;
+        double apogeeAltitudeKm = OrbitMath.semiMajorAxisKm(params.getMeanMotion()) *
+                                  (1.0 + params.getEccentricity()) - OrbitMath.EARTH_MEAN_RADIUS_KM;
+        return observerLat <= maxGroundLatitude + OrbitMath.visibilityRadiusDeg(apogeeAltitudeKm, minElevation);
+    }
+
+    private List<SatellitePassDTO> calculatePasses(Long satelliteId, String objectName, Long noradCatId,
+                                                   OrbitalParameters latestParams, int hours,
+                                                   ObserverLocation observerLocation) {
+        return calculatePasses(satelliteId, objectName, noradCatId, latestParams,
+                               LocalDateTime.now(clock), hours * 3600L, observerLocation,
+                               0.0, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Calcolo dei passaggi su [start, start + windowSeconds] con limiti anticipati: i passaggi
+     * sotto minElevation o con distanza al culmine oltre maxRangeKm vengono scartati prima di
+     * calcolare illuminazione e magnitudine
+     */
+    private List<SatellitePassDTO> calculatePasses(Long satelliteId, String objectName, Long noradCatId,
+                                                   OrbitalParameters latestParams,
+                                                   LocalDateTime start, long windowSeconds,
+                                                   ObserverLocation observerLocation,
+                                                   double minElevation, double maxRangeKm) {
+        List<SatellitePassDTO> passes = new ArrayList<>();
+        int hours = (int) Math.max(1, (windowSeconds + 3599) / 3600);
+        
+        try {
+            // Oggetti geostazionari: pochi campioni bastano a sapere se sorgono o tramontano
+            boolean isStationary = OrbitRegime.classify(latestParams.getMeanMotion(),
+                                                        latestParams.getEccentricity()) == OrbitRegime.GEO;
+            if (isStationary) {
+                CatalogEntry entry = new CatalogEntry(satelliteId, noradCatId, objectName, null, null,
+                                                      latestParams, OrbitRegime.GEO);
+                StationaryObjectDTO geo = evaluateStationary(entry, ObserverFrame.of(observerLocation),
+                                                             start, hours);
+                if (geo == null || !geo.crossesHorizon()) {
+                    // Sempre sopra o sempre sotto l'orizzonte: nessun passaggio da cercare
+                    return passes;
+                }
+            }
+
             // Check preventivo: verifica se il satellite può essere visibile da questa latitudine
             double inclination = latestParams.getInclination();
             double observerLat = Math.abs(observerLocation.getLatitude());
-            boolean canBeVisible = inclination >= observerLat && inclination <= (180.0 - observerLat);
+            boolean canBeVisible = isStationary ||
+                                   (inclination >= observerLat && inclination <= (180.0 - observerLat));
             
-            System.out.println("🛰️  Satellite: " + satellite.getObjectName() + 
+            System.out.println("🛰️  Satellite: " + objectName + 
                              " | Inclinazione: " + inclination + "° | Osservatore: " + observerLat + 
                              "° | Può essere visibile: " + canBeVisible);
             
@@ -109,145 +275,26 @@ public class SatellitePassService {
                 return passes; // Lista vuota
             }
             
-            // Converti parametri orbitali in TLE
-            String[] tleLines = TLEConverter.buildTLE(
-                satellite.getNoradCatId(), 
-                satellite.getObjectName(), 
-                latestParams
-            );
-            
             // Prova calcolo con Orekit
             try {
-                TLE tle = new TLE(tleLines[1], tleLines[2]);
+                TLE tle = TLEConverter.toOrekitTLE(noradCatId, latestParams);
                 TLEPropagator propagator = TLEPropagator.selectExtrapolator(tle);
-            
-                Frame itrf = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
-                OneAxisEllipsoid earth = new OneAxisEllipsoid(
-                    Constants.WGS84_EARTH_EQUATORIAL_RADIUS,
-                    Constants.WGS84_EARTH_FLATTENING,
-                    itrf
-                );
-                
-                GeodeticPoint observerPoint = new GeodeticPoint(
-                    FastMath.toRadians(observerLocation.getLatitude()),
-                    FastMath.toRadians(observerLocation.getLongitude()),
-                    observerLocation.getAltitude()
-                );
-                TopocentricFrame topoFrame = new TopocentricFrame(earth, observerPoint, "Observer");
-                
-                LocalDateTime now = LocalDateTime.now();
-                AbsoluteDate startDate = toAbsoluteDate(now);
-                AbsoluteDate endDate = toAbsoluteDate(now.plusHours(hours));
-                
-                double step = 60.0;
-                List<PassData> passDataList = new ArrayList<>();
-                PassData currentPass = null;
-                
-                // Posizione del sole per calcolare illuminazione
-                var sun = CelestialBodyFactory.getSun();
-                
-                for (AbsoluteDate date = startDate; 
-                     date.compareTo(endDate) <= 0; 
-                     date = date.shiftedBy(step)) {
-                    
-                    var pv = propagator.getPVCoordinates(date, itrf);
-                    var topoCoordinates = topoFrame.getTrackingCoordinates(pv.getPosition(), itrf, date);
-                    
-                    double elevation = FastMath.toDegrees(topoCoordinates.getElevation());
-                    double azimuth = FastMath.toDegrees(topoCoordinates.getAzimuth());
-                    double range = topoCoordinates.getRange() / 1000.0;
-                    
-                    if (elevation > 0) {
-                        if (currentPass == null) {
-                            currentPass = new PassData();
-                            currentPass.riseTime = toLocalDateTime(date);
-                            currentPass.riseAzimuth = azimuth;
-                        }
-                        
-                        if (elevation > currentPass.maxElevation) {
-                            currentPass.maxElevation = elevation;
-                            currentPass.maxElevationTime = toLocalDateTime(date);
-                            currentPass.maxElevationDate = date;
-                            currentPass.maxElevationAzimuth = azimuth;  // 🆕 Salva azimuth al max
-                            currentPass.maxDistance = range;
-                            
-                            // Calcola altitudine satellite (distanza dalla superficie terrestre)
-                            double satAltitude = pv.getPosition().getNorm() / 1000.0 - Constants.WGS84_EARTH_EQUATORIAL_RADIUS / 1000.0;
-                            currentPass.satelliteAltitude = satAltitude;
-                            
-                            // Calcola se il satellite è illuminato dal sole
-                            PVCoordinates sunPV = sun.getPVCoordinates(date, itrf);
-                            double sunAngle = FastMath.toDegrees(
-                                org.hipparchus.geometry.euclidean.threed.Vector3D.angle(
-                                    pv.getPosition(), 
-                                    sunPV.getPosition()
-                                )
-                            );
-                            currentPass.isSunlit = sunAngle < 90.0;
-                            
-                            // Calcola elevazione del sole per l'osservatore
-                            var sunTopoCoords = topoFrame.getTrackingCoordinates(sunPV.getPosition(), itrf, date);
-                            double sunElevation = FastMath.toDegrees(sunTopoCoords.getElevation());
-                            currentPass.sunElevation = sunElevation;
-                        }
-                    } else {
-                        if (currentPass != null) {
-                            currentPass.setTime = toLocalDateTime(date);
-                            currentPass.setAzimuth = azimuth;
-                            passDataList.add(currentPass);
-                            currentPass = null;
-                        }
-                    }
-                }
-                
-                for (PassData pd : passDataList) {
-                    if (pd.maxElevation > 10.0) {
-                        // Determina condizioni di osservazione
-                        String observingCondition;
-                        if (pd.sunElevation < -18) {
-                            observingCondition = "night";
-                        } else if (pd.sunElevation < -6) {
-                            observingCondition = "twilight";
-                        } else {
-                            observingCondition = "daylight";
-                        }
-                        
-                        // Calcola qualità della visibilità
-                        String visibility = calculateVisibility(pd.maxElevation, pd.isSunlit, observingCondition);
-                        
-                        // Stima magnitudine (formula semplificata basata su distanza e illuminazione)
-                        double magnitude = estimateMagnitude(pd.maxDistance, pd.satelliteAltitude, pd.isSunlit);
-                        
-                        // Solo passaggi con buona visibilità
-                        boolean isActuallyVisible = pd.isSunlit && !observingCondition.equals("daylight");
-                        
-                        passes.add(new SatellitePassDTO(
-                            satellite.getId(),
-                            satellite.getObjectName(),
-                            pd.riseTime,
-                            pd.maxElevationTime,
-                            pd.setTime,
-                            pd.maxElevation,
-                            pd.riseAzimuth,
-                            pd.maxElevationAzimuth,  // 🆕
-                            pd.setAzimuth,
-                            pd.maxDistance,
-                            isActuallyVisible,
-                            pd.isSunlit,
-                            visibility,
-                            observingCondition,
-                            magnitude,
-                            pd.satelliteAltitude
-                        ));
-                    }
+
+                // Campionamento ogni 60 secondi su [start, start + windowSeconds]
+                SamplingGrid grid = SamplingGrid.create(start, 60.0, (int) (windowSeconds / 60) + 1);
+                SampledEphemeris ephemeris = SampledEphemeris.propagate(propagator, grid);
+
+                if (ephemeris.getValidSamples() == 0) {
+                    System.err.println("⚠️  Orekit propagation failed for " + objectName);
+                    addSimplifiedPass(passes, satelliteId, objectName, latestParams, observerLocation, hours);
+                } else {
+                    passes.addAll(findPasses(satelliteId, objectName, ephemeris, ObserverFrame.of(observerLocation),
+                                              minElevation, maxRangeKm));
                 }
                 
             } catch (org.orekit.errors.OrekitException oe) {
                 System.err.println("⚠️  Orekit calculation failed: " + oe.getMessage());
-                SatellitePassDTO simplifiedPass = createSimplifiedPass(satellite, latestParams, observerLocation, hours);
-                if (simplifiedPass != null && simplifiedPass.isVisible()) {
-                    passes.add(simplifiedPass);
-                }
+                addSimplifiedPass(passes, satelliteId, objectName, latestParams, observerLocation, hours);
             }
             
         } catch (Exception e) {
@@ -259,13 +306,289 @@ public class SatellitePassService {
         return passes;
     }
     
+    /**
+     * Trova i passaggi di un satellite sopra un osservatore a partire dalle effemeridi campionate.
+     * Le effemeridi possono essere condivise tra più osservatori: per ogni istante servono solo
+     * pochi prodotti scalari. L'illuminazione solare viene valutata una sola volta per passaggio,
+     * all'istante di massima elevazione.
+     *
+     * Sono restituiti solo i passaggi completi (sorgere e tramonto nella finestra)
+     * con elevazione massima superiore a 10°.
+     */
+    public List<SatellitePassDTO> findPasses(Long satelliteId, String objectName,
+                                             SampledEphemeris ephemeris, ObserverFrame observer) {
+        return findPasses(satelliteId, objectName, ephemeris, observer, 0.0, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Come {@link #findPasses(Long, String, SampledEphemeris, ObserverFrame)}, scartando subito
+     * i passaggi con elevazione massima sotto minElevation o distanza al culmine oltre maxRangeKm
+     */
+    public List<SatellitePassDTO> findPasses(Long satelliteId, String objectName,
+                                             SampledEphemeris ephemeris, ObserverFrame observer,
+                                             double minElevation, double maxRangeKm) {
+        List<SatellitePassDTO> passes = new ArrayList<>();
+        for (PassWindow window : findPassWindows(ephemeris, observer, 10.0, minElevation, maxRangeKm)) {
+            passes.add(buildPass(satelliteId, objectName, ephemeris, observer, window));
+        }
+        return passes;
+    }
+
+    /**
+     * Passaggi per la modalità radio: conta solo la geometria, quindi vengono restituiti
+     * tutti i passaggi completi sopra minElevation (anche sotto 10°) senza valutare
+     * Sole, crepuscolo e magnitudine
+     */
+    public List<RadioPassDTO> findRadioPasses(Long satelliteId, String objectName,
+                                              SampledEphemeris ephemeris, ObserverFrame observer,
+                                              double minElevation) {
+        List<RadioPassDTO> passes = new ArrayList<>();
+        SamplingGrid grid = ephemeris.getGrid();
+        double[] positions = ephemeris.getPositions();
+
+        for (PassWindow window : findPassWindows(ephemeris, observer, 0.0, minElevation, Double.POSITIVE_INFINITY)) {
+            int m = window.maxIndex();
+            double x = positions[3 * m];
+            double y = positions[3 * m + 1];
+            double z = positions[3 * m + 2];
+            double satelliteAltitude = Math.sqrt(x * x + y * y + z * z) / 1000.0 -
+                                       Constants.WGS84_EARTH_EQUATORIAL_RADIUS / 1000.0;
+
+            passes.add(new RadioPassDTO(
+                satelliteId,
+                objectName,
+                grid.timeAt(window.riseIndex()),
+                grid.timeAt(m),
+                grid.timeAt(window.setIndex()),
+                window.maxElevation(),
+                window.riseAzimuth(),
+                window.maxElevationAzimuth(),
+                window.setAzimuth(),
+                window.maxDistance(),
+                satelliteAltitude
+            ));
+        }
+        return passes;
+    }
+
+    /**
+     * Scansione delle effemeridi: passaggi completi con elevazione massima oltre floorElevation
+     * e almeno minElevation, e distanza al culmine entro maxRangeKm
+     */
+    private List<PassWindow> findPassWindows(SampledEphemeris ephemeris, ObserverFrame observer,
+                                             double floorElevation, double minElevation, double maxRangeKm) {
+        List<PassWindow> windows = new ArrayList<>();
+        double[] positions = ephemeris.getPositions();
+        double[] look = new double[3];
+
+        int riseIndex = -1;
+        int maxIndex = -1;
+        double riseAzimuth = 0;
+        double maxElevation = 0;
+        double maxElevationAzimuth = 0;
+        double maxDistance = 0;
+
+        for (int s = 0; s < ephemeris.getValidSamples(); s++) {
+            observer.lookAngles(positions[3 * s], positions[3 * s + 1], positions[3 * s + 2], look);
+            double elevation = look[1];
+
+            if (elevation > 0) {
+                if (riseIndex < 0) {
+                    riseIndex = s;
+                    riseAzimuth = look[0];
+                    maxIndex = -1;
+                    maxElevation = 0;
+                }
+
+                if (elevation > maxElevation) {
+                    maxElevation = elevation;
+                    maxIndex = s;
+                    maxElevationAzimuth = look[0];
+                    maxDistance = look[2] / 1000.0;
+                }
+            } else if (riseIndex >= 0) {
+                if (maxElevation > floorElevation && maxElevation >= minElevation && maxDistance <= maxRangeKm) {
+                    windows.add(new PassWindow(riseIndex, maxIndex, s, riseAzimuth, maxElevationAzimuth, look[0],
+                                               maxElevation, maxDistance));
+                }
+                riseIndex = -1;
+            }
+        }
+
+        return windows;
+    }
+
+    /**
+     * Costruisce il DTO di un passaggio: illuminazione, condizione di osservazione,
+     * qualità e magnitudine sono calcolate all'istante di massima elevazione
+     */
+    private SatellitePassDTO buildPass(Long satelliteId, String objectName,
+                                       SampledEphemeris ephemeris, ObserverFrame observer, PassWindow window) {
+        int maxIndex = window.maxIndex();
+        double maxElevation = window.maxElevation();
+        double maxDistance = window.maxDistance();
+        SamplingGrid grid = ephemeris.getGrid();
+        double[] positions = ephemeris.getPositions();
+        double[] sun = grid.getSunPositions();
+
+        double x = positions[3 * maxIndex];
+        double y = positions[3 * maxIndex + 1];
+        double z = positions[3 * maxIndex + 2];
+        double sx = sun[3 * maxIndex];
+        double sy = sun[3 * maxIndex + 1];
+        double sz = sun[3 * maxIndex + 2];
+
+        // Altitudine satellite (distanza dalla superficie terrestre)
+        double satelliteAltitude = Math.sqrt(x * x + y * y + z * z) / 1000.0 -
+                                   Constants.WGS84_EARTH_EQUATORIAL_RADIUS / 1000.0;
+
+        // Il satellite è illuminato se l'angolo tra satellite e sole (visti dal centro Terra) è < 90°
+        boolean isSunlit = x * sx + y * sy + z * sz > 0;
+
+        // Elevazione del sole per l'osservatore
+        double sunElevation = observer.elevation(sx, sy, sz);
+
+        // Determina condizioni di osservazione
+        String observingCondition;
+        if (sunElevation < -18) {
+            observingCondition = "night";
+        } else if (sunElevation < -6) {
+            observingCondition = "twilight";
+        } else {
+            observingCondition = "daylight";
+        }
+
+        // Calcola qualità della visibilità
+        String visibility = calculateVisibility(maxElevation, isSunlit, observingCondition);
+
+        // Stima magnitudine (formula semplificata basata su distanza e illuminazione)
+        double magnitude = estimateMagnitude(maxDistance, satelliteAltitude, isSunlit);
+
+        // Solo passaggi con buona visibilità
+        boolean isActuallyVisible = isSunlit && !observingCondition.equals("daylight");
+
+        return new SatellitePassDTO(
+            satelliteId,
+            objectName,
+            grid.timeAt(window.riseIndex()),
+            grid.timeAt(maxIndex),
+            grid.timeAt(window.setIndex()),
+            maxElevation,
+            window.riseAzimuth(),
+            window.maxElevationAzimuth(),
+            window.setAzimuth(),
+            maxDistance,
+            isActuallyVisible,
+            isSunlit,
+            visibility,
+            observingCondition,
+            magnitude,
+            satelliteAltitude
+        );
+    }
+
+    private void addSimplifiedPass(List<SatellitePassDTO> passes, Long satelliteId, String objectName,
+                                   OrbitalParameters params, ObserverLocation location, int hours) {
+        SatellitePassDTO simplifiedPass = createSimplifiedPass(satelliteId, objectName, params, location, hours);
+        if (simplifiedPass != null && simplifiedPass.isVisible()) {
+            passes.add(simplifiedPass);
+        }
+    }
+
+    /**
+     * Percorso veloce per oggetti geostazionari: per un osservatore a terra sono quasi fermi,
+     * quindi non "sorgono" e non "tramontano". Bastano pochi campioni nella finestra per
+     * sapere dove si trovano e quanto derivano, invece di 60 passi SGP4 per ogni ora.
+     *
+     * @return posizione e deriva dell'oggetto, null se la propagazione fallisce
+     */
+    public StationaryObjectDTO evaluateStationary(CatalogEntry entry, ObserverFrame observer,
+                                                  LocalDateTime start, int hours) {
+        try {
+            TLEPropagator propagator = TLEPropagator.selectExtrapolator(
+                TLEConverter.toOrekitTLE(entry.noradCatId(), entry.parameters()));
+            Frame itrf = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+            AbsoluteDate startDate = new AbsoluteDate(Date.from(start.toInstant(ZoneOffset.UTC)),
+                                                      TimeScalesFactory.getUTC());
+            double spacing = hours * 3600.0 / (STATIONARY_SAMPLES - 1);
+
+            double[] look = new double[3];
+            double azimuth = 0;
+            double elevation = 0;
+            double rangeKm = 0;
+            double minElevation = Double.MAX_VALUE;
+            double maxElevation = -Double.MAX_VALUE;
+            double minAzimuthOffset = 0;
+            double maxAzimuthOffset = 0;
+
+            for (int i = 0; i < STATIONARY_SAMPLES; i++) {
+                Vector3D position = propagator.getPVCoordinates(startDate.shiftedBy(i * spacing), itrf).getPosition();
+                observer.lookAngles(position.getX(), position.getY(), position.getZ(), look);
+
+                if (i == 0) {
+                    azimuth = look[0];
+                    elevation = look[1];
+                    rangeKm = look[2] / 1000.0;
+                } else {
+                    // Scarto di azimuth rispetto al primo campione in [-180, 180)
+                    double offset = OrbitMath.normalizeLongitude(look[0] - azimuth);
+                    minAzimuthOffset = Math.min(minAzimuthOffset, offset);
+                    maxAzimuthOffset = Math.max(maxAzimuthOffset, offset);
+                }
+                minElevation = Math.min(minElevation, look[1]);
+                maxElevation = Math.max(maxElevation, look[1]);
+            }
+
+            return new StationaryObjectDTO(
+                entry.satelliteId(),
+                entry.objectName(),
+                entry.noradCatId(),
+                entry.satelliteType(),
+                Math.round(azimuth * 100.0) / 100.0,
+                Math.round(elevation * 100.0) / 100.0,
+                Math.round(rangeKm * 10.0) / 10.0,
+                Math.round(minElevation * 100.0) / 100.0,
+                Math.round(maxElevation * 100.0) / 100.0,
+                Math.round((maxAzimuthOffset - minAzimuthOffset) * 100.0) / 100.0,
+                minElevation > 0,
+                minElevation <= 0 && maxElevation > 0
+            );
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Tutti gli oggetti geostazionari del catalogo sopra l'elevazione minima,
+     * ordinati per elevazione decrescente
+     */
+    public List<StationaryObjectDTO> findStationaryObjects(ObserverLocation observerLocation, double minElevation,
+                                                           PassQueryFilter filter) {
+        ObserverFrame observer = ObserverFrame.of(observerLocation);
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<StationaryObjectDTO> result = new ArrayList<>();
+
+        for (CatalogEntry entry : catalogService.getSnapshot().entries()) {
+            if (entry.orbitRegime() != OrbitRegime.GEO || !filter.matches(entry)) {
+                continue;
+            }
+            StationaryObjectDTO geo = evaluateStationary(entry, observer, now, 1);
+            if (geo != null && geo.maxElevation() >= minElevation) {
+                result.add(geo);
+            }
+        }
+
+        result.sort((a, b) -> Double.compare(b.elevation(), a.elevation()));
+        return result;
+    }
+
     /**
      * Calcolo semplificato (senza Orekit)
      * Controlla se il satellite può essere visibile dalla latitudine dell'osservatore
      */
-    private SatellitePassDTO createSimplifiedPass(Satellite satellite, OrbitalParameters params, 
+    private SatellitePassDTO createSimplifiedPass(Long satelliteId, String objectName, OrbitalParameters params, 
                                                    ObserverLocation location, int hours) {
-        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime now = LocalDateTime.now(clock);
         double orbitalPeriod = 1440.0 / params.getMeanMotion();
         double hoursUntilPass = Math.min(hours / 2.0, orbitalPeriod / 60.0);
         
@@ -275,7 +598,7 @@ public class SatellitePassService {
         double observerLat = Math.abs(location.getLatitude());
         boolean canBeVisible = inclination >= observerLat && inclination <= (180.0 - observerLat);
         
-        System.out.println("🛰️  Satellite: " + satellite.getObjectName() + 
+        System.out.println("🛰️  Satellite: " + objectName + 
                          " | Inclinazione: " + inclination + "° | Osservatore: " + observerLat + "° | Visibile: " + canBeVisible);
         
         // Se non può essere visibile, restituisci null (non aggiungere alla lista)
@@ -284,8 +607,8 @@ public class SatellitePassService {
         }
         
         return new SatellitePassDTO(
-            satellite.getId(),
-            satellite.getObjectName() + " (simplified)",
+            satelliteId,
+            objectName + " (simplified)",
             now.plusHours((long)hoursUntilPass),
             now.plusHours((long)hoursUntilPass).plusMinutes((long)(orbitalPeriod / 4)),
             now.plusHours((long)hoursUntilPass).plusMinutes((long)(orbitalPeriod / 2)),
@@ -310,7 +633,7 @@ public class SatellitePassService {
         Optional<Satellite> satOpt = satelliteRepository.findById(satelliteId);
         String name = satOpt.map(Satellite::getObjectName).orElse("Unknown Satellite");
         
-        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime now = LocalDateTime.now(clock);
         return new SatellitePassDTO(
             satelliteId,
             name + " (error)",
@@ -331,24 +654,6 @@ public class SatellitePassService {
         );
     }
     
-    /**
-     * Classe helper per passaggi
-     */
-    private static class PassData {
-        LocalDateTime riseTime;
-        LocalDateTime maxElevationTime;
-        AbsoluteDate maxElevationDate;
-        LocalDateTime setTime;
-        double maxElevation = 0;
-        double riseAzimuth;
-        double maxElevationAzimuth;  // 🆕 Azimuth al massimo dell'elevazione
-        double setAzimuth;
-        double maxDistance;
-        double satelliteAltitude;
-        boolean isSunlit;
-        double sunElevation;
-    }
-    
     /**
      * Calcola la qualità della visibilità
      */
@@ -405,16 +710,21 @@ public class SatellitePassService {
         return Math.round(magnitude * 10.0) / 10.0; // Arrotonda a 1 decimale
     }
     
-    private AbsoluteDate toAbsoluteDate(LocalDateTime ldt) {
-        Date date = Date.from(ldt.toInstant(ZoneOffset.UTC));
-        return new AbsoluteDate(date, TimeScalesFactory.getUTC());
-    }
-    
-    private LocalDateTime toLocalDateTime(AbsoluteDate ad) {
-        return LocalDateTime.ofInstant(
-            ad.toDate(TimeScalesFactory.getUTC()).toInstant(),
-            ZoneOffset.UTC
-        );
+    /**
+     * Distanza massima (km) a cui un satellite illuminato può ancora avere magnitudine
+     * non superiore a maxMagnitude, secondo la stessa formula di estimateMagnitude.
+     * Oltre questa distanza il passaggio verrebbe comunque scartato dal filtro di magnitudine.
+     */
+    public double maxRangeForMagnitude(double maxMagnitude) {
+        // La magnitudine stimata è limitata a +9: oltre questo valore nessun vincolo
+        if (maxMagnitude >= 9.0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double H = -1.0;
+        double phaseCorrection = -2.5 * Math.log10(0.3);
+        // Tolleranza per l'arrotondamento a un decimale
+        double limit = maxMagnitude + 0.05;
+        return Math.pow(10.0, (limit - H + 15.0 + phaseCorrection) / 5.0);
     }
 
     public ObserverLocation getDefaultLocation() {
@@ -474,123 +784,705 @@ public class SatellitePassService {
     public List<SatellitePassDTO> findVisibleUpcomingPasses(int hours, double minElevation, 
                                                               ObserverLocation observerLocation,
                                                               String observingCondition, double maxMagnitude) {
-        // Genera chiave di cache
-        String cacheKey = String.format("%s_%.4f_%.4f_%.1f_%d_%.1f_%s_%.1f",
+        return findVisibleUpcomingPasses(hours, minElevation, observerLocation, observingCondition, maxMagnitude,
+                                         PassQueryFilter.none());
+    }
+
+    /**
+     * Trova i satelliti visibili con filtri avanzati e filtri sui satelliti.
+     * Gruppo, nome, NORAD ID e regime orbitale sono valutati sul catalogo in memoria
+     * prima di qualsiasi propagazione; magnitudine ed elevazione diventano limiti anticipati
+     * (quota del perigeo oltre la distanza massima ammessa dalla magnitudine, passaggi
+     * sotto l'elevazione minima scartati prima di calcolare l'illuminazione).
+     * 
+     * @param hours ore da controllare
+     * @param minElevation elevazione minima
+     * @param observerLocation posizione dell'osservatore
+     * @param observingCondition "night", "twilight", o "any"
+     * @param maxMagnitude magnitudine massima
+     * @param filter filtri sui satelliti
+     * @return lista di pass ordinati per tempo di rise
+     */
+    public List<SatellitePassDTO> findVisibleUpcomingPasses(int hours, double minElevation, 
+                                                              ObserverLocation observerLocation,
+                                                              String observingCondition, double maxMagnitude,
+                                                              PassQueryFilter filter) {
+        SlicedPasses result = assemblePasses(hours, minElevation, observerLocation, observingCondition,
+                                             maxMagnitude, filter);
+        prewarmService.record(observerLocation, hours, minElevation, observingCondition, maxMagnitude, filter,
+                              result.computedSlices() == 0);
+        return result.passes();
+    }
+
+    /**
+     * Passaggi in modalità radio di tutti i satelliti che rispettano i filtri.
+     * Non valuta Sole, crepuscolo e magnitudine: tutti i satelliti condividono una sola
+     * griglia di campionamento (trasformazioni TEME → ITRF calcolate una volta, posizioni
+     * del Sole mai calcolate) e sono scartati prima della propagazione quelli che per
+     * inclinazione e quota non possono salire sopra minElevation.
+     *
+     * @return lista di pass ordinati per tempo di rise
+     */
+    public List<RadioPassDTO> findRadioUpcomingPasses(int hours, double minElevation,
+                                                      ObserverLocation observerLocation, PassQueryFilter filter) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime end = now.plusHours(hours);
+        long windowSeconds = hours * 3600L + PASS_TAIL_SECONDS;
+        double observerLat = Math.abs(observerLocation.getLatitude());
+        ObserverFrame observer = ObserverFrame.of(observerLocation);
+
+        Set<Long> gridCandidates = gridService.candidateSatellites(observerLocation.getLatitude(),
+                                                                   observerLocation.getLongitude(), now,
+                                                                   now.plusSeconds(windowSeconds), minElevation);
+
+        List<CatalogEntry> candidates = new ArrayList<>();
+        int rejectedByFilter = 0;
+        int rejectedByGeometry = 0;
+        for (CatalogEntry entry : catalogService.getSnapshot().entries()) {
+            if (!filter.matches(entry)) {
+                rejectedByFilter++;
+                continue;
+            }
+            if (entry.orbitRegime() == OrbitRegime.GEO ||
+                (gridCandidates != null && !gridCandidates.contains(entry.satelliteId())) ||
+                !canReachObserver(entry.parameters(), observerLat, minElevation)) {
+                rejectedByGeometry++;
+                continue;
+            }
+            candidates.add(entry);
+        }
+
+        List<RadioPassDTO> allPasses = new ArrayList<>();
+        if (candidates.isEmpty()) {
+            return allPasses;
+        }
+
+        long startMs = System.currentTimeMillis();
+        SamplingGrid grid = SamplingGrid.create(now, 60.0, (int) (windowSeconds / 60) + 1);
+        for (CatalogEntry entry : candidates) {
+            try {
+                for (RadioPassDTO pass : radioPasses(entry, grid, observer, minElevation)) {
+                    if (pass.riseTime().isAfter(now) && pass.riseTime().isBefore(end)) {
+                        allPasses.add(pass);
+                    }
+                }
+            } catch (Exception e) {
+                // Continua con il prossimo satellite
+            }
+        }
+        allPasses.sort((p1, p2) -> p1.riseTime().compareTo(p2.riseTime()));
+
+        System.out.println("📻 Passaggi radio da " + observerLocation.getLocationName() + ": " + allPasses.size() +
+                         " da " + candidates.size() + " satelliti [Filtri: " + filter.cacheKey() +
+                         "] - esclusi: filtri=" + rejectedByFilter + ", geometria=" + rejectedByGeometry +
+                         " (" + (System.currentTimeMillis() - startMs) + " ms)");
+        return allPasses;
+    }
+
+    /**
+     * Pre-calcola le fette di una chiave richiesta di frequente, compresa la fetta successiva
+     * alla finestra: quando la finestra avanza la trova già in cache.
+     * Non conta come traffico nelle statistiche del pre-calcolo.
+     *
+     * @return numero di fette calcolate (0 se erano già tutte in cache)
+     */
+    public int prewarm(PassPrewarmService.PrewarmTarget target) {
+        int hours = target.hours() + (int) Math.max(1, (sliceMs + 3599999) / 3600000);
+        return assemblePasses(hours, target.key().minElevation(), target.observer(),
+                              target.key().observingCondition(), target.key().maxMagnitude(),
+                              target.filter()).computedSlices();
+    }
+
+    private SlicedPasses assemblePasses(int hours, double minElevation, ObserverLocation observerLocation,
+                                        String observingCondition, double maxMagnitude, PassQueryFilter filter) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime end = now.plusHours(hours);
+        CatalogSnapshot snapshot = catalogService.getSnapshot();
+        long catalogVersion = snapshot.version();
+
+        // Chiave senza riferimenti all'ora della richiesta: le fette sono assolute
+        String baseKey = String.format("%s_%.4f_%.4f_%.1f_%.1f_%s_%.1f_%s_v%d",
                            observerLocation.getLocationName(),
                            observerLocation.getLatitude(),
                            observerLocation.getLongitude(),
                            observerLocation.getAltitude(),
-                           hours, minElevation, observingCondition, maxMagnitude);
-        
-        // Controlla cache
-        if (passesCache.containsKey(cacheKey)) {
-            CacheEntry entry = passesCache.get(cacheKey);
-            if (!entry.isExpired(CACHE_TTL_MS)) {
-                LocalDateTime now = LocalDateTime.now();
-                List<SatellitePassDTO> filtered = new ArrayList<>();
-                for (SatellitePassDTO pass : entry.passes) {
-                    if (pass.riseTime().isAfter(now)) {
-                        filtered.add(pass);
+                           minElevation, observingCondition, maxMagnitude, filter.cacheKey(), catalogVersion);
+
+        long firstSlice = Math.floorDiv(toEpochMs(now), sliceMs);
+        long lastSlice = Math.floorDiv(toEpochMs(end) - 1, sliceMs);
+
+        Map<Long, List<SatellitePassDTO>> slices = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (long slice = firstSlice; slice <= lastSlice; slice++) {
+            PassSlice cached = passesCache.get(baseKey + "@" + slice);
+            if (cached != null) {
+                slices.put(slice, cached.passes());
+            } else {
+                missing.add(slice);
+            }
+        }
+        int totalSlices = (int) (lastSlice - firstSlice + 1);
+        sliceHits.addAndGet(totalSlices - missing.size());
+
+        if (!missing.isEmpty()) {
+            evictExpiredSlices(catalogVersion);
+        }
+
+        // Fette salvate nel database da questa o da altre istanze
+        boolean useStore = passStore.isEnabled() && snapshot.sourceFetchedAt() != null;
+        String observerKey = passStore.observerKey(observerLocation);
+        String queryKey = passStore.queryKey(String.format("%.1f_%s_%.1f_%s", minElevation, observingCondition,
+                                                           maxMagnitude, filter.cacheKey()));
+        int sliceMinutes = (int) (sliceMs / 60000);
+        int fromStore = 0;
+        if (useStore && !missing.isEmpty()) {
+            try {
+                Map<LocalDateTime, List<SatellitePassDTO>> stored = passStore.load(
+                    observerKey, queryKey, snapshot.sourceFetchedAt(), sliceMinutes,
+                    fromEpochMs(missing.get(0) * sliceMs), fromEpochMs((missing.get(missing.size() - 1) + 1) * sliceMs));
+                for (Map.Entry<LocalDateTime, List<SatellitePassDTO>> slice : stored.entrySet()) {
+                    long index = Math.floorDiv(toEpochMs(slice.getKey()), sliceMs);
+                    List<SatellitePassDTO> slicePasses = List.copyOf(slice.getValue());
+                    passesCache.put(baseKey + "@" + index,
+                                    new PassSlice(slicePasses, (index + 1) * sliceMs, catalogVersion));
+                    slices.put(index, slicePasses);
+                    missing.remove(Long.valueOf(index));
+                    fromStore++;
+                }
+            } catch (Exception e) {
+                System.err.println("⚠️  Archivio passaggi non disponibile: " + e.getMessage());
+            }
+            storeHits.addAndGet(fromStore);
+        }
+        sliceMisses.addAndGet(missing.size());
+
+        try {
+            // Le fette mancanti contigue sono calcolate con una sola scansione
+            int i = 0;
+            while (i < missing.size()) {
+                int j = i;
+                while (j + 1 < missing.size() && missing.get(j + 1) == missing.get(j) + 1) {
+                    j++;
+                }
+                long runStart = missing.get(i);
+                long runEnd = missing.get(j) + 1;
+
+                Map<Long, List<SatellitePassDTO>> scanned = new HashMap<>();
+                for (long slice = runStart; slice < runEnd; slice++) {
+                    scanned.put(slice, new ArrayList<>());
+                }
+                for (SatellitePassDTO pass : scanPasses(fromEpochMs(runStart * sliceMs), fromEpochMs(runEnd * sliceMs),
+                                                        minElevation, observerLocation, observingCondition,
+                                                        maxMagnitude, filter)) {
+                    List<SatellitePassDTO> slicePasses = scanned.get(Math.floorDiv(toEpochMs(pass.riseTime()), sliceMs));
+                    if (slicePasses != null) {
+                        slicePasses.add(pass);
                     }
                 }
+                Map<LocalDateTime, List<SatellitePassDTO>> toStore = new LinkedHashMap<>();
+                for (Map.Entry<Long, List<SatellitePassDTO>> slice : scanned.entrySet()) {
+                    List<SatellitePassDTO> slicePasses = List.copyOf(slice.getValue());
+                    passesCache.put(baseKey + "@" + slice.getKey(),
+                                    new PassSlice(slicePasses, (slice.getKey() + 1) * sliceMs, catalogVersion));
+                    slices.put(slice.getKey(), slicePasses);
+                    toStore.put(fromEpochMs(slice.getKey() * sliceMs), slicePasses);
+                }
+                if (useStore) {
+                    try {
+                        passStore.store(observerKey, queryKey, snapshot.sourceFetchedAt(), sliceMinutes, toStore,
+                                        snapshot.byId());
+                    } catch (Exception e) {
+                        // Fette già salvate da un'altra istanza o database non disponibile
+                        System.err.println("⚠️  Fette non salvate nell'archivio: " + e.getMessage());
+                    }
+                }
+                i = j + 1;
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Errore durante scan passaggi: " + e.getMessage());
+            e.printStackTrace();
+            return new SlicedPasses(new ArrayList<>(), missing.size());
+        }
 
-                if (!filtered.isEmpty()) {
-                    System.out.println("Cache hit: returning " + filtered.size() + " upcoming passes");
-                    return filtered;
+        // Ricompone la finestra richiesta dalle fette
+        List<SatellitePassDTO> allPasses = new ArrayList<>();
+        for (long slice = firstSlice; slice <= lastSlice; slice++) {
+            for (SatellitePassDTO pass : slices.get(slice)) {
+                if (pass.riseTime().isAfter(now) && pass.riseTime().isBefore(end)) {
+                    allPasses.add(pass);
                 }
+            }
+        }
+        allPasses.sort((p1, p2) -> p1.riseTime().compareTo(p2.riseTime()));
 
-                passesCache.remove(cacheKey);
+        if (missing.isEmpty() && fromStore == 0) {
+            System.out.println("Cache hit: returning " + allPasses.size() + " upcoming passes");
+        } else {
+            System.out.println("📦 Fette dal cache: " + (totalSlices - missing.size() - fromStore) + "/" +
+                             totalSlices + ", dall'archivio: " + fromStore +
+                             " (" + (sliceMs / 60000) + " min ciascuna)");
+        }
+        return new SlicedPasses(allPasses, missing.size());
+    }
+
+    /**
+     * Scansione del catalogo per i passaggi che sorgono in [scanStart, scanEnd).
+     * La propagazione prosegue per PASS_TAIL_SECONDS oltre scanEnd, così anche i passaggi
+     * che sorgono alla fine dell'intervallo vengono chiusi, e parte PASS_TAIL_SECONDS prima
+     * di scanStart: un passaggio già in corso al confine della fetta ha così la sua vera
+     * levata, precedente a scanStart, e resta alla fetta precedente invece di comparire
+     * qui troncato.
+     */
+    private List<SatellitePassDTO> scanPasses(LocalDateTime scanStart, LocalDateTime scanEnd, double minElevation,
+                                              ObserverLocation observerLocation,
+                                              String observingCondition, double maxMagnitude,
+                                              PassQueryFilter filter) {
+        LocalDateTime windowStart = scanStart.minusSeconds(PASS_TAIL_SECONDS);
+        long windowSeconds = Duration.between(windowStart, scanEnd).getSeconds() + PASS_TAIL_SECONDS;
+        List<SatellitePassDTO> allPasses = new ArrayList<>();
+        
+        List<CatalogEntry> allSatellites = catalogService.getSnapshot().entries();
+        double observerLat = Math.abs(observerLocation.getLatitude());
+        double observerAltitudeKm = observerLocation.getAltitude() / 1000.0;
+        double maxRangeKm = maxRangeForMagnitude(maxMagnitude);
+
+        // Candidati della cella della griglia globale che contiene l'osservatore (null = griglia non disponibile)
+        Set<Long> gridCandidates = gridService.candidateSatellites(observerLocation.getLatitude(),
+                                                                   observerLocation.getLongitude(), scanStart,
+                                                                   scanEnd.plusSeconds(PASS_TAIL_SECONDS), minElevation);
+        
+        // Filtra satelliti PRIMA di calcolare i passaggi: filtri richiesti, griglia globale,
+        // inclinazione e quota del perigeo (la distanza minima possibile è la quota al perigeo)
+        List<CatalogEntry> visibleSatellites = new ArrayList<>();
+        int rejectedByFilter = 0;
+        int rejectedByGrid = 0;
+        int rejectedByRange = 0;
+        int stationary = 0;
+        for (CatalogEntry entry : allSatellites) {
+            if (!filter.matches(entry)) {
+                rejectedByFilter++;
+                continue;
+            }
+
+            if (gridCandidates != null && !gridCandidates.contains(entry.satelliteId())) {
+                rejectedByGrid++;
+                continue;
+            }
+
+            // Gli oggetti geostazionari non sorgono e non tramontano: vanno su /stationary
+            if (entry.orbitRegime() == OrbitRegime.GEO) {
+                stationary++;
+                continue;
             }
+
+            OrbitalParameters latestParams = entry.parameters();
+            if (latestParams.getInclination() < observerLat) {
+                continue;
+            }
+
+            double perigeeAltitudeKm = OrbitMath.perigeeAltitudeKm(latestParams.getMeanMotion(),
+                                                                   latestParams.getEccentricity());
+            if (perigeeAltitudeKm - observerAltitudeKm > maxRangeKm) {
+                rejectedByRange++;
+                continue;
+            }
+
+            visibleSatellites.add(entry);
         }
         
-        List<SatellitePassDTO> allPasses = new ArrayList<>();
+        System.out.println("🔍 Scanning " + visibleSatellites.size() + " satelliti da " + 
+                         observerLocation.getLocationName() + " [Condizione: " + observingCondition + 
+                         ", Max magnitudine: " + maxMagnitude + ", Filtri: " + filter.cacheKey() +
+                         "] - esclusi prima della propagazione: filtri=" + rejectedByFilter +
+                         (gridCandidates != null ? ", griglia=" + rejectedByGrid : "") +
+                         ", distanza=" + rejectedByRange + ", geostazionari=" + stationary);
         
-        try {
-            List<Satellite> allSatellites = satelliteRepository.findAll();
-            double observerLat = Math.abs(observerLocation.getLatitude());
-            
-            // Filtra satelliti per inclinazione PRIMA di calcolare i passaggi
-            List<Satellite> visibleSatellites = new ArrayList<>();
-            for (Satellite sat : allSatellites) {
-                OrbitalParameters latestParams = orbitalParametersRepository
-                    .findTopBySatelliteOrderByFetchedAtDesc(sat);
+        int rejectedVisibility = 0;
+        int rejectedElevation = 0;
+        int rejectedCondition = 0;
+        int rejectedMagnitude = 0;
+
+        // Gruppi co-orbitali: si propaga un rappresentante per gruppo su una griglia allargata
+        // di ±MAX_TIME_OFFSET_SECONDS, i membri sono ricavati traslando i suoi passaggi
+        CoOrbitalClusterService.ClusterIndex clusterIndex = clusterService.getIndex();
+        LocalDateTime windowEnd = windowStart.plusSeconds(windowSeconds);
+        SamplingGrid clusterGrid = null;
+        Map<Long, SampledEphemeris> representativeEphemerides = new HashMap<>();
+        int propagated = 0;
+        int derivedMembers = 0;
+        int verifiedMembers = 0;
+
+        for (CatalogEntry entry : visibleSatellites) {
+            try {
+                List<SatellitePassDTO> passes = null;
+                CoOrbitalClusterService.Membership membership = clusterIndex.members().get(entry.satelliteId());
+                Long representativeId = membership != null ? membership.representativeId()
+                                      : clusterIndex.clusters().containsKey(entry.satelliteId()) ? entry.satelliteId()
+                                      : null;
+
+                if (representativeId != null) {
+                    if (clusterGrid == null) {
+                        clusterGrid = clusterGrid(windowStart, windowSeconds);
+                    }
+                    if (!representativeEphemerides.containsKey(representativeId)) {
+                        representativeEphemerides.put(representativeId,
+                                                      propagateRepresentative(representativeId, clusterGrid));
+                        propagated++;
+                    }
+                    SampledEphemeris ephemeris = representativeEphemerides.get(representativeId);
+
+                    if (ephemeris != null) {
+                        passes = membership == null
+                            ? representativePasses(entry, ephemeris, observerLocation, windowStart, windowEnd,
+                                                   minElevation, maxRangeKm)
+                            : derivedPasses(entry, membership, ephemeris, observerLocation, windowStart, windowEnd,
+                                            minElevation, maxMagnitude);
+                        if (membership != null) {
+                            if (passes != null) {
+                                derivedMembers++;
+                            } else {
+                                verifiedMembers++;
+                            }
+                        }
+                    }
+                }
+
+                if (passes == null) {
+                    // Satellite isolato, oppure passaggio derivato troppo vicino alle soglie
+                    passes = calculatePasses(entry.satelliteId(), entry.objectName(),
+                                             entry.noradCatId(), entry.parameters(),
+                                             windowStart, windowSeconds, observerLocation,
+                                             minElevation, maxRangeKm);
+                    propagated++;
+                }
                 
-                if (latestParams != null) {
-                    double inclination = latestParams.getInclination();
-                    if (inclination >= observerLat) {
-                        visibleSatellites.add(sat);
+                // Filtra per elevazione minima, visibilità, condizione osservazione e magnitudine
+                // I passaggi già aperti al primo campione hanno una levata fittizia e sono scartati
+                for (SatellitePassDTO pass : passes) {
+                    if (!pass.riseTime().isAfter(windowStart) || pass.riseTime().isBefore(scanStart) ||
+                        !pass.riseTime().isBefore(scanEnd)) {
+                        continue;
+                    }
+                    String rejection = rejectionReason(pass, minElevation, observingCondition, maxMagnitude);
+                    if (rejection == null) {
+                        allPasses.add(pass);
+                    } else if (rejection.equals("notVisible")) {
+                        rejectedVisibility++;
+                    } else if (rejection.equals("elevation")) {
+                        rejectedElevation++;
+                    } else if (rejection.equals("condition")) {
+                        rejectedCondition++;
+                    } else {
+                        rejectedMagnitude++;
                     }
                 }
+            } catch (Exception e) {
+                // Continua con il prossimo satellite
             }
-            
-            System.out.println("🔍 Scanning " + visibleSatellites.size() + " satelliti da " + 
-                             observerLocation.getLocationName() + " [Condizione: " + observingCondition + 
-                             ", Max magnitudine: " + maxMagnitude + "]");
-            
-            int rejectedVisibility = 0;
-            int rejectedElevation = 0;
-            int rejectedCondition = 0;
-            int rejectedMagnitude = 0;
-
-            for (Satellite satellite : visibleSatellites) {
-                try {
-                    List<SatellitePassDTO> passes = calculatePasses(satellite.getId(), hours, observerLocation);
-                    
-                    // Filtra per elevazione minima, visibilità, condizione osservazione e magnitudine
-                    for (SatellitePassDTO pass : passes) {
-                        if (!pass.isVisible()) {
-                            rejectedVisibility++;
-                            continue;
-                        }
+        }
+        
+        // Ordina per tempo di rise
+        allPasses.sort((p1, p2) -> p1.riseTime().compareTo(p2.riseTime()));
 
-                        if (pass.maxElevation() < minElevation) {
-                            rejectedElevation++;
-                            continue;
-                        }
+        System.out.println("🛰️  Gruppi co-orbitali: propagati " + propagated + "/" + visibleSatellites.size() +
+                         " satelliti, derivati " + derivedMembers + ", verificati vicino alle soglie " +
+                         verifiedMembers);
+        
+        System.out.println("Found " + allPasses.size() + " passes after filters (minElevation=" + minElevation +
+                         ", condition=" + observingCondition + ", maxMagnitude=" + maxMagnitude + "). Rejected: " +
+                         " notVisible=" + rejectedVisibility +
+                         ", elevation=" + rejectedElevation +
+                         ", condition=" + rejectedCondition +
+                         ", magnitude=" + rejectedMagnitude);
+        return allPasses;
+    }
+    
+    /**
+     * Griglia condivisa dai rappresentanti dei gruppi co-orbitali: copre la finestra
+     * allargata dello sfasamento massimo da entrambi i lati, così ogni membro resta coperto
+     */
+    private SamplingGrid clusterGrid(LocalDateTime windowStart, long windowSeconds) {
+        double margin = CoOrbitalClusterService.MAX_TIME_OFFSET_SECONDS;
+        return SamplingGrid.create(windowStart.minusSeconds((long) margin), 60.0,
+                                   (int) ((windowSeconds + 2 * margin) / 60.0) + 1);
+    }
 
-                        if (!"any".equalsIgnoreCase(observingCondition) &&
-                            !pass.observingCondition().equalsIgnoreCase(observingCondition)) {
-                            rejectedCondition++;
-                            continue;
-                        }
+    /**
+     * Effemeridi di un rappresentante sulla griglia condivisa, null se la propagazione
+     * non copre tutta la griglia (i membri vengono allora calcolati singolarmente)
+     */
+    private SampledEphemeris propagateRepresentative(Long representativeId, SamplingGrid grid) {
+        CatalogEntry representative = catalogService.getSnapshot().byId().get(representativeId);
+        if (representative == null) {
+            return null;
+        }
+        try {
+            TLEPropagator propagator = TLEPropagator.selectExtrapolator(
+                TLEConverter.toOrekitTLE(representative.noradCatId(), representative.parameters()));
+            SampledEphemeris ephemeris = SampledEphemeris.propagate(propagator, grid);
+            return ephemeris.getValidSamples() == grid.getCount() ? ephemeris : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
 
-                        if (pass.estimatedMagnitude() > maxMagnitude) {
-                            rejectedMagnitude++;
-                            continue;
-                        }
+    /**
+     * Passaggi del rappresentante, ristretti alla finestra richiesta
+     */
+    private List<SatellitePassDTO> representativePasses(CatalogEntry entry, SampledEphemeris ephemeris,
+                                                        ObserverLocation observerLocation,
+                                                        LocalDateTime windowStart, LocalDateTime windowEnd,
+                                                        double minElevation, double maxRangeKm) {
+        List<SatellitePassDTO> passes = new ArrayList<>();
+        for (SatellitePassDTO pass : findPasses(entry.satelliteId(), entry.objectName(), ephemeris,
+                                                ObserverFrame.of(observerLocation), minElevation, maxRangeKm)) {
+            if (!pass.riseTime().isBefore(windowStart) && !pass.setTime().isAfter(windowEnd)) {
+                passes.add(pass);
+            }
+        }
+        return passes;
+    }
 
-                        if (pass.isVisible()) {
-                            allPasses.add(pass);
-                        }
+    /**
+     * Passaggi di un membro ricavati dalle effemeridi del rappresentante.
+     *
+     * Il membro occupa all'istante t + Δt la posizione inerziale che il rappresentante
+     * occupa all'istante t; nel frattempo la Terra ruota di ω·Δt. Visto dall'osservatore,
+     * il membro a t + Δt equivale al rappresentante a t visto da un osservatore spostato
+     * di ω·Δt in longitudine: basta quindi cercare i passaggi del rappresentante sopra
+     * l'osservatore spostato e traslare i tempi di Δt. Anche il Sole segue la stessa
+     * rotazione, quindi illuminazione e condizione di osservazione restano valide.
+     *
+     * @return passaggi derivati, null se uno di essi è troppo vicino alle soglie
+     *         e serve il calcolo esatto
+     */
+    private List<SatellitePassDTO> derivedPasses(CatalogEntry entry, CoOrbitalClusterService.Membership membership,
+                                                 SampledEphemeris ephemeris, ObserverLocation observerLocation,
+                                                 LocalDateTime windowStart, LocalDateTime windowEnd,
+                                                 double minElevation, double maxMagnitude) {
+        double offset = membership.timeOffsetSeconds();
+        ObserverFrame shiftedObserver = new ObserverFrame(
+            observerLocation.getLatitude(),
+            OrbitMath.normalizeLongitude(observerLocation.getLongitude() +
+                                         OrbitMath.EARTH_ROTATION_DEG_PER_SECOND * offset),
+            observerLocation.getAltitude());
+
+        // Soglie allargate: i passaggi appena fuori vanno comunque verificati
+        double elevationThreshold = Math.max(minElevation, 10.0);
+        List<SatellitePassDTO> passes = new ArrayList<>();
+        for (SatellitePassDTO pass : findPasses(entry.satelliteId(), entry.objectName(), ephemeris, shiftedObserver,
+                                                minElevation - CLUSTER_VERIFY_ELEVATION_MARGIN,
+                                                maxRangeForMagnitude(maxMagnitude + CLUSTER_VERIFY_MAGNITUDE_MARGIN))) {
+            SatellitePassDTO shifted = shiftPass(pass, offset);
+            if (shifted.setTime().isBefore(windowStart) || shifted.riseTime().isAfter(windowEnd)) {
+                continue;
+            }
+
+            boolean nearThreshold =
+                Math.abs(shifted.maxElevation() - elevationThreshold) < CLUSTER_VERIFY_ELEVATION_MARGIN ||
+                Math.abs(shifted.estimatedMagnitude() - maxMagnitude) <= CLUSTER_VERIFY_MAGNITUDE_MARGIN ||
+                shifted.riseTime().isBefore(windowStart.plusSeconds(CLUSTER_VERIFY_EDGE_SECONDS)) ||
+                shifted.setTime().isAfter(windowEnd.minusSeconds(CLUSTER_VERIFY_EDGE_SECONDS));
+            if (nearThreshold) {
+                return null;
+            }
+            passes.add(shifted);
+        }
+        return passes;
+    }
+
+    /**
+     * Trasla nel tempo un passaggio (azimuth ed elevazioni restano invariati)
+     */
+    private SatellitePassDTO shiftPass(SatellitePassDTO pass, double offsetSeconds) {
+        long nanos = Math.round(offsetSeconds * 1e9);
+        return new SatellitePassDTO(
+            pass.satelliteId(),
+            pass.satelliteName(),
+            pass.riseTime().plusNanos(nanos),
+            pass.maxElevationTime().plusNanos(nanos),
+            pass.setTime().plusNanos(nanos),
+            pass.maxElevation(),
+            pass.riseAzimuth(),
+            pass.maxElevationAzimuth(),
+            pass.setAzimuth(),
+            pass.maxDistance(),
+            pass.isVisible(),
+            pass.isSunlit(),
+            pass.visibility(),
+            pass.observingCondition(),
+            pass.estimatedMagnitude(),
+            pass.satelliteAltitudeKm()
+        );
+    }
+
+    /**
+     * Statistiche dei gruppi co-orbitali: rapporto di compressione del catalogo e,
+     * su richiesta, errore dei passaggi derivati rispetto al calcolo esatto su un
+     * campione di membri (stessa fase di campionamento, quindi l'errore misurato è solo
+     * quello dovuto al raggruppamento)
+     */
+    public Map<String, Object> getClusterReport(boolean validate, ObserverLocation observerLocation, int hours) {
+        CoOrbitalClusterService.ClusterIndex clusterIndex = clusterService.getIndex();
+
+        int largestCluster = 0;
+        for (List<Long> members : clusterIndex.clusters().values()) {
+            largestCluster = Math.max(largestCluster, members.size() + 1);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", LocalDateTime.now(clock).toString());
+        report.put("catalogVersion", clusterIndex.catalogVersion());
+        report.put("catalogSize", clusterIndex.catalogSize());
+        report.put("totalClusters", clusterIndex.clusters().size());
+        report.put("derivedMembers", clusterIndex.members().size());
+        report.put("propagatedObjects", clusterIndex.propagatedObjects());
+        report.put("compressionRatio", clusterIndex.propagatedObjects() == 0 ? 1.0 :
+                   Math.round(clusterIndex.catalogSize() * 1000.0 / clusterIndex.propagatedObjects()) / 1000.0);
+        report.put("largestCluster", largestCluster);
+        report.put("buildMs", clusterIndex.buildMs());
+
+        if (validate) {
+            report.put("validation", validateClusters(clusterIndex, observerLocation, hours));
+        }
+        return report;
+    }
+
+    private Map<String, Object> validateClusters(CoOrbitalClusterService.ClusterIndex clusterIndex,
+                                                 ObserverLocation observerLocation, int hours) {
+        Map<Long, CatalogEntry> byId = catalogService.getSnapshot().byId();
+        LocalDateTime windowStart = LocalDateTime.now(clock);
+        LocalDateTime gridStart = windowStart.minusSeconds((long) CoOrbitalClusterService.MAX_TIME_OFFSET_SECONDS);
+        SamplingGrid grid = clusterGrid(windowStart, hours * 3600L);
+        Map<Long, SampledEphemeris> ephemerides = new HashMap<>();
+        ObserverFrame observer = ObserverFrame.of(observerLocation);
+
+        int sampledMembers = 0;
+        int comparedPasses = 0;
+        int unmatchedPasses = 0;
+        double timeErrorSum = 0;
+        double maxTimeError = 0;
+        double elevationErrorSum = 0;
+        double maxElevationError = 0;
+
+        for (Map.Entry<Long, CoOrbitalClusterService.Membership> member : clusterIndex.members().entrySet()) {
+            if (sampledMembers >= CLUSTER_VALIDATION_SAMPLE) {
+                break;
+            }
+            CatalogEntry entry = byId.get(member.getKey());
+            CoOrbitalClusterService.Membership membership = member.getValue();
+            if (entry == null) {
+                continue;
+            }
+            if (!ephemerides.containsKey(membership.representativeId())) {
+                ephemerides.put(membership.representativeId(),
+                                propagateRepresentative(membership.representativeId(), grid));
+            }
+            SampledEphemeris representativeEphemeris = ephemerides.get(membership.representativeId());
+            if (representativeEphemeris == null) {
+                continue;
+            }
+
+            // Derivati: senza soglie, solo traslazione
+            double offset = membership.timeOffsetSeconds();
+            ObserverFrame shiftedObserver = new ObserverFrame(
+                observerLocation.getLatitude(),
+                OrbitMath.normalizeLongitude(observerLocation.getLongitude() +
+                                             OrbitMath.EARTH_ROTATION_DEG_PER_SECOND * offset),
+                observerLocation.getAltitude());
+            List<SatellitePassDTO> derived = new ArrayList<>();
+            for (SatellitePassDTO pass : findPasses(entry.satelliteId(), entry.objectName(),
+                                                    representativeEphemeris, shiftedObserver)) {
+                derived.add(shiftPass(pass, offset));
+            }
+
+            // Esatti: il membro propagato sulla griglia traslata di Δt
+            SampledEphemeris exactEphemeris;
+            try {
+                TLEPropagator propagator = TLEPropagator.selectExtrapolator(
+                    TLEConverter.toOrekitTLE(entry.noradCatId(), entry.parameters()));
+                SamplingGrid shiftedGrid = SamplingGrid.create(gridStart.plusNanos(Math.round(offset * 1e9)),
+                                                               grid.getStepSeconds(), grid.getCount());
+                exactEphemeris = SampledEphemeris.propagate(propagator, shiftedGrid);
+            } catch (Exception e) {
+                continue;
+            }
+            sampledMembers++;
+
+            for (SatellitePassDTO exact : findPasses(entry.satelliteId(), entry.objectName(), exactEphemeris, observer)) {
+                SatellitePassDTO closest = null;
+                double closestSeconds = Double.MAX_VALUE;
+                for (SatellitePassDTO candidate : derived) {
+                    double seconds = Math.abs(Duration.between(exact.maxElevationTime(),
+                                                                         candidate.maxElevationTime()).toMillis() / 1000.0);
+                    if (seconds < closestSeconds) {
+                        closestSeconds = seconds;
+                        closest = candidate;
                     }
-                } catch (Exception e) {
-                    // Continua con il prossimo satellite
                 }
+
+                if (closest == null || closestSeconds > 600) {
+                    unmatchedPasses++;
+                    continue;
+                }
+                double elevationError = Math.abs(closest.maxElevation() - exact.maxElevation());
+                comparedPasses++;
+                timeErrorSum += closestSeconds;
+                maxTimeError = Math.max(maxTimeError, closestSeconds);
+                elevationErrorSum += elevationError;
+                maxElevationError = Math.max(maxElevationError, elevationError);
             }
-            
-            // Ordina per tempo di rise
-            allPasses.sort((p1, p2) -> p1.riseTime().compareTo(p2.riseTime()));
-            
-            // Salva in cache solo se ci sono risultati
-            if (!allPasses.isEmpty()) {
-                passesCache.put(cacheKey, new CacheEntry(allPasses));
-            }
+        }
 
-            System.out.println("Found " + allPasses.size() + " passes after filters (minElevation=" + minElevation +
-                             ", condition=" + observingCondition + ", maxMagnitude=" + maxMagnitude + "). Rejected: " +
-                             " notVisible=" + rejectedVisibility +
-                             ", elevation=" + rejectedElevation +
-                             ", condition=" + rejectedCondition +
-                             ", magnitude=" + rejectedMagnitude);
-            return allPasses;
-            
-        } catch (Exception e) {
-            System.err.println("❌ Errore durante scan passaggi: " + e.getMessage());
-            e.printStackTrace();
-            return new ArrayList<>();
+        Map<String, Object> validation = new LinkedHashMap<>();
+        validation.put("observer", observerLocation.getLocationName());
+        validation.put("hours", hours);
+        validation.put("sampledMembers", sampledMembers);
+        validation.put("comparedPasses", comparedPasses);
+        validation.put("unmatchedPasses", unmatchedPasses);
+        validation.put("meanTimeErrorSeconds", comparedPasses == 0 ? 0.0 :
+                       Math.round(timeErrorSum / comparedPasses * 10.0) / 10.0);
+        validation.put("maxTimeErrorSeconds", Math.round(maxTimeError * 10.0) / 10.0);
+        validation.put("meanElevationErrorDeg", comparedPasses == 0 ? 0.0 :
+                       Math.round(elevationErrorSum / comparedPasses * 1000.0) / 1000.0);
+        validation.put("maxElevationErrorDeg", Math.round(maxElevationError * 1000.0) / 1000.0);
+        return validation;
+    }
+
+    /**
+     * Verifica se un passaggio soddisfa i filtri di osservazione
+     * (visibilità, elevazione minima, condizione di osservazione e magnitudine)
+     */
+    public boolean matchesFilters(SatellitePassDTO pass, double minElevation,
+                                  String observingCondition, double maxMagnitude) {
+        return rejectionReason(pass, minElevation, observingCondition, maxMagnitude) == null;
+    }
+
+    /**
+     * Motivo per cui un passaggio viene scartato dai filtri, null se il passaggio è accettato
+     */
+    private String rejectionReason(SatellitePassDTO pass, double minElevation,
+                                   String observingCondition, double maxMagnitude) {
+        if (!pass.isVisible()) {
+            return "notVisible";
+        }
+
+        if (pass.maxElevation() < minElevation) {
+            return "elevation";
+        }
+
+        if (!"any".equalsIgnoreCase(observingCondition) &&
+            !pass.observingCondition().equalsIgnoreCase(observingCondition)) {
+            return "condition";
         }
+
+        if (pass.estimatedMagnitude() > maxMagnitude) {
+            return "magnitude";
+        }
+
+        return null;
     }
-    
+
     /**
      * Pulisce il cache dei passaggi visibili
      */
@@ -605,17 +1497,49 @@ public class SatellitePassService {
     public Map<String, Object> getCacheStatus() {
         Map<String, Object> status = new HashMap<>();
         status.put("entries", passesCache.size());
-        status.put("ttl_minutes", CACHE_TTL_MS / 1000 / 60);
+        status.put("slice_minutes", sliceMs / 60000);
+
+        long hits = sliceHits.get() + storeHits.get();
+        long misses = sliceMisses.get();
+        status.put("slice_hits", hits);
+        status.put("slice_misses", misses);
+        status.put("store_hits", storeHits.get());
+        status.put("hit_rate", hits + misses == 0 ? 0.0 : Math.round(hits * 1000.0 / (hits + misses)) / 1000.0);
         
+        long nowMs = toEpochMs(LocalDateTime.now(clock));
         Map<String, Long> entries = new HashMap<>();
-        for (String key : passesCache.keySet()) {
-            CacheEntry entry = passesCache.get(key);
-            long ageMs = System.currentTimeMillis() - entry.timestamp;
-            long remainingMs = CACHE_TTL_MS - ageMs;
-            entries.put(key, Math.max(0, remainingMs / 1000 / 60)); // minuti rimanenti
+        for (Map.Entry<String, PassSlice> entry : passesCache.entrySet()) {
+            long remainingMs = entry.getValue().endEpochMs() - nowMs;
+            entries.put(entry.getKey(), Math.max(0, remainingMs / 1000 / 60)); // minuti alla fine della fetta
         }
         status.put("cache_entries", entries);
+        status.put("prewarm", prewarmService.getStatus());
+        status.put("grid", gridService.getStatus());
+        status.put("store", passStore.getStatus());
         
         return status;
     }
+
+    /**
+     * Elimina dall'archivio nel database le fette trascorse e quelle di cataloghi precedenti
+     */
+    public Map<String, Object> purgeStoredPasses() {
+        return passStore.purge(catalogService.getSnapshot().sourceFetchedAt());
+    }
+
+    /**
+     * Rimuove le fette già trascorse e quelle calcolate su versioni precedenti del catalogo
+     */
+    private void evictExpiredSlices(long catalogVersion) {
+        long nowMs = toEpochMs(LocalDateTime.now(clock));
+        passesCache.values().removeIf(slice -> slice.endEpochMs() <= nowMs || slice.catalogVersion() != catalogVersion);
+    }
+
+    private static long toEpochMs(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromEpochMs(long epochMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZoneOffset.UTC);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,376 @@
+package com.satelliteTracking.service;
+
+import com.satelliteTracking.dto.OverheadSatelliteDTO;
+import com.satelliteTracking.model.CatalogEntry;
+import com.satelliteTracking.model.CatalogSnapshot;
+import com.satelliteTracking.model.ObserverLocation;
+import com.satelliteTracking.util.LatLonGrid;
+import com.satelliteTracking.util.ObserverFrame;
+import com.satelliteTracking.util.OrbitMath;
+import com.satelliteTracking.util.TLEConverter;
+import jakarta.annotation.PreDestroy;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.hipparchus.util.FastMath;
+import org.orekit.bodies.GeodeticPoint;
+import org.orekit.bodies.OneAxisEllipsoid;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.Transform;
+import org.orekit.propagation.analytical.tle.TLEPropagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.Constants;
+import org.orekit.utils.IERSConventions;
+import org.orekit.utils.PVCoordinates;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Indice spaziale dei punti sub-satellite correnti.
+ *
+ * Ad ogni tick le posizioni di tutti i satelliti del catalogo vengono propagate
+ * all'istante corrente e ogni satellite viene spostato nella cella della griglia
+ * che contiene il suo punto sub-satellite (solo se la cella è cambiata).
+ * La domanda "cosa c'è sopra di me adesso" interroga solo le celle dentro il cono
+ * di visibilità dell'osservatore, invece di scansionare l'intero catalogo.
+ *
+ * I satelliti sono divisi per fasce di quota (LEO/MEO/alta): ogni fascia ha la sua
+ * griglia e il suo raggio di visibilità, così i GEO non allargano il cono dei LEO.
+ */
+@Service
+public class SatellitePositionIndexService {
+
+    private final SatelliteCatalogService catalogService;
+    private final Clock clock;
+
+    /**
+     * Fascia di quota con griglia dedicata
+     */
+    private static class Shell {
+        final String name;
+        final double maxAltitudeKm;
+        final LatLonGrid<Long> grid;
+        volatile double highestAltitudeKm = 0;
+
+        Shell(String name, double maxAltitudeKm, double cellSizeDeg) {
+            this.name = name;
+            this.maxAltitudeKm = maxAltitudeKm;
+            this.grid = new LatLonGrid<>(cellSizeDeg);
+        }
+    }
+
+    /**
+     * Posizione indicizzata di un satellite (ECEF in metri, velocità in m/s)
+     */
+    private record IndexedPoint(CatalogEntry entry, int shell, int cell,
+                                double latitude, double longitude, double altitudeKm,
+                                double x, double y, double z,
+                                double vx, double vy, double vz) {}
+
+    private final Shell[] shells = {
+        new Shell("LEO", 2000.0, 2.0),
+        new Shell("MEO", 30000.0, 5.0),
+        new Shell("HIGH", Double.MAX_VALUE, 10.0)
+    };
+
+    private final Map<Long, IndexedPoint> points = new ConcurrentHashMap<>();
+
+    // Propagatori (non thread-safe) usati solo dal thread che esegue il tick
+    private final Map<Long, TLEPropagator> propagators = new HashMap<>();
+    private long propagatorsVersion = -1;
+
+    private volatile long positionsEpochMs = 0;
+    private volatile long lastTickDurationMs = 0;
+    private volatile int lastCellChanges = 0;
+
+    // Thread dedicato ai tick: la propagazione dell'intero catalogo non occupa
+    // il thread condiviso dello scheduler
+    private final ExecutorService tickExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "position-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean tickPending = new AtomicBoolean(false);
+
+    // Margine angolare per la deriva dei satelliti tra un tick e la query
+    private static final double LEO_SPEED_DEG_PER_SECOND = 0.07;
+
+    public SatellitePositionIndexService(SatelliteCatalogService catalogService, Clock clock) {
+        this.catalogService = catalogService;
+        this.clock = clock;
+    }
+
+    /**
+     * Avvia l'aggiornamento delle posizioni sul thread dedicato dell'indice.
+     * Se il tick precedente non è ancora terminato, il nuovo viene saltato
+     *
+     * @return false se un aggiornamento era già in corso
+     */
+    public boolean refreshPositionsAsync() {
+        if (!tickPending.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            tickExecutor.execute(() -> {
+                try {
+                    refreshPositions();
+                } catch (Exception e) {
+                    System.err.println("❌ Errore aggiornamento indice posizioni: " + e.getMessage());
+                } finally {
+                    tickPending.set(false);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            // Applicazione in chiusura
+            tickPending.set(false);
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        tickExecutor.shutdownNow();
+    }
+
+    /**
+     * Propaga tutti i satelliti all'istante corrente e aggiorna l'indice
+     * in modo incrementale (un satellite cambia cella solo se si è spostato)
+     */
+    public synchronized void refreshPositions() {
+        long startTime = System.currentTimeMillis();
+
+        CatalogSnapshot snapshot = catalogService.getSnapshot();
+        if (snapshot.version() != propagatorsVersion) {
+            rebuildPropagators(snapshot);
+        }
+
+        if (propagators.isEmpty()) {
+            return;
+        }
+
+        try {
+            Frame teme = FramesFactory.getTEME();
+            Frame itrf = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+            OneAxisEllipsoid earth = new OneAxisEllipsoid(
+                Constants.WGS84_EARTH_EQUATORIAL_RADIUS,
+                Constants.WGS84_EARTH_FLATTENING,
+                itrf
+            );
+
+            long epochMs = clock.millis();
+            AbsoluteDate date = new AbsoluteDate(new Date(epochMs), TimeScalesFactory.getUTC());
+
+            // Una sola trasformazione TEME -> ITRF per tutti i satelliti del tick
+            Transform temeToItrf = teme.getTransformTo(itrf, date);
+
+            double[] highest = new double[shells.length];
+            int cellChanges = 0;
+
+            for (Map.Entry<Long, TLEPropagator> e : propagators.entrySet()) {
+                Long satelliteId = e.getKey();
+                CatalogEntry entry = snapshot.byId().get(satelliteId);
+                try {
+                    PVCoordinates pv = temeToItrf.transformPVCoordinates(e.getValue().getPVCoordinates(date, teme));
+                    Vector3D position = pv.getPosition();
+                    Vector3D velocity = pv.getVelocity();
+                    GeodeticPoint subPoint = earth.transform(position, itrf, date);
+
+                    double latitude = FastMath.toDegrees(subPoint.getLatitude());
+                    double longitude = FastMath.toDegrees(subPoint.getLongitude());
+                    double altitudeKm = subPoint.getAltitude() / 1000.0;
+                    int shell = shellOf(altitudeKm);
+                    highest[shell] = Math.max(highest[shell], altitudeKm);
+
+                    IndexedPoint previous = points.get(satelliteId);
+                    int cell;
+                    if (previous == null) {
+                        cell = shells[shell].grid.add(satelliteId, latitude, longitude);
+                        cellChanges++;
+                    } else if (previous.shell() != shell) {
+                        shells[previous.shell()].grid.remove(satelliteId, previous.cell());
+                        cell = shells[shell].grid.add(satelliteId, latitude, longitude);
+                        cellChanges++;
+                    } else {
+                        cell = shells[shell].grid.move(satelliteId, previous.cell(), latitude, longitude);
+                        if (cell != previous.cell()) {
+                            cellChanges++;
+                        }
+                    }
+
+                    points.put(satelliteId, new IndexedPoint(entry, shell, cell,
+                        latitude, longitude, altitudeKm,
+                        position.getX(), position.getY(), position.getZ(),
+                        velocity.getX(), velocity.getY(), velocity.getZ()));
+
+                } catch (Exception ex) {
+                    // Propagazione fallita (es. satellite rientrato): rimuovi dall'indice
+                    removePoint(satelliteId);
+                }
+            }
+
+            for (int i = 0; i < shells.length; i++) {
+                shells[i].highestAltitudeKm = highest[i];
+            }
+
+            positionsEpochMs = epochMs;
+            lastCellChanges = cellChanges;
+            lastTickDurationMs = System.currentTimeMillis() - startTime;
+
+        } catch (org.orekit.errors.OrekitException oe) {
+            System.err.println("⚠️  Indice posizioni non aggiornato (Orekit): " + oe.getMessage());
+        }
+    }
+
+    /**
+     * Ricostruisce i propagatori quando cambia la versione del catalogo
+     */
+    private void rebuildPropagators(CatalogSnapshot snapshot) {
+        propagators.clear();
+        for (CatalogEntry entry : snapshot.entries()) {
+            try {
+                propagators.put(entry.satelliteId(),
+                    TLEPropagator.selectExtrapolator(TLEConverter.toOrekitTLE(entry.noradCatId(), entry.parameters())));
+            } catch (Exception e) {
+                // TLE non valido: il satellite resta fuori dall'indice
+            }
+        }
+
+        // Rimuovi dall'indice i satelliti non più presenti nel catalogo
+        Set<Long> stale = new HashSet<>(points.keySet());
+        stale.removeAll(propagators.keySet());
+        for (Long satelliteId : stale) {
+            removePoint(satelliteId);
+        }
+
+        propagatorsVersion = snapshot.version();
+        System.out.println("🗺️  Indice posizioni: " + propagators.size() + " propagatori pronti (catalogo v" +
+                         snapshot.version() + ")");
+    }
+
+    private void removePoint(Long satelliteId) {
+        IndexedPoint previous = points.remove(satelliteId);
+        if (previous != null) {
+            shells[previous.shell()].grid.remove(satelliteId, previous.cell());
+        }
+    }
+
+    private int shellOf(double altitudeKm) {
+        for (int i = 0; i < shells.length; i++) {
+            if (altitudeKm < shells[i].maxAltitudeKm) {
+                return i;
+            }
+        }
+        return shells.length - 1;
+    }
+
+    /**
+     * Trova tutti i satelliti attualmente sopra l'elevazione minima per un osservatore.
+     * Interroga solo le celle dentro il cono di visibilità di ogni fascia di quota.
+     *
+     * @param observerLocation posizione dell'osservatore
+     * @param minElevation elevazione minima in gradi
+     * @return satelliti visibili ordinati per elevazione decrescente
+     */
+    public List<OverheadSatelliteDTO> findOverhead(ObserverLocation observerLocation, double minElevation) {
+        List<OverheadSatelliteDTO> result = new ArrayList<>();
+        if (positionsEpochMs == 0) {
+            return result;
+        }
+
+        ObserverFrame frame = ObserverFrame.of(observerLocation);
+
+        // Estrapolazione lineare dalla posizione del tick all'istante della query
+        double dt = (clock.millis() - positionsEpochMs) / 1000.0;
+        double driftDeg = dt * LEO_SPEED_DEG_PER_SECOND;
+        double[] look = new double[3];
+
+        for (Shell shell : shells) {
+            if (shell.highestAltitudeKm <= 0) {
+                continue;
+            }
+
+            double radius = OrbitMath.visibilityRadiusDeg(shell.highestAltitudeKm, minElevation) + driftDeg + 0.5;
+            shell.grid.query(observerLocation.getLatitude(), observerLocation.getLongitude(), radius, satelliteId -> {
+                IndexedPoint p = points.get(satelliteId);
+                if (p == null) {
+                    return;
+                }
+
+                double x = p.x() + p.vx() * dt;
+                double y = p.y() + p.vy() * dt;
+                double z = p.z() + p.vz() * dt;
+                frame.lookAngles(x, y, z, look);
+
+                if (look[1] >= minElevation) {
+                    result.add(new OverheadSatelliteDTO(
+                        p.entry().satelliteId(),
+                        p.entry().noradCatId(),
+                        p.entry().objectName(),
+                        p.entry().satelliteType(),
+                        Math.round(look[0] * 10.0) / 10.0,
+                        Math.round(look[1] * 10.0) / 10.0,
+                        Math.round(look[2] / 100.0) / 10.0,
+                        p.latitude(),
+                        p.longitude(),
+                        p.altitudeKm()
+                    ));
+                }
+            });
+        }
+
+        result.sort((a, b) -> Double.compare(b.elevation(), a.elevation()));
+        return result;
+    }
+
+    /**
+     * Istante a cui si riferiscono le posizioni indicizzate (null se l'indice è vuoto)
+     */
+    public LocalDateTime getPositionsTime() {
+        if (positionsEpochMs == 0) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(positionsEpochMs / 1000, (int) (positionsEpochMs % 1000) * 1000000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Stato dell'indice (numero di satelliti per fascia, durata ultimo tick, ecc.)
+     */
+    public Map<String, Object> getIndexStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("positionsAt", getPositionsTime() != null ? getPositionsTime().toString() : null);
+        status.put("catalogVersion", propagatorsVersion);
+        status.put("indexedSatellites", points.size());
+        status.put("lastTickMs", lastTickDurationMs);
+        status.put("lastCellChanges", lastCellChanges);
+
+        Map<String, Object> shellStats = new LinkedHashMap<>();
+        for (int i = 0; i < shells.length; i++) {
+            final int shellIndex = i;
+            long count = points.values().stream().filter(p -> p.shell() == shellIndex).count();
+            shellStats.put(shells[i].name, Map.of(
+                "satellites", count,
+                "cellSizeDeg", shells[i].grid.getCellSizeDeg(),
+                "highestAltitudeKm", Math.round(shells[i].highestAltitudeKm)
+            ));
+        }
+        status.put("shells", shellStats);
+        return status;
+    }
+}
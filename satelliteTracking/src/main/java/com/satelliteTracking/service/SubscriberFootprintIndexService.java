@@ -0,0 +1,206 @@
+package com.satelliteTracking.service;
+
+import com.satelliteTracking.config.ComputePool;
+import com.satelliteTracking.model.CatalogEntry;
+import com.satelliteTracking.model.CatalogSnapshot;
+import com.satelliteTracking.model.TelegramSubscription;
+import com.satelliteTracking.util.LatLonGrid;
+import com.satelliteTracking.util.OrbitMath;
+import com.satelliteTracking.util.TLEConverter;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.Transform;
+import org.orekit.propagation.analytical.tle.TLEPropagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.IERSConventions;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Indice inverso "satellite → osservatori" per le notifiche Telegram.
+ *
+ * Invece di chiedere per ogni utente quali satelliti gli passano sopra (utenti × catalogo
+ * calcoli completi), le posizioni degli iscritti vengono indicizzate in una griglia
+ * lat/lon e per ogni satellite si campiona la traccia al suolo nella finestra:
+ * ad ogni campione si interrogano solo le celle dentro il cerchio di visibilità.
+ * Le sole coppie satellite/osservatore trovate passano al calcolo completo dei passaggi.
+ */
+@Service
+public class SubscriberFootprintIndexService {
+
+    private final SatelliteCatalogService catalogService;
+    private final ComputePool computePool;
+    private final Clock clock;
+
+    // Dimensione delle celle della griglia degli iscritti
+    private static final double GRID_CELL_DEG = 5.0;
+
+    // Passo di campionamento della traccia al suolo
+    private static final double TRACK_STEP_SECONDS = 60.0;
+
+    public SubscriberFootprintIndexService(SatelliteCatalogService catalogService, ComputePool computePool,
+                                           Clock clock) {
+        this.catalogService = catalogService;
+        this.computePool = computePool;
+        this.clock = clock;
+    }
+
+    /**
+     * Per ogni subscription, i satelliti del catalogo la cui traccia al suolo entra nel
+     * cerchio di visibilità dell'osservatore (sopra minElevation) nelle prossime ore
+     *
+     * @param subscriptions iscritti da considerare
+     * @param hours finestra temporale in ore
+     * @param minElevation elevazione minima in gradi
+     * @return satelliti candidati per ID subscription (gli iscritti senza candidati non compaiono)
+     */
+    public Map<Long, List<CatalogEntry>> findCandidateSatellites(List<TelegramSubscription> subscriptions,
+                                                                 int hours, double minElevation) {
+        Map<Long, List<CatalogEntry>> result = new HashMap<>();
+        if (subscriptions.isEmpty()) {
+            return result;
+        }
+
+        long startTime = System.currentTimeMillis();
+
+        // Griglia delle posizioni degli iscritti (indici nella lista)
+        List<TelegramSubscription> indexed = new ArrayList<>();
+        LatLonGrid<Integer> grid = new LatLonGrid<>(GRID_CELL_DEG);
+        for (TelegramSubscription sub : subscriptions) {
+            if (sub.getLatitude() == null || sub.getLongitude() == null) {
+                continue;
+            }
+            grid.add(indexed.size(), sub.getLatitude(), sub.getLongitude());
+            indexed.add(sub);
+        }
+
+        CatalogSnapshot snapshot = catalogService.getSnapshot();
+        List<CatalogEntry> entries = snapshot.entries();
+        if (indexed.isEmpty() || entries.isEmpty()) {
+            return result;
+        }
+
+        try {
+            Frame teme = FramesFactory.getTEME();
+            Frame itrf = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+
+            // Una trasformazione TEME -> ITRF per istante, condivisa da tutti i satelliti
+            int steps = (int) (hours * 3600 / TRACK_STEP_SECONDS) + 1;
+            AbsoluteDate startDate = new AbsoluteDate(Date.from(clock.instant()), TimeScalesFactory.getUTC());
+            AbsoluteDate[] dates = new AbsoluteDate[steps];
+            Transform[] transforms = new Transform[steps];
+            for (int s = 0; s < steps; s++) {
+                dates[s] = startDate.shiftedBy(s * TRACK_STEP_SECONDS);
+                transforms[s] = teme.getTransformTo(itrf, dates[s]);
+            }
+
+            int chunks = Math.min(computePool.getParallelism(), entries.size());
+            List<Callable<Map<Integer, List<CatalogEntry>>>> tasks = new ArrayList<>();
+            for (int c = 0; c < chunks; c++) {
+                final int from = c * entries.size() / chunks;
+                final int to = (c + 1) * entries.size() / chunks;
+                tasks.add(() -> {
+                    Map<Integer, List<CatalogEntry>> local = new HashMap<>();
+                    Set<Integer> matched = new HashSet<>();
+                    for (int i = from; i < to; i++) {
+                        CatalogEntry entry = entries.get(i);
+                        matched.clear();
+                        scanGroundTrack(entry, dates, transforms, teme, grid, indexed, minElevation, matched);
+                        for (Integer k : matched) {
+                            local.computeIfAbsent(k, key -> new ArrayList<>()).add(entry);
+                        }
+                    }
+                    return local;
+                });
+            }
+
+            long pairs = 0;
+            for (Future<Map<Integer, List<CatalogEntry>>> future : computePool.getExecutor().invokeAll(tasks)) {
+                for (Map.Entry<Integer, List<CatalogEntry>> e : future.get().entrySet()) {
+                    result.computeIfAbsent(indexed.get(e.getKey()).getId(), key -> new ArrayList<>())
+                          .addAll(e.getValue());
+                    pairs += e.getValue().size();
+                }
+            }
+
+            System.out.println("🧭 Indice iscritti: " + pairs + " coppie satellite/osservatore candidate su " +
+                             ((long) indexed.size() * entries.size()) + " possibili (" + indexed.size() +
+                             " iscritti, " + entries.size() + " satelliti) [" +
+                             (System.currentTimeMillis() - startTime) + "ms]");
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("❌ Errore indice iscritti: " + e.getCause().getMessage());
+        } catch (org.orekit.errors.OrekitException oe) {
+            System.err.println("⚠️  Indice iscritti non calcolato (Orekit): " + oe.getMessage());
+        }
+
+        return result;
+    }
+
+    /**
+     * Campiona la traccia al suolo di un satellite e raccoglie gli iscritti il cui
+     * cerchio di visibilità viene attraversato
+     */
+    private void scanGroundTrack(CatalogEntry entry, AbsoluteDate[] dates, Transform[] transforms, Frame teme,
+                                 LatLonGrid<Integer> grid, List<TelegramSubscription> indexed,
+                                 double minElevation, Set<Integer> matched) {
+        TLEPropagator propagator;
+        try {
+            propagator = TLEPropagator.selectExtrapolator(
+                TLEConverter.toOrekitTLE(entry.noradCatId(), entry.parameters()));
+        } catch (Exception e) {
+            return;
+        }
+
+        // Tra due campioni il punto sub-satellite si sposta al massimo di questo angolo:
+        // metà di questo margine garantisce che nessun attraversamento cada tra i campioni
+        double halfStepMarginDeg = OrbitMath.maxGroundSpeedDegPerSecond(entry.parameters().getMeanMotion(),
+                                                                        entry.parameters().getEccentricity())
+                                   * TRACK_STEP_SECONDS / 2.0;
+
+        for (int s = 0; s < dates.length; s++) {
+            Vector3D position;
+            try {
+                position = transforms[s].transformPosition(propagator.getPosition(dates[s], teme));
+            } catch (Exception e) {
+                // Satellite rientrato o elementi degradati
+                return;
+            }
+
+            double r = position.getNorm();
+            double latitude = Math.toDegrees(Math.asin(position.getZ() / r));
+            double longitude = Math.toDegrees(Math.atan2(position.getY(), position.getX()));
+            double altitudeKm = r / 1000.0 - OrbitMath.EARTH_MEAN_RADIUS_KM;
+
+            double radius = OrbitMath.visibilityRadiusDeg(altitudeKm, minElevation) + halfStepMarginDeg;
+            if (radius <= halfStepMarginDeg) {
+                continue;
+            }
+
+            grid.query(latitude, longitude, radius, k -> {
+                if (!matched.contains(k)) {
+                    TelegramSubscription sub = indexed.get(k);
+                    if (OrbitMath.angularDistanceDeg(latitude, longitude,
+                                                     sub.getLatitude(), sub.getLongitude()) <= radius) {
+                        matched.add(k);
+                    }
+                }
+            });
+        }
+    }
+}
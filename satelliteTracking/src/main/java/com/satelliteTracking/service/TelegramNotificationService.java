@@ -1,5 +1,6 @@
 package com.satelliteTracking.service;
 
+import com.satelliteTracking.dto.RadioPassDTO;
 import com.satelliteTracking.dto.SatellitePassDTO;
 import com.satelliteTracking.dto.TelegramUpdateDTO;
 import com.satelliteTracking.model.TelegramSubscription;
@@ -11,6 +12,7 @@ import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -28,6 +30,10 @@ public class TelegramNotificationService {
     @Value("${telegram.bot.token:}")
     private String telegramBotToken;
     
+    // Elevazione minima dei passaggi notificati in modalità radio (indicata nell'aiuto)
+    @Value("${notifications.radio.min-elevation:10.0}")
+    private double radioMinElevation;
+    
     private static final String TELEGRAM_API_URL = "https://api.telegram.org";
     
     // Memorizza l'ultimo update_id processato per il polling
@@ -37,15 +43,18 @@ public class TelegramNotificationService {
     private final RestTemplate restTemplate;
     private final GeocodingService geocodingService;
     private final SatellitePassService satellitePassService;
+    private final Clock clock;
     
     public TelegramNotificationService(TelegramSubscriptionRepository subscriptionRepository,
                                       RestTemplate restTemplate,
                                       GeocodingService geocodingService,
-                                      SatellitePassService satellitePassService) {
+                                      SatellitePassService satellitePassService,
+                                      Clock clock) {
         this.subscriptionRepository = subscriptionRepository;
         this.restTemplate = restTemplate;
         this.geocodingService = geocodingService;
         this.satellitePassService = satellitePassService;
+        this.clock = clock;
     }
     
     /**
@@ -60,13 +69,18 @@ public class TelegramNotificationService {
         TelegramSubscription subscription;
         if (existing.isPresent()) {
             subscription = existing.get();
-            subscription.setUpdatedAt(LocalDateTime.now());
+            subscription.setUpdatedAt(LocalDateTime.now(clock));
             subscription.setLatitude(latitude);
             subscription.setLongitude(longitude);
             subscription.setAltitude(altitude);
             subscription.setLocationName(locationName);
         } else {
             subscription = new TelegramSubscription(chatId, userIdentifier, latitude, longitude);
+            // Stessi istanti UTC con cui lo scheduler confronta l'ultima notifica
+            LocalDateTime now = LocalDateTime.now(clock);
+            subscription.setCreatedAt(now);
+            subscription.setUpdatedAt(now);
+            subscription.setLastNotificationSent(now);
             subscription.setAltitude(altitude);
             subscription.setLocationName(locationName);
         }
@@ -78,7 +92,7 @@ public class TelegramNotificationService {
      * Aggiorna le preferenze di notifica per un utente Telegram
      */
     public TelegramSubscription updatePreferences(Long chatId, String observingCondition,
-                                                  Double maxMagnitude, Double minElevation) {
+                                                  Double maxMagnitude, Double minElevation, String passMode) {
         Optional<TelegramSubscription> opt = subscriptionRepository.findByChatId(chatId);
         
         if (opt.isPresent()) {
@@ -86,7 +100,8 @@ public class TelegramNotificationService {
             subscription.setObservingCondition(observingCondition);
             subscription.setMaxMagnitude(maxMagnitude);
             subscription.setMinElevation(minElevation);
-            subscription.setUpdatedAt(LocalDateTime.now());
+            subscription.setPassMode(passMode);
+            subscription.setUpdatedAt(LocalDateTime.now(clock));
             return subscriptionRepository.save(subscription);
         }
         
@@ -127,22 +142,43 @@ public class TelegramNotificationService {
                 locationName
             );
             
-            boolean success = sendTelegramMessage(subscription.getChatId(), message);
-            
-            if (success) {
-                subscription.setLastNotificationSent(LocalDateTime.now());
-                subscriptionRepository.save(subscription);
-                System.out.println("✅ Telegram notifica inviata a " + subscription.getUserIdentifier() + 
-                                 " per " + satelliteName);
-            }
-            
-            return success;
+            return deliver(subscription, satelliteName, message);
+        } catch (Exception e) {
+            System.err.println("❌ Errore invio notifica Telegram: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Invia notifica per un passaggio in modalità radio (senza magnitudine)
+     */
+    public boolean sendNotificationToUser(TelegramSubscription subscription, RadioPassDTO pass) {
+        if (!subscription.getNotificationsEnabled() || telegramBotToken.isEmpty()) {
+            return false;
+        }
+        
+        try {
+            return deliver(subscription, pass.satelliteName(),
+                           buildRadioNotificationMessage(pass, subscription.getLocationName()));
         } catch (Exception e) {
             System.err.println("❌ Errore invio notifica Telegram: " + e.getMessage());
             return false;
         }
     }
     
+    private boolean deliver(TelegramSubscription subscription, String satelliteName, String message) {
+        boolean success = sendTelegramMessage(subscription.getChatId(), message);
+        
+        if (success) {
+            subscription.setLastNotificationSent(LocalDateTime.now(clock));
+            subscriptionRepository.save(subscription);
+            System.out.println("✅ Telegram notifica inviata a " + subscription.getUserIdentifier() + 
+                             " per " + satelliteName);
+        }
+        
+        return success;
+    }
+    
     /**
      * DEPRECATO - Usa sendNotificationToUser con maxElevationAzimuth
      */
@@ -211,6 +247,25 @@ public class TelegramNotificationService {
 ;
     }
     
+    /**
+     * Messaggio per la modalità radio: finestra di contatto (AOS/LOS) e azimuth,
+     * senza magnitudine
+     */
+    private String buildRadioNotificationMessage(RadioPassDTO pass, String locationName) {
+        return "📻 *Satellite Tracker Alert*\n" +
+               "\n" +
+               "*Satellite:* " + pass.satelliteName() + "\n" +
+               "*Location:* " + locationName + "\n" +
+               "*AOS:* " + String.format("%02d:%02d UTC", pass.riseTime().getHour(), pass.riseTime().getMinute()) +
+               " (azimuth " + String.format("%.0f", pass.riseAzimuth()) + "°)\n" +
+               "*LOS:* " + String.format("%02d:%02d UTC", pass.setTime().getHour(), pass.setTime().getMinute()) +
+               " (azimuth " + String.format("%.0f", pass.setAzimuth()) + "°)\n" +
+               "*Max Elevation:* " + String.format("%.1f°", pass.maxElevation()) + " " +
+               azimuthToDirection(pass.maxElevationAzimuth()) + "\n" +
+               "*Duration:* " + (pass.getDurationSeconds() / 60) + " min\n" +
+               "\n📱 [Open Web App](" + "https://satellite-tracker.app" + ")";
+    }
+    
     /**
      * Converte azimuth in direzione cardinale
      */
@@ -272,7 +327,7 @@ public class TelegramNotificationService {
         if (opt.isPresent()) {
             TelegramSubscription subscription = opt.get();
             subscription.setNotificationsEnabled(false);
-            subscription.setUpdatedAt(LocalDateTime.now());
+            subscription.setUpdatedAt(LocalDateTime.now(clock));
             return subscriptionRepository.save(subscription);
         }
         
@@ -288,7 +343,7 @@ public class TelegramNotificationService {
         if (opt.isPresent()) {
             TelegramSubscription subscription = opt.get();
             subscription.setNotificationsEnabled(true);
-            subscription.setUpdatedAt(LocalDateTime.now());
+            subscription.setUpdatedAt(LocalDateTime.now(clock));
             return subscriptionRepository.save(subscription);
         }
         
@@ -422,6 +477,11 @@ public class TelegramNotificationService {
                            "• Impostare magnitudine massima\n" +
                            "• Impostare elevazione minima\n" +
                            "• Scegliere condizioni (night/twilight/any)\n" +
+                           "• Scegliere la modalità (optical/radio)\n" +
+                           "\n" +
+                           "*Modalità:*\n" +
+                           "• optical: passaggi visibili sopra 30°, con condizioni e magnitudine\n" +
+                           "• radio: tutti i passaggi sopra " + radioMinElevation + "°, senza filtri ottici\n" +
                            "\n" +
                            "📚 Documentazione: [GitHub](https://github.com/RootKing01/SatelliteTracking)";
         
@@ -453,6 +513,7 @@ public class TelegramNotificationService {
                            "• Condizione: " + sub.getObservingCondition() + "\n" +
                            "• Magnitudine max: " + sub.getMaxMagnitude() + "\n" +
                            "• Elevazione min: " + sub.getMinElevation() + "°\n" +
+                           "• Modalità: " + sub.getPassMode() + "\n" +
                            "\n" +
                            "*Notifiche:* " + (sub.getNotificationsEnabled() ? "✅ Attive" : "❌ Disattivate");
         
@@ -500,6 +561,8 @@ public class TelegramNotificationService {
                 "🛰️ *Satellite Tracker Bot*\n\n" +
                 "*/start* - Registra la tua posizione\n" +
                 "*/help* - Mostra questo messaggio\n\n" +
+                "📻 In modalità radio ricevi tutti i passaggi sopra " + radioMinElevation +
+                "° (le notifiche ottiche partono da 30°)\n\n" +
                 "Invia il nome di una città per registrare la tua posizione!"
             );
         } else {
@@ -606,7 +669,7 @@ public class TelegramNotificationService {
         for (SatellitePassDTO pass : passes.stream().limit(10).toList()) {
             String direction = azimuthToDirection(pass.maxElevationAzimuth());
             long minutesUntilRise = java.time.temporal.ChronoUnit.MINUTES.between(
-                LocalDateTime.now(), pass.riseTime()
+                LocalDateTime.now(clock), pass.riseTime()
             );
             
             sb.append(count).append(". *").append(pass.satelliteName()).append("*\n");
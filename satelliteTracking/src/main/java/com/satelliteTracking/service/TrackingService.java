@@ -0,0 +1,294 @@
+package com.satelliteTracking.service;
+
+import com.satelliteTracking.dto.SatellitePassDTO;
+import com.satelliteTracking.model.CatalogEntry;
+import com.satelliteTracking.model.ObserverLocation;
+import com.satelliteTracking.util.CubicHermite;
+import com.satelliteTracking.util.ObserverFrame;
+import com.satelliteTracking.util.TLEConverter;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.propagation.analytical.tle.TLEPropagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.IERSConventions;
+import org.orekit.utils.PVCoordinates;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Tabelle di puntamento ad alta frequenza (azimuth, elevazione, distanza, velocità radiale
+ * e Doppler) per le stazioni di terra.
+ *
+ * Il satellite viene propagato con SGP4 a 1 Hz; le frequenze superiori sono ottenute per
+ * interpolazione di Hermite tra i campioni. Le righe vengono scritte direttamente sullo
+ * stream della risposta, senza mai costruire la tabella in memoria.
+ * Il numero di tracciamenti contemporanei è limitato, per non rallentare il calcolo dei passaggi.
+ */
+@Service
+public class TrackingService {
+
+    private final SatelliteCatalogService catalogService;
+    private final SatellitePassService passService;
+    private final Semaphore permits;
+    private final Clock clock;
+
+    private static final double SPEED_OF_LIGHT_M_S = 299792458.0;
+
+    // Margine prima del sorgere e dopo il tramonto (i passaggi sono campionati a 60 s)
+    private static final long PASS_MARGIN_MS = 60000;
+
+    private static final long MS_PER_DAY = 86400000L;
+
+    // Potenze di 10 per la scrittura dei numeri a virgola fissa
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L,
+        10000000000L, 100000000000L, 1000000000000L
+    };
+
+    // Una riga NDJSON completa resta ben sotto questa lunghezza
+    private static final int MAX_ROW_LENGTH = 512;
+
+    /**
+     * Finestra temporale di un tracciamento (epoch in millisecondi UTC)
+     */
+    public record TrackWindow(long startEpochMs, long endEpochMs) {
+        public int durationSeconds() {
+            return (int) ((endEpochMs - startEpochMs) / 1000);
+        }
+    }
+
+    public TrackingService(SatelliteCatalogService catalogService,
+                           SatellitePassService passService,
+                           @Value("${tracking.max-concurrent:4}") int maxConcurrentTracks,
+                           Clock clock) {
+        this.catalogService = catalogService;
+        this.passService = passService;
+        this.permits = new Semaphore(maxConcurrentTracks);
+        this.clock = clock;
+    }
+
+    public CatalogEntry findSatellite(Long satelliteId) {
+        return catalogService.getSnapshot().byId().get(satelliteId);
+    }
+
+    /**
+     * Prova ad ottenere uno slot di tracciamento, false se sono tutti occupati
+     */
+    public boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int getAvailableSlots() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Finestra del prossimo passaggio (entro 24 ore) sopra l'osservatore, con un minuto
+     * di margine prima del sorgere e dopo il tramonto. Null se non ci sono passaggi.
+     */
+    public TrackWindow findNextPassWindow(CatalogEntry entry, ObserverLocation location) {
+        List<SatellitePassDTO> passes = passService.calculatePasses(entry, 24, location);
+        if (passes.isEmpty()) {
+            return null;
+        }
+
+        SatellitePassDTO next = passes.get(0);
+        long rise = next.riseTime().toInstant(ZoneOffset.UTC).toEpochMilli() - PASS_MARGIN_MS;
+        long set = next.setTime().toInstant(ZoneOffset.UTC).toEpochMilli() + PASS_MARGIN_MS;
+        return new TrackWindow(Math.max(clock.millis(), rise), set);
+    }
+
+    /**
+     * Scrive la tabella di puntamento sullo stream
+     *
+     * @param out stream della risposta
+     * @param entry satellite
+     * @param location osservatore
+     * @param window finestra temporale
+     * @param rateHz campioni al secondo
+     * @param frequencyHz frequenza di downlink per il Doppler (null = solo fattore Doppler)
+     * @param ndjson true per NDJSON, false per CSV
+     */
+    public void writeTrack(OutputStream out, CatalogEntry entry, ObserverLocation location, TrackWindow window,
+                           int rateHz, Double frequencyHz, boolean ndjson) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 65536);
+
+        Frame itrf = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+        TLEPropagator propagator = TLEPropagator.selectExtrapolator(
+            TLEConverter.toOrekitTLE(entry.noradCatId(), entry.parameters()));
+        ObserverFrame observer = ObserverFrame.of(location);
+        AbsoluteDate start = new AbsoluteDate(new Date(window.startEpochMs()), TimeScalesFactory.getUTC());
+
+        // Stati ITRF [x, y, z, vx, vy, vz] agli estremi del secondo corrente e stato interpolato
+        double[] current = new double[6];
+        double[] next = new double[6];
+        double[] state = new double[6];
+        double[] look = new double[3];
+        StringBuilder row = new StringBuilder(MAX_ROW_LENGTH);
+        char[] chars = new char[MAX_ROW_LENGTH];
+
+        if (!ndjson) {
+            writer.write("time,azimuth_deg,elevation_deg,range_km,range_rate_km_s,doppler_factor");
+            writer.write(frequencyHz != null ? ",doppler_hz\n" : "\n");
+        }
+
+        int seconds = window.durationSeconds();
+        sample(propagator, start, itrf, current);
+
+        for (int second = 0; second < seconds; second++) {
+            sample(propagator, start.shiftedBy(second + 1.0), itrf, next);
+
+            for (int k = 0; k < rateHz; k++) {
+                CubicHermite.interpolate(current, next, 1.0, (double) k / rateHz, state);
+                long epochMs = window.startEpochMs() + second * 1000L + (k * 1000L) / rateHz;
+                writeRow(writer, row, chars, epochMs, state, observer, look, frequencyHz, ndjson);
+            }
+
+            double[] tmp = current;
+            current = next;
+            next = tmp;
+        }
+        writeRow(writer, row, chars, window.startEpochMs() + seconds * 1000L, current, observer, look, frequencyHz, ndjson);
+
+        writer.flush();
+    }
+
+    private void sample(TLEPropagator propagator, AbsoluteDate date, Frame itrf, double[] out) {
+        PVCoordinates pv = propagator.getPVCoordinates(date, itrf);
+        out[0] = pv.getPosition().getX();
+        out[1] = pv.getPosition().getY();
+        out[2] = pv.getPosition().getZ();
+        out[3] = pv.getVelocity().getX();
+        out[4] = pv.getVelocity().getY();
+        out[5] = pv.getVelocity().getZ();
+    }
+
+    /**
+     * Scrive una riga della tabella. Timestamp e numeri sono scritti carattere per carattere
+     * nel buffer riusato, senza creare stringhe intermedie per ogni campione
+     */
+    private void writeRow(Writer writer, StringBuilder row, char[] chars, long epochMs, double[] state,
+                          ObserverFrame observer, double[] look, Double frequencyHz, boolean ndjson) throws IOException {
+        observer.lookAngles(state[0], state[1], state[2], look);
+        double rangeRate = observer.rangeRate(state[0], state[1], state[2], state[3], state[4], state[5]);
+
+        // Fattore Doppler: frequenza ricevuta = frequenza trasmessa × (1 − v_r / c)
+        double dopplerFactor = 1.0 - rangeRate / SPEED_OF_LIGHT_M_S;
+
+        row.setLength(0);
+        if (ndjson) {
+            row.append("{\"time\":\"");
+            appendTimestamp(row, epochMs);
+            row.append("\",\"azimuth\":");
+            appendFixed(row, look[0], 3);
+            row.append(",\"elevation\":");
+            appendFixed(row, look[1], 3);
+            row.append(",\"rangeKm\":");
+            appendFixed(row, look[2] / 1000.0, 3);
+            row.append(",\"rangeRateKmS\":");
+            appendFixed(row, rangeRate / 1000.0, 5);
+            row.append(",\"dopplerFactor\":");
+            appendFixed(row, dopplerFactor, 12);
+            if (frequencyHz != null) {
+                row.append(",\"dopplerHz\":");
+                appendFixed(row, frequencyHz * (dopplerFactor - 1.0), 1);
+            }
+            row.append("}\n");
+        } else {
+            appendTimestamp(row, epochMs);
+            row.append(',');
+            appendFixed(row, look[0], 3);
+            row.append(',');
+            appendFixed(row, look[1], 3);
+            row.append(',');
+            appendFixed(row, look[2] / 1000.0, 3);
+            row.append(',');
+            appendFixed(row, rangeRate / 1000.0, 5);
+            row.append(',');
+            appendFixed(row, dopplerFactor, 12);
+            if (frequencyHz != null) {
+                row.append(',');
+                appendFixed(row, frequencyHz * (dopplerFactor - 1.0), 1);
+            }
+            row.append('\n');
+        }
+
+        // Writer.append(CharSequence) convertirebbe la riga in String
+        int length = row.length();
+        row.getChars(0, length, chars, 0);
+        writer.write(chars, 0, length);
+    }
+
+    /**
+     * Istante UTC in formato ISO-8601 con millisecondi (es. 2024-02-22T10:30:45.120Z),
+     * calcolato dai campi interi senza passare da Instant
+     */
+    static void appendTimestamp(StringBuilder row, long epochMs) {
+        long days = Math.floorDiv(epochMs, MS_PER_DAY);
+        int msOfDay = (int) Math.floorMod(epochMs, MS_PER_DAY);
+
+        // Conversione giorni dal 1970-01-01 -> data civile (calendario gregoriano proleptico)
+        long z = days + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        row.append(year).append('-');
+        appendPadded(row, month, 2);
+        row.append('-');
+        appendPadded(row, day, 2);
+        row.append('T');
+        appendPadded(row, msOfDay / 3600000, 2);
+        row.append(':');
+        appendPadded(row, msOfDay / 60000 % 60, 2);
+        row.append(':');
+        appendPadded(row, msOfDay / 1000 % 60, 2);
+        row.append('.');
+        appendPadded(row, msOfDay % 1000, 3);
+        row.append('Z');
+    }
+
+    /**
+     * Numero a virgola fissa con il numero di decimali indicato (arrotondamento half-up)
+     */
+    static void appendFixed(StringBuilder row, double value, int decimals) {
+        long scaled = Math.round(Math.abs(value) * POWERS_OF_TEN[decimals]);
+        if (value < 0 && scaled != 0) {
+            row.append('-');
+        }
+        row.append(scaled / POWERS_OF_TEN[decimals]);
+        if (decimals > 0) {
+            row.append('.');
+            appendPadded(row, scaled % POWERS_OF_TEN[decimals], decimals);
+        }
+    }
+
+    private static void appendPadded(StringBuilder row, long value, int digits) {
+        for (int d = digits - 1; d > 0 && value < POWERS_OF_TEN[d]; d--) {
+            row.append('0');
+        }
+        row.append(value);
+    }
+}
@@ -0,0 +1,529 @@
+package com.satelliteTracking.service;
+
+import com.satelliteTracking.config.ComputePool;
+import com.satelliteTracking.dto.CenterLinePointDTO;
+import com.satelliteTracking.dto.TransitDTO;
+import com.satelliteTracking.dto.TransitEventDTO;
+import com.satelliteTracking.model.CatalogEntry;
+import com.satelliteTracking.model.CatalogSnapshot;
+import com.satelliteTracking.util.ObserverFrame;
+import com.satelliteTracking.util.OrbitMath;
+import com.satelliteTracking.util.SampledEphemeris;
+import com.satelliteTracking.util.SamplingGrid;
+import com.satelliteTracking.util.TLEConverter;
+import org.hipparchus.geometry.euclidean.threed.Line;
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.orekit.bodies.CelestialBody;
+import org.orekit.bodies.CelestialBodyFactory;
+import org.orekit.bodies.GeodeticPoint;
+import org.orekit.bodies.OneAxisEllipsoid;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.propagation.analytical.tle.TLEPropagator;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.IERSConventions;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Previsione dei transiti di satelliti luminosi (ISS, Tiangong) davanti al Sole e alla Luna.
+ *
+ * Il satellite viene propagato una volta sola su una griglia a passo fisso condivisa da
+ * tutti gli osservatori. Per ogni intervallo della griglia un limite inferiore della
+ * separazione angolare satellite-astro (dalle separazioni agli estremi e dallo spostamento
+ * del satellite nel cielo) scarta quasi tutti gli intervalli; quelli rimasti sono raffinati
+ * con la propagazione esatta (sezione aurea sul minimo, bisezione su ingresso e uscita dal
+ * disco), con precisione ben sotto il secondo.
+ */
+@Service
+public class TransitService {
+
+    public static final String SUN = "sun";
+    public static final String MOON = "moon";
+
+    public static final int MAX_DAYS = 7;
+    public static final int MAX_AREA_POINTS = 20000;
+
+    // Passo della ricerca grossolana
+    private static final double COARSE_STEP_SECONDS = 30.0;
+
+    // Raggi medi del Sole e della Luna (km)
+    private static final double SUN_RADIUS_KM = 695700.0;
+    private static final double MOON_RADIUS_KM = 1737.4;
+
+    // Raggio apparente massimo dei due dischi (gradi), con margine
+    private static final double MAX_BODY_RADIUS_DEG = 0.3;
+
+    // Il cammino del satellite in cielo tra due campioni è un po' più lungo della corda
+    private static final double PATH_LENGTH_FACTOR = 1.2;
+
+    // Iterazioni della sezione aurea (30 s × 0.618^32 ≈ 5 µs) e della bisezione
+    private static final int GOLDEN_ITERATIONS = 32;
+    private static final int BISECTION_ITERATIONS = 30;
+
+    // Transiti visti da punti diversi entro questo intervallo sono lo stesso evento
+    private static final long EVENT_GROUPING_SECONDS = 300;
+
+    private static final double GOLDEN_RATIO = (Math.sqrt(5.0) - 1.0) / 2.0;
+
+    private final SatelliteCatalogService catalogService;
+    private final ComputePool computePool;
+    private final Clock clock;
+
+    /**
+     * Dati condivisi da tutti gli osservatori di una ricerca
+     *
+     * @param relevant campioni in cui il satellite può essere sopra l'orizzonte di almeno un punto dell'area
+     */
+    private record SharedSamples(CatalogEntry entry, SamplingGrid grid, SampledEphemeris ephemeris,
+                                 double[] moonPositions, boolean[] relevant) {}
+
+    /**
+     * Oggetti Orekit usati nella fase di raffinamento (il propagatore non è thread-safe)
+     */
+    private record Refiner(TLEPropagator propagator, Frame itrf, CelestialBody sun, CelestialBody moon) {}
+
+    public TransitService(SatelliteCatalogService catalogService, ComputePool computePool, Clock clock) {
+        this.catalogService = catalogService;
+        this.computePool = computePool;
+        this.clock = clock;
+    }
+
+    /**
+     * Cerca un satellite nel catalogo per ID o NORAD ID
+     */
+    public CatalogEntry findSatellite(Long satelliteId, Long noradCatId) {
+        CatalogSnapshot snapshot = catalogService.getSnapshot();
+        if (satelliteId != null) {
+            return snapshot.byId().get(satelliteId);
+        }
+        if (noradCatId != null) {
+            for (CatalogEntry entry : snapshot.entries()) {
+                if (noradCatId.equals(entry.noradCatId())) {
+                    return entry;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Transiti (e passaggi entro nearMissDeg dal bordo del disco) visti da un osservatore
+     *
+     * @param bodies astri da considerare ("sun", "moon")
+     */
+    public List<TransitDTO> findTransits(CatalogEntry entry, double latitude, double longitude, double altitude,
+                                         int days, List<String> bodies, double nearMissDeg) {
+        long startTime = System.currentTimeMillis();
+        SharedSamples shared = prepare(entry, latitude, longitude, 0.0, days);
+        List<TransitDTO> transits = scanObserver(shared, newRefiner(entry), latitude, longitude, altitude,
+                                                 bodies, nearMissDeg);
+
+        System.out.println("🌞 Transiti di " + entry.objectName() + " da (" + latitude + ", " + longitude + "): " +
+                         transits.size() + " in " + days + " giorni [" + (System.currentTimeMillis() - startTime) + "ms]");
+        return transits;
+    }
+
+    /**
+     * Ricerca dei transiti su una griglia regolare di punti che copre un'area.
+     * I punti sono divisi tra i thread del pool di calcolo; i transiti visti da più
+     * punti sono raggruppati in eventi.
+     */
+    public List<TransitEventDTO> findTransitsInArea(CatalogEntry entry, double minLatitude, double maxLatitude,
+                                                    double minLongitude, double maxLongitude, double spacingKm,
+                                                    int days, List<String> bodies) {
+        long startTime = System.currentTimeMillis();
+        List<double[]> points = areaGrid(minLatitude, maxLatitude, minLongitude, maxLongitude, spacingKm);
+
+        double centerLatitude = (minLatitude + maxLatitude) / 2.0;
+        double centerLongitude = (minLongitude + maxLongitude) / 2.0;
+        double areaRadiusDeg = OrbitMath.angularDistanceDeg(centerLatitude, centerLongitude, maxLatitude, maxLongitude);
+        SharedSamples shared = prepare(entry, centerLatitude, centerLongitude, areaRadiusDeg, days);
+
+        int chunkSize = Math.max(1, (points.size() + computePool.getParallelism() * 4 - 1) /
+                                    (computePool.getParallelism() * 4));
+        List<Callable<List<TransitDTO>>> tasks = new ArrayList<>();
+        for (int from = 0; from < points.size(); from += chunkSize) {
+            List<double[]> chunk = points.subList(from, Math.min(points.size(), from + chunkSize));
+            tasks.add(() -> {
+                Refiner refiner = newRefiner(entry);
+                List<TransitDTO> found = new ArrayList<>();
+                for (double[] point : chunk) {
+                    found.addAll(scanObserver(shared, refiner, point[0], point[1], 0.0, bodies, 0.0));
+                }
+                return found;
+            });
+        }
+
+        List<TransitDTO> transits = new ArrayList<>();
+        for (List<TransitDTO> found : runAll(tasks)) {
+            transits.addAll(found);
+        }
+
+        List<TransitEventDTO> events = groupEvents(transits);
+        System.out.println("🌞 Ricerca transiti di " + entry.objectName() + " su " + points.size() + " punti: " +
+                         transits.size() + " transiti in " + events.size() + " eventi [" +
+                         (System.currentTimeMillis() - startTime) + "ms]");
+        return events;
+    }
+
+    /**
+     * Numero di punti della griglia di un'area (per validare la richiesta prima di calcolare)
+     */
+    public int countAreaPoints(double minLatitude, double maxLatitude, double minLongitude, double maxLongitude,
+                               double spacingKm) {
+        return areaGrid(minLatitude, maxLatitude, minLongitude, maxLongitude, spacingKm).size();
+    }
+
+    /**
+     * Linea centrale di un transito: per ogni istante il punto al suolo allineato con
+     * satellite e centro dell'astro, cioè l'intersezione con l'ellissoide WGS84 della retta
+     * che parte dall'astro e passa per il satellite
+     */
+    public List<CenterLinePointDTO> computeCenterLine(CatalogEntry entry, String body, Instant time,
+                                                      double spanSeconds, double stepSeconds) {
+        Refiner refiner = newRefiner(entry);
+        CelestialBody celestialBody = SUN.equals(body) ? refiner.sun() : refiner.moon();
+        double bodyRadiusKm = SUN.equals(body) ? SUN_RADIUS_KM : MOON_RADIUS_KM;
+        OneAxisEllipsoid earth = new OneAxisEllipsoid(OrbitMath.WGS84_A, OrbitMath.WGS84_F, refiner.itrf());
+        AbsoluteDate center = new AbsoluteDate(Date.from(time), TimeScalesFactory.getUTC());
+        double[] look = new double[3];
+
+        List<CenterLinePointDTO> points = new ArrayList<>();
+        int steps = (int) Math.floor(spanSeconds / stepSeconds);
+        for (int i = -steps; i <= steps; i++) {
+            double offset = i * stepSeconds;
+            AbsoluteDate date = center.shiftedBy(offset);
+            try {
+                Vector3D satellite = refiner.propagator().getPVCoordinates(date, refiner.itrf()).getPosition();
+                Vector3D bodyPosition = celestialBody.getPVCoordinates(date, refiner.itrf()).getPosition();
+                Vector3D direction = satellite.subtract(bodyPosition).normalize();
+
+                GeodeticPoint ground = earth.getIntersectionPoint(
+                    new Line(satellite, satellite.add(direction), 1.0e-10), satellite, refiner.itrf(), date);
+                if (ground == null) {
+                    // La retta non tocca la Terra: da nessun punto il satellite è davanti all'astro
+                    continue;
+                }
+
+                double latitude = Math.toDegrees(ground.getLatitude());
+                double longitude = Math.toDegrees(ground.getLongitude());
+                ObserverFrame observer = new ObserverFrame(latitude, longitude, ground.getAltitude());
+                observer.lookAngles(satellite.getX(), satellite.getY(), satellite.getZ(), look);
+                double rangeKm = look[2] / 1000.0;
+
+                // Fascia di visibilità: distanza dal satellite × diametro apparente del disco
+                double bodyDistanceKm = bodyPosition.subtract(satellite).getNorm() / 1000.0 + rangeKm;
+                double widthKm = 2.0 * rangeKm * Math.tan(Math.asin(bodyRadiusKm / bodyDistanceKm));
+
+                long epochMs = time.toEpochMilli() + Math.round(offset * 1000.0);
+                points.add(new CenterLinePointDTO(
+                    toLocalDateTime(epochMs),
+                    Math.round(latitude * 100000.0) / 100000.0,
+                    Math.round(longitude * 100000.0) / 100000.0,
+                    Math.round(widthKm * 100.0) / 100.0,
+                    Math.round(look[1] * 100.0) / 100.0
+                ));
+            } catch (Exception e) {
+                // Propagazione fallita per questo istante
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Propaga il satellite sulla griglia grossolana e marca i campioni in cui può essere
+     * sopra l'orizzonte di un punto entro areaRadiusDeg dal centro
+     */
+    private SharedSamples prepare(CatalogEntry entry, double centerLatitude, double centerLongitude,
+                                  double areaRadiusDeg, int days) {
+        SamplingGrid grid = SamplingGrid.forWindow(LocalDateTime.now(clock), days * 24, COARSE_STEP_SECONDS);
+        TLEPropagator propagator = TLEPropagator.selectExtrapolator(
+            TLEConverter.toOrekitTLE(entry.noradCatId(), entry.parameters()));
+        SampledEphemeris ephemeris = SampledEphemeris.propagate(propagator, grid);
+
+        Frame itrf = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+        CelestialBody moon = CelestialBodyFactory.getMoon();
+        double[] positions = ephemeris.getPositions();
+        double[] moonPositions = new double[grid.getCount() * 3];
+        boolean[] relevant = new boolean[grid.getCount()];
+
+        for (int s = 0; s < grid.getCount(); s++) {
+            Vector3D moonPosition = moon.getPVCoordinates(grid.dateAt(s), itrf).getPosition();
+            moonPositions[3 * s] = moonPosition.getX();
+            moonPositions[3 * s + 1] = moonPosition.getY();
+            moonPositions[3 * s + 2] = moonPosition.getZ();
+
+            if (s < ephemeris.getValidSamples()) {
+                double x = positions[3 * s];
+                double y = positions[3 * s + 1];
+                double z = positions[3 * s + 2];
+                double r = Math.sqrt(x * x + y * y + z * z);
+                double latitude = Math.toDegrees(Math.asin(z / r));
+                double longitude = Math.toDegrees(Math.atan2(y, x));
+                double radius = OrbitMath.visibilityRadiusDeg(r / 1000.0 - OrbitMath.EARTH_MEAN_RADIUS_KM, 0.0);
+                relevant[s] = OrbitMath.angularDistanceDeg(latitude, longitude, centerLatitude, centerLongitude) <=
+                              radius + areaRadiusDeg;
+            }
+        }
+
+        return new SharedSamples(entry, grid, ephemeris, moonPositions, relevant);
+    }
+
+    private Refiner newRefiner(CatalogEntry entry) {
+        return new Refiner(
+            TLEPropagator.selectExtrapolator(TLEConverter.toOrekitTLE(entry.noradCatId(), entry.parameters())),
+            FramesFactory.getITRF(IERSConventions.IERS_2010, true),
+            CelestialBodyFactory.getSun(),
+            CelestialBodyFactory.getMoon()
+        );
+    }
+
+    /**
+     * Ricerca grossolana e raffinamento per un singolo osservatore
+     */
+    private List<TransitDTO> scanObserver(SharedSamples shared, Refiner refiner,
+                                          double latitude, double longitude, double altitude,
+                                          List<String> bodies, double nearMissDeg) {
+        ObserverFrame observer = new ObserverFrame(latitude, longitude, altitude);
+        double[] p = shared.ephemeris().getPositions();
+        double[] sun = shared.grid().getSunPositions();
+        double[] moon = shared.moonPositions();
+        double limit = MAX_BODY_RADIUS_DEG + nearMissDeg;
+        int valid = shared.ephemeris().getValidSamples();
+
+        List<TransitDTO> transits = new ArrayList<>();
+        for (int s = 0; s < valid - 1; s++) {
+            if (!shared.relevant()[s] && !shared.relevant()[s + 1]) {
+                continue;
+            }
+            int i0 = 3 * s;
+            int i1 = 3 * (s + 1);
+            if (observer.elevation(p[i0], p[i0 + 1], p[i0 + 2]) <= 0 &&
+                observer.elevation(p[i1], p[i1 + 1], p[i1 + 2]) <= 0) {
+                continue;
+            }
+            double travel = observer.separation(p[i0], p[i0 + 1], p[i0 + 2], p[i1], p[i1 + 1], p[i1 + 2]);
+
+            for (String body : bodies) {
+                double[] b = SUN.equals(body) ? sun : moon;
+                if (observer.elevation(b[i0], b[i0 + 1], b[i0 + 2]) <= -1.0 &&
+                    observer.elevation(b[i1], b[i1 + 1], b[i1 + 2]) <= -1.0) {
+                    continue;
+                }
+
+                // Su tutto l'intervallo la separazione non scende sotto (sep0 + sep1 - cammino) / 2
+                double separation0 = observer.separation(p[i0], p[i0 + 1], p[i0 + 2], b[i0], b[i0 + 1], b[i0 + 2]);
+                double separation1 = observer.separation(p[i1], p[i1 + 1], p[i1 + 2], b[i1], b[i1 + 1], b[i1 + 2]);
+                if ((separation0 + separation1 - PATH_LENGTH_FACTOR * travel) / 2.0 > limit) {
+                    continue;
+                }
+
+                TransitDTO transit = refine(shared, refiner, observer, altitude, body, s, nearMissDeg);
+                if (transit != null) {
+                    transits.add(transit);
+                }
+            }
+        }
+        return transits;
+    }
+
+    /**
+     * Raffina il minimo di separazione nell'intervallo [s, s + 1] della griglia
+     *
+     * @return il transito, null se il minimo cade su un estremo (appartiene all'intervallo
+     *         vicino) o se il satellite resta lontano dal disco
+     */
+    private TransitDTO refine(SharedSamples shared, Refiner refiner, ObserverFrame observer, double altitude,
+                              String body, int s, double nearMissDeg) {
+        CelestialBody celestialBody = SUN.equals(body) ? refiner.sun() : refiner.moon();
+        double bodyRadiusKm = SUN.equals(body) ? SUN_RADIUS_KM : MOON_RADIUS_KM;
+        AbsoluteDate gridStart = shared.grid().dateAt(0);
+        double step = shared.grid().getStepSeconds();
+
+        // Sezione aurea sul minimo della separazione
+        double low = s * step;
+        double high = (s + 1) * step;
+        double a = high - GOLDEN_RATIO * (high - low);
+        double b = low + GOLDEN_RATIO * (high - low);
+        double fa = separationAt(refiner, celestialBody, observer, gridStart.shiftedBy(a));
+        double fb = separationAt(refiner, celestialBody, observer, gridStart.shiftedBy(b));
+        for (int i = 0; i < GOLDEN_ITERATIONS; i++) {
+            if (fa < fb) {
+                high = b;
+                b = a;
+                fb = fa;
+                a = high - GOLDEN_RATIO * (high - low);
+                fa = separationAt(refiner, celestialBody, observer, gridStart.shiftedBy(a));
+            } else {
+                low = a;
+                a = b;
+                fa = fb;
+                b = low + GOLDEN_RATIO * (high - low);
+                fb = separationAt(refiner, celestialBody, observer, gridStart.shiftedBy(b));
+            }
+        }
+        double tca = (low + high) / 2.0;
+        if (tca - s * step < 1.0e-3 || (s + 1) * step - tca < 1.0e-3) {
+            return null;
+        }
+
+        AbsoluteDate date = gridStart.shiftedBy(tca);
+        Vector3D satellite = refiner.propagator().getPVCoordinates(date, refiner.itrf()).getPosition();
+        Vector3D bodyPosition = celestialBody.getPVCoordinates(date, refiner.itrf()).getPosition();
+        double[] look = new double[3];
+        observer.lookAngles(bodyPosition.getX(), bodyPosition.getY(), bodyPosition.getZ(), look);
+        double bodyElevation = look[1];
+        double bodyRadiusDeg = Math.toDegrees(Math.asin(bodyRadiusKm * 1000.0 / look[2]));
+        observer.lookAngles(satellite.getX(), satellite.getY(), satellite.getZ(), look);
+
+        double minSeparation = observer.separation(satellite.getX(), satellite.getY(), satellite.getZ(),
+                                                   bodyPosition.getX(), bodyPosition.getY(), bodyPosition.getZ());
+        if (look[1] <= 0 || bodyElevation <= 0 || minSeparation > bodyRadiusDeg + nearMissDeg) {
+            return null;
+        }
+
+        // Ingresso e uscita dal disco per bisezione (il transito dura pochi secondi al massimo)
+        double duration = 0.0;
+        boolean fullTransit = minSeparation < bodyRadiusDeg;
+        if (fullTransit) {
+            double entry = crossing(refiner, celestialBody, observer, gridStart, tca - step, tca, bodyRadiusDeg);
+            double exit = crossing(refiner, celestialBody, observer, gridStart, tca + step, tca, bodyRadiusDeg);
+            duration = exit - entry;
+        }
+
+        long epochMs = shared.grid().getStartEpochMs() + Math.round(tca * 1000.0);
+        return new TransitDTO(
+            shared.entry().satelliteId(),
+            shared.entry().objectName(),
+            body,
+            observer.getLatitude(),
+            observer.getLongitude(),
+            toLocalDateTime(epochMs),
+            Math.round(duration * 100.0) / 100.0,
+            Math.round(minSeparation * 10000.0) / 10000.0,
+            Math.round(bodyRadiusDeg * 10000.0) / 10000.0,
+            fullTransit,
+            Math.round(look[0] * 100.0) / 100.0,
+            Math.round(look[1] * 100.0) / 100.0,
+            Math.round(look[2] / 100.0) / 10.0
+        );
+    }
+
+    /**
+     * Istante (secondi dall'inizio della griglia) in cui la separazione vale radiusDeg,
+     * tra outside (fuori dal disco) e inside (dentro)
+     */
+    private double crossing(Refiner refiner, CelestialBody body, ObserverFrame observer, AbsoluteDate gridStart,
+                            double outside, double inside, double radiusDeg) {
+        for (int i = 0; i < BISECTION_ITERATIONS; i++) {
+            double mid = (outside + inside) / 2.0;
+            if (separationAt(refiner, body, observer, gridStart.shiftedBy(mid)) < radiusDeg) {
+                inside = mid;
+            } else {
+                outside = mid;
+            }
+        }
+        return (outside + inside) / 2.0;
+    }
+
+    private double separationAt(Refiner refiner, CelestialBody body, ObserverFrame observer, AbsoluteDate date) {
+        Vector3D satellite = refiner.propagator().getPVCoordinates(date, refiner.itrf()).getPosition();
+        Vector3D bodyPosition = body.getPVCoordinates(date, refiner.itrf()).getPosition();
+        return observer.separation(satellite.getX(), satellite.getY(), satellite.getZ(),
+                                   bodyPosition.getX(), bodyPosition.getY(), bodyPosition.getZ());
+    }
+
+    /**
+     * Griglia di punti con spaziatura circa costante in km
+     */
+    private List<double[]> areaGrid(double minLatitude, double maxLatitude, double minLongitude,
+                                    double maxLongitude, double spacingKm) {
+        double kmPerDegree = Math.toRadians(OrbitMath.EARTH_MEAN_RADIUS_KM);
+        double latitudeStep = spacingKm / kmPerDegree;
+        List<double[]> points = new ArrayList<>();
+
+        for (double latitude = minLatitude; latitude <= maxLatitude; latitude += latitudeStep) {
+            double longitudeStep = spacingKm / (kmPerDegree * Math.max(0.01, Math.cos(Math.toRadians(latitude))));
+            for (double longitude = minLongitude; longitude <= maxLongitude; longitude += longitudeStep) {
+                points.add(new double[] {latitude, longitude});
+                if (points.size() > MAX_AREA_POINTS) {
+                    return points;
+                }
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Raggruppa i transiti dello stesso astro vicini nel tempo, tenendo il punto con separazione minima
+     */
+    private List<TransitEventDTO> groupEvents(List<TransitDTO> transits) {
+        transits.sort((t1, t2) -> t1.time().compareTo(t2.time()));
+        List<TransitEventDTO> events = new ArrayList<>();
+
+        for (String body : List.of(SUN, MOON)) {
+            TransitDTO first = null;
+            TransitDTO best = null;
+            int count = 0;
+            for (TransitDTO transit : transits) {
+                if (!transit.body().equals(body)) {
+                    continue;
+                }
+                if (first != null && transit.time().isAfter(first.time().plusSeconds(EVENT_GROUPING_SECONDS))) {
+                    events.add(new TransitEventDTO(body, best.time(), count, best));
+                    first = null;
+                }
+                if (first == null) {
+                    first = transit;
+                    best = transit;
+                    count = 0;
+                }
+                if (transit.minSeparationDeg() < best.minSeparationDeg()) {
+                    best = transit;
+                }
+                count++;
+            }
+            if (first != null) {
+                events.add(new TransitEventDTO(body, best.time(), count, best));
+            }
+        }
+
+        events.sort((e1, e2) -> e1.time().compareTo(e2.time()));
+        return events;
+    }
+
+    /**
+     * Esegue i task sul pool di calcolo e attende tutti i risultati
+     */
+    private <T> List<T> runAll(List<Callable<T>> tasks) {
+        try {
+            List<T> results = new ArrayList<>(tasks.size());
+            for (Future<T> future : computePool.getExecutor().invokeAll(tasks)) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ricerca transiti interrotta", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Errore nella ricerca transiti: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private LocalDateTime toLocalDateTime(long epochMs) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMs, 1000L),
+                                           (int) Math.floorMod(epochMs, 1000L) * 1000000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,48 @@
+package com.satelliteTracking.util;
+
+/**
+ * Interpolazione di Hermite cubica di posizione e velocità tra due campioni.
+ *
+ * Usa posizione e velocità agli estremi dell'intervallo: con campioni SGP4 a 1 Hz
+ * l'errore è trascurabile (millimetri) e si evita di propagare ad ogni sotto-campione.
+ * Lavora su array [x, y, z, vx, vy, vz] senza allocazioni.
+ */
+public final class CubicHermite {
+
+    private CubicHermite() {
+    }
+
+    /**
+     * Interpola lo stato all'istante t (secondi dall'inizio dell'intervallo)
+     *
+     * @param start stato all'inizio dell'intervallo [x, y, z, vx, vy, vz]
+     * @param end stato alla fine dell'intervallo
+     * @param h durata dell'intervallo in secondi
+     * @param t istante in [0, h]
+     * @param out stato interpolato
+     */
+    public static void interpolate(double[] start, double[] end, double h, double t, double[] out) {
+        double s = t / h;
+        double s2 = s * s;
+        double s3 = s2 * s;
+
+        double h00 = 2 * s3 - 3 * s2 + 1;
+        double h10 = s3 - 2 * s2 + s;
+        double h01 = -2 * s3 + 3 * s2;
+        double h11 = s3 - s2;
+
+        double d00 = 6 * s2 - 6 * s;
+        double d10 = 3 * s2 - 4 * s + 1;
+        double d01 = -6 * s2 + 6 * s;
+        double d11 = 3 * s2 - 2 * s;
+
+        for (int i = 0; i < 3; i++) {
+            double p0 = start[i];
+            double v0 = start[i + 3];
+            double p1 = end[i];
+            double v1 = end[i + 3];
+            out[i] = h00 * p0 + h10 * h * v0 + h01 * p1 + h11 * h * v1;
+            out[i + 3] = (d00 * p0 + d01 * p1) / h + d10 * v0 + d11 * v1;
+        }
+    }
+}
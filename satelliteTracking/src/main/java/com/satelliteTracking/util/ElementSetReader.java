@@ -0,0 +1,703 @@
+package com.satelliteTracking.util;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.satelliteTracking.dto.CelestrakSatelliteDTO;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Lettura in streaming di file di set di elementi: 3LE/TLE, OMM JSON, OMM XML e OMM CSV.
+ *
+ * I formati testuali (TLE e CSV) sono letti a livello di byte, una riga alla volta in un
+ * buffer riusato, con i numeri decodificati direttamente dai byte: niente regex, split o
+ * String.format per riga. JSON e XML usano i parser a token di Jackson e StAX. In tutti i
+ * casi il file non viene mai caricato per intero in memoria.
+ *
+ * Le epoche sono restituite nel formato OMM di Celestrak (2024-02-22T10:30:45.123456).
+ */
+public final class ElementSetReader {
+
+    /**
+     * Formato del file
+     */
+    public enum Format {
+        TLE, OMM_JSON, OMM_XML, OMM_CSV;
+
+        /**
+         * Formato da parametro (tle, 3le, json, xml, csv)
+         *
+         * @return formato, null se sconosciuto
+         */
+        public static Format fromString(String value) {
+            if (value == null) {
+                return null;
+            }
+            return switch (value.trim().toLowerCase(Locale.ROOT)) {
+                case "tle", "3le", "txt" -> TLE;
+                case "json", "omm_json" -> OMM_JSON;
+                case "xml", "omm_xml" -> OMM_XML;
+                case "csv", "omm_csv" -> OMM_CSV;
+                default -> null;
+            };
+        }
+
+        /**
+         * Formato dall'estensione del file
+         *
+         * @return formato, null se l'estensione è sconosciuta
+         */
+        public static Format fromFileName(String fileName) {
+            int dot = fileName.lastIndexOf('.');
+            return dot < 0 ? null : fromString(fileName.substring(dot + 1));
+        }
+    }
+
+    /**
+     * Sorgente di set di elementi: li passa uno alla volta a sink
+     */
+    @FunctionalInterface
+    public interface Source {
+        /**
+         * @return record scartati perché incompleti o non validi
+         */
+        int read(Consumer<CelestrakSatelliteDTO> sink) throws IOException;
+    }
+
+    private static final ObjectReader JSON_READER = new ObjectMapper().readerFor(CelestrakSatelliteDTO.class);
+
+    private static final DateTimeFormatter OMM_EPOCH = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSS");
+
+    private static final double[] POWERS_OF_TEN = new double[19];
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+        }
+    }
+
+    // Le righe più lunghe (solo CSV con molte colonne) vengono troncate
+    private static final int MAX_LINE_LENGTH = 4096;
+
+    private ElementSetReader() {
+    }
+
+    /**
+     * Legge un file e passa a sink ogni set di elementi valido
+     *
+     * @return record scartati
+     */
+    public static int read(InputStream in, Format format, Consumer<CelestrakSatelliteDTO> sink) throws IOException {
+        return switch (format) {
+            case TLE -> readTle(in, sink);
+            case OMM_JSON -> readJson(in, sink);
+            case OMM_XML -> readXml(in, sink);
+            case OMM_CSV -> readCsv(in, sink);
+        };
+    }
+
+    /**
+     * @return true se il set ha NORAD ID, epoca e tutti gli elementi orbitali
+     */
+    public static boolean isComplete(CelestrakSatelliteDTO dto) {
+        return dto != null && dto.noradCatId() != null && dto.epoch() != null && dto.inclination() != null &&
+               dto.raOfAscNode() != null && dto.eccentricity() != null && dto.argOfPericenter() != null &&
+               dto.meanAnomaly() != null && dto.meanMotion() != null;
+    }
+
+    // ==================== TLE / 3LE ====================
+
+    /**
+     * Legge righe TLE, con o senza la riga del nome (3LE, anche con prefisso "0 ")
+     */
+    private static int readTle(InputStream in, Consumer<CelestrakSatelliteDTO> sink) throws IOException {
+        LineInput input = new LineInput(in);
+        byte[] line = new byte[MAX_LINE_LENGTH];
+        byte[] line1 = new byte[MAX_LINE_LENGTH];
+        int line1Length = 0;
+        String name = null;
+        int rejected = 0;
+
+        int length;
+        while ((length = input.readLine(line)) >= 0) {
+            if (isBlank(line, 0, length)) {
+                continue;
+            }
+            if (length >= 64 && line[0] == '1' && line[1] == ' ') {
+                if (line1Length > 0) {
+                    rejected++;
+                }
+                System.arraycopy(line, 0, line1, 0, length);
+                line1Length = length;
+            } else if (length >= 63 && line[0] == '2' && line[1] == ' ' && line1Length > 0) {
+                CelestrakSatelliteDTO dto = parseTle(name, line1, line1Length, line, length);
+                if (dto != null) {
+                    sink.accept(dto);
+                } else {
+                    rejected++;
+                }
+                line1Length = 0;
+                name = null;
+            } else {
+                if (line1Length > 0) {
+                    rejected++;
+                    line1Length = 0;
+                }
+                int from = length > 2 && line[0] == '0' && line[1] == ' ' ? 2 : 0;
+                name = new String(line, from, length - from, StandardCharsets.US_ASCII).trim();
+            }
+        }
+        if (line1Length > 0) {
+            rejected++;
+        }
+        return rejected;
+    }
+
+    /**
+     * Decodifica le due righe TLE (colonne fisse). Numero del set e numero di rivoluzioni sono
+     * letti solo se la riga li contiene.
+     *
+     * @return set di elementi, null se le righe non sono valide
+     */
+    private static CelestrakSatelliteDTO parseTle(String name, byte[] line1, int line1Length,
+                                                  byte[] line2, int line2Length) {
+        long noradId = parseNoradId(line1, 2, 7);
+        if (noradId < 0 || noradId != parseNoradId(line2, 2, 7)) {
+            return null;
+        }
+
+        String epoch = tleEpoch(line1);
+        double inclination = parseDecimal(line2, 8, 16);
+        double raan = parseDecimal(line2, 17, 25);
+        double eccentricity = parseImpliedDecimal(line2, 26, 33);
+        double argOfPericenter = parseDecimal(line2, 34, 42);
+        double meanAnomaly = parseDecimal(line2, 43, 51);
+        double meanMotion = parseDecimal(line2, 52, 63);
+        double meanMotionDot = parseDecimal(line1, 33, 43);
+        double meanMotionDdot = parseExponential(line1, 44, 52);
+        double bstar = parseExponential(line1, 53, 61);
+        double elementSetNo = parseDecimal(line1, 64, Math.min(68, line1Length));
+        double revAtEpoch = parseDecimal(line2, 63, Math.min(68, line2Length));
+        if (epoch == null || Double.isNaN(inclination) || Double.isNaN(raan) || Double.isNaN(eccentricity) ||
+            Double.isNaN(argOfPericenter) || Double.isNaN(meanAnomaly) || Double.isNaN(meanMotion)) {
+            return null;
+        }
+
+        return new CelestrakSatelliteDTO(name != null && !name.isEmpty() ? name : null,
+                                         internationalDesignator(line1), noradId, epoch,
+                                         inclination, raan, eccentricity, argOfPericenter, meanAnomaly, meanMotion,
+                                         nullIfNaN(bstar), nullIfNaN(meanMotionDot), nullIfNaN(meanMotionDdot),
+                                         intOrNull(elementSetNo), intOrNull(revAtEpoch));
+    }
+
+    /**
+     * NORAD ID nelle colonne 3-7, anche nel formato Alpha-5 (A0000 = 100000, senza I e O)
+     *
+     * @return ID, -1 se non valido
+     */
+    static long parseNoradId(byte[] line, int from, int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int c = line[i];
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+            } else if (i == from && c >= 'A' && c <= 'Z' && c != 'I' && c != 'O') {
+                value = c - 'A' + 10 - (c > 'I' ? 1 : 0) - (c > 'O' ? 1 : 0);
+            } else if (c != ' ') {
+                return -1;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Epoca TLE (colonne 19-32, YYDDD.DDDDDDDD) nel formato OMM
+     */
+    private static String tleEpoch(byte[] line1) {
+        double yearDigits = parseDecimal(line1, 18, 20);
+        double dayOfYear = parseDecimal(line1, 20, 32);
+        if (Double.isNaN(yearDigits) || Double.isNaN(dayOfYear) || dayOfYear < 1.0 || dayOfYear >= 367.0) {
+            return null;
+        }
+        int year = (int) yearDigits < 57 ? 2000 + (int) yearDigits : 1900 + (int) yearDigits;
+        // Arrotondato al microsecondo, la risoluzione dell'epoca OMM
+        long micros = Math.round((dayOfYear - 1.0) * 86400e6);
+        LocalDateTime epoch = LocalDate.ofYearDay(year, 1).atStartOfDay().plusNanos(micros * 1000);
+        return OMM_EPOCH.format(epoch);
+    }
+
+    /**
+     * Designatore internazionale (colonne 10-17, es. "98067A") nel formato OMM ("1998-067A")
+     */
+    private static String internationalDesignator(byte[] line1) {
+        int end = 17;
+        while (end > 9 && line1[end - 1] == ' ') {
+            end--;
+        }
+        if (end - 9 < 6 || line1[9] < '0' || line1[9] > '9' || line1[10] < '0' || line1[10] > '9') {
+            return null;
+        }
+        int yearDigits = (line1[9] - '0') * 10 + (line1[10] - '0');
+        StringBuilder designator = new StringBuilder(12);
+        designator.append(yearDigits < 57 ? "20" : "19")
+                  .append((char) line1[9]).append((char) line1[10]).append('-');
+        for (int i = 11; i < end; i++) {
+            designator.append((char) line1[i]);
+        }
+        return designator.toString();
+    }
+
+    // ==================== OMM CSV ====================
+
+    /**
+     * Legge un CSV OMM con riga di intestazione (colonne riconosciute per nome, in qualsiasi ordine)
+     */
+    private static int readCsv(InputStream in, Consumer<CelestrakSatelliteDTO> sink) throws IOException {
+        LineInput input = new LineInput(in);
+        byte[] line = new byte[MAX_LINE_LENGTH];
+        int length = input.readLine(line);
+        if (length < 0) {
+            return 0;
+        }
+
+        // Indice di colonna di ogni campo, -1 se assente
+        String[] header = new String(line, 0, length, StandardCharsets.UTF_8).split(",");
+        int[] columns = new int[OmmFields.NAMES.length];
+        Arrays.fill(columns, -1);
+        for (int column = 0; column < header.length; column++) {
+            int field = OmmFields.indexOf(stripQuotes(header[column].trim()));
+            if (field >= 0) {
+                columns[field] = column;
+            }
+        }
+
+        int[] starts = new int[header.length];
+        int[] ends = new int[header.length];
+        OmmFields fields = new OmmFields();
+        int rejected = 0;
+        while ((length = input.readLine(line)) >= 0) {
+            if (isBlank(line, 0, length)) {
+                continue;
+            }
+            int count = splitCsv(line, length, starts, ends);
+            fields.clear();
+            for (int field = 0; field < columns.length; field++) {
+                int column = columns[field];
+                if (column < 0 || column >= count) {
+                    continue;
+                }
+                if (OmmFields.isText(field)) {
+                    fields.text[field] = new String(line, starts[column], ends[column] - starts[column],
+                                                    StandardCharsets.UTF_8).trim();
+                } else {
+                    fields.numbers[field] = parseDecimal(line, starts[column], ends[column]);
+                }
+            }
+            CelestrakSatelliteDTO dto = fields.toDto();
+            if (dto != null) {
+                sink.accept(dto);
+            } else {
+                rejected++;
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Divide una riga CSV in campi (inizio e fine di ciascuno), con campi tra virgolette
+     *
+     * @return numero di campi trovati (al massimo starts.length)
+     */
+    private static int splitCsv(byte[] line, int length, int[] starts, int[] ends) {
+        int count = 0;
+        int i = 0;
+        while (count < starts.length) {
+            if (i < length && line[i] == '"') {
+                int start = ++i;
+                while (i < length && line[i] != '"') {
+                    i++;
+                }
+                starts[count] = start;
+                ends[count++] = i;
+                while (i < length && line[i] != ',') {
+                    i++;
+                }
+            } else {
+                int start = i;
+                while (i < length && line[i] != ',') {
+                    i++;
+                }
+                starts[count] = start;
+                ends[count++] = i;
+            }
+            if (i >= length) {
+                break;
+            }
+            i++; // virgola
+        }
+        return count;
+    }
+
+    private static String stripQuotes(String value) {
+        return value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")
+            ? value.substring(1, value.length() - 1) : value;
+    }
+
+    // ==================== OMM JSON ====================
+
+    /**
+     * Legge un array JSON OMM (formato di Celestrak) un elemento alla volta
+     */
+    private static int readJson(InputStream in, Consumer<CelestrakSatelliteDTO> sink) throws IOException {
+        int rejected = 0;
+        try (MappingIterator<CelestrakSatelliteDTO> iterator = JSON_READER.readValues(in)) {
+            while (iterator.hasNextValue()) {
+                CelestrakSatelliteDTO dto = iterator.nextValue();
+                if (isComplete(dto)) {
+                    sink.accept(dto);
+                } else {
+                    rejected++;
+                }
+            }
+        }
+        return rejected;
+    }
+
+    // ==================== OMM XML ====================
+
+    /**
+     * Legge un documento XML OMM (ndm con un elemento omm per satellite)
+     */
+    private static int readXml(InputStream in, Consumer<CelestrakSatelliteDTO> sink) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        OmmFields fields = new OmmFields();
+        StringBuilder text = new StringBuilder();
+        int rejected = 0;
+        try {
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            try {
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        if ("omm".equalsIgnoreCase(reader.getLocalName())) {
+                            fields.clear();
+                        }
+                        text.setLength(0);
+                    } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                        text.append(reader.getText());
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        String element = reader.getLocalName();
+                        if ("omm".equalsIgnoreCase(element)) {
+                            CelestrakSatelliteDTO dto = fields.toDto();
+                            if (dto != null) {
+                                sink.accept(dto);
+                            } else {
+                                rejected++;
+                            }
+                            continue;
+                        }
+                        int field = OmmFields.indexOf(element);
+                        if (field >= 0) {
+                            String value = text.toString().trim();
+                            if (OmmFields.isText(field)) {
+                                fields.text[field] = value;
+                            } else {
+                                fields.numbers[field] = parseNumber(value);
+                            }
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("XML OMM non valido: " + e.getMessage(), e);
+        }
+        return rejected;
+    }
+
+    private static double parseNumber(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    // ==================== Campi OMM ====================
+
+    /**
+     * Campi OMM di un record CSV o XML, riusati da un record al successivo
+     */
+    private static final class OmmFields {
+        static final String[] NAMES = {
+            "OBJECT_NAME", "OBJECT_ID", "EPOCH",
+            "NORAD_CAT_ID", "INCLINATION", "RA_OF_ASC_NODE", "ECCENTRICITY",
+            "ARG_OF_PERICENTER", "MEAN_ANOMALY", "MEAN_MOTION",
+            "BSTAR", "MEAN_MOTION_DOT", "MEAN_MOTION_DDOT", "ELEMENT_SET_NO", "REV_AT_EPOCH"
+        };
+        static final int OBJECT_NAME = 0, OBJECT_ID = 1, EPOCH = 2, NORAD_CAT_ID = 3, INCLINATION = 4,
+                         RA_OF_ASC_NODE = 5, ECCENTRICITY = 6, ARG_OF_PERICENTER = 7, MEAN_ANOMALY = 8,
+                         MEAN_MOTION = 9, BSTAR = 10, MEAN_MOTION_DOT = 11, MEAN_MOTION_DDOT = 12,
+                         ELEMENT_SET_NO = 13, REV_AT_EPOCH = 14;
+
+        final String[] text = new String[NAMES.length];
+        final double[] numbers = new double[NAMES.length];
+
+        static int indexOf(String name) {
+            for (int i = 0; i < NAMES.length; i++) {
+                if (NAMES[i].equals(name)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        static boolean isText(int field) {
+            return field <= EPOCH;
+        }
+
+        void clear() {
+            Arrays.fill(text, null);
+            Arrays.fill(numbers, Double.NaN);
+        }
+
+        /**
+         * @return set di elementi, null se manca un campo obbligatorio (da NORAD_CAT_ID a MEAN_MOTION)
+         */
+        CelestrakSatelliteDTO toDto() {
+            for (int field = NORAD_CAT_ID; field <= MEAN_MOTION; field++) {
+                if (Double.isNaN(numbers[field])) {
+                    return null;
+                }
+            }
+            String epoch = text[EPOCH];
+            if (epoch == null || epoch.isEmpty()) {
+                return null;
+            }
+            // Epoca OMM senza fuso orario, come nel JSON di Celestrak
+            if (epoch.endsWith("Z")) {
+                epoch = epoch.substring(0, epoch.length() - 1);
+            }
+            return new CelestrakSatelliteDTO(emptyToNull(text[OBJECT_NAME]), emptyToNull(text[OBJECT_ID]),
+                                             (long) numbers[NORAD_CAT_ID], epoch,
+                                             numbers[INCLINATION], numbers[RA_OF_ASC_NODE], numbers[ECCENTRICITY],
+                                             numbers[ARG_OF_PERICENTER], numbers[MEAN_ANOMALY], numbers[MEAN_MOTION],
+                                             nullIfNaN(numbers[BSTAR]), nullIfNaN(numbers[MEAN_MOTION_DOT]),
+                                             nullIfNaN(numbers[MEAN_MOTION_DDOT]), intOrNull(numbers[ELEMENT_SET_NO]),
+                                             intOrNull(numbers[REV_AT_EPOCH]));
+        }
+
+        private static String emptyToNull(String value) {
+            return value == null || value.isEmpty() ? null : value;
+        }
+    }
+
+    // ==================== Decodifica dei byte ====================
+
+    /**
+     * Numero decimale nei byte [from, to): spazi ignorati, segno, punto decimale opzionale
+     * (anche iniziale, come ".00012345") ed esponente opzionale (e/E)
+     *
+     * @return valore, NaN se il campo è vuoto o non valido
+     */
+    static double parseDecimal(byte[] bytes, int from, int to) {
+        while (from < to && bytes[from] == ' ') {
+            from++;
+        }
+        while (to > from && bytes[to - 1] == ' ') {
+            to--;
+        }
+        if (from >= to) {
+            return Double.NaN;
+        }
+
+        boolean negative = false;
+        if (bytes[from] == '-' || bytes[from] == '+') {
+            negative = bytes[from] == '-';
+            from++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean decimals = false;
+        int i = from;
+        for (; i < to; i++) {
+            int c = bytes[i];
+            if (c >= '0' && c <= '9') {
+                // Oltre 18 cifre significative le successive non cambiano il double
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                    if (decimals) {
+                        scale++;
+                    }
+                } else if (!decimals) {
+                    scale--;
+                }
+            } else if (c == '.' && !decimals) {
+                decimals = true;
+            } else {
+                break;
+            }
+        }
+        if (i == from || (i == from + 1 && decimals)) {
+            return Double.NaN;
+        }
+
+        if (i < to) {
+            if (bytes[i] != 'e' && bytes[i] != 'E') {
+                return Double.NaN;
+            }
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (bytes[i] == '-' || bytes[i] == '+')) {
+                negativeExponent = bytes[i] == '-';
+                i++;
+            }
+            if (i >= to) {
+                return Double.NaN;
+            }
+            int exponent = 0;
+            for (; i < to; i++) {
+                int c = bytes[i];
+                if (c < '0' || c > '9') {
+                    return Double.NaN;
+                }
+                exponent = Math.min(exponent * 10 + (c - '0'), 400);
+            }
+            scale += negativeExponent ? exponent : -exponent;
+        }
+
+        double value;
+        if (scale >= 0 && scale < POWERS_OF_TEN.length) {
+            value = mantissa / POWERS_OF_TEN[scale];
+        } else if (scale < 0 && -scale < POWERS_OF_TEN.length) {
+            value = mantissa * POWERS_OF_TEN[-scale];
+        } else {
+            value = mantissa * Math.pow(10, -scale);
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Notazione esponenziale compatta del TLE (B* e derivata seconda): segno, cinque cifre con
+     * punto decimale implicito all'inizio ed esponente, es. " 30151-3" = 0.30151e-3
+     *
+     * @return valore, NaN se il campo non è valido
+     */
+    static double parseExponential(byte[] bytes, int from, int to) {
+        if (to - from < 3) {
+            return Double.NaN;
+        }
+        double mantissa = parseImpliedDecimal(bytes, from + 1, to - 2);
+        int exponentDigit = bytes[to - 1] - '0';
+        if (Double.isNaN(mantissa) || exponentDigit < 0 || exponentDigit > 9 ||
+            (bytes[from] != ' ' && bytes[from] != '+' && bytes[from] != '-') ||
+            (bytes[to - 2] != '-' && bytes[to - 2] != '+' && bytes[to - 2] != ' ')) {
+            return Double.NaN;
+        }
+        double value = bytes[to - 2] == '-' ? mantissa / POWERS_OF_TEN[exponentDigit]
+                                             : mantissa * POWERS_OF_TEN[exponentDigit];
+        return bytes[from] == '-' ? -value : value;
+    }
+
+    private static Double nullIfNaN(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private static Integer intOrNull(double value) {
+        return Double.isNaN(value) ? null : (int) value;
+    }
+
+    /**
+     * Cifre con punto decimale implicito all'inizio (eccentricità TLE: "0001234" = 0.0001234)
+     */
+    static double parseImpliedDecimal(byte[] bytes, int from, int to) {
+        long mantissa = 0;
+        int digits = 0;
+        for (int i = from; i < to; i++) {
+            int c = bytes[i];
+            if (c >= '0' && c <= '9') {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+            } else if (c != ' ') {
+                return Double.NaN;
+            }
+        }
+        return digits == 0 || digits >= POWERS_OF_TEN.length ? Double.NaN : mantissa / POWERS_OF_TEN[digits];
+    }
+
+    private static boolean isBlank(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] != ' ' && bytes[i] != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lettura di righe da uno stream in un buffer fornito dal chiamante, senza creare
+     * stringhe. Accetta fine riga \n e \r\n.
+     */
+    private static final class LineInput {
+        private final InputStream in;
+        private final byte[] buffer = new byte[1 << 16];
+        private int position;
+        private int limit;
+
+        LineInput(InputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * @return lunghezza della riga (troncata a line.length), -1 a fine stream
+         */
+        int readLine(byte[] line) throws IOException {
+            int length = 0;
+            boolean any = false;
+            while (true) {
+                if (position >= limit) {
+                    limit = in.read(buffer, 0, buffer.length);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        return any ? trimCarriageReturn(line, length) : -1;
+                    }
+                }
+                any = true;
+                byte c = buffer[position++];
+                if (c == '\n') {
+                    return trimCarriageReturn(line, length);
+                }
+                if (length < line.length) {
+                    line[length++] = c;
+                }
+            }
+        }
+
+        private static int trimCarriageReturn(byte[] line, int length) {
+            return length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+        }
+    }
+}
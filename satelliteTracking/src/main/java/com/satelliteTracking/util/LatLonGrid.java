@@ -0,0 +1,164 @@
+package com.satelliteTracking.util;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Griglia regolare latitudine/longitudine per indicizzare punti sulla superficie terrestre.
+ *
+ * Ogni cella contiene un insieme concorrente di elementi: gli aggiornamenti
+ * (aggiunta/spostamento/rimozione) possono avvenire mentre altri thread interrogano la griglia.
+ * La ricerca per raggio restituisce gli elementi delle celle che intersecano la calotta
+ * sferica richiesta: il controllo esatto della distanza spetta al chiamante.
+ */
+public class LatLonGrid<T> {
+
+    private final double cellSizeDeg;
+    private final int rows;
+    private final int cols;
+    private final Set<T>[] cells;
+
+    @SuppressWarnings("unchecked")
+    public LatLonGrid(double cellSizeDeg) {
+        this.cellSizeDeg = cellSizeDeg;
+        this.rows = (int) Math.ceil(180.0 / cellSizeDeg);
+        this.cols = (int) Math.ceil(360.0 / cellSizeDeg);
+        this.cells = new Set[rows * cols];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = ConcurrentHashMap.newKeySet();
+        }
+    }
+
+    public double getCellSizeDeg() {
+        return cellSizeDeg;
+    }
+
+    public int getCellCount() {
+        return cells.length;
+    }
+
+    /**
+     * Indice della cella che contiene il punto (lat, lon) in gradi
+     */
+    public int cellOf(double latitudeDeg, double longitudeDeg) {
+        return row(latitudeDeg) * cols + col(longitudeDeg);
+    }
+
+    /**
+     * Latitudine del centro della cella
+     */
+    public double cellCenterLatitude(int cell) {
+        return -90.0 + (cell / cols + 0.5) * cellSizeDeg;
+    }
+
+    /**
+     * Longitudine del centro della cella
+     */
+    public double cellCenterLongitude(int cell) {
+        return -180.0 + (cell % cols + 0.5) * cellSizeDeg;
+    }
+
+    public int add(T item, double latitudeDeg, double longitudeDeg) {
+        int cell = cellOf(latitudeDeg, longitudeDeg);
+        cells[cell].add(item);
+        return cell;
+    }
+
+    public void remove(T item, int cell) {
+        if (cell >= 0 && cell < cells.length) {
+            cells[cell].remove(item);
+        }
+    }
+
+    /**
+     * Sposta un elemento da una cella all'altra (solo se la cella cambia)
+     *
+     * @return la nuova cella
+     */
+    public int move(T item, int oldCell, double latitudeDeg, double longitudeDeg) {
+        int newCell = cellOf(latitudeDeg, longitudeDeg);
+        if (newCell != oldCell) {
+            cells[newCell].add(item);
+            remove(item, oldCell);
+        }
+        return newCell;
+    }
+
+    public Set<T> itemsIn(int cell) {
+        return cells[cell];
+    }
+
+    public void clear() {
+        for (Set<T> cell : cells) {
+            cell.clear();
+        }
+    }
+
+    /**
+     * Visita gli elementi di tutte le celle che intersecano la calotta sferica
+     * di centro (lat, lon) e raggio angolare radiusDeg
+     */
+    public void query(double latitudeDeg, double longitudeDeg, double radiusDeg, Consumer<T> visitor) {
+        forEachCell(latitudeDeg, longitudeDeg, radiusDeg, cell -> {
+            for (T item : cells[cell]) {
+                visitor.accept(item);
+            }
+        });
+    }
+
+    /**
+     * Visita gli indici di tutte le celle che intersecano la calotta sferica
+     * di centro (lat, lon) e raggio angolare radiusDeg
+     */
+    public void forEachCell(double latitudeDeg, double longitudeDeg, double radiusDeg,
+                            IntConsumer visitor) {
+        double latMin = latitudeDeg - radiusDeg;
+        double latMax = latitudeDeg + radiusDeg;
+
+        int rowMin = row(Math.max(-90.0, latMin));
+        int rowMax = row(Math.min(90.0, latMax));
+
+        // Se la calotta contiene un polo servono tutte le longitudini
+        boolean coversPole = latMin <= -90.0 || latMax >= 90.0;
+        double halfWidth = 180.0;
+        if (!coversPole) {
+            double sinRatio = Math.sin(Math.toRadians(radiusDeg)) / Math.cos(Math.toRadians(latitudeDeg));
+            if (sinRatio < 1.0) {
+                halfWidth = Math.toDegrees(Math.asin(sinRatio));
+            }
+        }
+
+        if (halfWidth >= 180.0) {
+            for (int r = rowMin; r <= rowMax; r++) {
+                for (int c = 0; c < cols; c++) {
+                    visitor.accept(r * cols + c);
+                }
+            }
+            return;
+        }
+
+        int colStart = col(longitudeDeg - halfWidth);
+        int span = (int) Math.ceil(2.0 * halfWidth / cellSizeDeg) + 1;
+        span = Math.min(span, cols);
+
+        for (int r = rowMin; r <= rowMax; r++) {
+            for (int k = 0; k < span; k++) {
+                int c = (colStart + k) % cols;
+                visitor.accept(r * cols + c);
+            }
+        }
+    }
+
+    private int row(double latitudeDeg) {
+        int r = (int) Math.floor((latitudeDeg + 90.0) / cellSizeDeg);
+        return Math.max(0, Math.min(rows - 1, r));
+    }
+
+    private int col(double longitudeDeg) {
+        double lon = OrbitMath.normalizeLongitude(longitudeDeg);
+        int c = (int) Math.floor((lon + 180.0) / cellSizeDeg);
+        return Math.max(0, Math.min(cols - 1, c));
+    }
+}
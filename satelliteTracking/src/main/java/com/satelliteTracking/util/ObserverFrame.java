@@ -0,0 +1,132 @@
+package com.satelliteTracking.util;
+
+import com.satelliteTracking.model.ObserverLocation;
+
+/**
+ * Sistema di riferimento topocentrico di un osservatore, precalcolato una volta sola.
+ *
+ * Equivale al TopocentricFrame di Orekit (zenit lungo la normale all'ellissoide WGS84)
+ * ma lavora su double primitivi: calcolare azimuth/elevazione/distanza di una posizione
+ * ECEF costa pochi prodotti scalari e nessuna allocazione.
+ */
+public final class ObserverFrame {
+
+    private final double latitude;
+    private final double longitude;
+
+    // Posizione ECEF dell'osservatore (metri)
+    private final double ox;
+    private final double oy;
+    private final double oz;
+
+    // Versori East-North-Up espressi in ECEF
+    private final double ex, ey;
+    private final double nx, ny, nz;
+    private final double ux, uy, uz;
+
+    public ObserverFrame(double latitudeDeg, double longitudeDeg, double altitudeM) {
+        this.latitude = latitudeDeg;
+        this.longitude = longitudeDeg;
+
+        double[] ecef = OrbitMath.geodeticToEcef(latitudeDeg, longitudeDeg, altitudeM);
+        this.ox = ecef[0];
+        this.oy = ecef[1];
+        this.oz = ecef[2];
+
+        double lat = Math.toRadians(latitudeDeg);
+        double lon = Math.toRadians(longitudeDeg);
+        double sinLat = Math.sin(lat);
+        double cosLat = Math.cos(lat);
+        double sinLon = Math.sin(lon);
+        double cosLon = Math.cos(lon);
+
+        this.ex = -sinLon;
+        this.ey = cosLon;
+        this.nx = -sinLat * cosLon;
+        this.ny = -sinLat * sinLon;
+        this.nz = cosLat;
+        this.ux = cosLat * cosLon;
+        this.uy = cosLat * sinLon;
+        this.uz = sinLat;
+    }
+
+    public static ObserverFrame of(ObserverLocation location) {
+        return new ObserverFrame(location.getLatitude(), location.getLongitude(), location.getAltitude());
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * Elevazione (gradi) di una posizione ECEF in metri
+     */
+    public double elevation(double x, double y, double z) {
+        double dx = x - ox;
+        double dy = y - oy;
+        double dz = z - oz;
+        double range = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        double up = dx * ux + dy * uy + dz * uz;
+        return Math.toDegrees(Math.asin(up / range));
+    }
+
+    /**
+     * Calcola azimuth (gradi, 0-360 da Nord in senso orario), elevazione (gradi)
+     * e distanza (metri) di una posizione ECEF in metri, scrivendoli in out[0..2]
+     */
+    public void lookAngles(double x, double y, double z, double[] out) {
+        double dx = x - ox;
+        double dy = y - oy;
+        double dz = z - oz;
+        double range = Math.sqrt(dx * dx + dy * dy + dz * dz);
+
+        double east = dx * ex + dy * ey;
+        double north = dx * nx + dy * ny + dz * nz;
+        double up = dx * ux + dy * uy + dz * uz;
+
+        double azimuth = Math.toDegrees(Math.atan2(east, north));
+        if (azimuth < 0) {
+            azimuth += 360.0;
+        }
+
+        out[0] = azimuth;
+        out[1] = Math.toDegrees(Math.asin(up / range));
+        out[2] = range;
+    }
+
+    /**
+     * Distanza angolare (gradi) tra due posizioni ECEF in metri viste dall'osservatore.
+     * Usa atan2(|a × b|, a · b), precisa anche per angoli di pochi secondi d'arco.
+     */
+    public double separation(double x1, double y1, double z1, double x2, double y2, double z2) {
+        double ax = x1 - ox;
+        double ay = y1 - oy;
+        double az = z1 - oz;
+        double bx = x2 - ox;
+        double by = y2 - oy;
+        double bz = z2 - oz;
+
+        double cx = ay * bz - az * by;
+        double cy = az * bx - ax * bz;
+        double cz = ax * by - ay * bx;
+        double cross = Math.sqrt(cx * cx + cy * cy + cz * cz);
+        double dot = ax * bx + ay * by + az * bz;
+        return Math.toDegrees(Math.atan2(cross, dot));
+    }
+
+    /**
+     * Velocità radiale (m/s, positiva se il satellite si allontana) di un satellite
+     * con posizione e velocità ECEF date. L'osservatore è fermo nel sistema ECEF.
+     */
+    public double rangeRate(double x, double y, double z, double vx, double vy, double vz) {
+        double dx = x - ox;
+        double dy = y - oy;
+        double dz = z - oz;
+        double range = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        return (dx * vx + dy * vy + dz * vz) / range;
+    }
+}
@@ -0,0 +1,112 @@
+package com.satelliteTracking.util;
+
+/**
+ * Funzioni geometriche di base per calcoli veloci senza passare da Orekit.
+ * Usate per pre-filtri e indici spaziali: i risultati esatti restano calcolati con Orekit.
+ */
+public final class OrbitMath {
+
+    /** Raggio terrestre medio in km (modello sferico) */
+    public static final double EARTH_MEAN_RADIUS_KM = 6371.0;
+
+    /** Raggio equatoriale WGS84 in metri */
+    public static final double WGS84_A = 6378137.0;
+
+    /** Schiacciamento WGS84 */
+    public static final double WGS84_F = 1.0 / 298.257223563;
+
+    /** Eccentricità al quadrato WGS84 */
+    public static final double WGS84_E2 = WGS84_F * (2.0 - WGS84_F);
+
+    /** Costante gravitazionale terrestre in km³/s² */
+    public static final double EARTH_MU_KM3_S2 = 398600.4418;
+
+    /** Velocità di rotazione terrestre in gradi al secondo (giorno siderale) */
+    public static final double EARTH_ROTATION_DEG_PER_SECOND = 360.0 / 86164.0905;
+
+    private OrbitMath() {
+    }
+
+    /**
+     * Converte coordinate geodetiche WGS84 in coordinate ECEF (metri)
+     */
+    public static double[] geodeticToEcef(double latitudeDeg, double longitudeDeg, double altitudeM) {
+        double lat = Math.toRadians(latitudeDeg);
+        double lon = Math.toRadians(longitudeDeg);
+        double sinLat = Math.sin(lat);
+        double cosLat = Math.cos(lat);
+        double n = WGS84_A / Math.sqrt(1.0 - WGS84_E2 * sinLat * sinLat);
+
+        return new double[] {
+            (n + altitudeM) * cosLat * Math.cos(lon),
+            (n + altitudeM) * cosLat * Math.sin(lon),
+            (n * (1.0 - WGS84_E2) + altitudeM) * sinLat
+        };
+    }
+
+    /**
+     * Angolo al centro della Terra (in gradi) entro cui un satellite a quota altitudeKm
+     * si trova sopra l'elevazione minima per un osservatore (modello sferico)
+     *
+     * λ = acos(R·cos(e) / (R + h)) − e
+     */
+    public static double visibilityRadiusDeg(double altitudeKm, double minElevationDeg) {
+        if (altitudeKm <= 0) {
+            return 0.0;
+        }
+        double e = Math.toRadians(minElevationDeg);
+        double ratio = EARTH_MEAN_RADIUS_KM * Math.cos(e) / (EARTH_MEAN_RADIUS_KM + altitudeKm);
+        double lambda = Math.acos(Math.min(1.0, ratio)) - e;
+        return Math.max(0.0, Math.toDegrees(lambda));
+    }
+
+    /**
+     * Semiasse maggiore (km) dal moto medio in giri al giorno (terza legge di Keplero)
+     */
+    public static double semiMajorAxisKm(double meanMotionRevPerDay) {
+        double n = meanMotionRevPerDay * 2.0 * Math.PI / 86400.0;
+        return Math.cbrt(EARTH_MU_KM3_S2 / (n * n));
+    }
+
+    /**
+     * Quota del perigeo (km) sopra il raggio terrestre medio
+     */
+    public static double perigeeAltitudeKm(double meanMotionRevPerDay, double eccentricity) {
+        return semiMajorAxisKm(meanMotionRevPerDay) * (1.0 - eccentricity) - EARTH_MEAN_RADIUS_KM;
+    }
+
+    /**
+     * Velocità angolare massima del punto sub-satellite (gradi al secondo):
+     * moto medio scalato al perigeo più la rotazione terrestre
+     */
+    public static double maxGroundSpeedDegPerSecond(double meanMotionRevPerDay, double eccentricity) {
+        double e = Math.min(0.99, eccentricity);
+        double meanRateDegPerSecond = meanMotionRevPerDay * 360.0 / 86400.0;
+        double perigeeFactor = (1.0 + e) * (1.0 + e) / Math.pow(1.0 - e * e, 1.5);
+        return meanRateDegPerSecond * perigeeFactor + EARTH_ROTATION_DEG_PER_SECOND;
+    }
+
+    /**
+     * Distanza angolare (in gradi) tra due punti sulla sfera (formula dell'haversine)
+     */
+    public static double angularDistanceDeg(double lat1Deg, double lon1Deg, double lat2Deg, double lon2Deg) {
+        double lat1 = Math.toRadians(lat1Deg);
+        double lat2 = Math.toRadians(lat2Deg);
+        double dLat = lat2 - lat1;
+        double dLon = Math.toRadians(lon2Deg - lon1Deg);
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                   Math.cos(lat1) * Math.cos(lat2) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return Math.toDegrees(2.0 * Math.asin(Math.min(1.0, Math.sqrt(h))));
+    }
+
+    /**
+     * Normalizza una longitudine nell'intervallo [-180, 180)
+     */
+    public static double normalizeLongitude(double longitudeDeg) {
+        double lon = (longitudeDeg + 180.0) % 360.0;
+        if (lon < 0) {
+            lon += 360.0;
+        }
+        return lon - 180.0;
+    }
+}
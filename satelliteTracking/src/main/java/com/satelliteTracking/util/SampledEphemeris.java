@@ -0,0 +1,70 @@
+package com.satelliteTracking.util;
+
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.propagation.analytical.tle.TLEPropagator;
+import org.orekit.utils.PVCoordinates;
+
+/**
+ * Posizioni ITRF (metri) di un satellite campionate sugli istanti di una {@link SamplingGrid}.
+ *
+ * Il satellite viene propagato una volta sola: le posizioni possono poi essere
+ * riusate per qualsiasi numero di osservatori.
+ */
+public final class SampledEphemeris {
+
+    private final SamplingGrid grid;
+    private final double[] positions;
+    private final int validSamples;
+
+    private SampledEphemeris(SamplingGrid grid, double[] positions, int validSamples) {
+        this.grid = grid;
+        this.positions = positions;
+        this.validSamples = validSamples;
+    }
+
+    /**
+     * Propaga il satellite su tutti gli istanti della griglia.
+     * Se la propagazione fallisce (es. satellite rientrato) le effemeridi si fermano
+     * all'ultimo istante valido.
+     */
+    public static SampledEphemeris propagate(TLEPropagator propagator, SamplingGrid grid) {
+        Frame teme = FramesFactory.getTEME();
+        int count = grid.getCount();
+        double[] positions = new double[count * 3];
+        int valid = 0;
+
+        for (int s = 0; s < count; s++) {
+            try {
+                PVCoordinates pv = propagator.getPVCoordinates(grid.dateAt(s), teme);
+                var position = grid.temeToItrfAt(s).transformPosition(pv.getPosition());
+                positions[3 * s] = position.getX();
+                positions[3 * s + 1] = position.getY();
+                positions[3 * s + 2] = position.getZ();
+                valid++;
+            } catch (org.orekit.errors.OrekitException e) {
+                break;
+            }
+        }
+
+        return new SampledEphemeris(grid, positions, valid);
+    }
+
+    public SamplingGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Posizioni ITRF in metri, tre valori per istante
+     */
+    public double[] getPositions() {
+        return positions;
+    }
+
+    /**
+     * Numero di istanti propagati con successo (dall'inizio della griglia)
+     */
+    public int getValidSamples() {
+        return validSamples;
+    }
+}
@@ -0,0 +1,131 @@
+package com.satelliteTracking.util;
+
+import org.hipparchus.geometry.euclidean.threed.Vector3D;
+import org.orekit.bodies.CelestialBody;
+import org.orekit.bodies.CelestialBodyFactory;
+import org.orekit.frames.Frame;
+import org.orekit.frames.FramesFactory;
+import org.orekit.frames.Transform;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+import org.orekit.utils.IERSConventions;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+/**
+ * Griglia temporale a passo fisso condivisa da più satelliti e osservatori.
+ *
+ * Per ogni istante precalcola la trasformazione TEME → ITRF e la posizione ITRF del Sole:
+ * sono le parti costose che non dipendono dal satellite, quindi vengono calcolate una
+ * volta sola per tutta la griglia invece che per ogni satellite.
+ * Le posizioni del Sole sono calcolate al primo utilizzo: i calcoli che non valutano
+ * l'illuminazione (es. passaggi in modalità radio) non le pagano.
+ */
+public final class SamplingGrid {
+
+    private final long startEpochMs;
+    private final double stepSeconds;
+    private final int count;
+    private final AbsoluteDate[] dates;
+    private final Transform[] temeToItrf;
+    private volatile double[] sunPositions;
+
+    private SamplingGrid(long startEpochMs, double stepSeconds, int count) {
+        this.startEpochMs = startEpochMs;
+        this.stepSeconds = stepSeconds;
+        this.count = count;
+        this.dates = new AbsoluteDate[count];
+        this.temeToItrf = new Transform[count];
+
+        Frame teme = FramesFactory.getTEME();
+        Frame itrf = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+        AbsoluteDate start = new AbsoluteDate(new Date(startEpochMs), TimeScalesFactory.getUTC());
+
+        for (int s = 0; s < count; s++) {
+            dates[s] = start.shiftedBy(s * stepSeconds);
+            temeToItrf[s] = teme.getTransformTo(itrf, dates[s]);
+        }
+    }
+
+    /**
+     * Crea una griglia di count istanti a partire da start (interpretato come UTC)
+     */
+    public static SamplingGrid create(LocalDateTime start, double stepSeconds, int count) {
+        return new SamplingGrid(start.toInstant(ZoneOffset.UTC).toEpochMilli(), stepSeconds, count);
+    }
+
+    /**
+     * Crea una griglia di count istanti a partire da un istante in millisecondi epoch
+     */
+    public static SamplingGrid fromEpochMs(long startEpochMs, double stepSeconds, int count) {
+        return new SamplingGrid(startEpochMs, stepSeconds, count);
+    }
+
+    /**
+     * Griglia che copre [start, start + hours] estremi inclusi
+     */
+    public static SamplingGrid forWindow(LocalDateTime start, int hours, double stepSeconds) {
+        return create(start, stepSeconds, (int) (hours * 3600 / stepSeconds) + 1);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getStepSeconds() {
+        return stepSeconds;
+    }
+
+    public long getStartEpochMs() {
+        return startEpochMs;
+    }
+
+    public AbsoluteDate dateAt(int index) {
+        return dates[index];
+    }
+
+    public Transform temeToItrfAt(int index) {
+        return temeToItrf[index];
+    }
+
+    /**
+     * Posizioni ITRF del Sole (metri), tre valori per istante
+     */
+    public double[] getSunPositions() {
+        double[] positions = sunPositions;
+        if (positions == null) {
+            synchronized (this) {
+                positions = sunPositions;
+                if (positions == null) {
+                    positions = computeSunPositions();
+                    sunPositions = positions;
+                }
+            }
+        }
+        return positions;
+    }
+
+    private double[] computeSunPositions() {
+        Frame itrf = FramesFactory.getITRF(IERSConventions.IERS_2010, true);
+        CelestialBody sun = CelestialBodyFactory.getSun();
+        double[] positions = new double[count * 3];
+        for (int s = 0; s < count; s++) {
+            Vector3D sunPosition = sun.getPVCoordinates(dates[s], itrf).getPosition();
+            positions[3 * s] = sunPosition.getX();
+            positions[3 * s + 1] = sunPosition.getY();
+            positions[3 * s + 2] = sunPosition.getZ();
+        }
+        return positions;
+    }
+
+    public long epochMsAt(int index) {
+        return startEpochMs + Math.round(index * stepSeconds * 1000.0);
+    }
+
+    public LocalDateTime timeAt(int index) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMsAt(index)), ZoneOffset.UTC);
+    }
+}
@@ -1,145 +1,110 @@
 package com.satelliteTracking.util;
 
 import com.satelliteTracking.model.OrbitalParameters;
+import org.hipparchus.util.FastMath;
+import org.orekit.propagation.analytical.tle.TLE;
+import org.orekit.time.AbsoluteDate;
+import org.orekit.time.TimeScalesFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Utility per convertire parametri orbitali in formato TLE (Two-Line Element)
- * 
+ * Utility per convertire parametri orbitali in TLE (Two-Line Element) di Orekit
+ *
  * Il TLE è il formato standard per rappresentare orbite satellitari.
- * Formato: 2 linee di 69 caratteri ciascuna
+ * L'oggetto TLE viene costruito direttamente dai campi numerici, senza passare dal
+ * testo delle due righe: l'epoca è quella reale del set di elementi e B*, derivate del
+ * moto medio, numero del set e numero di rivoluzioni sono quelli dell'OMM (zero per i
+ * set salvati prima che venissero memorizzati).
  */
 public class TLEConverter {
 
+    // Fattori di conversione usati dal parser TLE di Orekit: i campi OMM/TLE contengono
+    // ndot/2 in giri/giorno² e nddot/6 in giri/giorno³, Orekit usa le derivate in rad/s² e rad/s³
+    private static final double MEAN_MOTION = FastMath.PI / 43200.0;
+    private static final double MEAN_MOTION_DOT = FastMath.PI / 1.86624e9;
+    private static final double MEAN_MOTION_DDOT = FastMath.PI / 5.3747712e13;
+
+    // Numero del set quando non è noto (come Orekit nei TLE generati)
+    private static final int UNKNOWN_ELEMENT_SET = 999;
+
     /**
-     * Converte parametri orbitali in formato TLE line 1
-     * 
-     * Formato Line 1:
-     * 1 NNNNNC NNNNNAAA NNNNN.NNNNNNNN +.NNNNNNNN +NNNNN-N +NNNNN-N N NNNNN
-     * 
-     * Dove:
-     * - Column 01-01: Line number
-     * - Column 03-07: Satellite number
-     * - Column 08-08: Classification (U=Unclassified)
-     * - Column 10-17: International Designator (Launch year)
-     * - Column 19-20: Element set epoch (Year)
-     * - Column 21-32: Element set epoch (Day of year)
-     * - Column 34-43: First derivative of mean motion
-     * - Column 45-52: Second derivative of mean motion
-     * - Column 54-61: Drag term (B*)
-     * - Column 63-63: Ephemeris type
-     * - Column 65-68: Element set number
-     * - Column 69-69: Checksum
+     * Epoca già convertita e anno usato per il designatore internazionale
      */
-    public static String buildLine1(Long noradId, String epoch) {
-        // Semplificazione: creiamo una line 1 di base
-        String satNum = String.format("%05d", noradId % 100000);
-        String classification = "U";
-        String intlDesignator = "00000A  "; // placeholder
-        
-        // Estrai anno e giorno dall'epoch (formato: 2024-123.45678901)
-        String epochFormatted = formatEpoch(epoch);
-        
-        String line1 = String.format("1 %sU %-8s %s  .00000000  00000-0  00000-0 0    00",
-            satNum, intlDesignator, epochFormatted);
-        
-        // Aggiungi checksum
-        int checksum = calculateChecksum(line1);
-        line1 += checksum;
-        
-        return line1;
-    }
+    private record Epoch(AbsoluteDate date, int year) {}
+
+    // Lo stesso set di elementi viene convertito da indice posizioni, screening e passaggi:
+    // la stringa ISO dell'epoca viene analizzata una sola volta. Le epoche dei cataloghi
+    // precedenti non servono più, quindi oltre la soglia il cache riparte da vuoto
+    private static final Map<String, Epoch> EPOCHS = new ConcurrentHashMap<>();
+    private static final int MAX_CACHED_EPOCHS = 100000;
 
     /**
-     * Converte parametri orbitali in formato TLE line 2
-     * 
-     * Formato Line 2:
-     * 2 NNNNN NNN.NNNN NNN.NNNN NNNNNNN NNN.NNNN NNN.NNNN NN.NNNNNNNNNNNNNN
-     * 
-     * Dove:
-     * - Column 01-01: Line number
-     * - Column 03-07: Satellite number
-     * - Column 09-16: Inclination (degrees)
-     * - Column 18-25: Right Ascension of Ascending Node (degrees)
-     * - Column 27-33: Eccentricity (decimal point assumed)
-     * - Column 35-42: Argument of Perigee (degrees)
-     * - Column 44-51: Mean Anomaly (degrees)
-     * - Column 53-63: Mean Motion (revs per day)
-     * - Column 64-68: Revolution number at epoch
-     * - Column 69-69: Checksum
+     * Crea un TLE completo (entrambe le linee), formattato da Orekit
      */
-    public static String buildLine2(Long noradId, OrbitalParameters params) {
-        String satNum = String.format("%05d", noradId % 100000);
-        
-        // Formatta i parametri orbitali
-        String inclination = String.format("%8.4f", params.getInclination());
-        String raan = String.format("%8.4f", params.getRaOfAscNode());
-        
-        // Eccentricity senza punto decimale (0.1234567 -> 1234567)
-        String eccentricity = String.format("%07d", 
-            (int)(params.getEccentricity() * 10000000) % 10000000);
-        
-        String argPerigee = String.format("%8.4f", params.getArgOfPericenter());
-        String meanAnomaly = String.format("%8.4f", params.getMeanAnomaly());
-        String meanMotion = String.format("%11.8f", params.getMeanMotion());
-        
-        String line2 = String.format("2 %s %s %s %s %s %s %s    00",
-            satNum, inclination, raan, eccentricity, 
-            argPerigee, meanAnomaly, meanMotion);
-        
-        // Aggiungi checksum
-        int checksum = calculateChecksum(line2);
-        line2 += checksum;
-        
-        return line2;
+    public static String[] buildTLE(Long noradId, String satelliteName, OrbitalParameters params) {
+        TLE tle = toOrekitTLE(noradId, params);
+        return new String[] {
+            satelliteName,
+            tle.getLine1(),
+            tle.getLine2()
+        };
     }
 
     /**
-     * Formatta l'epoch nel formato TLE (YY DDD.DDDDDDDD)
+     * Crea direttamente l'oggetto TLE di Orekit dai parametri orbitali.
+     *
+     * I set salvati prima che B* e derivate del moto medio venissero memorizzati sono
+     * accettati con questi termini a zero: SGP4 li propaga senza resistenza atmosferica,
+     * un'approssimazione accettabile solo per propagazioni brevi, finché il gruppo non viene
+     * riscaricato. Numero del set e numero di rivoluzioni mancanti valgono 999 e 0:
+     * compaiono solo nelle righe formattate e non influiscono sulla propagazione.
      */
-    private static String formatEpoch(String epoch) {
-        // L'epoch da Celestrak è già in formato simile
-        // Esempio: "2024-02-22T10:30:45.123Z"
-        // Dobbiamo convertirlo in: "24045.12345678" (anno giorno.frazione)
-        
-        try {
-            // Parsing semplificato - in produzione usare un parser più robusto
-            if (epoch.contains("-")) {
-                String[] parts = epoch.split("-");
-                String year = parts[0].substring(2); // ultime 2 cifre
-                // Per ora usiamo un placeholder
-                return year + "045.12345678";
-            }
-            return epoch;
-        } catch (Exception e) {
-            return "24001.00000000";
-        }
+    public static TLE toOrekitTLE(Long noradId, OrbitalParameters params) {
+        Epoch epoch = epochOf(params.getEpoch());
+        return new TLE(
+            (int) (long) noradId, 'U',
+            // Designatore internazionale: non usato dalla propagazione
+            epoch.year(), 0, "",
+            TLE.DEFAULT, valueOr(params.getElementSetNo(), UNKNOWN_ELEMENT_SET), epoch.date(),
+            params.getMeanMotion() * MEAN_MOTION,
+            valueOr(params.getMeanMotionDot(), 0.0) * MEAN_MOTION_DOT,
+            valueOr(params.getMeanMotionDdot(), 0.0) * MEAN_MOTION_DDOT,
+            params.getEccentricity(),
+            FastMath.toRadians(params.getInclination()),
+            FastMath.toRadians(params.getArgOfPericenter()),
+            FastMath.toRadians(params.getRaOfAscNode()),
+            FastMath.toRadians(params.getMeanAnomaly()),
+            valueOr(params.getRevAtEpoch(), 0),
+            valueOr(params.getBstar(), 0.0));
     }
 
     /**
-     * Calcola il checksum per una linea TLE
-     * Somma di tutte le cifre, con '-' = 1
+     * Epoca OMM di Celestrak (es. "2024-02-22T10:30:45.123456", UTC), dal cache se già vista
      */
-    private static int calculateChecksum(String line) {
-        int sum = 0;
-        for (int i = 0; i < Math.min(line.length(), 68); i++) {
-            char c = line.charAt(i);
-            if (Character.isDigit(c)) {
-                sum += Character.getNumericValue(c);
-            } else if (c == '-') {
-                sum += 1;
-            }
+    private static Epoch epochOf(String epoch) {
+        Epoch cached = EPOCHS.get(epoch);
+        if (cached != null) {
+            return cached;
         }
-        return sum % 10;
+
+        String value = epoch.endsWith("Z") ? epoch.substring(0, epoch.length() - 1) : epoch;
+        AbsoluteDate date = new AbsoluteDate(value, TimeScalesFactory.getUTC());
+        Epoch parsed = new Epoch(date, date.getComponents(TimeScalesFactory.getUTC()).getDate().getYear());
+
+        if (EPOCHS.size() >= MAX_CACHED_EPOCHS) {
+            EPOCHS.clear();
+        }
+        EPOCHS.put(epoch, parsed);
+        return parsed;
     }
 
-    /**
-     * Crea un TLE completo (entrambe le linee)
-     */
-    public static String[] buildTLE(Long noradId, String satelliteName, OrbitalParameters params) {
-        return new String[] {
-            satelliteName,
-            buildLine1(noradId, params.getEpoch()),
-            buildLine2(noradId, params)
-        };
+    private static double valueOr(Double value, double fallback) {
+        return value != null ? value : fallback;
+    }
+
+    private static int valueOr(Integer value, int fallback) {
+        return value != null ? value : fallback;
     }
 }
@@ -0,0 +1,307 @@
+package com.satelliteTracking.service;
+
+import com.satelliteTracking.dto.CelestrakSatelliteDTO;
+import com.satelliteTracking.model.CelestrakGroupState;
+import com.satelliteTracking.repository.CelestrakGroupStateRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Aggiornamento dei gruppi contro un server HTTP locale che imita gp.php di Celestrak:
+ * ETag e risposte 304, intervallo di aggiornamento per gruppo e gruppi che falliscono.
+ * Il database è sostituito da mock: stati dei gruppi in memoria e scrittura registrata.
+ */
+class CelestrakServiceTest {
+
+    private static final String LAST_MODIFIED = "Wed, 21 Feb 2024 10:00:00 GMT";
+    private static final int SATELLITES_PER_GROUP = 3;
+
+    private final List<String> groups = CelestrakService.groupNames();
+
+    // Stato del server: ETag corrente e gruppi che rispondono 500; richieste ricevute
+    private final Map<String, String> etags = new ConcurrentHashMap<>();
+    private final Set<String> failing = ConcurrentHashMap.newKeySet();
+    private final List<String> requested = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, String> receivedIfNoneMatch = new ConcurrentHashMap<>();
+
+    // "Database": stati dei gruppi e satelliti scritti per gruppo
+    private final Map<String, CelestrakGroupState> states = new ConcurrentHashMap<>();
+    private final Map<String, Integer> written = new ConcurrentHashMap<>();
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private MutableClock clock;
+    private CatalogBulkWriter bulkWriter;
+    private CatalogBulkWriter.Stage stage;
+    private SatelliteCatalogService catalogService;
+    private CelestrakService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/NORAD/elements/gp.php", this::handle);
+        serverExecutor = Executors.newFixedThreadPool(4);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        clock = new MutableClock(Instant.parse("2024-02-22T12:00:00Z"));
+
+        stage = mock(CatalogBulkWriter.Stage.class);
+        bulkWriter = mock(CatalogBulkWriter.class);
+        when(bulkWriter.beginStage(any())).thenReturn(stage);
+        when(bulkWriter.writeGroup(any(), anyString(), anyList(), anyList(), anySet())).thenAnswer(invocation -> {
+            String group = invocation.getArgument(1);
+            List<CelestrakSatelliteDTO> satellites = invocation.getArgument(3);
+            written.merge(group, satellites.size(), Integer::sum);
+            return new CatalogBulkWriter.GroupWriteResult(satellites.size(), 0, 0, 0, satellites.size(), 1);
+        });
+        when(bulkWriter.publish(any(), anyInt(), anyInt())).thenReturn(true);
+
+        CelestrakGroupStateRepository repository = mock(CelestrakGroupStateRepository.class);
+        when(repository.findAll()).thenAnswer(invocation -> new ArrayList<>(states.values()));
+        when(repository.save(any(CelestrakGroupState.class))).thenAnswer(invocation -> {
+            CelestrakGroupState state = invocation.getArgument(0);
+            states.put(state.getGroupName(), state);
+            return state;
+        });
+
+        catalogService = mock(SatelliteCatalogService.class);
+
+        // Blocchi da 2 satelliti: ogni gruppo arriva in più blocchi
+        service = new CelestrakService(bulkWriter, catalogService, repository, clock,
+                                       "http://localhost:" + server.getAddress().getPort(), 4, 4, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void firstRefreshDownloadsEveryGroupAndRetriesOnlyTheFailedOne() {
+        failing.add("weather");
+
+        CelestrakService.RefreshSummary summary = service.fetchAndSaveStations(false);
+
+        assertEquals(new HashSet<>(groups), new HashSet<>(requested));
+        assertEquals(groups.size() - 1, summary.downloadedGroups());
+        assertEquals(0, summary.notModifiedGroups());
+        assertEquals(0, summary.skippedGroups());
+        assertEquals(List.of("weather"), summary.failedGroups());
+        assertEquals((groups.size() - 1) * SATELLITES_PER_GROUP, summary.newSatellites());
+
+        // Il gruppo fallito non salva lo stato e non viene pubblicato
+        assertFalse(states.containsKey("weather"));
+        verify(bulkWriter).discardGroup(stage, "weather");
+        verify(bulkWriter, never()).discardGroup(any(), eq("stations"));
+        verify(catalogService).reload();
+
+        CelestrakGroupState stations = states.get("stations");
+        assertEquals("\"stations-1\"", stations.getEtag());
+        assertEquals(LAST_MODIFIED, stations.getLastModified());
+        assertEquals(200, stations.getLastStatus());
+        assertEquals(SATELLITES_PER_GROUP, stations.getSatelliteCount());
+        assertEquals(now(), stations.getLastCheckedAt());
+        assertEquals(SATELLITES_PER_GROUP, written.get("stations"));
+
+        // Al controllo successivo il gruppo fallito è di nuovo da scaricare, gli altri no
+        failing.clear();
+        requested.clear();
+        clock.advance(Duration.ofMinutes(60));
+        summary = service.fetchAndSaveStations(false);
+
+        assertEquals(List.of("weather"), requested);
+        assertEquals(1, summary.downloadedGroups());
+        assertEquals(groups.size() - 1, summary.skippedGroups());
+        assertTrue(summary.failedGroups().isEmpty());
+        assertEquals("\"weather-1\"", states.get("weather").getEtag());
+    }
+
+    @Test
+    void dueGroupsSendValidatorsAndUnchangedGroupsAnswerNotModified() {
+        service.fetchAndSaveStations(false);
+        LocalDateTime firstDownload = now();
+        written.clear();
+        requested.clear();
+
+        // Dopo 3 ore scadono solo i gruppi con intervallo di 3 ore; starlink nel frattempo è cambiato
+        clock.advance(Duration.ofHours(3));
+        etags.put("starlink", "\"starlink-2\"");
+        CelestrakService.RefreshSummary summary = service.fetchAndSaveStations(false);
+
+        assertEquals(Set.of("stations", "starlink"), new HashSet<>(requested));
+        assertEquals("\"stations-1\"", receivedIfNoneMatch.get("stations"));
+        assertEquals("\"starlink-1\"", receivedIfNoneMatch.get("starlink"));
+        assertEquals(1, summary.notModifiedGroups());
+        assertEquals(1, summary.downloadedGroups());
+        assertEquals(groups.size() - 2, summary.skippedGroups());
+
+        // 304: nessuna scrittura, controllo registrato, validatori e data di download invariati
+        assertNull(written.get("stations"));
+        CelestrakGroupState stations = states.get("stations");
+        assertEquals(304, stations.getLastStatus());
+        assertEquals(now(), stations.getLastCheckedAt());
+        assertEquals(firstDownload, stations.getLastDownloadedAt());
+        assertEquals("\"stations-1\"", stations.getEtag());
+
+        assertEquals(SATELLITES_PER_GROUP, written.get("starlink"));
+        assertEquals("\"starlink-2\"", states.get("starlink").getEtag());
+
+        // I gruppi con intervallo più lungo restano al primo controllo
+        assertEquals(firstDownload, states.get("geo").getLastCheckedAt());
+    }
+
+    @Test
+    void forcedRefreshChecksEveryGroupEvenBeforeItsInterval() {
+        service.fetchAndSaveStations(false);
+        requested.clear();
+        clock.advance(Duration.ofMinutes(30));
+
+        CelestrakService.RefreshSummary skipped = service.fetchAndSaveStations(false);
+        assertTrue(requested.isEmpty());
+        assertEquals(groups.size(), skipped.skippedGroups());
+
+        CelestrakService.RefreshSummary forced = service.fetchAndSaveStations(true);
+        assertEquals(new HashSet<>(groups), new HashSet<>(requested));
+        assertEquals(groups.size(), forced.notModifiedGroups());
+        assertEquals(0, forced.newSatellites());
+    }
+
+    // ==================== Server di prova ====================
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String group = queryParameter(exchange.getRequestURI().getQuery(), "GROUP");
+            requested.add(group);
+            // Niente keep-alive: il server del JDK può chiudere una connessione riusata dopo un 304
+            exchange.getResponseHeaders().set("Connection", "close");
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            if (ifNoneMatch != null) {
+                receivedIfNoneMatch.put(group, ifNoneMatch);
+            }
+
+            if (failing.contains(group)) {
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            String etag = etags.computeIfAbsent(group, g -> "\"" + g + "-1\"");
+            exchange.getResponseHeaders().set("ETag", etag);
+            exchange.getResponseHeaders().set("Last-Modified", LAST_MODIFIED);
+            if (etag.equals(ifNoneMatch)) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            byte[] body = groupJson(group).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Array OMM JSON di un gruppo, con NORAD ID diversi per ogni gruppo
+     */
+    private String groupJson(String group) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < SATELLITES_PER_GROUP; i++) {
+            long noradId = 10000L + groups.indexOf(group) * 10L + i;
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"OBJECT_NAME\":\"").append(group.toUpperCase()).append(' ').append(i)
+                .append("\",\"OBJECT_ID\":\"2024-001A\",\"NORAD_CAT_ID\":").append(noradId)
+                .append(",\"EPOCH\":\"2024-02-22T10:30:45.123456\",\"INCLINATION\":53.0,")
+                .append("\"RA_OF_ASC_NODE\":120.0,\"ECCENTRICITY\":0.0001,\"ARG_OF_PERICENTER\":90.0,")
+                .append("\"MEAN_ANOMALY\":270.0,\"MEAN_MOTION\":15.06}");
+        }
+        return json.append(']').toString();
+    }
+
+    private static String queryParameter(String query, String name) {
+        for (String parameter : query.split("&")) {
+            if (parameter.startsWith(name + "=")) {
+                return parameter.substring(name.length() + 1);
+            }
+        }
+        return null;
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+
+    /**
+     * Orologio fermo che il test fa avanzare tra un aggiornamento e l'altro
+     */
+    private static final class MutableClock extends Clock {
+        private volatile Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
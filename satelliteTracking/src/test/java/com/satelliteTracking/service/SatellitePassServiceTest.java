@@ -0,0 +1,132 @@
+package com.satelliteTracking.service;
+
+import com.satelliteTracking.model.CatalogSnapshot;
+import com.satelliteTracking.model.ObserverLocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Riuso e scadenza delle fette del cache dei passaggi visibili, con un orologio controllato dal test.
+ * Catalogo e gruppi co-orbitali sono vuoti: la scansione non propaga nulla (e non servono
+ * i dati Orekit), i contatori del cache dicono quali fette sono state ricalcolate.
+ */
+class SatellitePassServiceTest {
+
+    private static final ObserverLocation OBSERVER = ObserverLocation.sanMarcellino();
+
+    private MutableClock clock;
+    private CatalogSnapshot snapshot;
+    private SatellitePassService passService;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-03-01T10:03:00Z"));
+        snapshot = snapshot(1);
+
+        SatelliteCatalogService catalogService = new SatelliteCatalogService(null, null, null, clock) {
+            @Override
+            public CatalogSnapshot getSnapshot() {
+                return snapshot;
+            }
+        };
+        CoOrbitalClusterService clusterService = new CoOrbitalClusterService(catalogService, clock) {
+            @Override
+            public ClusterIndex getIndex() {
+                return ClusterIndex.empty();
+            }
+        };
+        PassPrewarmService prewarmService = new PassPrewarmService(clock, 0.1, 20, 60.0, 2.0, 8.0);
+        // Griglia globale disabilitata: nessun indice, la scansione usa tutto il catalogo
+        PassGridService gridService = new PassGridService(catalogService, null, clock, false, 1.0, 12, 30, 10.0);
+        // Archivio condiviso disabilitato: ogni fetta viene dalla cache in memoria o dal calcolo
+        PassStoreService passStore = new PassStoreService(null, null, clock, false);
+        passService = new SatellitePassService(null, null, catalogService, clusterService, prewarmService,
+                                               gridService, passStore, clock, 10);
+    }
+
+    @Test
+    void repeatedRequestIsServedFromTheSameSlices() {
+        // 10:03 + 1 h: fette da 10:00 a 11:00 comprese
+        search();
+        assertCounters(0, 7, 7);
+
+        clock.advance(Duration.ofMinutes(5));
+        search();
+        assertCounters(7, 7, 7);
+    }
+
+    @Test
+    void windowRollingIntoANewSliceComputesOnlyThatSlice() {
+        search();
+
+        // 10:12: la fetta delle 10:00 è trascorsa, quella delle 11:10 è nuova
+        clock.advance(Duration.ofMinutes(9));
+        search();
+        assertCounters(6, 8, 7);
+    }
+
+    @Test
+    void newCatalogVersionInvalidatesEverySlice() {
+        search();
+
+        snapshot = snapshot(2);
+        search();
+        assertCounters(0, 14, 7);
+    }
+
+    private void search() {
+        passService.findVisibleUpcomingPasses(1, 10.0, OBSERVER, "any", 6.0);
+    }
+
+    private void assertCounters(long hits, long misses, int entries) {
+        Map<String, Object> status = passService.getCacheStatus();
+        assertEquals(hits, status.get("slice_hits"));
+        assertEquals(misses, status.get("slice_misses"));
+        assertEquals(entries, status.get("entries"));
+    }
+
+    private static CatalogSnapshot snapshot(long version) {
+        return new CatalogSnapshot(version, null, null, List.of(), Map.of());
+    }
+
+    /**
+     * Orologio UTC spostato in avanti dal test
+     */
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
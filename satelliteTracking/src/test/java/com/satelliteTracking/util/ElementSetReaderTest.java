@@ -0,0 +1,296 @@
+package com.satelliteTracking.util;
+
+import com.satelliteTracking.dto.CelestrakSatelliteDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ElementSetReaderTest {
+
+    // TLE di riferimento della ISS (epoca 2008-09-20 12:25:40.104192 UTC)
+    private static final String ISS_LINE_1 =
+        "1 25544U 98067A   08264.51782528 -.00002182  00000-0 -11606-4 0  2927";
+    private static final String ISS_LINE_2 =
+        "2 25544  51.6416 247.4627 0006703 130.5360 325.0288 15.72125391563537";
+
+    private static final double EPSILON = 1e-12;
+
+    // ==================== Decodifica dei byte ====================
+
+    @Test
+    void parseDecimalReadsSignsLeadingDotAndExponents() {
+        assertEquals(0.00012345, decimal(".00012345"), EPSILON);
+        assertEquals(-0.00002182, decimal("-.00002182"), EPSILON);
+        assertEquals(1.5, decimal("+1.5"), EPSILON);
+        assertEquals(51.6416, decimal("  51.6416  "), EPSILON);
+        assertEquals(15.72125391, decimal("15.72125391"), EPSILON);
+        assertEquals(42.0, decimal("42"), EPSILON);
+        assertEquals(1500.0, decimal("1.5e3"), EPSILON);
+        assertEquals(0.025, decimal("2.5E-2"), EPSILON);
+        assertEquals(-1.1606e-5, decimal("-.11606E-4"), EPSILON);
+        assertEquals(0.0, decimal("0.0"), 0.0);
+    }
+
+    @Test
+    void parseDecimalRejectsEmptyAndMalformedFields() {
+        assertTrue(Double.isNaN(decimal("")));
+        assertTrue(Double.isNaN(decimal("    ")));
+        assertTrue(Double.isNaN(decimal(".")));
+        assertTrue(Double.isNaN(decimal("-")));
+        assertTrue(Double.isNaN(decimal("1e")));
+        assertTrue(Double.isNaN(decimal("1.2.3")));
+        assertTrue(Double.isNaN(decimal("12a")));
+    }
+
+    @Test
+    void parseExponentialReadsCompactTleNotation() {
+        assertEquals(0.30151e-3, exponential(" 30151-3"), EPSILON);
+        assertEquals(-0.11606e-4, exponential("-11606-4"), EPSILON);
+        assertEquals(0.12345e1, exponential("+12345+1"), EPSILON);
+        assertEquals(0.0, exponential(" 00000-0"), 0.0);
+        assertEquals(0.0, exponential(" 00000+0"), 0.0);
+        assertTrue(Double.isNaN(exponential(" 3015x-3")));
+        assertTrue(Double.isNaN(exponential(" 30151*3")));
+        assertTrue(Double.isNaN(exponential("-3")));
+    }
+
+    @Test
+    void parseImpliedDecimalPutsThePointBeforeTheFirstDigit() {
+        assertEquals(0.0006703, implied("0006703"), EPSILON);
+        assertEquals(0.1234567, implied("1234567"), EPSILON);
+        assertEquals(0.0, implied("0000000"), 0.0);
+        assertTrue(Double.isNaN(implied("       ")));
+        assertTrue(Double.isNaN(implied("00-6703")));
+    }
+
+    @Test
+    void parseNoradIdReadsNumericAndAlpha5Ids() {
+        assertEquals(25544, noradId("25544"));
+        assertEquals(5, noradId("    5"));
+        assertEquals(100000, noradId("A0000"));
+        assertEquals(181234, noradId("J1234"));   // la I è saltata
+        assertEquals(230001, noradId("P0001"));   // I e O sono saltate
+        assertEquals(339999, noradId("Z9999"));
+        assertEquals(-1, noradId("I0000"));
+        assertEquals(-1, noradId("O0000"));
+        assertEquals(-1, noradId("2A544"));
+    }
+
+    // ==================== TLE / 3LE ====================
+
+    @Test
+    void readsThreeLineElementSet() throws IOException {
+        List<CelestrakSatelliteDTO> read = new ArrayList<>();
+        int rejected = read("ISS (ZARYA)\n" + ISS_LINE_1 + "\n" + ISS_LINE_2 + "\n",
+                            ElementSetReader.Format.TLE, read);
+
+        assertEquals(0, rejected);
+        assertEquals(1, read.size());
+        CelestrakSatelliteDTO iss = read.get(0);
+        assertEquals("ISS (ZARYA)", iss.objectName());
+        assertEquals("1998-067A", iss.objectId());
+        assertEquals(25544L, iss.noradCatId());
+        assertEquals("2008-09-20T12:25:40.104192", iss.epoch());
+        assertEquals(51.6416, iss.inclination(), EPSILON);
+        assertEquals(247.4627, iss.raOfAscNode(), EPSILON);
+        assertEquals(0.0006703, iss.eccentricity(), EPSILON);
+        assertEquals(130.5360, iss.argOfPericenter(), EPSILON);
+        assertEquals(325.0288, iss.meanAnomaly(), EPSILON);
+        assertEquals(15.72125391, iss.meanMotion(), EPSILON);
+        assertEquals(-0.00002182, iss.meanMotionDot(), EPSILON);
+        assertEquals(0.0, iss.meanMotionDdot(), 0.0);
+        assertEquals(-0.11606e-4, iss.bstar(), EPSILON);
+        assertEquals(292, iss.elementSetNo());
+        assertEquals(56353, iss.revAtEpoch());
+    }
+
+    @Test
+    void readsTwoLineSetsAndZeroPrefixedNameLinesWithCrLf() throws IOException {
+        String alpha5Line1 = "1 A0001U 24001B   24053.43802226  .00001000  00000+0  10000-3 0  9990";
+        String alpha5Line2 = "2 A0001  97.5000 120.0000 0012345  80.0000 280.0000 15.00000000   123";
+        List<CelestrakSatelliteDTO> read = new ArrayList<>();
+        int rejected = read(ISS_LINE_1 + "\r\n" + ISS_LINE_2 + "\r\n\r\n" +
+                            "0 TEST SAT\r\n" + alpha5Line1 + "\r\n" + alpha5Line2 + "\r\n",
+                            ElementSetReader.Format.TLE, read);
+
+        assertEquals(0, rejected);
+        assertEquals(2, read.size());
+        assertNull(read.get(0).objectName());
+        assertEquals(25544L, read.get(0).noradCatId());
+
+        CelestrakSatelliteDTO alpha5 = read.get(1);
+        assertEquals("TEST SAT", alpha5.objectName());
+        assertEquals(100001L, alpha5.noradCatId());
+        assertEquals("2024-001B", alpha5.objectId());
+        // Giorno 53.43802226 del 2024: 22 febbraio, 10:30:45.123264
+        assertEquals("2024-02-22T10:30:45.123264", alpha5.epoch());
+        assertEquals(0.1e-3, alpha5.bstar(), EPSILON);
+        assertEquals(999, alpha5.elementSetNo());
+        assertEquals(12, alpha5.revAtEpoch());
+    }
+
+    @Test
+    void rejectsUnpairedAndMismatchedLines() throws IOException {
+        String otherLine2 = "2 25545  51.6416 247.4627 0006703 130.5360 325.0288 15.72125391563537";
+        List<CelestrakSatelliteDTO> read = new ArrayList<>();
+        int rejected = read("ORPHAN\n" + ISS_LINE_1 + "\nNEXT\n" +
+                            ISS_LINE_1 + "\n" + otherLine2 + "\n" +
+                            "ISS (ZARYA)\n" + ISS_LINE_1 + "\n" + ISS_LINE_2 + "\n" +
+                            ISS_LINE_1 + "\n",
+                            ElementSetReader.Format.TLE, read);
+
+        // Riga 1 senza riga 2, NORAD ID diversi tra le righe e riga 1 finale senza seguito
+        assertEquals(3, rejected);
+        assertEquals(1, read.size());
+        assertEquals("ISS (ZARYA)", read.get(0).objectName());
+    }
+
+    @Test
+    void convertsTwentiethCenturyEpochsAndDesignators() throws IOException {
+        String line1 = "1 00005U 58002B   99365.50000000  .00000023  00000-0  28098-4 0  4753";
+        String line2 = "2 00005  34.2682 348.7242 1859667 331.7664  19.3264 10.82419157413667";
+        List<CelestrakSatelliteDTO> read = new ArrayList<>();
+        read(line1 + "\n" + line2 + "\n", ElementSetReader.Format.TLE, read);
+
+        assertEquals(1, read.size());
+        assertEquals(5L, read.get(0).noradCatId());
+        assertEquals("1958-002B", read.get(0).objectId());
+        assertEquals("1999-12-31T12:00:00.000000", read.get(0).epoch());
+        assertEquals(0.1859667, read.get(0).eccentricity(), EPSILON);
+    }
+
+    // ==================== OMM CSV ====================
+
+    @Test
+    void readsCsvWithQuotedFieldsAndColumnsInAnyOrder() throws IOException {
+        String csv =
+            "\"NORAD_CAT_ID\",EPOCH,OBJECT_NAME,MEAN_MOTION,ECCENTRICITY,INCLINATION,RA_OF_ASC_NODE," +
+            "ARG_OF_PERICENTER,MEAN_ANOMALY,BSTAR,OBJECT_ID\r\n" +
+            "25544,2008-09-20T12:25:40.104192,\"ISS (ZARYA), MODULE\",15.72125391,.0006703,51.6416," +
+            "247.4627,130.5360,325.0288,-.11606E-4,1998-067A\r\n" +
+            // MEAN_ANOMALY vuota: record scartato
+            "25545,2008-09-20T12:25:40.104192,BROKEN,15.7,.0006,51.6,247.4,130.5,,0,1998-067B\r\n";
+        List<CelestrakSatelliteDTO> read = new ArrayList<>();
+        int rejected = read(csv, ElementSetReader.Format.OMM_CSV, read);
+
+        assertEquals(1, rejected);
+        assertEquals(1, read.size());
+        CelestrakSatelliteDTO iss = read.get(0);
+        assertEquals("ISS (ZARYA), MODULE", iss.objectName());
+        assertEquals("1998-067A", iss.objectId());
+        assertEquals(25544L, iss.noradCatId());
+        assertEquals("2008-09-20T12:25:40.104192", iss.epoch());
+        assertEquals(15.72125391, iss.meanMotion(), EPSILON);
+        assertEquals(0.0006703, iss.eccentricity(), EPSILON);
+        assertEquals(51.6416, iss.inclination(), EPSILON);
+        assertEquals(325.0288, iss.meanAnomaly(), EPSILON);
+        assertEquals(-0.11606e-4, iss.bstar(), EPSILON);
+        // Colonne assenti dall'intestazione
+        assertNull(iss.meanMotionDot());
+        assertNull(iss.elementSetNo());
+    }
+
+    // ==================== OMM JSON e XML ====================
+
+    @Test
+    void rejectsJsonRecordsWithMissingRequiredFields() throws IOException {
+        String json = "[" +
+            ommJson(25544, "\"EPOCH\":\"2008-09-20T12:25:40.104192\",", "\"MEAN_MOTION\":15.72125391") + "," +
+            ommJson(25545, "", "\"MEAN_MOTION\":15.7") + "," +                                   // senza epoca
+            ommJson(25546, "\"EPOCH\":\"2008-09-20T12:25:40.104192\",", "\"BSTAR\":0.0001") +   // senza moto medio
+            "]";
+        List<CelestrakSatelliteDTO> read = new ArrayList<>();
+        int rejected = read(json, ElementSetReader.Format.OMM_JSON, read);
+
+        assertEquals(2, rejected);
+        assertEquals(1, read.size());
+        assertEquals(25544L, read.get(0).noradCatId());
+        assertEquals(15.72125391, read.get(0).meanMotion(), EPSILON);
+    }
+
+    @Test
+    void rejectsXmlRecordsWithMissingRequiredFields() throws IOException {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<ndm>" +
+            ommXml("<NORAD_CAT_ID>25544</NORAD_CAT_ID>", "<EPOCH>2008-09-20T12:25:40.104192Z</EPOCH>") +
+            ommXml("", "<EPOCH>2008-09-20T12:25:40.104192</EPOCH>") +           // senza NORAD ID
+            ommXml("<NORAD_CAT_ID>25546</NORAD_CAT_ID>", "") +                  // senza epoca
+            "</ndm>";
+        List<CelestrakSatelliteDTO> read = new ArrayList<>();
+        int rejected = read(xml, ElementSetReader.Format.OMM_XML, read);
+
+        assertEquals(2, rejected);
+        assertEquals(1, read.size());
+        CelestrakSatelliteDTO iss = read.get(0);
+        assertEquals("ISS (ZARYA)", iss.objectName());
+        assertEquals(25544L, iss.noradCatId());
+        // Epoca senza "Z", come nel JSON di Celestrak
+        assertEquals("2008-09-20T12:25:40.104192", iss.epoch());
+        assertEquals(-0.11606e-4, iss.bstar(), EPSILON);
+        assertEquals(292, iss.elementSetNo());
+    }
+
+    @Test
+    void formatFromParameterOrExtension() {
+        assertEquals(ElementSetReader.Format.TLE, ElementSetReader.Format.fromString("3le"));
+        assertEquals(ElementSetReader.Format.OMM_JSON, ElementSetReader.Format.fromString(" JSON "));
+        assertEquals(ElementSetReader.Format.OMM_CSV, ElementSetReader.Format.fromFileName("active.csv"));
+        assertEquals(ElementSetReader.Format.OMM_XML, ElementSetReader.Format.fromFileName("gp.2024.xml"));
+        assertNull(ElementSetReader.Format.fromFileName("catalog"));
+        assertNull(ElementSetReader.Format.fromString("yaml"));
+    }
+
+    // ==================== Supporto ====================
+
+    private static int read(String content, ElementSetReader.Format format,
+                            List<CelestrakSatelliteDTO> read) throws IOException {
+        return ElementSetReader.read(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+                                     format, read::add);
+    }
+
+    private static String ommJson(long noradId, String epoch, String last) {
+        return "{\"OBJECT_NAME\":\"SAT " + noradId + "\",\"OBJECT_ID\":\"1998-067A\"," + epoch +
+               "\"NORAD_CAT_ID\":" + noradId + ",\"INCLINATION\":51.6416,\"RA_OF_ASC_NODE\":247.4627," +
+               "\"ECCENTRICITY\":0.0006703,\"ARG_OF_PERICENTER\":130.536,\"MEAN_ANOMALY\":325.0288," + last + "}";
+    }
+
+    private static String ommXml(String noradId, String epoch) {
+        return "<omm id=\"CCSDS_OMM_VERS\" version=\"2.0\"><body><segment>" +
+               "<metadata><OBJECT_NAME>ISS (ZARYA)</OBJECT_NAME><OBJECT_ID>1998-067A</OBJECT_ID></metadata>" +
+               "<data><meanElements>" + epoch +
+               "<MEAN_MOTION>15.72125391</MEAN_MOTION><ECCENTRICITY>.0006703</ECCENTRICITY>" +
+               "<INCLINATION>51.6416</INCLINATION><RA_OF_ASC_NODE>247.4627</RA_OF_ASC_NODE>" +
+               "<ARG_OF_PERICENTER>130.5360</ARG_OF_PERICENTER><MEAN_ANOMALY>325.0288</MEAN_ANOMALY>" +
+               "</meanElements><tleParameters>" + noradId +
+               "<ELEMENT_SET_NO>292</ELEMENT_SET_NO><REV_AT_EPOCH>56353</REV_AT_EPOCH>" +
+               "<BSTAR>-.11606E-4</BSTAR><MEAN_MOTION_DOT>-.00002182</MEAN_MOTION_DOT>" +
+               "<MEAN_MOTION_DDOT>0</MEAN_MOTION_DDOT></tleParameters></data></segment></body></omm>";
+    }
+
+    private static double decimal(String field) {
+        byte[] bytes = field.getBytes(StandardCharsets.US_ASCII);
+        return ElementSetReader.parseDecimal(bytes, 0, bytes.length);
+    }
+
+    private static double exponential(String field) {
+        byte[] bytes = field.getBytes(StandardCharsets.US_ASCII);
+        return ElementSetReader.parseExponential(bytes, 0, bytes.length);
+    }
+
+    private static double implied(String field) {
+        byte[] bytes = field.getBytes(StandardCharsets.US_ASCII);
+        return ElementSetReader.parseImpliedDecimal(bytes, 0, bytes.length);
+    }
+
+    private static long noradId(String field) {
+        byte[] bytes = field.getBytes(StandardCharsets.US_ASCII);
+        return ElementSetReader.parseNoradId(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,103 @@
+package com.satelliteTracking.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatLonGridTest {
+
+    // Griglia da 10°: 18 righe × 36 colonne
+    private final LatLonGrid<String> grid = new LatLonGrid<>(10.0);
+
+    // ==================== Indici delle celle ====================
+
+    @Test
+    void antimeridianWrapsToTheSameColumn() {
+        assertEquals(grid.cellOf(45.0, -180.0), grid.cellOf(45.0, 180.0));
+        assertEquals(grid.cellOf(45.0, -175.0), grid.cellOf(45.0, 185.0));
+        assertEquals(grid.cellOf(45.0, 175.0), grid.cellOf(45.0, -185.0));
+        assertNotEquals(grid.cellOf(45.0, 179.9), grid.cellOf(45.0, -179.9));
+    }
+
+    @Test
+    void polesFallInTheFirstAndLastRow() {
+        assertEquals(648, grid.getCellCount());
+        assertEquals(0, grid.cellOf(-90.0, -180.0));
+        assertEquals(17 * 36, grid.cellOf(90.0, -180.0));
+        assertEquals(grid.cellOf(89.9, 0.0), grid.cellOf(90.0, 0.0));
+        assertEquals(-85.0, grid.cellCenterLatitude(grid.cellOf(-90.0, 0.0)), 1e-9);
+        assertEquals(85.0, grid.cellCenterLatitude(grid.cellOf(90.0, 0.0)), 1e-9);
+    }
+
+    @Test
+    void cellCenterIsInsideTheCell() {
+        int cell = grid.cellOf(41.3, 14.2);
+        assertEquals(45.0, grid.cellCenterLatitude(cell), 1e-9);
+        assertEquals(15.0, grid.cellCenterLongitude(cell), 1e-9);
+        assertEquals(cell, grid.cellOf(grid.cellCenterLatitude(cell), grid.cellCenterLongitude(cell)));
+    }
+
+    // ==================== Aggiornamenti ====================
+
+    @Test
+    void moveChangesCellOnlyWhenThePointLeavesIt() {
+        int cell = grid.add("ISS", 41.0, 14.0);
+        assertEquals(cell, grid.move("ISS", cell, 42.0, 15.0));
+        assertTrue(grid.itemsIn(cell).contains("ISS"));
+
+        int newCell = grid.move("ISS", cell, 41.0, -178.0);
+        assertNotEquals(cell, newCell);
+        assertFalse(grid.itemsIn(cell).contains("ISS"));
+        assertTrue(grid.itemsIn(newCell).contains("ISS"));
+
+        grid.remove("ISS", newCell);
+        assertTrue(grid.itemsIn(newCell).isEmpty());
+    }
+
+    // ==================== Ricerca per raggio ====================
+
+    @Test
+    void queryCrossesTheAntimeridian() {
+        grid.add("EAST", 0.0, 178.0);
+        grid.add("WEST", 0.0, -178.0);
+        grid.add("FAR", 0.0, 90.0);
+
+        Set<String> found = new HashSet<>();
+        grid.query(0.0, 179.0, 3.0, found::add);
+        assertEquals(Set.of("EAST", "WEST"), found);
+
+        found.clear();
+        grid.query(0.0, -179.0, 3.0, found::add);
+        assertEquals(Set.of("EAST", "WEST"), found);
+    }
+
+    @Test
+    void queryCoveringAPoleVisitsEveryLongitude() {
+        Set<Integer> cells = new HashSet<>();
+        grid.forEachCell(85.0, 0.0, 10.0, cells::add);
+
+        // Righe da 70° a 90°: tutte le colonne
+        assertEquals(2 * 36, cells.size());
+        assertTrue(cells.contains(grid.cellOf(89.0, 175.0)));
+        assertTrue(cells.contains(grid.cellOf(75.0, -175.0)));
+        assertFalse(cells.contains(grid.cellOf(65.0, 0.0)));
+    }
+
+    @Test
+    void querySpanMatchesTheCapWidthAtMidLatitude() {
+        Set<Integer> cells = new HashSet<>();
+        grid.forEachCell(0.0, 5.0, 4.0, cells::add);
+
+        // Una sola riga e le colonne che coprono ±4° di longitudine
+        assertTrue(cells.contains(grid.cellOf(0.0, 1.0)));
+        assertTrue(cells.contains(grid.cellOf(0.0, 9.0)));
+        assertFalse(cells.contains(grid.cellOf(0.0, 25.0)));
+        assertFalse(cells.contains(grid.cellOf(-15.0, 5.0)));
+    }
+}
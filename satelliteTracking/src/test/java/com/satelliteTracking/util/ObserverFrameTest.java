@@ -0,0 +1,59 @@
+package com.satelliteTracking.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ObserverFrameTest {
+
+    private static final double EPSILON = 1e-6;
+
+    private final double[] look = new double[3];
+
+    @Test
+    void pointAlongTheEllipsoidNormalIsAtZenith() {
+        ObserverFrame frame = new ObserverFrame(41.0, 14.3, 50.0);
+        double[] satellite = OrbitMath.geodeticToEcef(41.0, 14.3, 400050.0);
+
+        frame.lookAngles(satellite[0], satellite[1], satellite[2], look);
+        assertEquals(90.0, look[1], EPSILON);
+        assertEquals(400000.0, look[2], 1e-3);
+        assertEquals(90.0, frame.elevation(satellite[0], satellite[1], satellite[2]), EPSILON);
+    }
+
+    @Test
+    void azimuthIsMeasuredClockwiseFromNorth() {
+        // Osservatore in (0°, 0°): Est = +Y, Nord = +Z, Zenit = +X
+        ObserverFrame frame = new ObserverFrame(0.0, 0.0, 0.0);
+        double a = OrbitMath.WGS84_A;
+
+        frame.lookAngles(a, 0.0, 1.0e6, look);
+        assertEquals(0.0, look[0], EPSILON);
+        assertEquals(0.0, look[1], EPSILON);
+        assertEquals(1.0e6, look[2], EPSILON);
+
+        frame.lookAngles(a, 1.0e6, 0.0, look);
+        assertEquals(90.0, look[0], EPSILON);
+
+        frame.lookAngles(a, 0.0, -1.0e6, look);
+        assertEquals(180.0, look[0], EPSILON);
+
+        frame.lookAngles(a, -1.0e6, 0.0, look);
+        assertEquals(270.0, look[0], EPSILON);
+
+        // 45° sopra l'orizzonte verso Est
+        frame.lookAngles(a + 1.0e6, 1.0e6, 0.0, look);
+        assertEquals(90.0, look[0], EPSILON);
+        assertEquals(45.0, look[1], EPSILON);
+    }
+
+    @Test
+    void rangeRateIsTheVelocityComponentAlongTheLineOfSight() {
+        ObserverFrame frame = new ObserverFrame(0.0, 0.0, 0.0);
+        double x = OrbitMath.WGS84_A + 1.0e6;
+
+        assertEquals(7000.0, frame.rangeRate(x, 0.0, 0.0, 7000.0, 0.0, 0.0), EPSILON);
+        assertEquals(-7000.0, frame.rangeRate(x, 0.0, 0.0, -7000.0, 0.0, 0.0), EPSILON);
+        assertEquals(0.0, frame.rangeRate(x, 0.0, 0.0, 0.0, 7000.0, 0.0), EPSILON);
+    }
+}
@@ -0,0 +1,59 @@
+package com.satelliteTracking.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrbitMathTest {
+
+    private static final double EPSILON = 1e-6;
+
+    @Test
+    void geodeticToEcefOnTheEquatorAndAtThePole() {
+        double[] equator = OrbitMath.geodeticToEcef(0.0, 0.0, 0.0);
+        assertEquals(OrbitMath.WGS84_A, equator[0], EPSILON);
+        assertEquals(0.0, equator[1], EPSILON);
+        assertEquals(0.0, equator[2], EPSILON);
+
+        double[] east = OrbitMath.geodeticToEcef(0.0, 90.0, 1000.0);
+        assertEquals(0.0, east[0], EPSILON);
+        assertEquals(OrbitMath.WGS84_A + 1000.0, east[1], EPSILON);
+
+        // Semiasse polare b = a·(1 − f)
+        double[] pole = OrbitMath.geodeticToEcef(90.0, 0.0, 0.0);
+        assertEquals(0.0, pole[0], EPSILON);
+        assertEquals(OrbitMath.WGS84_A * (1.0 - OrbitMath.WGS84_F), pole[2], 1e-3);
+    }
+
+    @Test
+    void visibilityRadiusShrinksWithElevation() {
+        // ISS a 400 km vista all'orizzonte: acos(6371 / 6771) ≈ 19.8°
+        double horizon = OrbitMath.visibilityRadiusDeg(400.0, 0.0);
+        assertEquals(Math.toDegrees(Math.acos(6371.0 / 6771.0)), horizon, EPSILON);
+
+        double tenDegrees = OrbitMath.visibilityRadiusDeg(400.0, 10.0);
+        assertTrue(tenDegrees < horizon);
+        assertTrue(OrbitMath.visibilityRadiusDeg(35786.0, 10.0) > tenDegrees);
+        assertEquals(0.0, OrbitMath.visibilityRadiusDeg(400.0, 90.0), EPSILON);
+        assertEquals(0.0, OrbitMath.visibilityRadiusDeg(0.0, 10.0), 0.0);
+    }
+
+    @Test
+    void angularDistanceAcrossTheAntimeridian() {
+        assertEquals(90.0, OrbitMath.angularDistanceDeg(0.0, 0.0, 0.0, 90.0), EPSILON);
+        assertEquals(2.0, OrbitMath.angularDistanceDeg(0.0, 179.0, 0.0, -179.0), EPSILON);
+        assertEquals(180.0, OrbitMath.angularDistanceDeg(90.0, 0.0, -90.0, 0.0), EPSILON);
+        assertEquals(0.0, OrbitMath.angularDistanceDeg(41.0, 14.0, 41.0, 14.0), EPSILON);
+    }
+
+    @Test
+    void normalizeLongitudeIntoHalfOpenRange() {
+        assertEquals(-180.0, OrbitMath.normalizeLongitude(180.0), EPSILON);
+        assertEquals(-180.0, OrbitMath.normalizeLongitude(-180.0), EPSILON);
+        assertEquals(-170.0, OrbitMath.normalizeLongitude(190.0), EPSILON);
+        assertEquals(170.0, OrbitMath.normalizeLongitude(-190.0), EPSILON);
+        assertEquals(-180.0, OrbitMath.normalizeLongitude(540.0), EPSILON);
+        assertEquals(14.0, OrbitMath.normalizeLongitude(14.0), EPSILON);
+    }
+}
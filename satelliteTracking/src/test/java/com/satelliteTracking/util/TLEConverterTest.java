@@ -0,0 +1,105 @@
+package com.satelliteTracking.util;
+
+import com.satelliteTracking.model.OrbitalParameters;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.orekit.propagation.analytical.tle.TLE;
+import org.orekit.time.DateComponents;
+import org.orekit.time.OffsetModel;
+import org.orekit.time.TimeScalesFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TLEConverterTest {
+
+    // TLE di riferimento della ISS, pubblicato da Celestrak per l'epoca 2008-09-20 12:25:40.104192 UTC
+    private static final String ISS_LINE_1 =
+        "1 25544U 98067A   08264.51782528 -.00002182  00000-0 -11606-4 0  2927";
+    private static final String ISS_LINE_2 =
+        "2 25544  51.6416 247.4627 0006703 130.5360 325.0288 15.72125391563537";
+
+    // Secondi intercalari (TAI-UTC) dal 1972: bastano per le epoche dei TLE, senza orekit-data
+    private static final int[][] LEAP_SECONDS = {
+        {1972, 1, 10}, {1972, 7, 11}, {1973, 1, 12}, {1974, 1, 13}, {1975, 1, 14}, {1976, 1, 15},
+        {1977, 1, 16}, {1978, 1, 17}, {1979, 1, 18}, {1980, 1, 19}, {1981, 7, 20}, {1982, 7, 21},
+        {1983, 7, 22}, {1985, 7, 23}, {1988, 1, 24}, {1990, 1, 25}, {1991, 1, 26}, {1992, 7, 27},
+        {1993, 7, 28}, {1994, 7, 29}, {1996, 1, 30}, {1997, 7, 31}, {1999, 1, 32}, {2006, 1, 33},
+        {2009, 1, 34}, {2012, 7, 35}, {2015, 7, 36}, {2017, 1, 37}
+    };
+
+    @BeforeAll
+    static void loadLeapSeconds() {
+        TimeScalesFactory.addUTCTAIOffsetsLoader(() -> {
+            List<OffsetModel> offsets = new ArrayList<>();
+            for (int[] leap : LEAP_SECONDS) {
+                offsets.add(new OffsetModel(new DateComponents(leap[0], leap[1], 1), leap[2]));
+            }
+            return offsets;
+        });
+    }
+
+    @Test
+    void buildsReferenceIssTleFromOmmElements() {
+        TLE tle = TLEConverter.toOrekitTLE(25544L, issOmm());
+
+        // Il designatore internazionale non è memorizzato: la riga 1 coincide dall'epoca in poi
+        assertEquals(ISS_LINE_1.substring(0, 9), tle.getLine1().substring(0, 9));
+        assertEquals(ISS_LINE_1.substring(17, 68), tle.getLine1().substring(17, 68));
+        assertEquals(ISS_LINE_2, tle.getLine2());
+
+        assertEquals(2008, tle.getDate().getComponents(TimeScalesFactory.getUTC()).getDate().getYear());
+        assertEquals(-0.11606e-4, tle.getBStar(), 1e-15);
+        assertEquals(292, tle.getElementNumber());
+        assertEquals(56353, tle.getRevolutionNumberAtEpoch());
+    }
+
+    @Test
+    void elementSetsWithoutDragTermsUseZeroDragAndUnknownSetNumber() {
+        OrbitalParameters params = issOmm();
+        params.setBstar(null);
+        params.setMeanMotionDot(null);
+        params.setMeanMotionDdot(null);
+        params.setElementSetNo(null);
+        params.setRevAtEpoch(null);
+
+        String line1 = TLEConverter.toOrekitTLE(25544L, params).getLine1();
+
+        assertEquals("08264.51782528  .00000000  00000-0  00000-0 0  999", line1.substring(18, 68));
+    }
+
+    @Test
+    void epochIsParsedOnceAndReusedForTheSameElementSet() {
+        TLE first = TLEConverter.toOrekitTLE(25544L, issOmm());
+        TLE second = TLEConverter.toOrekitTLE(25544L, issOmm());
+
+        assertSame(first.getDate(), second.getDate());
+        assertEquals(ISS_LINE_1.substring(18, 32), second.getLine1().substring(18, 32));
+    }
+
+    @Test
+    void buildTleReturnsNameAndOrekitLines() {
+        String[] lines = TLEConverter.buildTLE(25544L, "ISS (ZARYA)", issOmm());
+
+        assertEquals(3, lines.length);
+        assertEquals("ISS (ZARYA)", lines[0]);
+        assertEquals(ISS_LINE_2, lines[2]);
+    }
+
+    /**
+     * Record OMM della ISS equivalente al TLE di riferimento
+     */
+    private static OrbitalParameters issOmm() {
+        OrbitalParameters params = new OrbitalParameters(null, "2008-09-20T12:25:40.104192", 51.6416, 247.4627,
+                                                         0.0006703, 130.5360, 325.0288, 15.72125391);
+        params.setBstar(-0.11606e-4);
+        params.setMeanMotionDot(-0.00002182);
+        params.setMeanMotionDdot(0.0);
+        params.setElementSetNo(292);
+        params.setRevAtEpoch(56353);
+        return params;
+    }
+}